@@ -1,94 +1,153 @@
 package eafit.caba_pro.agendar;
 
+import eafit.caba_pro.dto.PronosticoClimaDTO;
 import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.repository.PartidoJdbcRepository;
+import eafit.caba_pro.repository.PartidoJdbcRepository.ClimaPartido;
 import eafit.caba_pro.repository.PartidoRepository;
 import eafit.caba_pro.service.ClimaService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class WeatherUpdater {
 
-    @Autowired
-    private PartidoRepository partidoRepository;
-
-    @Autowired
-    private ClimaService ClimaService;
-
     // Coordenadas fijas para Medellín
     private static final double LATITUDE = 6.263469;
     private static final double LONGITUDE = -75.577089;
 
-    /**
-     * Ejecuta cada 6 horas (expresado en milisegundos: 6 * 60 * 60 * 1000)
-    */
+    private final PartidoRepository partidoRepository;
+    private final PartidoJdbcRepository partidoJdbcRepository;
+    private final ClimaService climaService;
+    private final Executor climaExecutor;
+    private final int diasPronostico;
+    private final long intervaloMinimoNanos;
+    private final MeterRegistry registry;
+    private final Counter partidosActualizados;
+    private final Counter consultasFallidas;
+
+    // Momento a partir del cual puede salir la siguiente llamada al API
+    private long proximaLlamada;
+
+    public WeatherUpdater(PartidoRepository partidoRepository, PartidoJdbcRepository partidoJdbcRepository,
+                          ClimaService climaService, @Qualifier("climaExecutor") Executor climaExecutor,
+                          @Value("${caba.clima.dias-pronostico:16}") int diasPronostico,
+                          @Value("${caba.clima.llamadas-por-segundo:5}") double llamadasPorSegundo,
+                          MeterRegistry registry) {
+        this.partidoRepository = partidoRepository;
+        this.partidoJdbcRepository = partidoJdbcRepository;
+        this.climaService = climaService;
+        this.climaExecutor = climaExecutor;
+        this.diasPronostico = diasPronostico;
+        this.intervaloMinimoNanos = (long) (1_000_000_000L / llamadasPorSegundo);
+        this.registry = registry;
+        this.partidosActualizados = Counter.builder("caba.clima.partidos_actualizados")
+            .description("Partidos con clima escrito por el actualizador").register(registry);
+        this.consultasFallidas = Counter.builder("caba.clima.actualizacion.fechas_fallidas")
+            .description("Fechas que el actualizador no pudo consultar").register(registry);
+    }
 
+    /**
+     * Ejecuta cada 6 horas (expresado en milisegundos: 6 * 60 * 60 * 1000).
+     * Solo se consultan los partidos no finalizados dentro de los días que cubre el pronóstico,
+     * con una llamada al API por fecha (todos los partidos son en Medellín).
+     * La duración de cada corrida queda en caba.clima.actualizacion, etiquetada por resultado.
+     */
     @Scheduled(fixedRate = 21600000)
     @EventListener(ApplicationReadyEvent.class)
     public void actualizarClimaDePartidos() {
+        Timer.Sample muestra = Timer.start(registry);
+        String resultado = "error";
+        try {
+            actualizar();
+            resultado = "ok";
+        } finally {
+            muestra.stop(Timer.builder("caba.clima.actualizacion").tag("resultado", resultado)
+                .description("Duración de la actualización periódica del clima").register(registry));
+        }
+    }
 
-        List<Partido> partidos = partidoRepository.findAll();
-
-        for (Partido partido : partidos) {
-            Map<String, Object> weatherData = ClimaService.getWeather(LATITUDE, LONGITUDE, partido.getFecha());
-
-            if (weatherData != null && weatherData.containsKey("hourly")) {
-                Map<String, Object> hourly = (Map<String, Object>) weatherData.get("hourly");
-
-                int hora = partido.getHora().getHour();
-                Object temperaturesObj = hourly.get("temperature_2m");
-                Object codesObj = hourly.get("weather_code");
-                
-                if (temperaturesObj instanceof List) {
-                    List<?> temperatures = (List<?>) temperaturesObj;
-                    if (!temperatures.isEmpty()) {
-                        Object temp = temperatures.get(hora);
-                        if (temp != null) {
-                            // Convertir el objeto a número
-                            if (temp instanceof Number) {
-                                partido.setTemperatura(((Number) temp).intValue());
-                            } else {
-                                // Si viene como String, parsearlo
-                                partido.setTemperatura(Integer.parseInt(temp.toString()));
-                            }
-                        }
-                    }
-                }
-
-                if (codesObj instanceof List) {
-                List<?> codes = (List<?>) codesObj;
-                if (!codes.isEmpty()) {
-                    Object code = codes.get(hora);
-                    if (code != null) {
-                        if (code instanceof Number) {
-                            partido.setClima(
-                                ClimaService.mapCode(((Number) code).intValue())
-                            );
-                        } else {
-                            partido.setClima(
-                                ClimaService.mapCode(Integer.parseInt(code.toString()))
-
-                            );
-                        }
-                    }
-                }
-            }
+    private void actualizar() {
+        LocalDate hoy = LocalDate.now();
+        List<Object[]> partidos = partidoRepository.findParaActualizarClima(
+                hoy, hoy.plusDays(diasPronostico - 1), Partido.EstadoPartido.FINALIZADO);
+
+        Map<LocalDate, List<Object[]>> porFecha = partidos.stream()
+                .collect(Collectors.groupingBy(fila -> (LocalDate) fila[1], TreeMap::new, Collectors.toList()));
 
-                partidoRepository.save(partido);
+        Map<LocalDate, CompletableFuture<PronosticoClimaDTO>> consultas = new TreeMap<>();
+        for (LocalDate fecha : porFecha.keySet()) {
+            consultas.put(fecha, CompletableFuture.supplyAsync(() -> consultar(fecha), climaExecutor));
+        }
+
+        List<ClimaPartido> cambios = new ArrayList<>();
+        porFecha.forEach((fecha, filas) -> {
+            PronosticoClimaDTO pronostico = consultas.get(fecha).join();
+            if (pronostico == null) return;
+
+            for (Object[] fila : filas) {
+                int hora = ((LocalTime) fila[2]).getHour();
+                double temperatura = pronostico.temperatura(hora);
+                int codigo = pronostico.codigo(hora);
+                if (Double.isNaN(temperatura) && codigo == PronosticoClimaDTO.SIN_CODIGO) continue;
+                cambios.add(new ClimaPartido((Long) fila[0],
+                        codigo != PronosticoClimaDTO.SIN_CODIGO ? climaService.mapCode(codigo) : null,
+                        Double.isNaN(temperatura) ? null : (int) temperatura));
             }
+        });
+
+        int actualizados = partidoJdbcRepository.actualizarClima(cambios);
+        partidosActualizados.increment(actualizados);
+        log.info("Clima actualizado: {} partidos, {} consultas al API", actualizados, consultas.size());
+    }
+
+    // Un fallo del API en una fecha no detiene la actualización de las demás
+    private PronosticoClimaDTO consultar(LocalDate fecha) {
+        try {
+            esperarTurno();
+            return climaService.getWeather(LATITUDE, LONGITUDE, fecha, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (RuntimeException e) {
+            consultasFallidas.increment();
+            log.warn("No se pudo consultar el clima del {}: {}", fecha, e.getMessage());
+            return null;
         }
+    }
 
-        log.info("Clima actualizado");
+    // Espacia el inicio de las llamadas para no pasar de caba.clima.llamadas-por-segundo
+    private void esperarTurno() throws InterruptedException {
+        long espera;
+        synchronized (this) {
+            long ahora = System.nanoTime();
+            long turno = Math.max(ahora, proximaLlamada);
+            proximaLlamada = turno + intervaloMinimoNanos;
+            espera = turno - ahora;
+        }
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
     }
 }
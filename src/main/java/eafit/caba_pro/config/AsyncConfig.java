@@ -0,0 +1,100 @@
+package eafit.caba_pro.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pools de hilos acotados para el trabajo en segundo plano de la aplicación.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Ejecuta los lotes de la generación de liquidaciones. La cola es acotada para que
+     * un periodo muy grande no acumule tareas sin límite en memoria.
+     */
+    @Bean(name = "liquidacionExecutor")
+    public ThreadPoolTaskExecutor liquidacionExecutor(@Value("${caba.liquidaciones.hilos:4}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("liquidacion-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Convierte el HTML de las liquidaciones a PDF fuera de los hilos de Tomcat. Cuando la cola
+     * se llena el pool rechaza la tarea (TaskRejectedException) y el controlador responde 503.
+     */
+    @Bean(name = "pdfExecutor")
+    public ThreadPoolTaskExecutor pdfExecutor(@Value("${caba.pdf.hilos:0}") int hilos,
+                                              @Value("${caba.pdf.cola:100}") int cola) {
+        int tamano = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(tamano);
+        executor.setMaxPoolSize(tamano);
+        executor.setQueueCapacity(cola);
+        executor.setThreadNamePrefix("pdf-");
+        return executor;
+    }
+
+    /**
+     * Resuelve en paralelo los días de la asignación automática de árbitros (trabajo de CPU).
+     */
+    @Bean(name = "asignacionExecutor")
+    public ThreadPoolTaskExecutor asignacionExecutor() {
+        int tamano = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(tamano);
+        executor.setMaxPoolSize(tamano);
+        executor.setThreadNamePrefix("asignacion-");
+        return executor;
+    }
+
+    /**
+     * Consultas concurrentes al API de clima. El tamaño del pool es el máximo de llamadas simultáneas.
+     */
+    @Bean(name = "climaExecutor")
+    public ThreadPoolTaskExecutor climaExecutor(@Value("${caba.clima.hilos:4}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setThreadNamePrefix("clima-");
+        return executor;
+    }
+
+    /**
+     * Vacía la cola de notificaciones confirmadas. Un solo hilo: los lotes salen en orden y
+     * solo hay una tarea de vaciado a la vez (DespachoNotificacionesService).
+     */
+    @Bean(name = "notificacionExecutor")
+    public ThreadPoolTaskExecutor notificacionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("notificacion-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Escribe los eventos SSE de notificaciones. Las conexiones inactivas no ocupan hilo; este pool
+     * solo trabaja cuando hay algo que enviar y hay a lo sumo una tarea por conexión en la cola.
+     */
+    @Bean(name = "sseExecutor")
+    public ThreadPoolTaskExecutor sseExecutor(@Value("${caba.sse.hilos:4}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("sse-");
+        return executor;
+    }
+}
@@ -1,8 +1,29 @@
 package eafit.caba_pro.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class WebClientConfig {
-    
+
+    /**
+     * Cliente para el API de clima. El HttpClient del JDK mantiene un pool de conexiones
+     * reutilizables; los timeouts evitan que un proveedor lento bloquee al actualizador.
+     */
+    @Bean(name = "climaRestTemplate")
+    public RestTemplate climaRestTemplate(@Value("${caba.clima.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                          @Value("${caba.clima.read-timeout-ms:5000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
+    }
 }
@@ -1,15 +1,22 @@
 package eafit.caba_pro.controller;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 
 import org.springframework.http.MediaType;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -22,25 +29,42 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import eafit.caba_pro.model.Arbitro;
 import eafit.caba_pro.model.Escalafon;
+import eafit.caba_pro.model.EstadisticaEquipo;
 import eafit.caba_pro.repository.EscalafonRepository;
 import eafit.caba_pro.service.LiquidacionService;
 import eafit.caba_pro.service.NotificacionService;
+import eafit.caba_pro.service.NotificacionesEnVivoService;
+import eafit.caba_pro.service.NotificacionesEnVivoService.Destino;
+import eafit.caba_pro.model.Notificacion;
 import eafit.caba_pro.model.Liquidacion;
+import eafit.caba_pro.model.TrabajoLiquidacion;
 import eafit.caba_pro.model.Equipo;
 import eafit.caba_pro.model.Partido;
 import eafit.caba_pro.model.Usuario;
+import eafit.caba_pro.dto.DashboardDTO;
 import eafit.caba_pro.service.ArbitroService;
+import eafit.caba_pro.service.DashboardService;
+import eafit.caba_pro.service.EstadisticasEquipoService;
+import eafit.caba_pro.service.AsignacionAutomaticaService;
 import eafit.caba_pro.service.EquipoService;
+import eafit.caba_pro.service.ExportacionLiquidacionesService;
+import eafit.caba_pro.service.FotoService.Variante;
 import eafit.caba_pro.service.EntrenadorService;
 import eafit.caba_pro.model.Entrenador;
 import eafit.caba_pro.service.PartidoService;
+import eafit.caba_pro.service.PdfCacheService;
 import eafit.caba_pro.service.PdfService;
+import eafit.caba_pro.service.TrabajoLiquidacionService;
 import jakarta.validation.Valid;
 
 @Controller
@@ -51,15 +75,22 @@ public class AdminController {
     private final PartidoService partidoService;
     private final LiquidacionService liquidacionService;
     private final PdfService pdfGeneratorService;
+    private final PdfCacheService pdfCacheService;
+    private final ExportacionLiquidacionesService exportacionLiquidacionesService;
     private final EquipoService equipoService;
     private final EntrenadorService entrenadorService;
     private final EscalafonRepository escalafonRepository;
     private final NotificacionService notificacionService;
+    private final TrabajoLiquidacionService trabajoLiquidacionService;
+    private final AsignacionAutomaticaService asignacionAutomaticaService;
+    private final DashboardService dashboardService;
+    private final EstadisticasEquipoService estadisticasEquipoService;
+    private final NotificacionesEnVivoService notificacionesEnVivoService;
 
     @Autowired
     private MessageSource messageSource;
 
-    public AdminController(NotificacionService notificacionService,EntrenadorService entrenadorService, EquipoService equipoService, PdfService pdfService ,LiquidacionService liquidacionService, ArbitroService arbitroService, PartidoService partidoService, EscalafonRepository escalafonRepository) {
+    public AdminController(NotificacionService notificacionService,EntrenadorService entrenadorService, EquipoService equipoService, PdfService pdfService ,LiquidacionService liquidacionService, ArbitroService arbitroService, PartidoService partidoService, EscalafonRepository escalafonRepository, TrabajoLiquidacionService trabajoLiquidacionService, PdfCacheService pdfCacheService, ExportacionLiquidacionesService exportacionLiquidacionesService, AsignacionAutomaticaService asignacionAutomaticaService, DashboardService dashboardService, EstadisticasEquipoService estadisticasEquipoService, NotificacionesEnVivoService notificacionesEnVivoService) {
         this.arbitroService = arbitroService;
         this.partidoService = partidoService;
         this.liquidacionService = liquidacionService;
@@ -68,37 +99,30 @@ public class AdminController {
         this.entrenadorService = entrenadorService;
         this.escalafonRepository = escalafonRepository;
         this.notificacionService = notificacionService;
+        this.trabajoLiquidacionService = trabajoLiquidacionService;
+        this.pdfCacheService = pdfCacheService;
+        this.exportacionLiquidacionesService = exportacionLiquidacionesService;
+        this.asignacionAutomaticaService = asignacionAutomaticaService;
+        this.dashboardService = dashboardService;
+        this.estadisticasEquipoService = estadisticasEquipoService;
+        this.notificacionesEnVivoService = notificacionesEnVivoService;
     }
 
     
     @GetMapping()
     public String dashboard(Model model) {
-        long totalPartidos = partidoService.count();
-        long programados = partidoService.countByEstado(Partido.EstadoPartido.PROGRAMADO);
-        long finalizados = partidoService.countByEstado(Partido.EstadoPartido.FINALIZADO);
-        long pendientesConfirmacion = partidoService.countByEstado(Partido.EstadoPartido.PENDIENTE_CONFIRMACION);
-        long arbitroNoDisponible = partidoService.countByEstado(Partido.EstadoPartido.ARBITRO_NO_DISPONIBLE);
-
-        double porcentajeProgramados = totalPartidos > 0 ? (programados * 100.0 / totalPartidos) : 0;
-        double porcentajeFinalizados = totalPartidos > 0 ? (finalizados * 100.0 / totalPartidos) : 0;
-        double porcentajePendientes = totalPartidos > 0 ? (pendientesConfirmacion * 100.0 / totalPartidos) : 0;
-        double porcentajeNoDisponible = totalPartidos > 0 ? (arbitroNoDisponible * 100.0 / totalPartidos) : 0;
-
-        List<Arbitro> topArbitros = arbitroService.findTop5ActivosDelMes();
-        long totalEntrenadores = entrenadorService.countActive();
-
-        model.addAttribute("porcentajeProgramados", porcentajeProgramados);
-        model.addAttribute("porcentajeFinalizados", porcentajeFinalizados);
-        model.addAttribute("porcentajePendientes", porcentajePendientes);
-        model.addAttribute("porcentajeNoDisponible", porcentajeNoDisponible);
-        model.addAttribute("pendientesConfirmacion", pendientesConfirmacion);
-        model.addAttribute("arbitroNoDisponible", arbitroNoDisponible);
-        model.addAttribute("topArbitros", topArbitros);
-        model.addAttribute("totalEntrenadores", totalEntrenadores);
-
+        model.addAttribute("estadisticas", dashboardService.obtener());
         return "admin/dashboard";
     }
 
+    // Las mismas estadísticas del dashboard en JSON
+    @GetMapping("/dashboard/estadisticas")
+    public ResponseEntity<DashboardDTO> estadisticasDashboard() {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(dashboardService.obtener());
+    }
+
     // ==================== ÁRBITROS ====================
 
     @GetMapping("/arbitros")
@@ -111,10 +135,24 @@ public class AdminController {
    
     @GetMapping("/notificaciones")
     public String notificaciones(Model model, Locale locale){
-        model.addAttribute("notificaciones", notificacionService.obtenerNotificacionesAdmin());
+        List<Notificacion> notificaciones = notificacionService.obtenerNotificacionesAdmin();
+        model.addAttribute("notificaciones", notificaciones);
+        model.addAttribute("ultimaNotificacionId", notificaciones.stream().mapToLong(Notificacion::getId).max().orElse(0));
         return "admin/notificaciones";
     }
 
+    /**
+     * Notificaciones de admin en vivo (SSE). El navegador reconecta solo y manda Last-Event-ID;
+     * en la primera conexión la página pasa en "ultimo" la última notificación que mostró.
+     */
+    @GetMapping(path = "/notificaciones/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> notificacionesEnVivo(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                                           @RequestParam(required = false) Long ultimo) {
+        return ResponseEntity.ok()
+            .header("X-Accel-Buffering", "no")
+            .body(notificacionesEnVivoService.suscribir(Destino.admins(), lastEventId != null ? lastEventId : ultimo));
+    }
+
     @GetMapping("/liquidaciones")
     public String listarLiquidaciones(String periodo, Model model, Locale locale) {
 
@@ -139,12 +177,32 @@ public class AdminController {
     @PostMapping("/liquidaciones/generar")
     public String generarLiquidaciones(@RequestParam String periodo, RedirectAttributes redirectAttributes, Locale locale) {
         YearMonth ym = YearMonth.parse(periodo); // formato "YYYY-MM"
-        liquidacionService.generarLiquidacionesMensuales(ym);
-        String successMsg = messageSource.getMessage("msg.success.liquidaciones.generated", null, locale);
+        TrabajoLiquidacion trabajo = trabajoLiquidacionService.iniciar(ym);
+        String successMsg = messageSource.getMessage("msg.success.liquidaciones.started", null, locale);
         redirectAttributes.addFlashAttribute("successMessage", successMsg);
+        redirectAttributes.addFlashAttribute("trabajoId", trabajo.getId());
         return "redirect:/admin/liquidaciones?periodo=" + ym;
     }
 
+    // Descarga en un solo ZIP los PDF de todas las liquidaciones del periodo
+    @GetMapping("/liquidaciones/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarLiquidaciones(@RequestParam String periodo) {
+        YearMonth ym = YearMonth.parse(periodo); // formato "YYYY-MM"
+        StreamingResponseBody zip = salida -> exportacionLiquidacionesService.exportarZip(ym, salida);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=liquidaciones-" + ym + ".zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(zip);
+    }
+
+    // Estado de un trabajo de generación de liquidaciones (consultado por la vista mientras corre)
+    @GetMapping("/liquidaciones/trabajos/{id}")
+    public ResponseEntity<TrabajoLiquidacion> estadoTrabajoLiquidacion(@PathVariable Long id) {
+        return trabajoLiquidacionService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
 
     @PostMapping("/liquidaciones/{id}/pagar")
     public String pagar(@PathVariable Long id, RedirectAttributes redirectAttributes, Locale locale) {
@@ -158,14 +216,26 @@ public class AdminController {
     }
 
     @GetMapping("/liquidaciones/{id}")
-    public ResponseEntity<byte[]> generarPdf(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> generarPdf(@PathVariable Long id, WebRequest webRequest) {
         Liquidacion liq = liquidacionService.obtenerPorId(id);
-        byte[] pdf = pdfGeneratorService.generarPdfDesdeLiquidacion(liq);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=liquidacion-" + id + ".pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+        String huella = pdfCacheService.huella(liq);
+        if (webRequest.checkNotModified(huella)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(huella).<byte[]>build());
+        }
+        try {
+            return pdfGeneratorService.obtenerPdfLiquidacionAsync(liq, huella)
+                    .thenApply(pdf -> ResponseEntity.ok()
+                            .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=liquidacion-" + id + ".pdf")
+                            .contentType(MediaType.APPLICATION_PDF)
+                            .eTag(huella)
+                            .cacheControl(CacheControl.noCache().cachePrivate())
+                            .body(pdf));
+        } catch (TaskRejectedException e) {
+            // Cola de PDFs llena: se le pide al cliente que reintente en unos segundos
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .<byte[]>build());
+        }
     }
 
     @GetMapping("/arbitros/create")
@@ -227,27 +297,10 @@ public class AdminController {
     }
 
     @GetMapping("/arbitros/{id}/photo")
-    public ResponseEntity<byte[]> getArbitroPhoto(@PathVariable Long id) {
-        try {
-            Arbitro arbitro = arbitroService.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Árbitro no encontrado"));
-            
-            if (!arbitro.hasPhoto()) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(arbitro.getPhotoContentType()));
-            headers.setContentLength(arbitro.getPhotoData().length);
-            
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(arbitro.getPhotoData());
-                
-        } catch (Exception e) {
-            System.err.println("Error al obtener foto del árbitro " + id + ": " + e.getMessage());
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<Resource> getArbitroPhoto(@PathVariable Long id,
+                                                    @RequestParam(value = "tam", required = false) String tam,
+                                                    WebRequest webRequest) {
+        return arbitroService.buildPhotoResponse(id, Variante.de(tam), webRequest);
     }
 
     @PostMapping("/arbitros/update/{id}")
@@ -432,13 +485,13 @@ public class AdminController {
             Entrenador coach = coachOpt.get();
             
             // Obtener estadísticas del coach
-            int partidosJugados = partidoService.countPartidosByEquipo(coach.getEquipo());
-            int partidosGanados = partidoService.countPartidosGanadosByEquipo(coach.getEquipo());
+            var equipo = coach.getEquipoAsociado();
+            EstadisticaEquipo stats = estadisticasEquipoService.obtener(equipo != null ? equipo.getId() : null);
             var resenasRecientes = entrenadorService.findReseñasByEntrenador(id);
             
             model.addAttribute("coach", coach);
-            model.addAttribute("partidosJugados", partidosJugados);
-            model.addAttribute("partidosGanados", partidosGanados);
+            model.addAttribute("partidosJugados", stats.getJugados());
+            model.addAttribute("partidosGanados", stats.getGanados());
             model.addAttribute("reseñasRecientes", resenasRecientes);
             
             return "admin/coaches_view";
@@ -608,6 +661,31 @@ public class AdminController {
         return "admin/partidos";
     }
 
+    // Calcula la asignación automática de los partidos sin árbitro y la muestra sin aplicarla
+    @PostMapping("/partidos/asignacion/previsualizar")
+    public String previsualizarAsignacion(@RequestParam("desde") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                          @RequestParam("hasta") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                          Model model, RedirectAttributes ra, Locale locale) {
+        if (hasta.isBefore(desde)) {
+            ra.addFlashAttribute("errorMessage", messageSource.getMessage("msg.error.asignacion.rango", null, locale));
+            return "redirect:/admin/partidos";
+        }
+        model.addAttribute("plan", asignacionAutomaticaService.previsualizar(desde, hasta));
+        return "admin/asignacion_preview";
+    }
+
+    @PostMapping("/partidos/asignacion/confirmar")
+    public String confirmarAsignacion(@RequestParam("token") String token, RedirectAttributes ra, Locale locale) {
+        try {
+            int asignados = asignacionAutomaticaService.confirmar(token);
+            ra.addFlashAttribute("successMessage",
+                messageSource.getMessage("msg.success.asignacion.confirmed", new Object[]{asignados}, locale));
+        } catch (RuntimeException ex) {
+            ra.addFlashAttribute("errorMessage", ex.getMessage());
+        }
+        return "redirect:/admin/partidos";
+    }
+
     @GetMapping("/lop")
     public ResponseEntity<Map<String, Object>> show(Model model, Locale locale) {
         //Map<String, Object> response = new HashMap<>();
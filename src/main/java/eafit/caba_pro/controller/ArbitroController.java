@@ -4,10 +4,15 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -16,18 +21,26 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import eafit.caba_pro.model.Arbitro;
 import eafit.caba_pro.model.Liquidacion;
+import eafit.caba_pro.model.Notificacion;
 import eafit.caba_pro.model.Partido;
 import eafit.caba_pro.service.ArbitroService;
+import eafit.caba_pro.service.FotoService.Variante;
 import eafit.caba_pro.service.LiquidacionService;
 import eafit.caba_pro.service.NotificacionService;
+import eafit.caba_pro.service.NotificacionesEnVivoService;
+import eafit.caba_pro.service.NotificacionesEnVivoService.Destino;
 import eafit.caba_pro.service.PartidoService;
+import eafit.caba_pro.service.PdfCacheService;
 import eafit.caba_pro.service.PdfService;
 import eafit.caba_pro.service.UsuarioService;
 import eafit.caba_pro.service.ReseñaService;
@@ -43,19 +56,23 @@ public class ArbitroController {
     private final ReseñaService reseñaService;
     private final LiquidacionService liquidacionService;
     private final PdfService pdfGeneratorService;
+    private final PdfCacheService pdfCacheService;
     private final NotificacionService notificacionService;
+    private final NotificacionesEnVivoService notificacionesEnVivoService;
 
     @Autowired
     private MessageSource messageSource;
 
-    public ArbitroController(NotificacionService notificacionService,PdfService pdfGeneratorService, LiquidacionService liquidacionService, ArbitroService arbitroService, PartidoService partidoService, UsuarioService usuarioService, ReseñaService reseñaService) {
+    public ArbitroController(NotificacionService notificacionService,PdfService pdfGeneratorService, LiquidacionService liquidacionService, ArbitroService arbitroService, PartidoService partidoService, UsuarioService usuarioService, ReseñaService reseñaService, PdfCacheService pdfCacheService, NotificacionesEnVivoService notificacionesEnVivoService) {
         this.notificacionService = notificacionService;
         this.pdfGeneratorService = pdfGeneratorService;
+        this.pdfCacheService = pdfCacheService;
         this.arbitroService = arbitroService;
         this.partidoService = partidoService;
         this.usuarioService = usuarioService;
         this.reseñaService = reseñaService;
         this.liquidacionService = liquidacionService;
+        this.notificacionesEnVivoService = notificacionesEnVivoService;
     }
 
     // ========== ENDPOINTS WEB ==========
@@ -297,14 +314,26 @@ public class ArbitroController {
     }
         
     @GetMapping("/liquidaciones/{id}")
-    public ResponseEntity<byte[]> generarPdf(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> generarPdf(@PathVariable Long id, WebRequest webRequest) {
         Liquidacion liq = liquidacionService.obtenerPorId(id);
-        byte[] pdf = pdfGeneratorService.generarPdfDesdeLiquidacion(liq);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=liquidacion-" + id + ".pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+        String huella = pdfCacheService.huella(liq);
+        if (webRequest.checkNotModified(huella)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(huella).<byte[]>build());
+        }
+        try {
+            return pdfGeneratorService.obtenerPdfLiquidacionAsync(liq, huella)
+                    .thenApply(pdf -> ResponseEntity.ok()
+                            .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=liquidacion-" + id + ".pdf")
+                            .contentType(MediaType.APPLICATION_PDF)
+                            .eTag(huella)
+                            .cacheControl(CacheControl.noCache().cachePrivate())
+                            .body(pdf));
+        } catch (TaskRejectedException e) {
+            // Cola de PDFs llena: se le pide al cliente que reintente en unos segundos
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .<byte[]>build());
+        }
     }
 
 
@@ -357,44 +386,39 @@ public class ArbitroController {
         }
 
         Arbitro arbitro = arbitroOpt.get();
+        List<Notificacion> notificaciones = notificacionService.obtenerNotificacionesArbitro(arbitro.getId());
         model.addAttribute("arbitro", arbitro);
-        model.addAttribute("notificaciones", notificacionService.obtenerNotificacionesArbitro(arbitro.getId()));
+        model.addAttribute("notificaciones", notificaciones);
+        model.addAttribute("ultimaNotificacionId", notificaciones.stream().mapToLong(Notificacion::getId).max().orElse(0));
         return "arbitro/notificaciones";
     }
 
+    /**
+     * Notificaciones del árbitro en sesión en vivo (SSE). El navegador reconecta solo y manda
+     * Last-Event-ID; en la primera conexión la página pasa en "ultimo" la última que mostró.
+     */
+    @GetMapping(path = "/notificaciones/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> notificacionesEnVivo(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                                           @RequestParam(required = false) Long ultimo) {
+        Optional<Arbitro> arbitroOpt = arbitroService.findByUsername(usuarioService.getCurrentUsername());
+        if (arbitroOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .header("X-Accel-Buffering", "no")
+            .body(notificacionesEnVivoService.suscribir(Destino.arbitro(arbitroOpt.get().getId()),
+                lastEventId != null ? lastEventId : ultimo));
+    }
+
     /**
      * Endpoint para que el árbitro acceda a su propia foto
      */
     @GetMapping("/mi-foto")
     @ResponseBody
-    public ResponseEntity<byte[]> getMiFoto(Authentication authentication) {
-        try {
-            String username = authentication.getName();
-            Optional<Arbitro> arbitroOpt = arbitroService.findByUsername(username);
-            
-            if (arbitroOpt.isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            Arbitro arbitro = arbitroOpt.get();
-            
-            if (!arbitro.hasPhoto()) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(arbitro.getPhotoContentType()));
-            headers.setContentLength(arbitro.getPhotoData().length);
-            headers.setCacheControl("max-age=3600"); // Cache por 1 hora
-            
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(arbitro.getPhotoData());
-                
-        } catch (Exception e) {
-            System.err.println("Error al obtener foto del árbitro: " + e.getMessage());
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<Resource> getMiFoto(Authentication authentication,
+                                              @RequestParam(value = "tam", required = false) String tam,
+                                              WebRequest webRequest) {
+        return arbitroService.buildPhotoResponseByUsername(authentication.getName(), Variante.de(tam), webRequest);
     }
 
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import eafit.caba_pro.service.EntrenadorService;
 import eafit.caba_pro.service.PartidoService;
 import eafit.caba_pro.service.ArbitroService;
 import eafit.caba_pro.service.ReseñaService;
+import eafit.caba_pro.service.EstadisticasEquipoService;
+import eafit.caba_pro.model.EstadisticaEquipo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Controller;
@@ -42,6 +44,9 @@ public class EntrenadorController {
     @Autowired
     private ReseñaService reseñaService;
     
+    @Autowired
+    private EstadisticasEquipoService estadisticasEquipoService;
+    
     @Autowired
     private MessageSource messageSource;
     
@@ -61,20 +66,15 @@ public class EntrenadorController {
             Entrenador entrenador = entrenadorOpt.get();
             
             // Obtener estadísticas del coach
-            int partidosJugados = partidoService.countPartidosByEquipo(entrenador.getEquipo());
-            int partidosGanados = partidoService.countPartidosGanadosByEquipo(entrenador.getEquipo());
-            int partidosPerdidos = partidoService.countPartidosPerdidosByEquipo(entrenador.getEquipo());
-            int partidosEmpatados = partidoService.countPartidosEmpatadosByEquipo(entrenador.getEquipo());
-            
-            // Calcular porcentaje de victorias
-            double porcentajeVictorias = partidosJugados > 0 ? (partidosGanados * 100.0 / partidosJugados) : 0;
+            var equipo = entrenador.getEquipoAsociado();
+            EstadisticaEquipo stats = estadisticasEquipoService.obtener(equipo != null ? equipo.getId() : null);
             
             model.addAttribute("entrenador", entrenador);
-            model.addAttribute("partidosJugados", partidosJugados);
-            model.addAttribute("partidosGanados", partidosGanados);
-            model.addAttribute("partidosPerdidos", partidosPerdidos);
-            model.addAttribute("partidosEmpatados", partidosEmpatados);
-            model.addAttribute("porcentajeVictorias", String.format("%.1f", porcentajeVictorias));
+            model.addAttribute("partidosJugados", stats.getJugados());
+            model.addAttribute("partidosGanados", stats.getGanados());
+            model.addAttribute("partidosPerdidos", stats.getPerdidos());
+            model.addAttribute("partidosEmpatados", stats.getEmpatados());
+            model.addAttribute("porcentajeVictorias", String.format("%.1f", stats.getPorcentajeVictorias()));
             
             return "coach/panel";
             
@@ -347,15 +347,7 @@ public class EntrenadorController {
             var equipo = entrenador.getEquipoAsociado();
             String equipoNombre = equipo != null ? equipo.getNombre() : null;
             
-            // ✅ Obtener estadísticas REALES de la BD
-            int totalPartidos = partidoService.countPartidosByEquipo(equipoNombre);
-            int partidosGanados = partidoService.countPartidosGanadosByEquipo(equipoNombre);
-            int partidosPerdidos = partidoService.countPartidosPerdidosByEquipo(equipoNombre);
-            int partidosEmpatados = totalPartidos - partidosGanados - partidosPerdidos;
-            
-            double porcentajeVictorias = totalPartidos > 0 ? (partidosGanados * 100.0 / totalPartidos) : 0;
-            double porcentajeDerrotas = totalPartidos > 0 ? (partidosPerdidos * 100.0 / totalPartidos) : 0;
-            double porcentajeEmpates = totalPartidos > 0 ? (partidosEmpatados * 100.0 / totalPartidos) : 0;
+            EstadisticaEquipo stats = estadisticasEquipoService.obtener(equipo != null ? equipo.getId() : null);
             
             Map<String, Object> estadisticas = new HashMap<>();
             estadisticas.put("entrenador", entrenador);
@@ -370,27 +362,13 @@ public class EntrenadorController {
             estadisticas.put("experienciaEntrenador", entrenador.getExperiencia());
             
             // ✅ Estadísticas reales
-            estadisticas.put("totalPartidos", totalPartidos);
-            estadisticas.put("partidosGanados", partidosGanados);
-            estadisticas.put("partidosPerdidos", partidosPerdidos);
-            estadisticas.put("partidosEmpatados", partidosEmpatados);
-            estadisticas.put("porcentajeVictorias", porcentajeVictorias);
-            estadisticas.put("porcentajeDerrotas", porcentajeDerrotas);
-            estadisticas.put("porcentajeEmpates", porcentajeEmpates);
-            
-            System.out.println("[DEBUG] equipoNombre = " + equipoNombre);
-
-            List<Partido> partidosTotales = partidoService.findAll();
-            long matchedByName = partidosTotales.stream()
-                .filter(p -> (p.getEquipoLocal()!=null && equipoNombre!=null && equipoNombre.equals(p.getEquipoLocal().getNombre()))
-                          || (p.getEquipoVisitante()!=null && equipoNombre!=null && equipoNombre.equals(p.getEquipoVisitante().getNombre())))
-                .count();
-
-            System.out.println("[DEBUG] partidosTotales.size=" + partidosTotales.size() + ", matchedByName=" + matchedByName);
-
-            // Exponer en la vista (temporal)
-            model.addAttribute("debug_totalPartidosEnBD", partidosTotales.size());
-            model.addAttribute("debug_partidosQueCoincidenNombre", matchedByName);
+            estadisticas.put("totalPartidos", stats.getJugados());
+            estadisticas.put("partidosGanados", stats.getGanados());
+            estadisticas.put("partidosPerdidos", stats.getPerdidos());
+            estadisticas.put("partidosEmpatados", stats.getEmpatados());
+            estadisticas.put("porcentajeVictorias", stats.getPorcentajeVictorias());
+            estadisticas.put("porcentajeDerrotas", stats.getPorcentajeDerrotas());
+            estadisticas.put("porcentajeEmpates", stats.getPorcentajeEmpates());
             
             model.addAttribute("entrenador", entrenador);
             model.addAttribute("estadisticas", estadisticas);
@@ -2,16 +2,21 @@
 package eafit.caba_pro.controller.api;
 
 import eafit.caba_pro.dto.ArbitroDTO;
+import eafit.caba_pro.dto.PaginaDTO;
 import eafit.caba_pro.model.Arbitro;
 import eafit.caba_pro.service.ArbitroService;
+import eafit.caba_pro.service.CalificacionesService;
+import eafit.caba_pro.service.RankingArbitrosService;
+import eafit.caba_pro.service.RankingArbitrosService.Criterio;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/arbitros")
@@ -20,15 +25,18 @@ public class ArbitroApiController {
     @Autowired
     private ArbitroService arbitroService;
 
-    // GET /api/arbitros - Obtener todos los árbitros
+    @Autowired
+    private CalificacionesService calificacionesService;
+
+    @Autowired
+    private RankingArbitrosService rankingService;
+
+    // GET /api/arbitros?limit=50&after={id} - Árbitros por páginas en orden de id
     @GetMapping
-    public ResponseEntity<List<ArbitroDTO>> getAllArbitros() {
+    public ResponseEntity<PaginaDTO<ArbitroDTO>> getAllArbitros(@RequestParam(required = false) Long after,
+                                                                @RequestParam(required = false) Integer limit) {
         try {
-            List<Arbitro> arbitros = arbitroService.findAll();
-            List<ArbitroDTO> arbitroDTOs = arbitros.stream()
-                    .map(ArbitroDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(arbitroDTOs);
+            return ResponseEntity.ok(arbitroService.paginarResumenes(after, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -137,4 +145,43 @@ public class ArbitroApiController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    // GET /api/arbitros/{id}/calificaciones - Resumen de reseñas del árbitro (total, suma, estrellas)
+    @GetMapping("/{id}/calificaciones")
+    public ResponseEntity<?> getCalificaciones(@PathVariable Long id) {
+        if (arbitroService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(calificacionesService.obtener(id));
+    }
+
+    // POST /api/arbitros/calificaciones/rebuild - Recalcula los resúmenes desde las reseñas;
+    // "diferencias" cuenta las filas que no coincidían
+    @PostMapping("/calificaciones/rebuild")
+    public ResponseEntity<?> reconstruirCalificaciones() {
+        return ResponseEntity.ok(Map.of("diferencias", calificacionesService.reconstruir()));
+    }
+
+    // GET /api/arbitros/ranking?criterio=partidos&k=10&desde=2025-08&hasta=2025-09 - Los k primeros árbitros
+    // Criterios: partidos, calificacion, escalafon, compuesto. Sin periodo, el mes en curso
+    @GetMapping("/ranking")
+    public ResponseEntity<?> getRanking(@RequestParam(required = false) String criterio,
+                                        @RequestParam(defaultValue = "10") int k,
+                                        @RequestParam(required = false) String desde,
+                                        @RequestParam(required = false) String hasta) {
+        try {
+            YearMonth inicio = desde != null ? YearMonth.parse(desde) : YearMonth.now();
+            YearMonth fin = hasta != null ? YearMonth.parse(hasta) : inicio;
+            return ResponseEntity.ok(rankingService.top(Criterio.de(criterio), k, inicio, fin));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // POST /api/arbitros/ranking/rebuild - Recalcula la actividad mensual desde los partidos;
+    // "diferencias" cuenta las filas que no coincidían
+    @PostMapping("/ranking/rebuild")
+    public ResponseEntity<?> reconstruirRanking() {
+        return ResponseEntity.ok(Map.of("diferencias", rankingService.reconstruir()));
+    }
 }
\ No newline at end of file
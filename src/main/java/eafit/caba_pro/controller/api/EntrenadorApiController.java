@@ -1,5 +1,7 @@
 package eafit.caba_pro.controller.api;
 
+import eafit.caba_pro.dto.EntrenadorResumenDTO;
+import eafit.caba_pro.dto.PaginaDTO;
 import eafit.caba_pro.model.Entrenador;
 import eafit.caba_pro.service.EntrenadorService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,7 +9,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -17,12 +18,12 @@ public class EntrenadorApiController {
     @Autowired
     private EntrenadorService entrenadorService;
 
-    // GET /api/entrenadores - Obtener todos los entrenadores
+    // GET /api/entrenadores?limit=50&after={id} - Entrenadores activos por páginas en orden de id
     @GetMapping
-    public ResponseEntity<List<Entrenador>> getAllEntrenadores() {
+    public ResponseEntity<PaginaDTO<EntrenadorResumenDTO>> getAllEntrenadores(@RequestParam(required = false) Long after,
+                                                                              @RequestParam(required = false) Integer limit) {
         try {
-            List<Entrenador> entrenadores = entrenadorService.findAllActive();
-            return ResponseEntity.ok(entrenadores);
+            return ResponseEntity.ok(entrenadorService.paginarResumenes(after, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
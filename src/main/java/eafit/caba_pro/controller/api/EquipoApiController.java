@@ -1,5 +1,7 @@
 package eafit.caba_pro.controller.api;
 
+import eafit.caba_pro.dto.EquipoResumenDTO;
+import eafit.caba_pro.dto.PaginaDTO;
 import eafit.caba_pro.model.Equipo;
 import eafit.caba_pro.service.EquipoService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,12 +19,12 @@ public class EquipoApiController {
     @Autowired
     private EquipoService equipoService;
 
-    // GET /api/equipos - Obtener todos los equipos
+    // GET /api/equipos?limit=50&after={id} - Equipos por páginas en orden de id
     @GetMapping
-    public ResponseEntity<List<Equipo>> getAllEquipos() {
+    public ResponseEntity<PaginaDTO<EquipoResumenDTO>> getAllEquipos(@RequestParam(required = false) Long after,
+                                                                     @RequestParam(required = false) Integer limit) {
         try {
-            List<Equipo> equipos = equipoService.findAll();
-            return ResponseEntity.ok(equipos);
+            return ResponseEntity.ok(equipoService.paginarResumenes(after, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -1,5 +1,8 @@
 package eafit.caba_pro.controller.api;
 
+import eafit.caba_pro.dto.FiltroPartidosDTO;
+import eafit.caba_pro.dto.PaginaDTO;
+import eafit.caba_pro.dto.PartidoResumenDTO;
 import eafit.caba_pro.model.Partido;
 import eafit.caba_pro.service.PartidoService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,7 +10,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -17,12 +19,16 @@ public class PartidoApiController {
     @Autowired
     private PartidoService partidoService;
 
-    // GET /api/partidos - Obtener todos los partidos
+    // GET /api/partidos?limit=50&after={cursor} - Partidos por páginas en orden (fecha, hora, id)
+    // Filtros opcionales: estado, arbitroId, sinArbitro, equipoId, equipo, torneoId, desde, hasta
     @GetMapping
-    public ResponseEntity<List<Partido>> getAllPartidos() {
+    public ResponseEntity<PaginaDTO<PartidoResumenDTO>> getAllPartidos(FiltroPartidosDTO filtro,
+                                                                       @RequestParam(required = false) String after,
+                                                                       @RequestParam(required = false) Integer limit) {
         try {
-            List<Partido> partidos = partidoService.findAll();
-            return ResponseEntity.ok(partidos);
+            return ResponseEntity.ok(partidoService.paginarResumenes(filtro, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -32,7 +38,7 @@ public class PartidoApiController {
     @GetMapping("/{id}")
     public ResponseEntity<Partido> getPartidoById(@PathVariable Long id) {
         try {
-            Optional<Partido> partido = partidoService.findById(id);
+            Optional<Partido> partido = partidoService.findConDetalleById(id);
             if (partido.isPresent()) {
                 return ResponseEntity.ok(partido.get());
             } else {
@@ -102,37 +108,44 @@ public class PartidoApiController {
         }
     }
 
-    // GET /api/partidos/estado/{estado} - Obtener partidos por estado
+    // GET /api/partidos/estado/{estado} - Obtener partidos por estado, por páginas
     @GetMapping("/estado/{estado}")
-    public ResponseEntity<List<Partido>> getPartidosByEstado(@PathVariable String estado) {
+    public ResponseEntity<PaginaDTO<PartidoResumenDTO>> getPartidosByEstado(@PathVariable String estado,
+                                                                            @RequestParam(required = false) String after,
+                                                                            @RequestParam(required = false) Integer limit) {
         try {
             Partido.EstadoPartido estadoEnum = Partido.EstadoPartido.valueOf(estado.toUpperCase());
-            List<Partido> partidos = partidoService.findAll().stream()
-                    .filter(p -> p.getEstado() == estadoEnum)
-                    .collect(java.util.stream.Collectors.toList());
-            return ResponseEntity.ok(partidos);
+            return ResponseEntity.ok(partidoService.paginarResumenes(FiltroPartidosDTO.vacio().conEstado(estadoEnum), after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    // GET /api/partidos/equipo/{equipoNombre} - Obtener partidos de un equipo por nombre
+    // GET /api/partidos/equipo/{equipoNombre} - Partidos programados de un equipo por nombre, por páginas
     @GetMapping("/equipo/{equipoNombre}")
-    public ResponseEntity<List<Partido>> getPartidosByEquipo(@PathVariable String equipoNombre) {
+    public ResponseEntity<PaginaDTO<PartidoResumenDTO>> getPartidosByEquipo(@PathVariable String equipoNombre,
+                                                                            @RequestParam(required = false) String after,
+                                                                            @RequestParam(required = false) Integer limit) {
         try {
-            List<Partido> partidos = partidoService.findPartidosProgramadosByEquipo(equipoNombre);
-            return ResponseEntity.ok(partidos);
+            FiltroPartidosDTO filtro = FiltroPartidosDTO.vacio().conEquipo(equipoNombre).conEstado(Partido.EstadoPartido.PROGRAMADO);
+            return ResponseEntity.ok(partidoService.paginarResumenes(filtro, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    // GET /api/partidos/sin-arbitro - Obtener partidos sin árbitro asignado
+    // GET /api/partidos/sin-arbitro - Obtener partidos sin árbitro asignado, por páginas
     @GetMapping("/sin-arbitro")
-    public ResponseEntity<List<Partido>> getPartidosSinArbitro() {
+    public ResponseEntity<PaginaDTO<PartidoResumenDTO>> getPartidosSinArbitro(@RequestParam(required = false) String after,
+                                                                              @RequestParam(required = false) Integer limit) {
         try {
-            List<Partido> partidos = partidoService.getPartidosSinArbitro();
-            return ResponseEntity.ok(partidos);
+            return ResponseEntity.ok(partidoService.paginarResumenes(FiltroPartidosDTO.vacio().soloSinArbitro(), after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -0,0 +1,68 @@
+package eafit.caba_pro.controller.api;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import eafit.caba_pro.model.ResumenPartidos.Dimension;
+import eafit.caba_pro.model.ResumenPartidos.Nivel;
+import eafit.caba_pro.service.ResumenPartidosService;
+import jakarta.persistence.EntityNotFoundException;
+
+@RestController
+@RequestMapping("/api/resumenes")
+public class ResumenPartidosApiController {
+
+    private final ResumenPartidosService resumenService;
+
+    public ResumenPartidosApiController(ResumenPartidosService resumenService) {
+        this.resumenService = resumenService;
+    }
+
+    // GET /api/resumenes?dimension=arbitro&clave=3&nivel=mes&desde=2025-01-01&hasta=2025-06-30
+    // Dimensiones: total, arbitro, equipo, torneo. Niveles: dia, mes. Sin fechas, el mes en curso
+    @GetMapping
+    public ResponseEntity<?> consultar(@RequestParam(defaultValue = "total") String dimension,
+                                       @RequestParam(required = false) Long clave,
+                                       @RequestParam(defaultValue = "mes") String nivel,
+                                       @RequestParam(required = false) String desde,
+                                       @RequestParam(required = false) String hasta) {
+        try {
+            LocalDate inicio = desde != null ? LocalDate.parse(desde) : LocalDate.now().withDayOfMonth(1);
+            LocalDate fin = hasta != null ? LocalDate.parse(hasta) : inicio.plusMonths(1).minusDays(1);
+            return ResponseEntity.ok(resumenService.consultar(Dimension.valueOf(dimension.toUpperCase(Locale.ROOT)), clave,
+                Nivel.valueOf(nivel.toUpperCase(Locale.ROOT)), inicio, fin));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // POST /api/resumenes/rebuild - Recalcula los meses no sellados desde los partidos;
+    // "diferencias" cuenta las filas que no coincidían
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> reconstruir() {
+        return ResponseEntity.ok(Map.of("diferencias", resumenService.reconstruirAbiertos()));
+    }
+
+    // POST /api/resumenes/reseal?periodo=2025-09 - Reconcilia un mes sellado que recibió correcciones
+    @PostMapping("/reseal")
+    public ResponseEntity<?> resellar(@RequestParam String periodo) {
+        try {
+            return ResponseEntity.ok(Map.of("diferencias", resumenService.resellar(YearMonth.parse(periodo))));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -16,8 +16,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import eafit.caba_pro.model.Partido;
+import jakarta.persistence.EntityNotFoundException;
+
+import eafit.caba_pro.dto.FiltroPartidosDTO;
+import eafit.caba_pro.dto.PaginaDTO;
+import eafit.caba_pro.dto.PartidoResumenDTO;
+import eafit.caba_pro.dto.TablaPosicionesDTO;
+import eafit.caba_pro.dto.TorneoResumenDTO;
 import eafit.caba_pro.model.Torneo;
+import eafit.caba_pro.service.PartidoService;
+import eafit.caba_pro.service.TablaPosicionesService;
 import eafit.caba_pro.service.TorneoService;
 
 @RestController
@@ -25,14 +33,21 @@ import eafit.caba_pro.service.TorneoService;
 public class TorneoApiController {
 
     private final TorneoService torneoService;
+    private final TablaPosicionesService tablaPosicionesService;
+    private final PartidoService partidoService;
 
-    public TorneoApiController(TorneoService torneoService) {
+    public TorneoApiController(TorneoService torneoService, TablaPosicionesService tablaPosicionesService,
+                               PartidoService partidoService) {
         this.torneoService = torneoService;
+        this.tablaPosicionesService = tablaPosicionesService;
+        this.partidoService = partidoService;
     }
 
+    // ?limit=50&after={id}: torneos por páginas en orden de id, sin sus partidos
     @GetMapping
-    public ResponseEntity<List<Torneo>> listAll() {
-        return ResponseEntity.ok(torneoService.findAll());
+    public ResponseEntity<PaginaDTO<TorneoResumenDTO>> listAll(@RequestParam(required = false) Long after,
+                                                               @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(torneoService.paginarResumenes(after, limit));
     }
 
     @GetMapping("/{id}")
@@ -105,13 +120,39 @@ public class TorneoApiController {
         }
     }
 
+    // ?limit=50&after={cursor}: partidos del torneo por páginas en orden (fecha, hora, id)
     @GetMapping("/{id}/partidos")
-    public ResponseEntity<List<Partido>> listarPartidos(@PathVariable Long id) {
+    public ResponseEntity<PaginaDTO<PartidoResumenDTO>> listarPartidos(@PathVariable Long id,
+                                                                       @RequestParam(required = false) String after,
+                                                                       @RequestParam(required = false) Integer limit) {
+        if (torneoService.findById(id).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
         try {
-            return ResponseEntity.ok(torneoService.listarPartidosDeTorneo(id));
-        } catch (Exception ex) {
+            return ResponseEntity.ok(partidoService.paginarResumenes(FiltroPartidosDTO.vacio().conTorneo(id), after, limit));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}/standings")
+    public ResponseEntity<TablaPosicionesDTO> standings(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(tablaPosicionesService.obtener(id));
+        } catch (EntityNotFoundException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
 
+    // Recalcula la tabla desde los partidos; "diferencias" cuenta las filas que no coincidían
+    @PostMapping("/{id}/standings/rebuild")
+    public ResponseEntity<?> reconstruirStandings(@PathVariable Long id) {
+        try {
+            int diferencias = tablaPosicionesService.reconstruir(id);
+            return ResponseEntity.ok(Map.of("diferencias", diferencias, "tabla", tablaPosicionesService.obtener(id)));
+        } catch (EntityNotFoundException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
 }
\ No newline at end of file
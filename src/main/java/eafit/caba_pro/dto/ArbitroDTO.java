@@ -34,6 +34,11 @@ public class ArbitroDTO {
         );
     }
 
+    // Columnas: [id, nombre, cedula, username, phone, speciality] de ArbitroRepository.findResumenesDespuesDe
+    public static ArbitroDTO desdeFila(Object[] f) {
+        return new ArbitroDTO((Long) f[0], (String) f[1], (String) f[2], (String) f[3], (String) f[4], (String) f[5]);
+    }
+
     // Method to convert DTO to Entity
     public Arbitro toEntity() {
         Arbitro arbitro = new Arbitro();
@@ -0,0 +1,60 @@
+package eafit.caba_pro.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import eafit.caba_pro.model.Escalafon;
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Foto de las estadísticas del dashboard de administración. Es inmutable porque se comparte
+ * entre todas las peticiones hasta que se recalcula.
+ */
+@Getter
+@AllArgsConstructor
+public class DashboardDTO {
+    private final Map<EstadoPartido, Long> partidosPorEstado;
+    private final long totalPartidos;
+    private final List<ArbitroDestacado> topArbitros;
+    private final long totalEntrenadores;
+    private final Instant generadoEn;
+
+    // Árbitro con más partidos en el mes
+    public record ArbitroDestacado(Long id, String nombre, String speciality, Escalafon.Nombre escalafon, long partidos) {
+    }
+
+    public long partidos(EstadoPartido estado) {
+        return partidosPorEstado.getOrDefault(estado, 0L);
+    }
+
+    public long getPendientesConfirmacion() {
+        return partidos(EstadoPartido.PENDIENTE_CONFIRMACION);
+    }
+
+    public long getArbitroNoDisponible() {
+        return partidos(EstadoPartido.ARBITRO_NO_DISPONIBLE);
+    }
+
+    public double getPorcentajeProgramados() {
+        return porcentaje(EstadoPartido.PROGRAMADO);
+    }
+
+    public double getPorcentajeFinalizados() {
+        return porcentaje(EstadoPartido.FINALIZADO);
+    }
+
+    public double getPorcentajePendientes() {
+        return porcentaje(EstadoPartido.PENDIENTE_CONFIRMACION);
+    }
+
+    public double getPorcentajeNoDisponible() {
+        return porcentaje(EstadoPartido.ARBITRO_NO_DISPONIBLE);
+    }
+
+    private double porcentaje(EstadoPartido estado) {
+        return totalPartidos > 0 ? (partidos(estado) * 100.0 / totalPartidos) : 0;
+    }
+}
@@ -0,0 +1,16 @@
+package eafit.caba_pro.dto;
+
+import eafit.caba_pro.model.Entrenador.Categoria;
+
+/**
+ * Entrenador tal como lo listan los endpoints de la API, sin usuario ni equipo cargados.
+ */
+public record EntrenadorResumenDTO(Long id, String nombreCompleto, String cedula, String telefono, String email,
+                                   Long equipoId, String equipo, Categoria categoria, Integer experiencia) {
+
+    // Columnas: [id, nombreCompleto, cedula, telefono, email, equipoId, equipo, categoria, experiencia]
+    public static EntrenadorResumenDTO desdeFila(Object[] f) {
+        return new EntrenadorResumenDTO((Long) f[0], (String) f[1], (String) f[2], (String) f[3], (String) f[4],
+            (Long) f[5], (String) f[6], (Categoria) f[7], (Integer) f[8]);
+    }
+}
@@ -0,0 +1,12 @@
+package eafit.caba_pro.dto;
+
+/**
+ * Equipo tal como lo listan los endpoints de la API, sin sus partidos ni entrenadores.
+ */
+public record EquipoResumenDTO(Long id, String nombre, String ciudad, Integer fundacion, boolean estado, String logo) {
+
+    // Columnas: [id, nombre, ciudad, fundacion, estado, logo]
+    public static EquipoResumenDTO desdeFila(Object[] f) {
+        return new EquipoResumenDTO((Long) f[0], (String) f[1], (String) f[2], (Integer) f[3], (Boolean) f[4], (String) f[5]);
+    }
+}
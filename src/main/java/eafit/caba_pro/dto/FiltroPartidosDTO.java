@@ -0,0 +1,37 @@
+package eafit.caba_pro.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import eafit.caba_pro.model.Partido.EstadoPartido;
+
+/**
+ * Criterios opcionales para listar partidos por la API; se enlaza desde los parámetros de la
+ * petición (?estado=PROGRAMADO&equipoId=3&desde=2025-10-01...). Los campos nulos no filtran.
+ */
+public record FiltroPartidosDTO(EstadoPartido estado, Long arbitroId, Boolean sinArbitro, Long equipoId, String equipo,
+                                Long torneoId,
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+
+    public static FiltroPartidosDTO vacio() {
+        return new FiltroPartidosDTO(null, null, null, null, null, null, null, null);
+    }
+
+    public FiltroPartidosDTO conEstado(EstadoPartido estado) {
+        return new FiltroPartidosDTO(estado, arbitroId, sinArbitro, equipoId, equipo, torneoId, desde, hasta);
+    }
+
+    public FiltroPartidosDTO conEquipo(String equipo) {
+        return new FiltroPartidosDTO(estado, arbitroId, sinArbitro, equipoId, equipo, torneoId, desde, hasta);
+    }
+
+    public FiltroPartidosDTO soloSinArbitro() {
+        return new FiltroPartidosDTO(estado, arbitroId, true, equipoId, equipo, torneoId, desde, hasta);
+    }
+
+    public FiltroPartidosDTO conTorneo(Long torneoId) {
+        return new FiltroPartidosDTO(estado, arbitroId, sinArbitro, equipoId, equipo, torneoId, desde, hasta);
+    }
+}
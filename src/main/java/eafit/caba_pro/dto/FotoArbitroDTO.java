@@ -0,0 +1,14 @@
+package eafit.caba_pro.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lo necesario para servir o revalidar la foto de un árbitro, leído sin cargar la entidad.
+ */
+public record FotoArbitroDTO(String hash, String tipoContenido, LocalDateTime actualizada) {
+
+    // Columnas: [photoHash, photoContentType, photoActualizada]
+    public static FotoArbitroDTO desdeFila(Object[] f) {
+        return new FotoArbitroDTO((String) f[0], (String) f[1], (LocalDateTime) f[2]);
+    }
+}
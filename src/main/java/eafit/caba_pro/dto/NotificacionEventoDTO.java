@@ -0,0 +1,17 @@
+package eafit.caba_pro.dto;
+
+import java.time.LocalDateTime;
+
+import eafit.caba_pro.model.Notificacion;
+import eafit.caba_pro.model.Notificacion.TipoDestinatario;
+
+/**
+ * Notificación tal como viaja por el stream SSE; el id es el de la tabla notificacion
+ * y es también el id del evento (Last-Event-ID al reconectar).
+ */
+public record NotificacionEventoDTO(Long id, String mensaje, LocalDateTime fecha, TipoDestinatario tipoDestinatario) {
+
+    public static NotificacionEventoDTO de(Notificacion n) {
+        return new NotificacionEventoDTO(n.getId(), n.getMensaje(), n.getFecha(), n.getTipoDestinatario());
+    }
+}
@@ -0,0 +1,39 @@
+package eafit.caba_pro.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Página de un listado de la API recorrido por cursor. "siguiente" es el valor a enviar en
+ * el parámetro after para pedir la página que sigue; es null en la última.
+ */
+@Getter
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private final List<T> items;
+    private final String siguiente;
+    private final int limite;
+
+    // Límite pedido por el cliente acotado a [1, LIMITE_MAXIMO]; null usa el límite por defecto
+    public static int limitar(Integer limite) {
+        return limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    /**
+     * Arma la página a partir de una consulta que pidió limite + 1 filas: la fila de más solo
+     * indica que hay otra página y no se retorna.
+     */
+    public static <T> PaginaDTO<T> de(List<T> filas, int limite, Function<T, String> cursor) {
+        if (filas.size() <= limite) {
+            return new PaginaDTO<>(filas, null, limite);
+        }
+        List<T> items = filas.subList(0, limite);
+        return new PaginaDTO<>(items, cursor.apply(items.get(limite - 1)), limite);
+    }
+}
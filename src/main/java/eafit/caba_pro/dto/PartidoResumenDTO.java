@@ -0,0 +1,26 @@
+package eafit.caba_pro.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import eafit.caba_pro.model.Partido.EstadoPartido;
+
+/**
+ * Partido tal como lo listan los endpoints de la API: solo columnas, sin entidades asociadas.
+ */
+public record PartidoResumenDTO(Long id, LocalDate fecha, LocalTime hora, EstadoPartido estado,
+                                Long equipoLocalId, String equipoLocal, Long equipoVisitanteId, String equipoVisitante,
+                                Long arbitroId, String arbitro, Integer golesLocal, Integer golesVisitante, Long torneoId) {
+
+    // Columnas: [id, fecha, hora, estado, localId, local, visitanteId, visitante, arbitroId, arbitro, golesLocal, golesVisitante, torneoId]
+    public static PartidoResumenDTO desdeFila(Object[] f) {
+        return new PartidoResumenDTO((Long) f[0], (LocalDate) f[1], (LocalTime) f[2], (EstadoPartido) f[3],
+            (Long) f[4], (String) f[5], (Long) f[6], (String) f[7], (Long) f[8], (String) f[9],
+            (Integer) f[10], (Integer) f[11], (Long) f[12]);
+    }
+
+    // Cursor del orden (fecha, hora, id), por ejemplo 2025-10-05T15:00_12
+    public String cursor() {
+        return fecha + "T" + hora + "_" + id;
+    }
+}
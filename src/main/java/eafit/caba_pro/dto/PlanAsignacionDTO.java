@@ -0,0 +1,30 @@
+package eafit.caba_pro.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de la asignación automática que el administrador revisa antes de confirmarla.
+ * El token identifica el plan al confirmarlo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlanAsignacionDTO {
+    private String token;
+    private LocalDate desde;
+    private LocalDate hasta;
+    private List<Propuesta> propuestas;
+    private List<Propuesta> sinAsignar;
+    private long duracionMs;
+
+    // Partido con el árbitro propuesto (arbitroId y arbitro son null en sinAsignar)
+    public record Propuesta(Long partidoId, LocalDate fecha, LocalTime hora, String equipoLocal,
+                            String equipoVisitante, Long arbitroId, String arbitro) {
+    }
+}
@@ -0,0 +1,32 @@
+package eafit.caba_pro.dto;
+
+/**
+ * Pronóstico horario de un día (o rango de días) de Open-Meteo. Las series se guardan en
+ * arreglos primitivos indexados por hora desde el inicio del rango; una hora sin dato
+ * queda como NaN en la temperatura y como SIN_CODIGO en el código de clima.
+ */
+public class PronosticoClimaDTO {
+    public static final int SIN_CODIGO = -1;
+
+    private final double[] temperaturas;
+    private final int[] codigos;
+
+    public PronosticoClimaDTO(double[] temperaturas, int[] codigos) {
+        this.temperaturas = temperaturas;
+        this.codigos = codigos;
+    }
+
+    public int getHoras() {
+        return Math.max(temperaturas.length, codigos.length);
+    }
+
+    // Temperatura en °C de la hora indicada o NaN si no hay dato
+    public double temperatura(int hora) {
+        return hora >= 0 && hora < temperaturas.length ? temperaturas[hora] : Double.NaN;
+    }
+
+    // Código WMO de la hora indicada o SIN_CODIGO si no hay dato
+    public int codigo(int hora) {
+        return hora >= 0 && hora < codigos.length ? codigos[hora] : SIN_CODIGO;
+    }
+}
@@ -0,0 +1,25 @@
+package eafit.caba_pro.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import eafit.caba_pro.model.Escalafon;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Los k primeros árbitros de un periodo según un criterio. puntaje es el valor por el que se
+ * ordenó: partidos, calificación ajustada, nivel del escalafón o puntaje compuesto (0 a 1).
+ */
+@Getter
+@AllArgsConstructor
+public class RankingArbitrosDTO {
+    private final String criterio;
+    private final YearMonth desde;
+    private final YearMonth hasta;
+    private final List<Fila> arbitros;
+
+    public record Fila(int posicion, Long arbitroId, String nombre, String speciality, Escalafon.Nombre escalafon,
+                       long partidos, long finalizados, double promedio, int reseñas, double puntaje) {
+    }
+}
@@ -0,0 +1,23 @@
+package eafit.caba_pro.dto;
+
+import java.time.YearMonth;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumenLiquidacionDTO {
+    private YearMonth periodo;
+    private int liquidacionesGeneradas;
+    private int partidosLiquidados;
+    private long duracionMs;
+
+    // Filas escritas (liquidaciones + notificaciones + partidos) por segundo
+    public double getFilasPorSegundo() {
+        long filas = 2L * liquidacionesGeneradas + partidosLiquidados;
+        return duracionMs > 0 ? filas * 1000.0 / duracionMs : filas;
+    }
+}
@@ -0,0 +1,21 @@
+package eafit.caba_pro.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Tabla de posiciones de un torneo, ordenada por puntos, diferencia y puntos a favor.
+ */
+@Getter
+@AllArgsConstructor
+public class TablaPosicionesDTO {
+    private final Long torneoId;
+    private final List<Fila> posiciones;
+
+    public record Fila(int posicion, Long equipoId, String equipo, int jugados, int ganados, int empatados,
+                       int perdidos, int puntosFavor, int puntosContra, int diferencia, int puntos,
+                       int racha, int mejorRacha) {
+    }
+}
@@ -0,0 +1,14 @@
+package eafit.caba_pro.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Torneo tal como lo listan los endpoints de la API, sin su lista de partidos.
+ */
+public record TorneoResumenDTO(Long id, String nombre, String sede, LocalDate fechaInicio, LocalDate fechaFin) {
+
+    // Columnas: [id, nombre, sede, fechaInicio, fechaFin]
+    public static TorneoResumenDTO desdeFila(Object[] f) {
+        return new TorneoResumenDTO((Long) f[0], (String) f[1], (String) f[2], (LocalDate) f[3], (LocalDate) f[4]);
+    }
+}
@@ -0,0 +1,85 @@
+package eafit.caba_pro.metricas;
+
+import java.time.Duration;
+
+/**
+ * Lo que le cuesta a la base de datos una petición HTTP: sentencias preparadas, tiempo de JDBC,
+ * entidades cargadas y colecciones lazy inicializadas. Se acumula en el hilo que atiende la
+ * petición; ConsumoSqlInterceptor lo abre y lo cierra, y lo deja en el atributo ATRIBUTO de la
+ * petición para que las pruebas de integración puedan revisar el presupuesto de consultas.
+ */
+public final class ConsumoSql {
+
+    public static final String ATRIBUTO = ConsumoSql.class.getName();
+
+    private static final ThreadLocal<ConsumoSql> ACTUAL = new ThreadLocal<>();
+
+    private int sentencias;
+    private long nanosJdbc;
+    private long inicioJdbc;
+    private int entidadesCargadas;
+    private int coleccionesCargadas;
+
+    static ConsumoSql iniciar() {
+        ConsumoSql consumo = new ConsumoSql();
+        ACTUAL.set(consumo);
+        return consumo;
+    }
+
+    // Retorna el consumo del hilo (o null si no había uno abierto) y lo desvincula
+    static ConsumoSql terminar() {
+        ConsumoSql consumo = ACTUAL.get();
+        ACTUAL.remove();
+        return consumo;
+    }
+
+    // Consumo abierto en este hilo; null fuera de una petición (tareas programadas, pools)
+    static ConsumoSql actual() {
+        return ACTUAL.get();
+    }
+
+    void sentenciaPreparada() {
+        sentencias++;
+    }
+
+    void inicioJdbc() {
+        inicioJdbc = System.nanoTime();
+    }
+
+    void finJdbc() {
+        if (inicioJdbc != 0) {
+            nanosJdbc += System.nanoTime() - inicioJdbc;
+            inicioJdbc = 0;
+        }
+    }
+
+    void entidadCargada() {
+        entidadesCargadas++;
+    }
+
+    void coleccionCargada() {
+        coleccionesCargadas++;
+    }
+
+    public int getSentencias() {
+        return sentencias;
+    }
+
+    public Duration getTiempoJdbc() {
+        return Duration.ofNanos(nanosJdbc);
+    }
+
+    public int getEntidadesCargadas() {
+        return entidadesCargadas;
+    }
+
+    public int getColeccionesCargadas() {
+        return coleccionesCargadas;
+    }
+
+    @Override
+    public String toString() {
+        return sentencias + " sentencias, " + getTiempoJdbc().toMillis() + " ms de JDBC, "
+            + entidadesCargadas + " entidades, " + coleccionesCargadas + " colecciones";
+    }
+}
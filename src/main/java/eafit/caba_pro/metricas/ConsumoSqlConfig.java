@@ -0,0 +1,38 @@
+package eafit.caba_pro.metricas;
+
+import java.util.List;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Conecta la medición de ConsumoSql con Hibernate (listeners de sesión y de eventos) y con MVC.
+ */
+@Configuration
+public class ConsumoSqlConfig implements WebMvcConfigurer {
+
+    private final ConsumoSqlInterceptor consumoSqlInterceptor;
+
+    public ConsumoSqlConfig(ConsumoSqlInterceptor consumoSqlInterceptor) {
+        this.consumoSqlInterceptor = consumoSqlInterceptor;
+    }
+
+    // static: Hibernate lo necesita antes de que exista el interceptor (y el MeterRegistry)
+    @Bean
+    public static HibernatePropertiesCustomizer consumoSqlHibernate() {
+        return propiedades -> {
+            propiedades.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, ConsumoSqlSessionListener.class.getName());
+            propiedades.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(new ConsumoSqlIntegrator()));
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(consumoSqlInterceptor);
+    }
+}
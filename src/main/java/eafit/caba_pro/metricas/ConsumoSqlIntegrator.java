@@ -0,0 +1,39 @@
+package eafit.caba_pro.metricas;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Agrega a Hibernate los listeners que cuentan entidades cargadas y colecciones lazy
+ * inicializadas en el ConsumoSql del hilo.
+ */
+class ConsumoSqlIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registro = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) evento -> {
+            ConsumoSql consumo = ConsumoSql.actual();
+            if (consumo != null) {
+                consumo.entidadCargada();
+            }
+        });
+        registro.appendListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) evento -> {
+            ConsumoSql consumo = ConsumoSql.actual();
+            if (consumo != null) {
+                consumo.coleccionCargada();
+            }
+        });
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
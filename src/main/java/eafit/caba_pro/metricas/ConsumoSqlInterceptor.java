@@ -0,0 +1,71 @@
+package eafit.caba_pro.metricas;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mide el ConsumoSql de cada petición atendida por un controlador, incluido el render de la vista
+ * (open-in-view), y lo publica en Micrometer con la etiqueta handler=Controlador#metodo. Si una
+ * petición pasa de caba.sql.umbral-sentencias sentencias registra un aviso de posible N+1.
+ */
+@Component
+@Slf4j
+public class ConsumoSqlInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry registry;
+    private final int umbralSentencias;
+
+    public ConsumoSqlInterceptor(MeterRegistry registry, @Value("${caba.sql.umbral-sentencias:25}") int umbralSentencias) {
+        this.registry = registry;
+        this.umbralSentencias = umbralSentencias;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            ConsumoSql.iniciar();
+        }
+        return true;
+    }
+
+    // Las respuestas async se vuelven a despachar; solo se mide el despacho que completa la respuesta
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ConsumoSql.terminar();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ConsumoSql consumo = ConsumoSql.terminar();
+        if (consumo == null || !(handler instanceof HandlerMethod metodo)) {
+            return;
+        }
+        request.setAttribute(ConsumoSql.ATRIBUTO, consumo);
+
+        String nombre = metodo.getBeanType().getSimpleName() + "#" + metodo.getMethod().getName();
+        DistributionSummary.builder("caba.peticion.sql.sentencias").tag("handler", nombre)
+            .description("Sentencias SQL preparadas por petición").register(registry).record(consumo.getSentencias());
+        Timer.builder("caba.peticion.sql.tiempo").tag("handler", nombre)
+            .description("Tiempo de JDBC por petición").register(registry).record(consumo.getTiempoJdbc());
+        DistributionSummary.builder("caba.peticion.sql.entidades").tag("handler", nombre)
+            .description("Entidades cargadas por petición").register(registry).record(consumo.getEntidadesCargadas());
+        DistributionSummary.builder("caba.peticion.sql.colecciones").tag("handler", nombre)
+            .description("Colecciones lazy inicializadas por petición").register(registry).record(consumo.getColeccionesCargadas());
+
+        if (consumo.getSentencias() > umbralSentencias) {
+            Counter.builder("caba.peticion.sql.n_mas_uno").tag("handler", nombre)
+                .description("Peticiones que pasaron el umbral de sentencias").register(registry).increment();
+            log.warn("Posible N+1 en {} {} ({}): {}", request.getMethod(), request.getRequestURI(), nombre, consumo);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package eafit.caba_pro.metricas;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Cuenta las sentencias y el tiempo de JDBC de cada Session en el ConsumoSql del hilo. Hibernate
+ * lo instancia por sesión (hibernate.session.events.auto), por eso no es un bean de Spring.
+ */
+public class ConsumoSqlSessionListener implements SessionEventListener {
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        ConsumoSql consumo = ConsumoSql.actual();
+        if (consumo != null) {
+            consumo.sentenciaPreparada();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        ConsumoSql consumo = ConsumoSql.actual();
+        if (consumo != null) {
+            consumo.inicioJdbc();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        ConsumoSql consumo = ConsumoSql.actual();
+        if (consumo != null) {
+            consumo.finJdbc();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+}
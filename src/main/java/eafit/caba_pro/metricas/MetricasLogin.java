@@ -0,0 +1,36 @@
+package eafit.caba_pro.metricas;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cuenta los inicios de sesión del formulario por resultado (exito/fallo) a partir de los eventos
+ * que publica Spring Security. En los fallos la etiqueta motivo es la excepción (BadCredentials, Disabled...).
+ */
+@Component
+public class MetricasLogin {
+
+    private final MeterRegistry registry;
+
+    public MetricasLogin(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @EventListener
+    public void exito(AuthenticationSuccessEvent evento) {
+        Counter.builder("caba.login").tag("resultado", "exito").tag("motivo", "ninguno")
+            .description("Intentos de inicio de sesión").register(registry).increment();
+    }
+
+    @EventListener
+    public void fallo(AbstractAuthenticationFailureEvent evento) {
+        String motivo = evento.getException().getClass().getSimpleName().replace("Exception", "");
+        Counter.builder("caba.login").tag("resultado", "fallo").tag("motivo", motivo)
+            .description("Intentos de inicio de sesión").register(registry).increment();
+    }
+}
@@ -0,0 +1,71 @@
+package eafit.caba_pro.metricas;
+
+import org.springframework.stereotype.Component;
+
+import eafit.caba_pro.service.ClimaService;
+import eafit.caba_pro.service.DashboardService;
+import eafit.caba_pro.service.FotoService;
+import eafit.caba_pro.service.PdfCacheService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publica en Micrometer los contadores que los servicios ya llevan en memoria (getMetricas()):
+ * caché y proveedor del clima, caché de PDFs en disco, dashboard y LRU de miniaturas de fotos.
+ * Se leen al momento del scraping, así los servicios no dependen del MeterRegistry.
+ */
+@Component
+public class MetricasServicios implements MeterBinder {
+
+    private final ClimaService climaService;
+    private final PdfCacheService pdfCacheService;
+    private final DashboardService dashboardService;
+    private final FotoService fotoService;
+
+    public MetricasServicios(ClimaService climaService, PdfCacheService pdfCacheService,
+                             DashboardService dashboardService, FotoService fotoService) {
+        this.climaService = climaService;
+        this.pdfCacheService = pdfCacheService;
+        this.dashboardService = dashboardService;
+        this.fotoService = fotoService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("caba.clima.cache", climaService, s -> s.getMetricas().aciertos()).tag("resultado", "acierto")
+            .description("Consultas de clima servidas desde la caché").register(registry);
+        FunctionCounter.builder("caba.clima.cache", climaService, s -> s.getMetricas().aciertosObsoletos()).tag("resultado", "obsoleto")
+            .description("Consultas de clima servidas desde la caché").register(registry);
+        FunctionCounter.builder("caba.clima.cache", climaService, s -> s.getMetricas().fallos()).tag("resultado", "fallo")
+            .description("Consultas de clima servidas desde la caché").register(registry);
+        FunctionCounter.builder("caba.clima.proveedor.llamadas", climaService, s -> s.getMetricas().llamadas())
+            .description("Llamadas al API de Open-Meteo").register(registry);
+        FunctionCounter.builder("caba.clima.proveedor.fallos", climaService, s -> s.getMetricas().fallosProveedor())
+            .description("Llamadas al API de Open-Meteo que fallaron").register(registry);
+        Gauge.builder("caba.clima.circuito.abierto", climaService, s -> s.getMetricas().circuitoAbierto() ? 1 : 0)
+            .description("1 mientras el circuito del API de clima está abierto").register(registry);
+
+        FunctionCounter.builder("caba.pdf.cache", pdfCacheService, s -> s.getMetricas().aciertos()).tag("resultado", "acierto")
+            .description("Consultas a la caché de PDFs en disco").register(registry);
+        FunctionCounter.builder("caba.pdf.cache", pdfCacheService, s -> s.getMetricas().fallos()).tag("resultado", "fallo")
+            .description("Consultas a la caché de PDFs en disco").register(registry);
+        Gauge.builder("caba.pdf.cache.archivos", pdfCacheService, s -> s.getMetricas().archivos())
+            .description("PDFs guardados en la caché").register(registry);
+        Gauge.builder("caba.pdf.cache.tamano", pdfCacheService, s -> s.getMetricas().bytes()).baseUnit("bytes")
+            .description("Espacio en disco de la caché de PDFs").register(registry);
+
+        FunctionCounter.builder("caba.dashboard.lecturas", dashboardService, s -> s.getMetricas().lecturas())
+            .description("Lecturas del dashboard de administración").register(registry);
+        FunctionCounter.builder("caba.dashboard.recalculos", dashboardService, s -> s.getMetricas().recalculos())
+            .description("Veces que el dashboard se recalculó desde la base").register(registry);
+
+        FunctionCounter.builder("caba.fotos.cache", fotoService, s -> s.getMetricas().aciertos()).tag("resultado", "acierto")
+            .description("Miniaturas servidas desde el LRU en memoria").register(registry);
+        FunctionCounter.builder("caba.fotos.cache", fotoService, s -> s.getMetricas().fallos()).tag("resultado", "fallo")
+            .description("Miniaturas servidas desde el LRU en memoria").register(registry);
+        Gauge.builder("caba.fotos.cache.tamano", fotoService, s -> s.getMetricas().bytes()).baseUnit("bytes")
+            .description("Memoria ocupada por el LRU de miniaturas").register(registry);
+    }
+}
@@ -0,0 +1,57 @@
+package eafit.caba_pro.model;
+
+import java.time.YearMonth;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partidos asignados a un árbitro en un mes. La mantiene RankingArbitrosService con la
+ * diferencia de cada partido que cambia de árbitro, de fecha o de estado; el ranking de un
+ * periodo suma estas filas en lugar de recorrer los partidos.
+ */
+@Entity
+@Table(name = "actividad_arbitro",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"arbitro_id", "periodo"}),
+       indexes = @Index(name = "idx_actividad_periodo_arbitro", columnList = "periodo, arbitro_id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActividadArbitro {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "arbitro_id", nullable = false)
+    private Long arbitroId;
+
+    // "yyyy-MM" (YearMonthConverter): el orden del texto es el de los meses, así que un rango es sargable
+    @Column(nullable = false, length = 7)
+    private YearMonth periodo;
+
+    @Column(nullable = false)
+    private int partidos;
+
+    @Column(nullable = false)
+    private int finalizados;
+
+    public ActividadArbitro(Long arbitroId, YearMonth periodo, int partidos, int finalizados) {
+        this(null, arbitroId, periodo, partidos, finalizados);
+    }
+
+    // Misma fila ignorando el id; lo usa la reconstrucción para contar diferencias
+    public boolean mismosValores(ActividadArbitro otra) {
+        return arbitroId.equals(otra.arbitroId) && periodo.equals(otra.periodo)
+            && partidos == otra.partidos && finalizados == otra.finalizados;
+    }
+}
@@ -0,0 +1,37 @@
+package eafit.caba_pro.model;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import eafit.caba_pro.service.RankingArbitrosService;
+
+/**
+ * Actualiza la actividad mensual de los árbitros cuando un Partido se crea, se elimina o
+ * cambia de árbitro, de fecha o de estado. Reasignar un partido resta al árbitro anterior y
+ * suma al nuevo.
+ */
+@Component
+@Order(1)
+public class ActividadArbitroDiferencia implements Diferencia<Partido, Partido.Asignacion> {
+
+    private final RankingArbitrosService servicio;
+
+    public ActividadArbitroDiferencia(RankingArbitrosService servicio) {
+        this.servicio = servicio;
+    }
+
+    @Override
+    public Class<Partido> tipo() {
+        return Partido.class;
+    }
+
+    @Override
+    public Partido.Asignacion valor(Partido partido) {
+        return partido.asignacion();
+    }
+
+    @Override
+    public void aplicar(Partido.Asignacion anterior, Partido.Asignacion actual) {
+        servicio.aplicar(anterior, actual);
+    }
+}
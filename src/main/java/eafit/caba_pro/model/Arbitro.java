@@ -1,7 +1,10 @@
 package eafit.caba_pro.model;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -10,30 +13,36 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
 @Table(name = "arbitro")
+@NamedEntityGraph(name = PlanesCarga.ARBITRO_LISTADO, attributeNodes = @NamedAttributeNode("escalafon"))
+@EntityListeners({DiferenciaListener.class, EstadisticasListener.class})
 @Data // Generate getters and setters for all fields using lombok
 @AllArgsConstructor // Generate a contrustuctor with all the fields
 @NoArgsConstructor // Generates a constructor with no fields acordding to JPA
-@ToString(exclude = {"escalafon", "reseñas", "partidos", "usuario", "notificacionesRecibidas"})  // Excluir relaciones del toString
-public class Arbitro {
+@ToString(exclude = {"escalafon", "reseñas", "partidos", "usuario", "notificacionesRecibidas", "guardados"})  // Excluir relaciones del toString
+public class Arbitro implements Rastreada {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -69,10 +78,15 @@ public class Arbitro {
     @Column(nullable = false, length = 100)
     private String speciality;
     
-    // Pa guardar fotos como blob
-    @Lob
-    @Column(name = "photo_data", columnDefinition = "LONGBLOB")
-    private byte[] photoData;
+    // La foto vive en el almacén de FotoService; la fila solo guarda su SHA-256 y metadatos
+    @Column(name = "photo_hash", length = 64)
+    private String photoHash;
+
+    @Column(name = "photo_size")
+    private Long photoSize;
+
+    @Column(name = "photo_actualizada")
+    private LocalDateTime photoActualizada;
         
     @Column(name = "photo_content_type", length = 100)
     private String photoContentType;
@@ -96,7 +110,7 @@ public class Arbitro {
     @JsonManagedReference // Manejar serialización de reseñas
     private List<Reseña> reseñas = new ArrayList<>();
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "escalafon_id", nullable = true)
     @JsonBackReference
     private Escalafon escalafon;        
@@ -106,9 +120,22 @@ public class Arbitro {
     @JsonIgnore
     private List<Notificacion> notificacionesRecibidas = new ArrayList<>();
 
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private final Map<Class<?>, Object> guardados = new HashMap<>(2);
+
+    // Lo que fija el honorario de sus partidos en los resúmenes
+    public record Categoria(Long arbitroId, Long escalafonId) {
+    }
+
+    public Categoria categoria() {
+        return new Categoria(id, escalafon != null ? escalafon.getId() : null);
+    }
+
     // MÉTODO HELPER: Verificar si tiene imagen
     public boolean hasPhoto() {
-        return photoData != null && photoData.length > 0;
+        return photoHash != null;
     }
     
     // MÉTODO HELPER: Obtener URL de la imagen
@@ -157,23 +184,4 @@ public class Arbitro {
         reseña.setArbitro(null);
     }
     
-    // Obtener cantidad de reseñas
-    public int getCantidadReseñas() {
-        return reseñas.size();
-    }
-    
-    // Calcular promedio de puntuación
-    public double getPromedioPuntuacion() {
-        if (reseñas.isEmpty()) {
-            return 0.0;
-        }
-        double suma = reseñas.stream().mapToInt(Reseña::getPuntuacion).sum();
-        return suma / reseñas.size();
-    }
-    
-    // Verificar si tiene reseñas
-    public boolean tieneReseñas() {
-        return !reseñas.isEmpty();
-    }
- 
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package eafit.caba_pro.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen de las reseñas de un árbitro: cantidad, suma de puntuaciones, cuántas hay de cada
+ * puntuación (1 a 5) y la fecha de la última. Lo mantiene CalificacionesService con la
+ * diferencia de cada reseña que se crea, cambia o elimina; leer el promedio es una búsqueda
+ * por clave primaria.
+ */
+@Entity
+@Table(name = "calificacion_arbitro")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CalificacionArbitro {
+    public CalificacionArbitro(Long arbitroId) {
+        this.arbitroId = arbitroId;
+    }
+
+    // Sin relación con Arbitro para no cargarlo al actualizar la fila
+    @Id
+    @Column(name = "arbitro_id")
+    private Long arbitroId;
+
+    @Column(nullable = false)
+    private int total;
+
+    @Column(nullable = false)
+    private long suma;
+
+    @Column(nullable = false)
+    private int estrellas1;
+
+    @Column(nullable = false)
+    private int estrellas2;
+
+    @Column(nullable = false)
+    private int estrellas3;
+
+    @Column(nullable = false)
+    private int estrellas4;
+
+    @Column(nullable = false)
+    private int estrellas5;
+
+    private LocalDateTime ultimaReseña;
+
+    public double getPromedio() {
+        return total == 0 ? 0.0 : (double) suma / total;
+    }
+
+    // Reseñas con la puntuación dada (1 a 5)
+    public int getEstrellas(int puntuacion) {
+        return switch (puntuacion) {
+            case 1 -> estrellas1;
+            case 2 -> estrellas2;
+            case 3 -> estrellas3;
+            case 4 -> estrellas4;
+            case 5 -> estrellas5;
+            default -> throw new IllegalArgumentException("Puntuación fuera de rango: " + puntuacion);
+        };
+    }
+
+    // Misma fila; lo usa la reconstrucción para contar diferencias
+    public boolean mismosValores(CalificacionArbitro otra) {
+        return arbitroId.equals(otra.arbitroId) && total == otra.total && suma == otra.suma
+            && estrellas1 == otra.estrellas1 && estrellas2 == otra.estrellas2 && estrellas3 == otra.estrellas3
+            && estrellas4 == otra.estrellas4 && estrellas5 == otra.estrellas5
+            && Objects.equals(ultimaReseña, otra.ultimaReseña);
+    }
+}
@@ -0,0 +1,36 @@
+package eafit.caba_pro.model;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import eafit.caba_pro.service.CalificacionesService;
+
+/**
+ * Actualiza el resumen de calificaciones del árbitro cuando se crea, cambia o elimina una
+ * Reseña, incluso si se elimina en cascada con el árbitro.
+ */
+@Component
+@Order(5)
+public class CalificacionesDiferencia implements Diferencia<Reseña, Reseña.Calificacion> {
+
+    private final CalificacionesService servicio;
+
+    public CalificacionesDiferencia(CalificacionesService servicio) {
+        this.servicio = servicio;
+    }
+
+    @Override
+    public Class<Reseña> tipo() {
+        return Reseña.class;
+    }
+
+    @Override
+    public Reseña.Calificacion valor(Reseña reseña) {
+        return reseña.calificacion();
+    }
+
+    @Override
+    public void aplicar(Reseña.Calificacion anterior, Reseña.Calificacion actual) {
+        servicio.aplicar(anterior, actual);
+    }
+}
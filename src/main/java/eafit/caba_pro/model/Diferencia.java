@@ -0,0 +1,21 @@
+package eafit.caba_pro.model;
+
+/**
+ * Agregado que se mantiene por diferencias sobre una entidad Rastreada. DiferenciaListener
+ * guarda valor() al cargar la entidad y, si cambió al guardarla o eliminarla, llama a
+ * aplicar() con el anterior y el nuevo después del commit. Crear es pasar de null a un valor
+ * y eliminar, de un valor a null.
+ *
+ * @param <E> entidad observada
+ * @param <V> lo que el agregado necesita saber de ella (un record)
+ */
+public interface Diferencia<E extends Rastreada, V> {
+
+    Class<E> tipo();
+
+    // null si la entidad no cuenta para el agregado
+    V valor(E entidad);
+
+    // Corre después del commit; anterior o actual pueden ser null, pero no ambos
+    void aplicar(V anterior, V actual);
+}
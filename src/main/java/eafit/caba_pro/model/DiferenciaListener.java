@@ -0,0 +1,81 @@
+package eafit.caba_pro.model;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import eafit.caba_pro.service.DespuesDelCommit;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Mantiene los agregados (Diferencia) de una entidad Rastreada. Las diferencias de una misma
+ * transacción se aplican después del commit en el orden de las Diferencia (@Order).
+ */
+public class DiferenciaListener {
+
+    private final ObjectProvider<Diferencia<?, ?>> proveedor;
+
+    private volatile List<Diferencia<?, ?>> diferencias;
+
+    public DiferenciaListener(ObjectProvider<Diferencia<?, ?>> proveedor) {
+        this.proveedor = proveedor;
+    }
+
+    @PostLoad
+    void alCargar(Object entidad) {
+        Rastreada rastreada = (Rastreada) entidad;
+        for (Diferencia<?, ?> diferencia : diferencias()) {
+            if (diferencia.tipo().isInstance(entidad)) {
+                rastreada.getGuardados().put(diferencia.getClass(), valor(diferencia, rastreada));
+            }
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    void alGuardar(Object entidad) {
+        Rastreada rastreada = (Rastreada) entidad;
+        for (Diferencia<?, ?> diferencia : diferencias()) {
+            if (diferencia.tipo().isInstance(entidad)) {
+                Object actual = valor(diferencia, rastreada);
+                Object anterior = rastreada.getGuardados().put(diferencia.getClass(), actual);
+                if (!Objects.equals(anterior, actual)) {
+                    DespuesDelCommit.ejecutar(() -> aplicar(diferencia, anterior, actual));
+                }
+            }
+        }
+    }
+
+    @PostRemove
+    void alEliminar(Object entidad) {
+        Rastreada rastreada = (Rastreada) entidad;
+        for (Diferencia<?, ?> diferencia : diferencias()) {
+            Object anterior = rastreada.getGuardados().remove(diferencia.getClass());
+            if (anterior != null) {
+                DespuesDelCommit.ejecutar(() -> aplicar(diferencia, anterior, null));
+            }
+        }
+    }
+
+    private List<Diferencia<?, ?>> diferencias() {
+        List<Diferencia<?, ?>> lista = diferencias;
+        if (lista == null) {
+            lista = proveedor.orderedStream().toList();
+            diferencias = lista;
+        }
+        return lista;
+    }
+
+    private static <E extends Rastreada, V> V valor(Diferencia<E, V> diferencia, Rastreada entidad) {
+        return diferencia.valor(diferencia.tipo().cast(entidad));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void aplicar(Diferencia<?, V> diferencia, Object anterior, Object actual) {
+        diferencia.aplicar((V) anterior, (V) actual);
+    }
+}
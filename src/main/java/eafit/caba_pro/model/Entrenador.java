@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "entrenadores")
+@EntityListeners(EstadisticasListener.class)
 public class Entrenador {
 
     @Id
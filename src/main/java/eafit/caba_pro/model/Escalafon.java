@@ -32,13 +32,28 @@ public class Escalafon {
     @Column(nullable = false)
     private BigDecimal honorarioBase; // cuánto gana por partido
 
-    @OneToMany(mappedBy = "escalafon", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "escalafon", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference // Manejar serialización de reseñas
     private List<Arbitro> arbitros = new ArrayList<>();
 
     public enum Nombre {
-        INTERNACIONAL,
-        LOCAL,
-        NACIONAL
+        INTERNACIONAL(3),
+        LOCAL(1),
+        NACIONAL(2);
+
+        private final int nivel;
+
+        Nombre(int nivel) {
+            this.nivel = nivel;
+        }
+
+        public int getNivel() {
+            return nivel;
+        }
+
+        // Un árbitro puede pitar partidos de su nivel o de uno menor; null = cualquier nivel
+        public boolean cubre(Nombre requerido) {
+            return requerido == null || nivel >= requerido.nivel;
+        }
     }
 }
@@ -0,0 +1,67 @@
+package eafit.caba_pro.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tabla de posiciones materializada de un equipo: solo cuenta partidos FINALIZADOS con
+ * marcador. Se reconstruye al arrancar con una única consulta agregada y luego se actualiza
+ * de forma incremental desde EstadisticasEquipoDiferencia.
+ */
+@Entity
+@Table(name = "estadistica_equipo")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticaEquipo {
+    public EstadisticaEquipo(Long equipoId) {
+        this.equipoId = equipoId;
+    }
+
+    @Id
+    @Column(name = "equipo_id")
+    private Long equipoId;
+
+    @Column(nullable = false)
+    private int jugados;
+
+    @Column(nullable = false)
+    private int ganados;
+
+    @Column(nullable = false)
+    private int empatados;
+
+    @Column(nullable = false)
+    private int perdidos;
+
+    @Column(nullable = false)
+    private int golesFavor;
+
+    @Column(nullable = false)
+    private int golesContra;
+
+    public int getDiferenciaGoles() {
+        return golesFavor - golesContra;
+    }
+
+    public double getPorcentajeVictorias() {
+        return porcentaje(ganados);
+    }
+
+    public double getPorcentajeDerrotas() {
+        return porcentaje(perdidos);
+    }
+
+    public double getPorcentajeEmpates() {
+        return porcentaje(empatados);
+    }
+
+    private double porcentaje(int cantidad) {
+        return jugados > 0 ? (cantidad * 100.0 / jugados) : 0;
+    }
+}
@@ -0,0 +1,36 @@
+package eafit.caba_pro.model;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import eafit.caba_pro.service.EstadisticasEquipoService;
+
+/**
+ * Actualiza las estadísticas de los equipos cuando cambia el resultado de un Partido: marcarlo
+ * como FINALIZADO suma, corregir el marcador ajusta y reabrirlo o eliminarlo resta.
+ */
+@Component
+@Order(3)
+public class EstadisticasEquipoDiferencia implements Diferencia<Partido, Partido.Resultado> {
+
+    private final EstadisticasEquipoService servicio;
+
+    public EstadisticasEquipoDiferencia(EstadisticasEquipoService servicio) {
+        this.servicio = servicio;
+    }
+
+    @Override
+    public Class<Partido> tipo() {
+        return Partido.class;
+    }
+
+    @Override
+    public Partido.Resultado valor(Partido partido) {
+        return partido.resultadoFinal();
+    }
+
+    @Override
+    public void aplicar(Partido.Resultado anterior, Partido.Resultado actual) {
+        servicio.aplicar(anterior, actual);
+    }
+}
@@ -0,0 +1,32 @@
+package eafit.caba_pro.model;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import eafit.caba_pro.service.DashboardService;
+import eafit.caba_pro.service.DespuesDelCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Marca como desactualizadas las estadísticas del dashboard cuando se confirma un cambio
+ * en una entidad que las afecta.
+ */
+public class EstadisticasListener {
+
+    private final ObjectProvider<DashboardService> dashboard;
+
+    public EstadisticasListener(ObjectProvider<DashboardService> dashboard) {
+        this.dashboard = dashboard;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void alCambiar(Object entidad) {
+        DashboardService servicio = dashboard.getIfAvailable();
+        if (servicio != null) {
+            DespuesDelCommit.ejecutar(servicio::marcarDesactualizada);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package eafit.caba_pro.model;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import eafit.caba_pro.service.ResumenPartidosService;
+
+/**
+ * Recalcula los honorarios de los resúmenes de partidos cuando un Arbitro cambia de escalafón,
+ * para que no queden sumados con la tarifa anterior.
+ */
+@Component
+@Order(6)
+public class HonorariosArbitroDiferencia implements Diferencia<Arbitro, Arbitro.Categoria> {
+
+    private final ResumenPartidosService servicio;
+
+    public HonorariosArbitroDiferencia(ResumenPartidosService servicio) {
+        this.servicio = servicio;
+    }
+
+    @Override
+    public Class<Arbitro> tipo() {
+        return Arbitro.class;
+    }
+
+    @Override
+    public Arbitro.Categoria valor(Arbitro arbitro) {
+        return arbitro.categoria();
+    }
+
+    @Override
+    public void aplicar(Arbitro.Categoria anterior, Arbitro.Categoria actual) {
+        // Un árbitro nuevo aún no tiene partidos y uno eliminado ya no los tiene
+        if (anterior != null && actual != null) {
+            servicio.recalcularArbitro(actual.arbitroId());
+        }
+    }
+}
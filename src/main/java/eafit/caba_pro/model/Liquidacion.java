@@ -15,6 +15,13 @@ import lombok.*;
 
 @Entity
 @Table(name = "liquidacion")
+@NamedEntityGraph(name = PlanesCarga.LIQUIDACION_LISTADO, attributeNodes = @NamedAttributeNode("arbitro"))
+@NamedEntityGraph(name = PlanesCarga.LIQUIDACION_DETALLE,
+    attributeNodes = {@NamedAttributeNode(value = "arbitro", subgraph = "arbitro"), @NamedAttributeNode(value = "partidos", subgraph = "partidos")},
+    subgraphs = {
+        @NamedSubgraph(name = "arbitro", attributeNodes = @NamedAttributeNode("escalafon")),
+        @NamedSubgraph(name = "partidos", attributeNodes = {@NamedAttributeNode("equipoLocal"), @NamedAttributeNode("equipoVisitante")})
+    })
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -24,8 +31,8 @@ public class Liquidacion {
     private Long id;
 
     @NotNull
-    @Column(nullable = false)
-    private YearMonth periodo; // ej: Septiembre 2025
+    @Column(nullable = false, length = 7)
+    private YearMonth periodo; // ej: Septiembre 2025 (guardado como "2025-09")
 
     @NotNull
     @Column(nullable = false)
@@ -35,7 +42,7 @@ public class Liquidacion {
     @Column(nullable = false)
     private EstadoLiquidacion estado = EstadoLiquidacion.PENDIENTE;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "arbitro_id", nullable = false)
     @JsonBackReference
     private Arbitro arbitro;
@@ -0,0 +1,50 @@
+package eafit.caba_pro.model;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Mes cuyos resúmenes de partidos quedaron cerrados: se reconciliaron contra la tabla partido y
+ * ya no se recorren al reconstruir. Un cambio tardío en un partido del mes se sigue aplicando a
+ * sus filas y se cuenta en correcciones; resellar el mes lo reconcilia de nuevo. Los meses se
+ * sellan en orden, así que los sellados son siempre todos los anteriores al último.
+ */
+@Entity
+@Table(name = "mes_sellado")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MesSellado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 7)
+    private YearMonth periodo;
+
+    @Column(nullable = false)
+    private LocalDateTime selladoEn;
+
+    // Partidos del mes al sellarlo
+    @Column(nullable = false)
+    private int partidos;
+
+    // Cambios de partidos aplicados al mes después de sellarlo
+    @Column(nullable = false)
+    private int correcciones;
+
+    public MesSellado(YearMonth periodo, LocalDateTime selladoEn, int partidos) {
+        this(null, periodo, selladoEn, partidos, 0);
+    }
+}
@@ -35,7 +35,7 @@ public class Notificacion {
     @Column(nullable = false)
     private LocalDateTime fecha = LocalDateTime.now();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "arbitro_id", nullable = true)
     private Arbitro destinatario;
 
@@ -0,0 +1,41 @@
+package eafit.caba_pro.model;
+
+import java.time.LocalDateTime;
+
+import eafit.caba_pro.model.Notificacion.TipoDestinatario;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outbox de notificaciones: la fila se escribe en la misma transacción que la acción que la
+ * origina y DespachoNotificacionesService la pasa a la tabla notificacion después del commit.
+ * Mientras exista la fila la notificación no se ha entregado; por eso sobrevive a un reinicio.
+ * Se escribe y se lee por NotificacionJdbcRepository; la entidad solo define la tabla.
+ */
+@Entity
+@Table(name = "notificacion_pendiente", indexes = @Index(name = "idx_notificacion_pendiente_fecha", columnList = "fecha"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificacionPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String mensaje;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    // Sin relación con Arbitro para no cargarlo al escribir ni al despachar
+    @Column(name = "arbitro_id")
+    private Long arbitroId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoDestinatario tipoDestinatario;
+}
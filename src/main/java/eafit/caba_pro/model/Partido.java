@@ -2,35 +2,65 @@ package eafit.caba_pro.model;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table(name = "partido")
+@Table(name = "partido", indexes = {
+    @Index(name = "idx_partido_fecha_hora", columnList = "fecha, hora, id"),
+    @Index(name = "idx_partido_estado_fecha", columnList = "estado, fecha, hora"),
+    @Index(name = "idx_partido_arbitro_fecha", columnList = "arbitro_id, fecha"),
+    @Index(name = "idx_partido_local_fecha", columnList = "equipo_local, fecha"),
+    @Index(name = "idx_partido_visitante_fecha", columnList = "equipo_visitante, fecha"),
+    @Index(name = "idx_partido_torneo_fecha", columnList = "torneo_id, fecha")
+})
+@NamedEntityGraph(name = PlanesCarga.PARTIDO_LISTADO, attributeNodes = {
+    @NamedAttributeNode("equipoLocal"), @NamedAttributeNode("equipoVisitante"), @NamedAttributeNode("arbitro")
+})
+@NamedEntityGraph(name = PlanesCarga.PARTIDO_CALENDARIO, attributeNodes = {
+    @NamedAttributeNode("equipoLocal"), @NamedAttributeNode("equipoVisitante")
+})
+@NamedEntityGraph(name = PlanesCarga.PARTIDO_API, attributeNodes = {
+    @NamedAttributeNode("equipoLocal"), @NamedAttributeNode("equipoVisitante"), @NamedAttributeNode("arbitro"),
+    @NamedAttributeNode("torneo")
+})
+// DiferenciaListener antes que EstadisticasListener: el dashboard lee la actividad y los resúmenes ya aplicados
+@EntityListeners({PartidoDisponibilidadListener.class, DiferenciaListener.class, EstadisticasListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Partido {
+public class Partido implements Rastreada {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -49,11 +79,16 @@ public class Partido {
     private EstadoPartido estado = EstadoPartido.PENDIENTE_CONFIRMACION;
     
     // Relación con el árbitro
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "arbitro_id")
     @JsonBackReference // Evitar serialización circular - lado "back"
     private Arbitro arbitro;
 
+    // Escalafón mínimo del árbitro; null si cualquier árbitro puede pitarlo
+    @Enumerated(EnumType.STRING)
+    @Column(name = "nivel_requerido", nullable = true)
+    private Escalafon.Nombre nivelRequerido;
+
     @Column(nullable = true)
     private String clima;
 
@@ -65,19 +100,19 @@ public class Partido {
     @JsonManagedReference
     private List<Reseña> reseñas;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "equipo_visitante")
     @JsonBackReference("visitante")
     @NotNull(message = "El equipo visitante no puede ser nulo")
     private Equipo equipoVisitante;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "equipo_local")
     @JsonBackReference("local")
     @NotNull(message = "El equipo local no puede ser nulo")
     private Equipo equipoLocal;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "liquidacion_id")
     @JsonBackReference
     private Liquidacion liquidacion;
@@ -89,6 +124,64 @@ public class Partido {
     public Torneo getTorneo() { return torneo; }
     public void setTorneo(Torneo torneo) { this.torneo = torneo; }
 
+    // Valores con los que se cargó o guardó, uno por Diferencia
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Map<Class<?>, Object> guardados = new HashMap<>(4);
+
+    // Marcador de un partido FINALIZADO que cuenta para la tabla de posiciones
+    public record Resultado(Long localId, Long visitanteId, int golesLocal, int golesVisitante) {
+    }
+
+    // null si el partido no ha finalizado o le falta el marcador
+    public Resultado resultadoFinal() {
+        if (estado != EstadoPartido.FINALIZADO || golesLocal == null || golesVisitante == null
+                || equipoLocal == null || equipoVisitante == null) {
+            return null;
+        }
+        return new Resultado(equipoLocal.getId(), equipoVisitante.getId(), golesLocal, golesVisitante);
+    }
+
+    // Lo que la tabla de posiciones de un torneo necesita saber del partido
+    public record Participacion(Long torneoId, Long localId, Long visitanteId, LocalDate fecha, LocalTime hora, Resultado resultado) {
+    }
+
+    // null si el partido no pertenece a un torneo
+    public Participacion participacionEnTorneo() {
+        if (torneo == null || equipoLocal == null || equipoVisitante == null) {
+            return null;
+        }
+        return new Participacion(torneo.getId(), equipoLocal.getId(), equipoVisitante.getId(), fecha, hora, resultadoFinal());
+    }
+
+    // Lo que la actividad mensual del árbitro necesita saber del partido
+    public record Asignacion(Long arbitroId, YearMonth periodo, boolean finalizado) {
+    }
+
+    // null si el partido no tiene árbitro o fecha
+    public Asignacion asignacion() {
+        if (arbitro == null || fecha == null) {
+            return null;
+        }
+        return new Asignacion(arbitro.getId(), YearMonth.from(fecha), estado == EstadoPartido.FINALIZADO);
+    }
+
+    // Lo que los resúmenes por día y mes necesitan saber del partido; los ids pueden ser null
+    public record Huella(LocalDate fecha, EstadoPartido estado, Long arbitroId, Long localId, Long visitanteId, Long torneoId) {
+    }
+
+    // null si al partido le falta la fecha
+    public Huella huella() {
+        if (fecha == null) {
+            return null;
+        }
+        return new Huella(fecha, estado, arbitro != null ? arbitro.getId() : null,
+            equipoLocal != null ? equipoLocal.getId() : null, equipoVisitante != null ? equipoVisitante.getId() : null,
+            torneo != null ? torneo.getId() : null);
+    }
+
     public boolean esPartidoComputable(){
         return LocalDate.now().plusDays(8).isBefore(fecha);
     }
@@ -0,0 +1,51 @@
+package eafit.caba_pro.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import eafit.caba_pro.service.DespuesDelCommit;
+import eafit.caba_pro.service.DisponibilidadService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Mantiene al día el índice de disponibilidad cuando se crea, modifica o elimina un Partido.
+ * Los cambios se aplican cuando la transacción confirma para que un rollback no deje
+ * asignaciones fantasma en el índice.
+ */
+public class PartidoDisponibilidadListener {
+
+    private final ObjectProvider<DisponibilidadService> disponibilidad;
+
+    public PartidoDisponibilidadListener(ObjectProvider<DisponibilidadService> disponibilidad) {
+        this.disponibilidad = disponibilidad;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void alGuardar(Partido partido) {
+        Long partidoId = partido.getId();
+        Long arbitroId = partido.getArbitro() != null ? partido.getArbitro().getId() : null;
+        LocalDate fecha = partido.getFecha();
+        LocalTime hora = partido.getHora();
+        Partido.EstadoPartido estado = partido.getEstado();
+        despuesDelCommit(servicio -> servicio.registrar(partidoId, arbitroId, fecha, hora, estado));
+    }
+
+    @PostRemove
+    void alEliminar(Partido partido) {
+        Long partidoId = partido.getId();
+        despuesDelCommit(servicio -> servicio.quitar(partidoId));
+    }
+
+    private void despuesDelCommit(Consumer<DisponibilidadService> cambio) {
+        DisponibilidadService servicio = disponibilidad.getIfAvailable();
+        if (servicio != null) {
+            DespuesDelCommit.ejecutar(() -> cambio.accept(servicio));
+        }
+    }
+}
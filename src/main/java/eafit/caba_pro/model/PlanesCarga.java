@@ -0,0 +1,30 @@
+package eafit.caba_pro.model;
+
+/**
+ * Nombres de los @NamedEntityGraph por caso de uso. Las relaciones del modelo son lazy; cada
+ * consulta de repositorio pide con @EntityGraph solo lo que su vista recorre, y lo que quede
+ * fuera se carga por lotes (hibernate.default_batch_fetch_size).
+ */
+public final class PlanesCarga {
+
+    private PlanesCarga() {
+    }
+
+    // Listados de partidos que muestran equipos y árbitro (/admin/partidos, vistas del entrenador)
+    public static final String PARTIDO_LISTADO = "Partido.listado";
+
+    // Calendario y agenda de un árbitro o torneo: solo los equipos
+    public static final String PARTIDO_CALENDARIO = "Partido.calendario";
+
+    // Partido serializado por la API REST
+    public static final String PARTIDO_API = "Partido.api";
+
+    // Listados de liquidaciones con el nombre del árbitro
+    public static final String LIQUIDACION_LISTADO = "Liquidacion.listado";
+
+    // Liquidación completa para el PDF: árbitro con escalafón y partidos con equipos
+    public static final String LIQUIDACION_DETALLE = "Liquidacion.detalle";
+
+    // Listados de árbitros con su escalafón
+    public static final String ARBITRO_LISTADO = "Arbitro.listado";
+}
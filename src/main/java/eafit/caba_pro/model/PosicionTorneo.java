@@ -0,0 +1,75 @@
+package eafit.caba_pro.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de la tabla de posiciones de un equipo en un torneo. La mantiene TablaPosicionesService:
+ * solo se recalculan las filas de los equipos de un partido que cambia.
+ */
+@Entity
+@Table(name = "posicion_torneo", uniqueConstraints = @UniqueConstraint(columnNames = {"torneo_id", "equipo_id"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PosicionTorneo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "torneo_id", nullable = false)
+    private Long torneoId;
+
+    @Column(name = "equipo_id", nullable = false)
+    private Long equipoId;
+
+    @Column(nullable = false)
+    private int jugados;
+
+    @Column(nullable = false)
+    private int ganados;
+
+    @Column(nullable = false)
+    private int empatados;
+
+    @Column(nullable = false)
+    private int perdidos;
+
+    @Column(nullable = false)
+    private int puntosFavor;
+
+    @Column(nullable = false)
+    private int puntosContra;
+
+    @Column(nullable = false)
+    private int puntos;
+
+    // Racha actual: positiva en victorias seguidas, negativa en derrotas, 0 si el último fue empate
+    @Column(nullable = false)
+    private int racha;
+
+    // Mayor cantidad de victorias seguidas en el torneo
+    @Column(nullable = false)
+    private int mejorRacha;
+
+    public int getDiferencia() {
+        return puntosFavor - puntosContra;
+    }
+
+    // Misma fila ignorando el id; lo usa la reconstrucción para contar diferencias
+    public boolean mismosValores(PosicionTorneo otra) {
+        return torneoId.equals(otra.torneoId) && equipoId.equals(otra.equipoId) && jugados == otra.jugados
+            && ganados == otra.ganados && empatados == otra.empatados && perdidos == otra.perdidos
+            && puntosFavor == otra.puntosFavor && puntosContra == otra.puntosContra && puntos == otra.puntos
+            && racha == otra.racha && mejorRacha == otra.mejorRacha;
+    }
+}
@@ -0,0 +1,12 @@
+package eafit.caba_pro.model;
+
+import java.util.Map;
+
+/**
+ * Entidad con agregados que se mantienen por diferencias. DiferenciaListener guarda aquí,
+ * bajo la clase de cada Diferencia, el valor que vio al cargar o guardar la entidad.
+ */
+public interface Rastreada {
+
+    Map<Class<?>, Object> getGuardados();
+}
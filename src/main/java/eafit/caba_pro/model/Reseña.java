@@ -7,18 +7,24 @@ import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "reseña")
+@EntityListeners(DiferenciaListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Reseña {
+public class Reseña implements Rastreada {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -56,6 +62,25 @@ public class Reseña {
     @JsonBackReference
     private Partido partido;
     
+    // Valores con los que se cargó o guardó, uno por Diferencia
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Map<Class<?>, Object> guardados = new HashMap<>(2);
+
+    // Lo que cuenta para el resumen de calificaciones del árbitro
+    public record Calificacion(Long arbitroId, int puntuacion, LocalDateTime fecha) {
+    }
+
+    // null si la reseña aún no tiene árbitro o puntuación
+    public Calificacion calificacion() {
+        if (arbitro == null || puntuacion == null) {
+            return null;
+        }
+        return new Calificacion(arbitro.getId(), puntuacion, fechaCreacion);
+    }
+
     // Métodos helper
     public String getFechaFormateada() {
         return fechaCreacion.toLocalDate().toString();
@@ -0,0 +1,78 @@
+package eafit.caba_pro.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partidos y honorarios de un día o de un mes para el total, un árbitro, un equipo o un torneo,
+ * separados por estado. La mantiene ResumenPartidosService con la diferencia de cada partido que
+ * cambia, también en los meses sellados (MesSellado), donde el cambio cuenta como corrección.
+ */
+@Entity
+@Table(name = "resumen_partidos",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"dimension", "clave", "nivel", "fecha", "estado"}),
+       indexes = @Index(name = "idx_resumen_fecha", columnList = "fecha"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumenPartidos {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Dimension dimension;
+
+    // Id del árbitro, equipo o torneo; 0 en el total
+    @Column(nullable = false)
+    private Long clave;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 3)
+    private Nivel nivel;
+
+    // El día, o el primer día del mes en las filas MES
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoPartido estado;
+
+    @Column(nullable = false)
+    private int partidos;
+
+    // Honorario del escalafón del árbitro por cada partido con árbitro, como en la liquidación
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal honorarios;
+
+    public ResumenPartidos(Dimension dimension, Long clave, Nivel nivel, LocalDate fecha, EstadoPartido estado,
+                           int partidos, BigDecimal honorarios) {
+        this(null, dimension, clave, nivel, fecha, estado, partidos, honorarios);
+    }
+
+    public enum Dimension {
+        TOTAL, ARBITRO, EQUIPO, TORNEO
+    }
+
+    public enum Nivel {
+        DIA, MES
+    }
+}
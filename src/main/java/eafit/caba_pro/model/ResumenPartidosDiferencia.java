@@ -0,0 +1,36 @@
+package eafit.caba_pro.model;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import eafit.caba_pro.service.ResumenPartidosService;
+
+/**
+ * Actualiza los resúmenes por día y mes cuando un Partido se crea, se elimina o cambia de
+ * fecha, estado, árbitro, equipos o torneo.
+ */
+@Component
+@Order(2)
+public class ResumenPartidosDiferencia implements Diferencia<Partido, Partido.Huella> {
+
+    private final ResumenPartidosService servicio;
+
+    public ResumenPartidosDiferencia(ResumenPartidosService servicio) {
+        this.servicio = servicio;
+    }
+
+    @Override
+    public Class<Partido> tipo() {
+        return Partido.class;
+    }
+
+    @Override
+    public Partido.Huella valor(Partido partido) {
+        return partido.huella();
+    }
+
+    @Override
+    public void aplicar(Partido.Huella anterior, Partido.Huella actual) {
+        servicio.aplicar(anterior, actual);
+    }
+}
@@ -0,0 +1,50 @@
+package eafit.caba_pro.model;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import eafit.caba_pro.service.TablaPosicionesService;
+
+/**
+ * Recalcula la tabla de posiciones cuando cambia algo de un Partido que la afecta: torneo,
+ * equipos, fecha o resultado. Se recalculan las filas de los equipos anteriores y nuevos en
+ * el torneo anterior y el nuevo.
+ */
+@Component
+@Order(4)
+public class TablaPosicionesDiferencia implements Diferencia<Partido, Partido.Participacion> {
+
+    private final TablaPosicionesService servicio;
+
+    public TablaPosicionesDiferencia(TablaPosicionesService servicio) {
+        this.servicio = servicio;
+    }
+
+    @Override
+    public Class<Partido> tipo() {
+        return Partido.class;
+    }
+
+    @Override
+    public Partido.Participacion valor(Partido partido) {
+        return partido.participacionEnTorneo();
+    }
+
+    @Override
+    public void aplicar(Partido.Participacion anterior, Partido.Participacion actual) {
+        Map<Long, Set<Long>> afectados = new HashMap<>();
+        for (Partido.Participacion p : new Partido.Participacion[] {anterior, actual}) {
+            if (p != null) {
+                Set<Long> equipos = afectados.computeIfAbsent(p.torneoId(), k -> new HashSet<>());
+                equipos.add(p.localId());
+                equipos.add(p.visitanteId());
+            }
+        }
+        afectados.forEach(servicio::recalcular);
+    }
+}
@@ -0,0 +1,64 @@
+package eafit.caba_pro.model;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ejecución de la generación de liquidaciones de un periodo. Guarda el avance por lotes
+ * para poder consultarlo mientras corre y retomarlo si la aplicación se detiene.
+ */
+@Entity
+@Table(name = "trabajo_liquidacion")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrabajoLiquidacion {
+    public TrabajoLiquidacion(YearMonth periodo) {
+        this.periodo = periodo;
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 7)
+    private YearMonth periodo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoTrabajo estado = EstadoTrabajo.EN_CURSO;
+
+    @Column(nullable = false)
+    private int totalLotes;
+
+    @Column(nullable = false)
+    private int lotesCompletados;
+
+    @Column(nullable = false)
+    private int lotesFallidos;
+
+    @Column(nullable = false)
+    private int liquidacionesGeneradas;
+
+    @Column(nullable = false)
+    private int partidosLiquidados;
+
+    @Column(length = 1000)
+    private String ultimoError;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaInicio = LocalDateTime.now();
+
+    private LocalDateTime fechaFin;
+
+    public enum EstadoTrabajo {
+        EN_CURSO,
+        COMPLETADO,
+        FALLIDO
+    }
+}
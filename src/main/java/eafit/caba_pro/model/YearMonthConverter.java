@@ -0,0 +1,21 @@
+package eafit.caba_pro.model;
+
+import java.time.YearMonth;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Guarda los periodos como texto "yyyy-MM" para poder consultarlos y actualizarlos desde SQL
+@Converter(autoApply = true)
+public class YearMonthConverter implements AttributeConverter<YearMonth, String> {
+
+    @Override
+    public String convertToDatabaseColumn(YearMonth periodo) {
+        return periodo != null ? periodo.toString() : null;
+    }
+
+    @Override
+    public YearMonth convertToEntityAttribute(String valor) {
+        return valor != null ? YearMonth.parse(valor) : null;
+    }
+}
@@ -0,0 +1,50 @@
+package eafit.caba_pro.repository;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import eafit.caba_pro.model.ActividadArbitro;
+
+@Repository
+public interface ActividadArbitroRepository extends JpaRepository<ActividadArbitro, Long> {
+
+    Optional<ActividadArbitro> findByArbitroIdAndPeriodo(Long arbitroId, YearMonth periodo);
+
+    // Suma en la base para que dos cambios del mismo árbitro a la vez no pisen la fila
+    @Modifying
+    @Query("UPDATE ActividadArbitro a SET a.partidos = a.partidos + :partidos, a.finalizados = a.finalizados + :finalizados " +
+           "WHERE a.arbitroId = :arbitroId AND a.periodo = :periodo")
+    int sumar(@Param("arbitroId") Long arbitroId, @Param("periodo") YearMonth periodo,
+              @Param("partidos") int partidos, @Param("finalizados") int finalizados);
+
+    // Fila en cero para un mes sin actividad; falla por la clave si otra transacción la creó
+    @Modifying
+    @Query("INSERT INTO ActividadArbitro (arbitroId, periodo, partidos, finalizados) VALUES (:arbitroId, :periodo, 0, 0)")
+    int crear(@Param("arbitroId") Long arbitroId, @Param("periodo") YearMonth periodo);
+
+    @Modifying
+    @Query("DELETE FROM ActividadArbitro a WHERE a.arbitroId = :arbitroId AND a.periodo = :periodo AND a.partidos = 0")
+    int borrarSiVacia(@Param("arbitroId") Long arbitroId, @Param("periodo") YearMonth periodo);
+
+    /**
+     * Partidos de cada árbitro con actividad en el rango de meses (ambos incluidos).
+     * Columnas: [arbitroId, partidos, finalizados]
+     */
+    @Query("SELECT a.arbitroId, SUM(a.partidos), SUM(a.finalizados) FROM ActividadArbitro a " +
+           "WHERE a.periodo >= :desde AND a.periodo <= :hasta GROUP BY a.arbitroId")
+    List<Object[]> sumarEntre(@Param("desde") YearMonth desde, @Param("hasta") YearMonth hasta);
+
+    // Mismas columnas que sumarEntre, solo los árbitros con más partidos
+    @Query("SELECT a.arbitroId, SUM(a.partidos), SUM(a.finalizados) FROM ActividadArbitro a " +
+           "WHERE a.periodo >= :desde AND a.periodo <= :hasta GROUP BY a.arbitroId " +
+           "ORDER BY SUM(a.partidos) DESC, SUM(a.finalizados) DESC, a.arbitroId")
+    List<Object[]> topPartidosEntre(@Param("desde") YearMonth desde, @Param("hasta") YearMonth hasta, Limit limite);
+}
@@ -1,21 +1,28 @@
 package eafit.caba_pro.repository;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import eafit.caba_pro.model.Arbitro;
+import eafit.caba_pro.model.PlanesCarga;
 
 @Repository
-public interface ArbitroRepository extends JpaRepository<Arbitro, Long> {
-    
+public interface ArbitroRepository extends JpaRepository<Arbitro, Long>, JpaSpecificationExecutor<Arbitro> {
+
+    @Override
+    @EntityGraph(PlanesCarga.ARBITRO_LISTADO)
+    List<Arbitro> findAll();
     
     // Búsqueda por cédula (para validar duplicados)
     Optional<Arbitro> findByCedula(String cedula);
@@ -27,6 +34,17 @@ public interface ArbitroRepository extends JpaRepository<Arbitro, Long> {
     boolean existsByCedula(String cedula);
     boolean existsByPhone(String phone);
     boolean existsByUsuarioUsername(String username);
+
+    // Fotos en uso; las demás del almacén las borra LimpiezaFotosService
+    @Query("SELECT DISTINCT a.photoHash FROM Arbitro a WHERE a.photoHash IS NOT NULL")
+    Set<String> findPhotoHashes();
+
+    // Foto del árbitro sin cargar la entidad: [photoHash, photoContentType, photoActualizada]
+    @Query("SELECT a.photoHash, a.photoContentType, a.photoActualizada FROM Arbitro a WHERE a.id = :id AND a.photoHash IS NOT NULL")
+    List<Object[]> findFotoById(@Param("id") Long id);
+
+    @Query("SELECT a.photoHash, a.photoContentType, a.photoActualizada FROM Arbitro a WHERE a.username = :username AND a.photoHash IS NOT NULL")
+    List<Object[]> findFotoByUsername(@Param("username") String username);
     
     // Ordenar por nombre (usado en findAllOrderByNombre)
     List<Arbitro> findAllByOrderByNombreAsc();
@@ -36,19 +54,16 @@ public interface ArbitroRepository extends JpaRepository<Arbitro, Long> {
         
     // MÉTODOS PARA LA RELACIÓN CON PARTIDOS
     
-    // Encontrar árbitros disponibles en una fecha y hora específica
-    @Query("SELECT a FROM Arbitro a WHERE a.id NOT IN " +
-           "(SELECT p.arbitro.id FROM Partido p WHERE p.arbitro IS NOT NULL " +
-           "AND p.fecha = :fecha AND p.hora = :hora)")
-    List<Arbitro> findAvailableArbitrosAt(@Param("fecha") LocalDate fecha, 
-                                         @Param("hora") LocalTime hora);
-    
     // Encontrar árbitros con partidos en un rango de fechas
     @Query("SELECT DISTINCT a FROM Arbitro a JOIN a.partidos p " +
            "WHERE p.fecha BETWEEN :fechaInicio AND :fechaFin")
     List<Arbitro> findArbitrosWithPartidosBetween(@Param("fechaInicio") LocalDate fechaInicio, 
                                                   @Param("fechaFin") LocalDate fechaFin);
     
+    // Candidatos para la asignación automática: [id, nombre, escalafón]
+    @Query("SELECT a.id, a.nombre, e.nombre FROM Arbitro a LEFT JOIN a.escalafon e")
+    List<Object[]> findCandidatosAsignacion();
+
     // Encontrar árbitros sin partidos asignados
     @Query("SELECT a FROM Arbitro a WHERE a.partidos IS EMPTY")
     List<Arbitro> findArbitrosSinPartidos();
@@ -67,9 +82,27 @@ public interface ArbitroRepository extends JpaRepository<Arbitro, Long> {
     @Query("SELECT a FROM Arbitro a LEFT JOIN FETCH a.usuario WHERE a.username = :username")
     Optional<Arbitro> findByUsernameWithUsuario(@Param("username") String username);
 
-    @Query("SELECT a FROM Arbitro a JOIN a.partidos p " +
-              "WHERE MONTH(p.fecha) = MONTH(CURRENT_DATE) AND YEAR(p.fecha) = YEAR(CURRENT_DATE) " +
-              "GROUP BY a ORDER BY COUNT(p) DESC")
-     List<Arbitro> findTop5ActivosDelMes(Pageable pageable);
+    /**
+     * Datos de árbitros que muestra el ranking, sin cargar la entidad.
+     * Columnas: [id, nombre, speciality, escalafón]
+     */
+    @Query("SELECT a.id, a.nombre, a.speciality, e.nombre FROM Arbitro a LEFT JOIN a.escalafon e")
+    List<Object[]> findParaRanking();
+
+    // Mismas columnas que findParaRanking, de los árbitros dados
+    @Query("SELECT a.id, a.nombre, a.speciality, e.nombre FROM Arbitro a LEFT JOIN a.escalafon e WHERE a.id IN :ids")
+    List<Object[]> findParaRankingByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Honorario por partido del escalafón de cada árbitro dado: [id, honorarioBase]
+    @Query("SELECT a.id, e.honorarioBase FROM Arbitro a JOIN a.escalafon e WHERE a.id IN :ids")
+    List<Object[]> findHonorarios(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Página de árbitros en orden de id sin cargar la entidad (ni su foto).
+     * Columnas: [id, nombre, cedula, username, phone, speciality]
+     */
+    @Query("SELECT a.id, a.nombre, a.cedula, a.username, a.phone, a.speciality FROM Arbitro a " +
+           "WHERE a.id > :despuesDe ORDER BY a.id")
+    List<Object[]> findResumenesDespuesDe(@Param("despuesDe") Long despuesDe, Pageable pageable);
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package eafit.caba_pro.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import eafit.caba_pro.model.Arbitro;
+
+/**
+ * Filtros de Arbitro que se combinan con and() y se resuelven en SQL.
+ */
+public final class ArbitroSpecs {
+
+    private ArbitroSpecs() {
+    }
+
+    public static Specification<Arbitro> distintoDe(Long arbitroId) {
+        return (root, query, cb) -> cb.notEqual(root.get("id"), arbitroId);
+    }
+
+    public static Specification<Arbitro> conUsuarioActivo() {
+        return (root, query, cb) -> cb.isTrue(root.join("usuario").get("activo"));
+    }
+
+    // Una colección vacía no excluye a nadie
+    public static Specification<Arbitro> idNoEn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? null : cb.not(root.get("id").in(ids));
+    }
+}
@@ -0,0 +1,46 @@
+package eafit.caba_pro.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import eafit.caba_pro.model.CalificacionArbitro;
+
+@Repository
+public interface CalificacionArbitroRepository extends JpaRepository<CalificacionArbitro, Long> {
+
+    // Suma en la base para que dos reseñas del mismo árbitro a la vez no pisen la fila
+    @Modifying
+    @Query("UPDATE CalificacionArbitro c SET c.total = c.total + :total, c.suma = c.suma + :suma, " +
+           "c.estrellas1 = c.estrellas1 + :e1, c.estrellas2 = c.estrellas2 + :e2, c.estrellas3 = c.estrellas3 + :e3, " +
+           "c.estrellas4 = c.estrellas4 + :e4, c.estrellas5 = c.estrellas5 + :e5 " +
+           "WHERE c.arbitroId = :arbitroId")
+    int sumar(@Param("arbitroId") Long arbitroId, @Param("total") int total, @Param("suma") long suma,
+              @Param("e1") int e1, @Param("e2") int e2, @Param("e3") int e3, @Param("e4") int e4, @Param("e5") int e5);
+
+    // Fila en cero para un árbitro que aún no tiene; falla por la clave si otra transacción la creó
+    @Modifying
+    @Query("INSERT INTO CalificacionArbitro (arbitroId, total, suma, estrellas1, estrellas2, estrellas3, estrellas4, estrellas5) " +
+           "VALUES (:arbitroId, 0, 0, 0, 0, 0, 0, 0)")
+    int crear(@Param("arbitroId") Long arbitroId);
+
+    @Modifying
+    @Query("UPDATE CalificacionArbitro c SET c.ultimaReseña = :fecha " +
+           "WHERE c.arbitroId = :arbitroId AND (c.ultimaReseña IS NULL OR c.ultimaReseña < :fecha)")
+    int adelantarUltima(@Param("arbitroId") Long arbitroId, @Param("fecha") LocalDateTime fecha);
+
+    // Al quitar una reseña la última puede cambiar: se vuelve a leer de la tabla reseña
+    @Modifying
+    @Query("UPDATE CalificacionArbitro c SET c.ultimaReseña = " +
+           "(SELECT MAX(r.fechaCreacion) FROM Reseña r WHERE r.arbitro.id = :arbitroId) WHERE c.arbitroId = :arbitroId")
+    int recalcularUltima(@Param("arbitroId") Long arbitroId);
+
+    // Un árbitro sin reseñas no necesita fila (por ejemplo, si se eliminó con sus reseñas)
+    @Modifying
+    @Query("DELETE FROM CalificacionArbitro c WHERE c.arbitroId = :arbitroId AND c.total = 0")
+    int borrarSiVacia(@Param("arbitroId") Long arbitroId);
+}
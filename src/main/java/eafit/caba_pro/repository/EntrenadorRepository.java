@@ -1,6 +1,7 @@
 package eafit.caba_pro.repository;
 
 import eafit.caba_pro.model.Entrenador;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -221,6 +222,14 @@ public interface EntrenadorRepository extends JpaRepository<Entrenador, Long> {
            "UPPER(e.email) LIKE UPPER(CONCAT('%', :termino, '%')))")
     List<Entrenador> busquedaGeneral(@Param("termino") String termino);
 
+    /**
+     * Página de entrenadores activos en orden de id.
+     * Columnas: [id, nombreCompleto, cedula, telefono, email, equipoId, equipo, categoria, experiencia]
+     */
+    @Query("SELECT e.id, e.nombreCompleto, e.cedula, e.telefono, e.email, e.equipoAsociado.id, e.equipo, " +
+           "e.categoria, e.experiencia FROM Entrenador e WHERE e.activo = true AND e.id > :despuesDe ORDER BY e.id")
+    List<Object[]> findResumenesDespuesDe(@Param("despuesDe") Long despuesDe, Pageable pageable);
+
     // ==================== OPERACIONES DE SOFT DELETE ====================
 
     /**
@@ -1,11 +1,24 @@
 package eafit.caba_pro.repository;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import eafit.caba_pro.model.Equipo;
 
 @Repository
 public interface EquipoRepository extends JpaRepository<Equipo,Long> {
+
+    /**
+     * Página de equipos en orden de id.
+     * Columnas: [id, nombre, ciudad, fundacion, estado, logo]
+     */
+    @Query("SELECT e.id, e.nombre, e.ciudad, e.fundacion, e.estado, e.logo FROM Equipo e " +
+           "WHERE e.id > :despuesDe ORDER BY e.id")
+    List<Object[]> findResumenesDespuesDe(@Param("despuesDe") Long despuesDe, Pageable pageable);
 }
 
@@ -0,0 +1,29 @@
+package eafit.caba_pro.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import eafit.caba_pro.model.EstadisticaEquipo;
+
+@Repository
+public interface EstadisticaEquipoRepository extends JpaRepository<EstadisticaEquipo, Long> {
+
+    // Fila en cero para un equipo sin partidos; falla por la clave si otra transacción la creó
+    @Modifying
+    @Query("INSERT INTO EstadisticaEquipo (equipoId, jugados, ganados, empatados, perdidos, golesFavor, golesContra) " +
+           "VALUES (:equipoId, 0, 0, 0, 0, 0, 0)")
+    int crear(@Param("equipoId") Long equipoId);
+
+    // Suma en la base para que dos partidos finalizados a la vez no pisen la fila del mismo equipo
+    @Modifying
+    @Query("UPDATE EstadisticaEquipo e SET e.jugados = e.jugados + :jugados, e.ganados = e.ganados + :ganados, " +
+           "e.empatados = e.empatados + :empatados, e.perdidos = e.perdidos + :perdidos, " +
+           "e.golesFavor = e.golesFavor + :golesFavor, e.golesContra = e.golesContra + :golesContra " +
+           "WHERE e.equipoId = :equipoId")
+    int sumar(@Param("equipoId") Long equipoId, @Param("jugados") int jugados, @Param("ganados") int ganados,
+              @Param("empatados") int empatados, @Param("perdidos") int perdidos,
+              @Param("golesFavor") int golesFavor, @Param("golesContra") int golesContra);
+}
@@ -0,0 +1,31 @@
+package eafit.caba_pro.repository;
+
+import java.sql.Statement;
+
+/**
+ * Suma las filas afectadas que devuelve un batchUpdate de JDBC.
+ */
+final class FilasAfectadas {
+
+    private FilasAfectadas() {
+    }
+
+    static int contar(int[] filas) {
+        int total = 0;
+        for (int f : filas) {
+            // Algunos drivers devuelven SUCCESS_NO_INFO (-2) en lotes: la sentencia corrió pero no
+            // informan cuántas filas tocó, así que cuenta como una
+            total += f > 0 ? f : (f == Statement.SUCCESS_NO_INFO ? 1 : 0);
+        }
+        return total;
+    }
+
+    // Para batchUpdate con tamaño de lote, que devuelve un arreglo por lote
+    static int contar(int[][] lotes) {
+        int total = 0;
+        for (int[] lote : lotes) {
+            total += contar(lote);
+        }
+        return total;
+    }
+}
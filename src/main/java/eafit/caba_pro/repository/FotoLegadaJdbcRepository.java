@@ -0,0 +1,68 @@
+package eafit.caba_pro.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Acceso a la columna arbitro.photo_data, donde se guardaban las fotos antes del almacén de
+ * FotoService. La entidad ya no la mapea: solo existe en bases creadas con el esquema anterior.
+ */
+@Repository
+public class FotoLegadaJdbcRepository {
+
+    private static final String PROBAR_COLUMNA = "SELECT photo_data FROM arbitro WHERE 1 = 0";
+
+    private static final String IDS_CON_FOTO =
+            "SELECT id FROM arbitro WHERE photo_data IS NOT NULL AND id > :despuesDe ORDER BY id LIMIT :maximo";
+
+    private static final String LEER_FOTO = "SELECT photo_data FROM arbitro WHERE id = :id";
+
+    private static final String MARCAR_MIGRADA =
+            "UPDATE arbitro SET photo_hash = :hash, photo_size = :tamano, photo_actualizada = :fecha, photo_data = NULL " +
+            "WHERE id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public FotoLegadaJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean existeColumna() {
+        try {
+            jdbcTemplate.getJdbcTemplate().queryForList(PROBAR_COLUMNA);
+            return true;
+        } catch (BadSqlGrammarException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Ids de árbitros que aún tienen la foto en la fila, en orden de id a partir de despuesDe.
+     */
+    public List<Long> idsConFoto(Long despuesDe, int maximo) {
+        return jdbcTemplate.queryForList(IDS_CON_FOTO, new MapSqlParameterSource()
+                .addValue("despuesDe", despuesDe)
+                .addValue("maximo", maximo), Long.class);
+    }
+
+    public byte[] leerFoto(Long arbitroId) {
+        return jdbcTemplate.queryForObject(LEER_FOTO, new MapSqlParameterSource("id", arbitroId), byte[].class);
+    }
+
+    /**
+     * Deja en la fila el hash de la foto ya guardada en el almacén y libera la columna BLOB.
+     */
+    public void marcarMigrada(Long arbitroId, String hash, long tamano, LocalDateTime fecha) {
+        jdbcTemplate.update(MARCAR_MIGRADA, new MapSqlParameterSource()
+                .addValue("id", arbitroId)
+                .addValue("hash", hash)
+                .addValue("tamano", tamano)
+                .addValue("fecha", Timestamp.valueOf(fecha)));
+    }
+}
@@ -0,0 +1,89 @@
+package eafit.caba_pro.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import eafit.caba_pro.model.Liquidacion.EstadoLiquidacion;
+import eafit.caba_pro.model.Notificacion.TipoDestinatario;
+
+/**
+ * Escrituras masivas de la liquidación mensual. Usa JDBC por lotes en lugar de
+ * un save() por fila; debe llamarse dentro de la transacción del servicio.
+ */
+@Repository
+public class LiquidacionJdbcRepository {
+
+    private static final String INSERT_LIQUIDACION =
+            "INSERT INTO liquidacion (periodo, fecha_generacion, estado, arbitro_id, total) " +
+            "VALUES (:periodo, :fechaGeneracion, :estado, :arbitroId, :total)";
+
+    private static final String INSERT_NOTIFICACION =
+            "INSERT INTO notificacion (mensaje, fecha, arbitro_id, tipo_destinatario) " +
+            "VALUES (:mensaje, :fecha, :arbitroId, :tipo)";
+
+    // Enlaza en una sola sentencia todos los partidos del bloque con la liquidación de su árbitro
+    private static final String VINCULAR_PARTIDOS =
+            "UPDATE partido SET liquidacion_id = " +
+            "(SELECT l.id FROM liquidacion l WHERE l.arbitro_id = partido.arbitro_id AND l.periodo = :periodo) " +
+            "WHERE arbitro_id IN (:arbitroIds) AND fecha BETWEEN :fechaInicio AND :fechaFin " +
+            "AND liquidacion_id IS NULL";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public LiquidacionJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta una liquidación PENDIENTE por árbitro. totales: arbitroId -> total.
+     */
+    public int insertarLiquidaciones(YearMonth periodo, LocalDate fechaGeneracion, Map<Long, BigDecimal> totales) {
+        SqlParameterSource[] lote = totales.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("periodo", periodo.toString())
+                        .addValue("fechaGeneracion", Date.valueOf(fechaGeneracion))
+                        .addValue("estado", EstadoLiquidacion.PENDIENTE.name())
+                        .addValue("arbitroId", e.getKey())
+                        .addValue("total", e.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        return FilasAfectadas.contar(jdbcTemplate.batchUpdate(INSERT_LIQUIDACION, lote));
+    }
+
+    /**
+     * Inserta una notificación para cada árbitro. mensajes: arbitroId -> mensaje.
+     */
+    public int insertarNotificacionesArbitro(Map<Long, String> mensajes) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        SqlParameterSource[] lote = mensajes.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("mensaje", e.getValue())
+                        .addValue("fecha", ahora)
+                        .addValue("arbitroId", e.getKey())
+                        .addValue("tipo", TipoDestinatario.ARBITRO.name()))
+                .toArray(SqlParameterSource[]::new);
+        return FilasAfectadas.contar(jdbcTemplate.batchUpdate(INSERT_NOTIFICACION, lote));
+    }
+
+    /**
+     * Asigna la liquidación del periodo a los partidos sin liquidar de los árbitros dados.
+     */
+    public int vincularPartidos(YearMonth periodo, LocalDate fechaInicio, LocalDate fechaFin, List<Long> arbitroIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("periodo", periodo.toString())
+                .addValue("arbitroIds", arbitroIds)
+                .addValue("fechaInicio", Date.valueOf(fechaInicio))
+                .addValue("fechaFin", Date.valueOf(fechaFin));
+        return jdbcTemplate.update(VINCULAR_PARTIDOS, params);
+    }
+}
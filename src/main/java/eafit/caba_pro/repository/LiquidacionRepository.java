@@ -2,24 +2,45 @@ package eafit.caba_pro.repository;
 
 import java.time.YearMonth;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import eafit.caba_pro.model.Liquidacion;
+import eafit.caba_pro.model.PlanesCarga;
 
 @Repository
 public interface LiquidacionRepository extends JpaRepository<Liquidacion, Long> {
 
+    @EntityGraph(PlanesCarga.LIQUIDACION_LISTADO)
     List<Liquidacion> findByArbitroIdAndPeriodo(Long arbitroId, YearMonth periodo);
 
+    @EntityGraph(PlanesCarga.LIQUIDACION_LISTADO)
     List<Liquidacion> findByPeriodo(YearMonth periodo);
 
+    @Query("SELECT l.id FROM Liquidacion l WHERE l.periodo = :periodo ORDER BY l.arbitro.nombre, l.id")
+    List<Long> findIdsByPeriodo(@Param("periodo") YearMonth periodo);
+
     boolean existsByArbitroIdAndPeriodo(Long arbitroId, YearMonth periodo);
 
+    // Igual que existsByArbitroIdAndPeriodo pero para un lote de árbitros en una sola consulta
+    @Query("SELECT l.arbitro.id FROM Liquidacion l WHERE l.periodo = :periodo AND l.arbitro.id IN :arbitroIds")
+    List<Long> findArbitroIdsLiquidados(@Param("periodo") YearMonth periodo, @Param("arbitroIds") List<Long> arbitroIds);
+
+    @EntityGraph(PlanesCarga.LIQUIDACION_LISTADO)
     List<Liquidacion> findByEstado(Liquidacion.EstadoLiquidacion estado);
 
+    @EntityGraph(PlanesCarga.LIQUIDACION_LISTADO)
     List<Liquidacion> findByArbitroIdAndEstado(Long arbitroId, Liquidacion.EstadoLiquidacion estado);
 
+    @EntityGraph(PlanesCarga.LIQUIDACION_LISTADO)
     List<Liquidacion> findByArbitroId(Long arbitroId);
+
+    // Todo lo que recorre la plantilla pdf/liquidacion en una consulta
+    @EntityGraph(PlanesCarga.LIQUIDACION_DETALLE)
+    Optional<Liquidacion> findDetalleById(Long id);
 }
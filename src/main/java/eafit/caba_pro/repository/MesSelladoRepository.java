@@ -0,0 +1,26 @@
+package eafit.caba_pro.repository;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import eafit.caba_pro.model.MesSellado;
+
+@Repository
+public interface MesSelladoRepository extends JpaRepository<MesSellado, Long> {
+
+    Optional<MesSellado> findFirstByOrderByPeriodoDesc();
+
+    Optional<MesSellado> findByPeriodo(YearMonth periodo);
+
+    // Cuenta en la base, como los resúmenes, para que dos correcciones a la vez no se pisen
+    @Modifying
+    @Query("UPDATE MesSellado m SET m.correcciones = m.correcciones + 1 WHERE m.periodo IN :periodos")
+    int registrarCorreccion(@Param("periodos") Collection<YearMonth> periodos);
+}
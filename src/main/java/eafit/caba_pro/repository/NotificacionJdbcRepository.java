@@ -0,0 +1,112 @@
+package eafit.caba_pro.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import eafit.caba_pro.model.Notificacion.TipoDestinatario;
+
+/**
+ * Outbox de notificaciones (tabla notificacion_pendiente) y su entrega por lotes a la tabla
+ * notificacion. entregar debe llamarse dentro de una transacción.
+ */
+@Repository
+public class NotificacionJdbcRepository {
+
+    private static final String INSERT_PENDIENTE =
+            "INSERT INTO notificacion_pendiente (mensaje, fecha, arbitro_id, tipo_destinatario) " +
+            "VALUES (:mensaje, :fecha, :arbitroId, :tipo)";
+
+    private static final String PENDIENTES_ANTES_DE =
+            "SELECT id FROM notificacion_pendiente WHERE fecha < :limite ORDER BY id LIMIT :maximo";
+
+    // FOR UPDATE: si el reintento y el despacho toman la misma fila, el segundo espera y ya no la ve
+    private static final String BLOQUEAR_PENDIENTES =
+            "SELECT id, mensaje, fecha, arbitro_id, tipo_destinatario FROM notificacion_pendiente " +
+            "WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+
+    private static final String INSERT_NOTIFICACION =
+            "INSERT INTO notificacion (mensaje, fecha, arbitro_id, tipo_destinatario) " +
+            "VALUES (:mensaje, :fecha, :arbitroId, :tipo)";
+
+    private static final String BORRAR_PENDIENTES = "DELETE FROM notificacion_pendiente WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public NotificacionJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Guarda la notificación en el outbox y retorna el id de la fila pendiente.
+     */
+    public Long insertarPendiente(String mensaje, TipoDestinatario tipo, Long arbitroId, LocalDateTime fecha) {
+        KeyHolder clave = new GeneratedKeyHolder();
+        jdbcTemplate.update(INSERT_PENDIENTE, new MapSqlParameterSource()
+                .addValue("mensaje", mensaje)
+                .addValue("fecha", Timestamp.valueOf(fecha))
+                .addValue("arbitroId", arbitroId)
+                .addValue("tipo", tipo.name()), clave, new String[] {"id"});
+        return clave.getKey().longValue();
+    }
+
+    /**
+     * Ids de las filas del outbox escritas antes de limite, las más viejas primero.
+     */
+    public List<Long> idsPendientesAntesDe(LocalDateTime limite, int maximo) {
+        return jdbcTemplate.queryForList(PENDIENTES_ANTES_DE, new MapSqlParameterSource()
+                .addValue("limite", Timestamp.valueOf(limite))
+                .addValue("maximo", maximo), Long.class);
+    }
+
+    /**
+     * Pasa las filas pendientes dadas a la tabla notificacion en un solo lote JDBC y las borra
+     * del outbox. Los ids que ya no están (entregados por otro hilo) se ignoran.
+     * Retorna las notificaciones creadas, con su id en la tabla notificacion.
+     */
+    public List<Entregada> entregar(List<Long> pendienteIds) {
+        if (pendienteIds.isEmpty()) return List.of();
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", pendienteIds);
+        List<Entregada> pendientes = jdbcTemplate.query(BLOQUEAR_PENDIENTES, ids, (rs, i) -> new Entregada(
+                rs.getLong("id"),
+                rs.getString("mensaje"),
+                rs.getTimestamp("fecha").toLocalDateTime(),
+                rs.getObject("arbitro_id", Long.class),
+                TipoDestinatario.valueOf(rs.getString("tipo_destinatario"))));
+        if (pendientes.isEmpty()) return List.of();
+
+        SqlParameterSource[] lote = pendientes.stream()
+                .map(p -> new MapSqlParameterSource()
+                        .addValue("mensaje", p.mensaje())
+                        .addValue("fecha", Timestamp.valueOf(p.fecha()))
+                        .addValue("arbitroId", p.arbitroId())
+                        .addValue("tipo", p.tipo().name()))
+                .toArray(SqlParameterSource[]::new);
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICACION, lote, claves, new String[] {"id"});
+        jdbcTemplate.update(BORRAR_PENDIENTES, new MapSqlParameterSource("ids",
+                pendientes.stream().map(Entregada::id).toList()));
+
+        List<Entregada> entregadas = new ArrayList<>(pendientes.size());
+        for (int i = 0; i < pendientes.size(); i++) {
+            Entregada p = pendientes.get(i);
+            // El nombre de la columna de la clave depende del driver (id / ID)
+            Number id = (Number) claves.getKeyList().get(i).values().iterator().next();
+            entregadas.add(new Entregada(id.longValue(), p.mensaje(), p.fecha(), p.arbitroId(), p.tipo()));
+        }
+        return entregadas;
+    }
+
+    /**
+     * Notificación leída del outbox (id de la fila pendiente) o ya entregada (id en notificacion).
+     */
+    public record Entregada(Long id, String mensaje, LocalDateTime fecha, Long arbitroId, TipoDestinatario tipo) {}
+}
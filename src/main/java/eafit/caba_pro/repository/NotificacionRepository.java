@@ -6,6 +6,7 @@ import eafit.caba_pro.model.Notificacion.TipoDestinatario;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -15,5 +16,10 @@ public interface NotificacionRepository extends JpaRepository<Notificacion, Long
 
     List<Notificacion> findByDestinatarioId(Long id);
 
+    // Reenvío del stream SSE a partir del último evento que recibió el cliente
+    List<Notificacion> findByDestinatarioIdAndIdGreaterThanOrderById(Long arbitroId, Long id, Limit limite);
+
+    List<Notificacion> findByTipoDestinatarioAndIdGreaterThanOrderById(TipoDestinatario tipoDestinatario, Long id, Limit limite);
+
     //List<Notificacion> findByArbitroId(Long arbitroId);
 }
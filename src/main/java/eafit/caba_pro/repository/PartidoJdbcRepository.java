@@ -0,0 +1,35 @@
+package eafit.caba_pro.repository;
+
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Escrituras masivas sobre partidos que no necesitan cargar las entidades.
+ */
+@Repository
+public class PartidoJdbcRepository {
+
+    // Un valor nulo deja el dato anterior (el API no siempre trae ambos)
+    private static final String ACTUALIZAR_CLIMA =
+            "UPDATE partido SET clima = COALESCE(?, clima), temperatura = COALESCE(?, temperatura) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PartidoJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int actualizarClima(List<ClimaPartido> cambios) {
+        if (cambios.isEmpty()) return 0;
+        return FilasAfectadas.contar(jdbcTemplate.batchUpdate(ACTUALIZAR_CLIMA, cambios, 500, (ps, c) -> {
+            ps.setString(1, c.clima());
+            ps.setObject(2, c.temperatura(), Types.INTEGER);
+            ps.setLong(3, c.partidoId());
+        }));
+    }
+
+    public record ClimaPartido(Long partidoId, String clima, Integer temperatura) {}
+}
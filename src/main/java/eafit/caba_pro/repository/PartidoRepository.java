@@ -1,9 +1,17 @@
 package eafit.caba_pro.repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,24 +19,44 @@ import org.springframework.stereotype.Repository;
 
 import eafit.caba_pro.model.Arbitro;
 import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.model.PlanesCarga;
 import jakarta.transaction.Transactional;
 
 @Repository
-public interface PartidoRepository extends JpaRepository<Partido, Long> {
+public interface PartidoRepository extends JpaRepository<Partido, Long>, JpaSpecificationExecutor<Partido>,
+                                           PartidoResumenRepository {
 
-    List<Partido> findByTorneoIsNull();           
+    // Listado de administración: equipos y árbitro en la misma consulta
+    @Override
+    @EntityGraph(PlanesCarga.PARTIDO_LISTADO)
+    List<Partido> findAll();
+
+    // Consultas con PartidoSpecs que devuelven entidades
+    @Override
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
+    List<Partido> findAll(Specification<Partido> spec, Sort sort);
+
+    @EntityGraph(PlanesCarga.PARTIDO_API)
+    Optional<Partido> findConDetalleById(Long id);
+
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
+    List<Partido> findByTorneoIsNull();
     boolean existsByArbitroId(Long arbitroId);
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     List<Partido> findByTorneo_Id(Long torneoId);
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     List<Partido> findByTorneoIsNullAndEstado(Partido.EstadoPartido estado);
     boolean existsByTorneo_Id(Long torneoId);
     long countByTorneo_Id(Long torneoId);
 
     
     // Encontrar partidos por árbitro
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     @Query("SELECT p FROM Partido p WHERE p.arbitro = :arbitro")
     List<Partido> findByArbitro(@Param("arbitro") Arbitro arbitro);
     
     // Encontrar partidos de un árbitro en un rango de fechas
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     @Query("SELECT p FROM Partido p WHERE p.arbitro = :arbitro " +
            "AND p.fecha BETWEEN :fechaInicio AND :fechaFin")
     List<Partido> findByArbitroAndFechaBetween(@Param("arbitro") Arbitro arbitro, 
@@ -36,30 +64,32 @@ public interface PartidoRepository extends JpaRepository<Partido, Long> {
                                                @Param("fechaFin") LocalDate fechaFin);
     
     // Encontrar partidos futuros de un árbitro
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     @Query("SELECT p FROM Partido p WHERE p.arbitro = :arbitro " +
            "AND p.fecha >= :fecha ORDER BY p.fecha ASC, p.hora ASC")
     List<Partido> findFuturePartidosByArbitro(@Param("arbitro") Arbitro arbitro, @Param("fecha") LocalDate fecha);
     
     // Encontrar partidos pasados de un árbitro
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     @Query("SELECT p FROM Partido p WHERE p.arbitro = :arbitro " +
            "AND p.fecha < :fecha ORDER BY p.fecha DESC, p.hora DESC")
     List<Partido> findPastPartidosByArbitro(@Param("arbitro") Arbitro arbitro, @Param("fecha") LocalDate fecha);
     
     // Encontrar partidos por fecha específica
+    @EntityGraph(PlanesCarga.PARTIDO_LISTADO)
     List<Partido> findByFecha(LocalDate fecha);
     
     // Encontrar partidos en un rango de fechas
+    @EntityGraph(PlanesCarga.PARTIDO_LISTADO)
     List<Partido> findByFechaBetween(LocalDate fechaInicio, LocalDate fechaFin);
     
     // Encontrar partidos por estado
+    @EntityGraph(PlanesCarga.PARTIDO_LISTADO)
     List<Partido> findByEstado(Partido.EstadoPartido estado);
     
-    // Verificar disponibilidad de un árbitro en una fecha/hora específica
-    @Query("SELECT COUNT(p) > 0 FROM Partido p WHERE p.arbitro = :arbitro " +
-           "AND p.fecha = :fecha AND p.hora = :hora")
-    boolean isArbitroOcupado(@Param("arbitro") Arbitro arbitro, 
-                             @Param("fecha") LocalDate fecha, 
-                             @Param("hora") java.time.LocalTime hora);
+    // Asignaciones para el índice de disponibilidad: [partidoId, arbitroId, fecha, hora, estado]
+    @Query("SELECT p.id, p.arbitro.id, p.fecha, p.hora, p.estado FROM Partido p WHERE p.arbitro IS NOT NULL")
+    List<Object[]> findAsignacionesDeArbitros();
     
     // Obtener fechas con partidos para un árbitro (para el calendario)
     @Query("SELECT DISTINCT p.fecha FROM Partido p WHERE p.arbitro = :arbitro")
@@ -68,15 +98,21 @@ public interface PartidoRepository extends JpaRepository<Partido, Long> {
     // MÉTODOS ADICIONALES PARA LA RELACIÓN BIDIRECCIONAL
     
     // Encontrar partidos sin árbitro asignado
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     @Query("SELECT p FROM Partido p WHERE p.arbitro IS NULL")
     List<Partido> findPartidosSinArbitro();
     
     // Encontrar partidos sin árbitro en un rango de fechas
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     @Query("SELECT p FROM Partido p WHERE p.arbitro IS NULL " +
            "AND p.fecha BETWEEN :fechaInicio AND :fechaFin")
     List<Partido> findPartidosSinArbitroBetween(@Param("fechaInicio") LocalDate fechaInicio, 
                                                 @Param("fechaFin") LocalDate fechaFin);
     
+    // Partidos asignados por árbitro: [arbitroId, cantidad]
+    @Query("SELECT p.arbitro.id, COUNT(p) FROM Partido p WHERE p.arbitro IS NOT NULL GROUP BY p.arbitro.id")
+    List<Object[]> contarPartidosPorArbitro();
+
     // Contar partidos por árbitro
     @Query("SELECT COUNT(p) FROM Partido p WHERE p.arbitro = :arbitro")
     Long countByArbitro(@Param("arbitro") Arbitro arbitro);
@@ -85,7 +121,28 @@ public interface PartidoRepository extends JpaRepository<Partido, Long> {
     long countByEstado(@Param("estado") Partido.EstadoPartido estado);
 
     List<Partido> findByArbitroAndFechaBetweenAndLiquidacionIsNull(Arbitro arbitro,LocalDate fechaInicio,LocalDate fechaFin);
-    
+
+    /**
+     * Totales por árbitro de los partidos sin liquidar del periodo: [arbitroId, cantidad, total].
+     * Excluye a los árbitros que ya tienen liquidación para ese periodo.
+     */
+    @Query("SELECT a.id, COUNT(p), SUM(e.honorarioBase) FROM Partido p JOIN p.arbitro a JOIN a.escalafon e " +
+           "WHERE p.fecha BETWEEN :fechaInicio AND :fechaFin AND p.liquidacion IS NULL " +
+           "AND NOT EXISTS (SELECT l.id FROM Liquidacion l WHERE l.arbitro = a AND l.periodo = :periodo) " +
+           "GROUP BY a.id ORDER BY a.id")
+    List<Object[]> resumirPartidosSinLiquidar(@Param("periodo") YearMonth periodo,
+                                              @Param("fechaInicio") LocalDate fechaInicio,
+                                              @Param("fechaFin") LocalDate fechaFin);
+
+    /**
+     * Partidos a los que se les actualiza el clima: [id, fecha, hora] dentro del rango, sin el estado excluido.
+     */
+    @Query("SELECT p.id, p.fecha, p.hora FROM Partido p " +
+           "WHERE p.fecha BETWEEN :desde AND :hasta AND p.estado <> :excluido ORDER BY p.fecha, p.hora")
+    List<Object[]> findParaActualizarClima(@Param("desde") LocalDate desde,
+                                           @Param("hasta") LocalDate hasta,
+                                           @Param("excluido") Partido.EstadoPartido excluido);
+
     @Transactional
     @Modifying
     @Query("update Partido p set p.torneo = null where p.torneo.id = :torneoId")
@@ -97,38 +154,85 @@ public interface PartidoRepository extends JpaRepository<Partido, Long> {
     // ==================== MÉTODOS PARA ESTADÍSTICAS DE EQUIPOS ====================
     
     /**
-     * Contar partidos de un equipo (como local o visitante)
+     * Posiciones de todos los equipos en una sola pasada: cada partido FINALIZADO con marcador
+     * se une a sus dos equipos y se agrega por id.
+     * Columnas: [equipoId, jugados, ganados, empatados, perdidos, golesFavor, golesContra]
      */
-    @Query("SELECT COUNT(p) FROM Partido p WHERE p.equipoLocal.nombre = :equipo OR p.equipoVisitante.nombre = :equipo")
-    int countPartidosByEquipo(@Param("equipo") String equipo);
+    @Query("SELECT e.id, COUNT(p), " +
+           "SUM(CASE WHEN (p.equipoLocal.id = e.id AND p.golesLocal > p.golesVisitante) OR " +
+           "(p.equipoVisitante.id = e.id AND p.golesVisitante > p.golesLocal) THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN p.golesLocal = p.golesVisitante THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN (p.equipoLocal.id = e.id AND p.golesLocal < p.golesVisitante) OR " +
+           "(p.equipoVisitante.id = e.id AND p.golesVisitante < p.golesLocal) THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN p.equipoLocal.id = e.id THEN p.golesLocal ELSE p.golesVisitante END), " +
+           "SUM(CASE WHEN p.equipoLocal.id = e.id THEN p.golesVisitante ELSE p.golesLocal END) " +
+           "FROM Partido p JOIN Equipo e ON e.id = p.equipoLocal.id OR e.id = p.equipoVisitante.id " +
+           "WHERE p.estado = 'FINALIZADO' AND p.golesLocal IS NOT NULL AND p.golesVisitante IS NOT NULL " +
+           "GROUP BY e.id")
+    List<Object[]> agregarEstadisticasPorEquipo();
 
     /**
-     * Contar partidos ganados por un equipo
+     * Actividad mensual de todos los árbitros en una sola pasada, para reconstruir actividad_arbitro.
+     * Columnas: [arbitroId, año, mes, partidos, finalizados]
      */
-    @Query("SELECT COUNT(p) FROM Partido p WHERE " +
-           "(p.equipoLocal.nombre = :equipo AND p.golesLocal > p.golesVisitante AND p.estado = 'FINALIZADO') OR " +
-           "(p.equipoVisitante.nombre = :equipo AND p.golesVisitante > p.golesLocal AND p.estado = 'FINALIZADO')")
-    int countPartidosGanadosByEquipo(@Param("equipo") String equipo);
+    @Query("SELECT p.arbitro.id, YEAR(p.fecha), MONTH(p.fecha), COUNT(p), " +
+           "SUM(CASE WHEN p.estado = 'FINALIZADO' THEN 1 ELSE 0 END) " +
+           "FROM Partido p WHERE p.arbitro IS NOT NULL " +
+           "GROUP BY p.arbitro.id, YEAR(p.fecha), MONTH(p.fecha)")
+    List<Object[]> agregarActividadPorArbitro();
 
     /**
-     * Contar partidos perdidos por un equipo
+     * Huella de cada partido desde un día, con el honorario de su árbitro, para reconstruir resumen_partidos.
+     * Columnas: [fecha, estado, arbitroId, localId, visitanteId, torneoId, honorarioBase]
      */
-    @Query("SELECT COUNT(p) FROM Partido p WHERE " +
-           "(p.equipoLocal.nombre = :equipo AND p.golesLocal < p.golesVisitante AND p.estado = 'FINALIZADO') OR " +
-           "(p.equipoVisitante.nombre = :equipo AND p.golesVisitante < p.golesLocal AND p.estado = 'FINALIZADO')")
-    int countPartidosPerdidosByEquipo(@Param("equipo") String equipo);
+    @Query("SELECT p.fecha, p.estado, a.id, p.equipoLocal.id, p.equipoVisitante.id, p.torneo.id, e.honorarioBase " +
+           "FROM Partido p LEFT JOIN p.arbitro a LEFT JOIN a.escalafon e WHERE p.fecha >= :desde")
+    List<Object[]> findHuellasDesde(@Param("desde") LocalDate desde);
+
+    // Mismas columnas que findHuellasDesde, para los partidos en [desde, hasta)
+    @Query("SELECT p.fecha, p.estado, a.id, p.equipoLocal.id, p.equipoVisitante.id, p.torneo.id, e.honorarioBase " +
+           "FROM Partido p LEFT JOIN p.arbitro a LEFT JOIN a.escalafon e WHERE p.fecha >= :desde AND p.fecha < :hasta")
+    List<Object[]> findHuellasEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Meses con partidos del árbitro: [año, mes]
+    @Query("SELECT DISTINCT YEAR(p.fecha), MONTH(p.fecha) FROM Partido p WHERE p.arbitro.id = :arbitroId AND p.fecha IS NOT NULL")
+    List<Object[]> findMesesDeArbitro(@Param("arbitroId") Long arbitroId);
+
+    @Query("SELECT MIN(p.fecha) FROM Partido p")
+    LocalDate findPrimeraFecha();
+
+    // Partidos del árbitro en el día dado que empiezan después de la hora dada
+    @Query("SELECT COUNT(p) FROM Partido p WHERE p.arbitro.id = :arbitroId AND p.fecha = :fecha AND p.hora > :hora")
+    long contarDelDiaDespuesDe(@Param("arbitroId") Long arbitroId, @Param("fecha") LocalDate fecha, @Param("hora") LocalTime hora);
 
     /**
-     * Contar partidos empatados por un equipo
+     * Actividad de un árbitro en [inicio, fin); el rango sobre la fecha usa idx_partido_arbitro_fecha.
+     * Columnas: [partidos, finalizados]
      */
-    @Query("SELECT COUNT(p) FROM Partido p WHERE " +
-           "(p.equipoLocal.nombre = :equipo OR p.equipoVisitante.nombre = :equipo) AND " +
-           "p.golesLocal = p.golesVisitante AND p.estado = 'FINALIZADO'")
-    int countPartidosEmpatadosByEquipo(@Param("equipo") String equipo);
+    @Query("SELECT COUNT(p), SUM(CASE WHEN p.estado = 'FINALIZADO' THEN 1 ELSE 0 END) FROM Partido p " +
+           "WHERE p.arbitro.id = :arbitroId AND p.fecha >= :inicio AND p.fecha < :fin")
+    List<Object[]> contarActividad(@Param("arbitroId") Long arbitroId, @Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+    /**
+     * Partidos de un torneo en orden cronológico, para calcular su tabla de posiciones.
+     * Columnas: [localId, visitanteId, estado, golesLocal, golesVisitante]
+     */
+    @Query("SELECT p.equipoLocal.id, p.equipoVisitante.id, p.estado, p.golesLocal, p.golesVisitante " +
+           "FROM Partido p WHERE p.torneo.id = :torneoId ORDER BY p.fecha, p.hora, p.id")
+    List<Object[]> findResultadosDeTorneo(@Param("torneoId") Long torneoId);
+
+    /**
+     * Igual que findResultadosDeTorneo, limitado a los partidos de ciertos equipos.
+     */
+    @Query("SELECT p.equipoLocal.id, p.equipoVisitante.id, p.estado, p.golesLocal, p.golesVisitante " +
+           "FROM Partido p WHERE p.torneo.id = :torneoId " +
+           "AND (p.equipoLocal.id IN :equipos OR p.equipoVisitante.id IN :equipos) ORDER BY p.fecha, p.hora, p.id")
+    List<Object[]> findResultadosDeTorneoPorEquipos(@Param("torneoId") Long torneoId, @Param("equipos") Collection<Long> equipos);
 
     /**
      * Obtener partidos programados de un equipo
      */
+    @EntityGraph(PlanesCarga.PARTIDO_LISTADO)
     @Query("SELECT p FROM Partido p WHERE " +
            "(p.equipoLocal.nombre = :equipo OR p.equipoVisitante.nombre = :equipo) AND " +
            "p.estado = 'PROGRAMADO' ORDER BY p.fecha ASC, p.hora ASC")
@@ -137,6 +241,7 @@ public interface PartidoRepository extends JpaRepository<Partido, Long> {
     /**
      * Obtener partidos finalizados de un equipo
      */
+    @EntityGraph(PlanesCarga.PARTIDO_LISTADO)
     @Query("SELECT p FROM Partido p WHERE " +
            "(p.equipoLocal.nombre = :equipo OR p.equipoVisitante.nombre = :equipo) AND " +
            "p.estado = 'FINALIZADO' ORDER BY p.fecha DESC, p.hora DESC")
@@ -145,6 +250,7 @@ public interface PartidoRepository extends JpaRepository<Partido, Long> {
     /**
      * Obtener últimos 5 partidos finalizados de un equipo
      */
+    @EntityGraph(PlanesCarga.PARTIDO_LISTADO)
     @Query("SELECT p FROM Partido p WHERE " +
            "(p.equipoLocal.nombre = :equipo OR p.equipoVisitante.nombre = :equipo) AND " +
            "p.estado = 'FINALIZADO' AND p.fecha <= CURRENT_DATE " +
@@ -154,6 +260,7 @@ public interface PartidoRepository extends JpaRepository<Partido, Long> {
     /**
      * Obtener próximos 5 partidos programados de un equipo
      */
+    @EntityGraph(PlanesCarga.PARTIDO_LISTADO)
     @Query("SELECT p FROM Partido p WHERE " +
            "(p.equipoLocal.nombre = :equipo OR p.equipoVisitante.nombre = :equipo) AND " +
            "p.estado = 'PROGRAMADO' AND p.fecha >= CURRENT_DATE " +
@@ -161,10 +268,12 @@ public interface PartidoRepository extends JpaRepository<Partido, Long> {
     List<Partido> findProximos5PartidosByEquipo(@Param("equipo") String equipo);
     
     // Encontrar partidos finalizados por árbitro
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     @Query("SELECT p FROM Partido p WHERE p.arbitro = :arbitro AND p.estado = :estado ORDER BY p.fecha DESC")
     List<Partido> findByArbitroAndEstado(@Param("arbitro") Arbitro arbitro, @Param("estado") Partido.EstadoPartido estado);
     
     // Encontrar partidos finalizados por árbitro y que involucren un equipo específico
+    @EntityGraph(PlanesCarga.PARTIDO_CALENDARIO)
     @Query("SELECT p FROM Partido p WHERE p.arbitro = :arbitro AND p.estado = :estado " +
            "AND (p.equipoLocal.nombre = :equipoNombre OR p.equipoVisitante.nombre = :equipoNombre) " +
            "ORDER BY p.fecha DESC")
@@ -0,0 +1,19 @@
+package eafit.caba_pro.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import eafit.caba_pro.model.Partido;
+
+/**
+ * Listados de partidos como columnas sueltas, filtrados con PartidoSpecs.
+ */
+public interface PartidoResumenRepository {
+
+    /**
+     * Hasta limite partidos que cumplen el filtro, en orden (fecha, hora, id), en una sola consulta.
+     * Columnas: [id, fecha, hora, estado, localId, local, visitanteId, visitante, arbitroId, arbitro, golesLocal, golesVisitante, torneoId]
+     */
+    List<Object[]> findResumenes(Specification<Partido> filtro, int limite);
+}
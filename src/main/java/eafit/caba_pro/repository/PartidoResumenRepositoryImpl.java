@@ -0,0 +1,49 @@
+package eafit.caba_pro.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import eafit.caba_pro.model.Arbitro;
+import eafit.caba_pro.model.Equipo;
+import eafit.caba_pro.model.Partido;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Implementación de PartidoResumenRepository con Criteria: el filtro se aplica sobre la misma
+ * raíz de la que se seleccionan las columnas, así que no se carga ninguna entidad.
+ */
+public class PartidoResumenRepositoryImpl implements PartidoResumenRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> findResumenes(Specification<Partido> filtro, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        Root<Partido> p = cq.from(Partido.class);
+        Join<Partido, Equipo> local = p.join("equipoLocal");
+        Join<Partido, Equipo> visitante = p.join("equipoVisitante");
+        Join<Partido, Arbitro> arbitro = p.join("arbitro", JoinType.LEFT);
+
+        cq.multiselect(p.get("id"), p.get("fecha"), p.get("hora"), p.get("estado"),
+            local.get("id"), local.get("nombre"), visitante.get("id"), visitante.get("nombre"),
+            arbitro.get("id"), arbitro.get("nombre"), p.get("golesLocal"), p.get("golesVisitante"),
+            p.get("torneo").get("id"));
+        Predicate condicion = filtro != null ? filtro.toPredicate(p, cq, cb) : null;
+        if (condicion != null) {
+            cq.where(condicion);
+        }
+        cq.orderBy(cb.asc(p.get("fecha")), cb.asc(p.get("hora")), cb.asc(p.get("id")));
+
+        return entityManager.createQuery(cq).setMaxResults(limite).getResultList();
+    }
+}
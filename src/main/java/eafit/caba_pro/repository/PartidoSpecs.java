@@ -0,0 +1,110 @@
+package eafit.caba_pro.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import eafit.caba_pro.dto.FiltroPartidosDTO;
+import eafit.caba_pro.model.Partido;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Filtros de Partido que se combinan con and() y se resuelven en SQL. Los índices de la tabla
+ * partido cubren estado, árbitro, equipos y torneo junto con la fecha.
+ */
+public final class PartidoSpecs {
+
+    private PartidoSpecs() {
+    }
+
+    public static Specification<Partido> conEstado(Partido.EstadoPartido estado) {
+        return (root, query, cb) -> cb.equal(root.get("estado"), estado);
+    }
+
+    public static Specification<Partido> conArbitro(Long arbitroId) {
+        return (root, query, cb) -> cb.equal(root.get("arbitro").get("id"), arbitroId);
+    }
+
+    public static Specification<Partido> sinArbitro() {
+        return (root, query, cb) -> cb.isNull(root.get("arbitro"));
+    }
+
+    // Como local o como visitante
+    public static Specification<Partido> deEquipo(Long equipoId) {
+        return (root, query, cb) -> cb.or(
+            cb.equal(equipo(root, "equipoLocal").get("id"), equipoId),
+            cb.equal(equipo(root, "equipoVisitante").get("id"), equipoId));
+    }
+
+    public static Specification<Partido> deEquipoNombre(String nombre) {
+        return (root, query, cb) -> cb.or(
+            cb.equal(equipo(root, "equipoLocal").get("nombre"), nombre),
+            cb.equal(equipo(root, "equipoVisitante").get("nombre"), nombre));
+    }
+
+    public static Specification<Partido> deTorneo(Long torneoId) {
+        return (root, query, cb) -> cb.equal(root.get("torneo").get("id"), torneoId);
+    }
+
+    public static Specification<Partido> desde(LocalDate fecha) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("fecha"), fecha);
+    }
+
+    public static Specification<Partido> hasta(LocalDate fecha) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("fecha"), fecha);
+    }
+
+    // Partidos posteriores al cursor en el orden (fecha, hora, id)
+    public static Specification<Partido> despuesDe(LocalDate fecha, LocalTime hora, Long id) {
+        return (root, query, cb) -> cb.or(
+            cb.greaterThan(root.get("fecha"), fecha),
+            cb.and(cb.equal(root.get("fecha"), fecha), cb.or(
+                cb.greaterThan(root.get("hora"), hora),
+                cb.and(cb.equal(root.get("hora"), hora), cb.greaterThan(root.get("id"), id)))));
+    }
+
+    /**
+     * Combina los criterios presentes en el filtro; los nulos no filtran.
+     */
+    public static Specification<Partido> segun(FiltroPartidosDTO filtro) {
+        Specification<Partido> spec = Specification.unrestricted();
+        if (filtro.estado() != null) {
+            spec = spec.and(conEstado(filtro.estado()));
+        }
+        if (filtro.arbitroId() != null) {
+            spec = spec.and(conArbitro(filtro.arbitroId()));
+        }
+        if (Boolean.TRUE.equals(filtro.sinArbitro())) {
+            spec = spec.and(sinArbitro());
+        }
+        if (filtro.equipoId() != null) {
+            spec = spec.and(deEquipo(filtro.equipoId()));
+        }
+        if (filtro.equipo() != null) {
+            spec = spec.and(deEquipoNombre(filtro.equipo()));
+        }
+        if (filtro.torneoId() != null) {
+            spec = spec.and(deTorneo(filtro.torneoId()));
+        }
+        if (filtro.desde() != null) {
+            spec = spec.and(desde(filtro.desde()));
+        }
+        if (filtro.hasta() != null) {
+            spec = spec.and(hasta(filtro.hasta()));
+        }
+        return spec;
+    }
+
+    // El join que ya hizo la consulta (PartidoResumenRepositoryImpl) para no unir la tabla dos veces
+    private static Path<?> equipo(Root<Partido> root, String atributo) {
+        for (Join<Partido, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals(atributo)) {
+                return join;
+            }
+        }
+        return root.get(atributo);
+    }
+}
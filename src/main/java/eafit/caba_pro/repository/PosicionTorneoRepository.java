@@ -0,0 +1,33 @@
+package eafit.caba_pro.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import eafit.caba_pro.model.PosicionTorneo;
+
+@Repository
+public interface PosicionTorneoRepository extends JpaRepository<PosicionTorneo, Long> {
+
+    List<PosicionTorneo> findByTorneoIdAndEquipoIdIn(Long torneoId, Collection<Long> equipoIds);
+
+    List<PosicionTorneo> findByTorneoId(Long torneoId);
+
+    /**
+     * Tabla ordenada de un torneo con el nombre de cada equipo.
+     * Columnas: [PosicionTorneo, nombreEquipo]
+     */
+    @Query("SELECT p, e.nombre FROM PosicionTorneo p JOIN Equipo e ON e.id = p.equipoId " +
+           "WHERE p.torneoId = :torneoId " +
+           "ORDER BY p.puntos DESC, (p.puntosFavor - p.puntosContra) DESC, p.puntosFavor DESC, p.equipoId")
+    List<Object[]> findTablaConNombres(@Param("torneoId") Long torneoId);
+
+    @Modifying
+    @Query("DELETE FROM PosicionTorneo p WHERE p.torneoId = :torneoId")
+    int deleteByTorneoId(@Param("torneoId") Long torneoId);
+}
@@ -48,4 +48,23 @@ public interface ReseñaRepository extends JpaRepository<Reseña, Long> {
     List<Reseña> findByArbitroAndPartidoAndEntrenadorId(@Param("arbitro") Arbitro arbitro, 
                                                         @Param("partido") Partido partido, 
                                                         @Param("entrenadorId") Long entrenadorId);
+
+    /**
+     * Resumen de todas las reseñas por árbitro en una sola consulta; de aquí se reconstruye calificacion_arbitro.
+     * Columnas: [arbitroId, total, suma, estrellas1..estrellas5, ultimaReseña]
+     */
+    @Query("SELECT r.arbitro.id, COUNT(r), SUM(r.puntuacion), " +
+           "SUM(CASE WHEN r.puntuacion = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN r.puntuacion = 2 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN r.puntuacion = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN r.puntuacion = 4 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN r.puntuacion = 5 THEN 1 ELSE 0 END), MAX(r.fechaCreacion) " +
+           "FROM Reseña r GROUP BY r.arbitro.id")
+    List<Object[]> agregarReseñas();
+
+    // Mismas columnas que agregarReseñas, para un árbitro
+    @Query("SELECT r.arbitro.id, COUNT(r), SUM(r.puntuacion), " +
+           "SUM(CASE WHEN r.puntuacion = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN r.puntuacion = 2 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN r.puntuacion = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN r.puntuacion = 4 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN r.puntuacion = 5 THEN 1 ELSE 0 END), MAX(r.fechaCreacion) " +
+           "FROM Reseña r WHERE r.arbitro.id = :arbitroId GROUP BY r.arbitro.id")
+    List<Object[]> agregarReseñasDe(@Param("arbitroId") Long arbitroId);
 }
@@ -0,0 +1,67 @@
+package eafit.caba_pro.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import eafit.caba_pro.model.ResumenPartidos;
+import eafit.caba_pro.model.ResumenPartidos.Dimension;
+import eafit.caba_pro.model.ResumenPartidos.Nivel;
+
+@Repository
+public interface ResumenPartidosRepository extends JpaRepository<ResumenPartidos, Long> {
+
+    // Suma en la base para que dos cambios que tocan la misma fila a la vez no se pisen
+    @Modifying
+    @Query("UPDATE ResumenPartidos r SET r.partidos = r.partidos + :partidos, r.honorarios = r.honorarios + :honorarios " +
+           "WHERE r.dimension = :dimension AND r.clave = :clave AND r.nivel = :nivel AND r.fecha = :fecha AND r.estado = :estado")
+    int sumar(@Param("dimension") Dimension dimension, @Param("clave") Long clave, @Param("nivel") Nivel nivel,
+              @Param("fecha") LocalDate fecha, @Param("estado") EstadoPartido estado,
+              @Param("partidos") int partidos, @Param("honorarios") BigDecimal honorarios);
+
+    // Fila en cero; falla por la clave única si otra transacción la creó
+    @Modifying
+    @Query("INSERT INTO ResumenPartidos (dimension, clave, nivel, fecha, estado, partidos, honorarios) " +
+           "VALUES (:dimension, :clave, :nivel, :fecha, :estado, 0, 0)")
+    int crear(@Param("dimension") Dimension dimension, @Param("clave") Long clave, @Param("nivel") Nivel nivel,
+              @Param("fecha") LocalDate fecha, @Param("estado") EstadoPartido estado);
+
+    @Modifying
+    @Query("DELETE FROM ResumenPartidos r WHERE r.partidos = 0 AND r.fecha IN :fechas")
+    int borrarVacias(@Param("fechas") Collection<LocalDate> fechas);
+
+    // Filas de una clave en todos los meses, sellados incluidos (p. ej. las de un torneo eliminado)
+    @Modifying
+    @Query("DELETE FROM ResumenPartidos r WHERE r.dimension = :dimension AND r.clave = :clave")
+    int borrarClave(@Param("dimension") Dimension dimension, @Param("clave") Long clave);
+
+    List<ResumenPartidos> findByFechaGreaterThanEqual(LocalDate desde);
+
+    List<ResumenPartidos> findByFechaGreaterThanEqualAndFechaLessThan(LocalDate desde, LocalDate hasta);
+
+    List<ResumenPartidos> findByDimensionAndClaveAndNivelAndFechaBetweenOrderByFechaAscEstadoAsc(
+        Dimension dimension, Long clave, Nivel nivel, LocalDate desde, LocalDate hasta);
+
+    // Partidos por estado sumando los meses: [estado, partidos]
+    @Query("SELECT r.estado, SUM(r.partidos) FROM ResumenPartidos r " +
+           "WHERE r.dimension = 'TOTAL' AND r.nivel = 'MES' GROUP BY r.estado")
+    List<Object[]> contarPorEstado();
+
+    /**
+     * Partidos de un árbitro en total y a partir de un día, desde sus filas de mes y de día.
+     * Columnas: [total, desde el día dado]
+     */
+    @Query("SELECT SUM(CASE WHEN r.nivel = 'MES' THEN r.partidos ELSE 0 END), " +
+           "SUM(CASE WHEN r.nivel = 'DIA' THEN r.partidos ELSE 0 END) FROM ResumenPartidos r " +
+           "WHERE r.dimension = :dimension AND r.clave = :clave AND (r.nivel = 'MES' OR r.fecha >= :desde)")
+    List<Object[]> contarTotalYDesde(@Param("dimension") Dimension dimension, @Param("clave") Long clave,
+                                     @Param("desde") LocalDate desde);
+}
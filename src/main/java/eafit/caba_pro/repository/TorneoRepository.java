@@ -1,12 +1,33 @@
 package eafit.caba_pro.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import eafit.caba_pro.model.Torneo;
+import jakarta.persistence.LockModeType;
 
 public interface TorneoRepository extends JpaRepository<Torneo, Long> {
     Optional<Torneo> findByNombreIgnoreCase(String nombre);
 
+    /**
+     * Página de torneos en orden de id, sin sus partidos.
+     * Columnas: [id, nombre, sede, fechaInicio, fechaFin]
+     */
+    @Query("SELECT t.id, t.nombre, t.sede, t.fechaInicio, t.fechaFin FROM Torneo t WHERE t.id > :despuesDe ORDER BY t.id")
+    List<Object[]> findResumenesDespuesDe(@Param("despuesDe") Long despuesDe, Pageable pageable);
+
+    /**
+     * Bloquea la fila del torneo hasta el fin de la transacción; así los recálculos de su tabla
+     * de posiciones no se cruzan. Vacío si el torneo ya no existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Torneo t WHERE t.id = :id")
+    Optional<Torneo> bloquear(@Param("id") Long id);
+
 }
@@ -0,0 +1,60 @@
+package eafit.caba_pro.repository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import eafit.caba_pro.model.TrabajoLiquidacion;
+import eafit.caba_pro.model.TrabajoLiquidacion.EstadoTrabajo;
+
+@Repository
+public interface TrabajoLiquidacionRepository extends JpaRepository<TrabajoLiquidacion, Long> {
+
+    Optional<TrabajoLiquidacion> findFirstByPeriodoAndEstado(YearMonth periodo, EstadoTrabajo estado);
+
+    List<TrabajoLiquidacion> findByEstado(EstadoTrabajo estado);
+
+    // Al iniciar o reanudar: el total parte de los lotes ya completados y los fallidos se vuelven a intentar
+    @Transactional
+    @Modifying
+    @Query("UPDATE TrabajoLiquidacion t SET t.totalLotes = t.lotesCompletados + :restantes, t.lotesFallidos = 0, " +
+           "t.ultimoError = NULL WHERE t.id = :id")
+    int prepararEjecucion(@Param("id") Long id, @Param("restantes") int restantes);
+
+    // Los lotes terminan en hilos distintos: el avance se suma en la base para no perder actualizaciones
+    @Transactional
+    @Modifying
+    @Query("UPDATE TrabajoLiquidacion t SET t.lotesCompletados = t.lotesCompletados + 1, " +
+           "t.liquidacionesGeneradas = t.liquidacionesGeneradas + :liquidaciones, " +
+           "t.partidosLiquidados = t.partidosLiquidados + :partidos WHERE t.id = :id")
+    int registrarLoteCompletado(@Param("id") Long id, @Param("liquidaciones") int liquidaciones,
+                                @Param("partidos") int partidos);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE TrabajoLiquidacion t SET t.lotesFallidos = t.lotesFallidos + 1, t.ultimoError = :error " +
+           "WHERE t.id = :id")
+    int registrarLoteFallido(@Param("id") Long id, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE TrabajoLiquidacion t SET t.lotesFallidos = t.lotesFallidos + :lotes, t.ultimoError = :error " +
+           "WHERE t.id = :id")
+    int registrarLotesRechazados(@Param("id") Long id, @Param("lotes") int lotes, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE TrabajoLiquidacion t SET t.estado = CASE WHEN t.lotesFallidos > 0 " +
+           "THEN eafit.caba_pro.model.TrabajoLiquidacion.EstadoTrabajo.FALLIDO " +
+           "ELSE eafit.caba_pro.model.TrabajoLiquidacion.EstadoTrabajo.COMPLETADO END, " +
+           "t.fechaFin = :fechaFin WHERE t.id = :id")
+    int finalizar(@Param("id") Long id, @Param("fechaFin") LocalDateTime fechaFin);
+}
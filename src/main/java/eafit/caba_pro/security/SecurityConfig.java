@@ -21,6 +21,9 @@ public class SecurityConfig {
             .authorizeHttpRequests(authorize -> authorize
             .requestMatchers("/","/h2-consola/**","/login","/css/**","/js/**","/images/**").permitAll()
             .requestMatchers("/api/**").permitAll() // Permitir acceso completo a la API REST
+            // Health y el scraping de Prometheus quedan abiertos (restringirlos por red en producción)
+            .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+            .requestMatchers("/actuator/**").hasRole("ADMIN")
             .requestMatchers("/admin/**").hasRole("ADMIN")
             .requestMatchers("/coach/**").hasRole("ENTRENADOR")
             .requestMatchers("/arbitro/**").hasRole("ARBITRO")
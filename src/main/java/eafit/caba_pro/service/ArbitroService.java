@@ -1,26 +1,39 @@
 package eafit.caba_pro.service;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import eafit.caba_pro.dto.ArbitroDTO;
+import eafit.caba_pro.dto.FotoArbitroDTO;
+import eafit.caba_pro.dto.PaginaDTO;
 import eafit.caba_pro.model.Arbitro;
 import eafit.caba_pro.model.Escalafon;
 import eafit.caba_pro.model.Partido;
 import eafit.caba_pro.model.Usuario;
 import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.ArbitroSpecs;
 import eafit.caba_pro.repository.PartidoRepository;
 import eafit.caba_pro.repository.UsuarioRepository;
+import eafit.caba_pro.service.FotoService.FotoGuardada;
+import eafit.caba_pro.service.FotoService.Variante;
 
 
 @Service
@@ -32,14 +45,18 @@ public class ArbitroService {
     private final UsuarioRepository usuarioRepository;
     private final UsuarioService usuarioService;
     private final NotificacionService notificacionService;
+    private final DisponibilidadService disponibilidadService;
+    private final FotoService fotoService;
 
     // Constructor para inyección de dependencias
-    public ArbitroService(NotificacionService notificacionService, ArbitroRepository arbitroRepository, PartidoRepository partidoRepository,UsuarioRepository usuarioRepository,UsuarioService usuarioService) {
+    public ArbitroService(NotificacionService notificacionService, ArbitroRepository arbitroRepository, PartidoRepository partidoRepository,UsuarioRepository usuarioRepository,UsuarioService usuarioService, DisponibilidadService disponibilidadService, FotoService fotoService) {
         this.arbitroRepository = arbitroRepository;
         this.partidoRepository = partidoRepository;
         this.usuarioRepository = usuarioRepository;
         this.usuarioService = usuarioService;
         this.notificacionService = notificacionService;
+        this.disponibilidadService = disponibilidadService;
+        this.fotoService = fotoService;
     }
 
     // ========== OPERACIONES DE LECTURA ==========
@@ -66,6 +83,17 @@ public class ArbitroService {
         return arbitroRepository.findAll();
     }
 
+    /**
+     * Página de árbitros para la API en orden de id; after es el último id de la página anterior.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<ArbitroDTO> paginarResumenes(Long after, Integer limite) {
+        int n = PaginaDTO.limitar(limite);
+        List<ArbitroDTO> filas = arbitroRepository.findResumenesDespuesDe(after != null ? after : 0L, PageRequest.of(0, n + 1))
+            .stream().map(ArbitroDTO::desdeFila).toList();
+        return PaginaDTO.de(filas, n, a -> String.valueOf(a.getId()));
+    }
+
     /**
      * Obtener árbitro por ID
      */
@@ -91,7 +119,7 @@ public class ArbitroService {
 
 
     /**
-     * Crear nuevo árbitro con archivo de foto (guarda BLOB en BD)
+     * Crear nuevo árbitro con archivo de foto (la imagen va al almacén de FotoService)
      */
     @Transactional
     public Arbitro createArbitroWithPhoto(Arbitro arbitro, MultipartFile photoFile) throws IOException {
@@ -129,30 +157,7 @@ public class ArbitroService {
 
         // Procesar imagen si se proporciona
         if (photoFile != null && !photoFile.isEmpty()) {
-            try {
-                // Validar tipo de archivo
-                String contentType = photoFile.getContentType();
-                if (contentType == null || !contentType.startsWith("image/")) {
-                    throw new RuntimeException("El archivo debe ser una imagen válida (JPG, PNG, GIF)");
-                }
-
-                // Validar tamaño (máximo 5MB)
-                if (photoFile.getSize() > 5 * 1024 * 1024) {
-                    throw new RuntimeException("La imagen no puede ser mayor a 5MB");
-                }
-
-                // Guardar datos de la imagen
-                arbitro.setPhotoData(photoFile.getBytes());
-                arbitro.setPhotoContentType(contentType);
-                arbitro.setPhotoFilename(photoFile.getOriginalFilename());
-
-                System.out.println("Imagen procesada: " + photoFile.getOriginalFilename() + 
-                                 " (" + photoFile.getSize() + " bytes)");
-
-            } catch (IOException e) {
-                System.err.println("Error al procesar imagen: " + e.getMessage());
-                throw new IOException("Error al procesar la imagen", e);
-            }
+            guardarFoto(arbitro, photoFile);
         } else {
             System.out.println("No se proporcionó imagen para el árbitro");
         }
@@ -164,7 +169,7 @@ public class ArbitroService {
     }
 
     /**
-     * Actualizar árbitro con archivo de foto (guarda BLOB en BD)
+     * Actualizar árbitro con archivo de foto (la imagen va al almacén de FotoService)
      */
     @Transactional
     public Arbitro updateArbitroWithPhoto(Arbitro arbitro, MultipartFile photoFile, boolean removePhoto, boolean updatePassword) throws IOException {
@@ -214,40 +219,48 @@ public class ArbitroService {
         // Manejar imagen
         if (removePhoto) {
             // Remover foto actual
-            existingArbitro.setPhotoData(null);
+            existingArbitro.setPhotoHash(null);
+            existingArbitro.setPhotoSize(null);
+            existingArbitro.setPhotoActualizada(null);
             existingArbitro.setPhotoContentType(null);
             existingArbitro.setPhotoFilename(null);
             System.out.println("Foto removida para el árbitro: " + existingArbitro.getNombre());
         } else if (photoFile != null && !photoFile.isEmpty()) {
             // Actualizar con nueva foto
-            try {
-                // Validar tipo de archivo
-                String contentType = photoFile.getContentType();
-                if (contentType == null || !contentType.startsWith("image/")) {
-                    throw new RuntimeException("El archivo debe ser una imagen válida (JPG, PNG, GIF)");
-                }
-
-                // Validar tamaño (máximo 5MB)
-                if (photoFile.getSize() > 5 * 1024 * 1024) {
-                    throw new RuntimeException("La imagen no puede ser mayor a 5MB");
-                }
+            guardarFoto(existingArbitro, photoFile);
+        }
+        // Si no se especifica removePhoto ni se proporciona nueva foto, mantener la foto actual
 
-                // Guardar datos de la nueva imagen
-                existingArbitro.setPhotoData(photoFile.getBytes());
-                existingArbitro.setPhotoContentType(contentType);
-                existingArbitro.setPhotoFilename(photoFile.getOriginalFilename());
+        // La foto anterior, si ya nadie la usa, la borra LimpiezaFotosService
+        return arbitroRepository.save(existingArbitro);
+    }
 
-                System.out.println("Nueva imagen procesada: " + photoFile.getOriginalFilename() + 
-                                 " (" + photoFile.getSize() + " bytes)");
+    // Valida la imagen, la guarda en el almacén y deja en el árbitro solo su hash y metadatos
+    private void guardarFoto(Arbitro arbitro, MultipartFile photoFile) throws IOException {
+        // Validar tipo de archivo
+        String contentType = photoFile.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new RuntimeException("El archivo debe ser una imagen válida (JPG, PNG, GIF)");
+        }
 
-            } catch (IOException e) {
-                System.err.println("Error al procesar imagen: " + e.getMessage());
-                throw new IOException("Error al procesar la imagen", e);
-            }
+        // Validar tamaño (máximo 5MB)
+        if (photoFile.getSize() > 5 * 1024 * 1024) {
+            throw new RuntimeException("La imagen no puede ser mayor a 5MB");
         }
-        // Si no se especifica removePhoto ni se proporciona nueva foto, mantener la foto actual
 
-        return arbitroRepository.save(existingArbitro);
+        try {
+            FotoGuardada foto = fotoService.guardar(photoFile.getBytes());
+            arbitro.setPhotoHash(foto.hash());
+            arbitro.setPhotoSize(foto.tamano());
+            arbitro.setPhotoActualizada(LocalDateTime.now());
+            arbitro.setPhotoContentType(contentType);
+            arbitro.setPhotoFilename(photoFile.getOriginalFilename());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        } catch (IOException e) {
+            System.err.println("Error al procesar imagen: " + e.getMessage());
+            throw new IOException("Error al procesar la imagen", e);
+        }
     }
 
     /**
@@ -363,20 +376,15 @@ public class ArbitroService {
      * Verificar si un árbitro está disponible en una fecha/hora específica
      */
     public boolean isArbitroDisponible(Long arbitroId, LocalDate fecha, LocalTime hora) {
-        Optional<Arbitro> arbitroOpt = arbitroRepository.findById(arbitroId);
-        if (arbitroOpt.isPresent()) {
-            Arbitro arbitro = arbitroOpt.get();
-            return arbitro.getPartidos().stream()
-                .noneMatch(p -> p.getFecha().equals(fecha) && p.getHora().equals(hora));
-        }
-        return false;
+        return arbitroRepository.existsById(arbitroId) && disponibilidadService.estaLibre(arbitroId, fecha, hora, null);
     }
     
     /**
      * Obtener árbitros disponibles en una fecha/hora específica
      */
     public List<Arbitro> getArbitrosDisponibles(LocalDate fecha, LocalTime hora) {
-        return arbitroRepository.findAvailableArbitrosAt(fecha, hora);
+        Set<Long> ocupados = disponibilidadService.ocupadosEn(fecha, hora);
+        return arbitroRepository.findAll(ArbitroSpecs.idNoEn(ocupados));
     }
     
     /**
@@ -386,23 +394,50 @@ public class ArbitroService {
         return arbitroRepository.findArbitrosSinPartidos();
     }
 
-    @Transactional(readOnly = true)
-    public ResponseEntity<byte[]> buildPhotoResponse(Long id) {
-        Optional<Arbitro> opt = arbitroRepository.findById(id);
-        if (opt.isEmpty() || !opt.get().hasPhoto()) return ResponseEntity.notFound().build();
+    /**
+     * Foto de un árbitro por id (admin).
+     */
+    public ResponseEntity<Resource> buildPhotoResponse(Long id, Variante variante, WebRequest webRequest) {
+        return buildPhotoResponse(arbitroRepository.findFotoById(id), variante, webRequest);
+    }
 
-        Arbitro a = opt.get();
-        String ct = (a.getPhotoContentType() != null) ? a.getPhotoContentType() : MediaType.IMAGE_JPEG_VALUE;
+    /**
+     * Foto del árbitro que inició sesión.
+     */
+    public ResponseEntity<Resource> buildPhotoResponseByUsername(String username, Variante variante, WebRequest webRequest) {
+        return buildPhotoResponse(arbitroRepository.findFotoByUsername(username), variante, webRequest);
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_TYPE, ct)
-                .header(HttpHeaders.CACHE_CONTROL, "max-age=3600")
-                .body(a.getPhotoData());
+    /**
+     * Respuesta con la foto, a partir de una proyección (hash, tipo, fecha) sin cargar la entidad.
+     * El ETag es fuerte y sale del hash: el contenido de un hash y una variante nunca cambia.
+     * Con If-None-Match o If-Modified-Since vigentes se responde 304 sin tocar el disco. El cuerpo
+     * es un Resource, así Spring atiende también los encabezados Range con 206.
+     */
+    private ResponseEntity<Resource> buildPhotoResponse(List<Object[]> filas, Variante variante, WebRequest webRequest) {
+        if (filas.isEmpty()) return ResponseEntity.notFound().build();
+        FotoArbitroDTO foto = FotoArbitroDTO.desdeFila(filas.get(0));
+
+        String etag = "\"" + foto.hash() + "-" + variante.name().toLowerCase() + "\"";
+        long modificada = foto.actualizada() != null
+                ? foto.actualizada().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+        CacheControl cache = CacheControl.maxAge(Duration.ofHours(1)).cachePrivate();
+        if (webRequest.checkNotModified(etag, modificada)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cache).build();
+        }
+
+        Optional<FotoService.Contenido> contenido = fotoService.contenido(foto.hash(), variante, foto.tipoContenido());
+        if (contenido.isEmpty()) return ResponseEntity.notFound().build();
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contenido.get().tipoContenido()))
+                .eTag(etag)
+                .cacheControl(cache);
+        if (modificada >= 0) {
+            respuesta.lastModified(modificada);
+        }
+        return respuesta.body(contenido.get().recurso());
     }
 
-   public List<Arbitro> findTop5ActivosDelMes() {
-    return arbitroRepository.findTop5ActivosDelMes(PageRequest.of(0, 5));
-   }
     @Transactional
     public void crearArbitro(Arbitro arbitro) {
         // 1. Crear Usuario
@@ -426,21 +461,18 @@ public class ArbitroService {
     }
 
     /**
-     * Obtener todos los árbitros excepto el especificado
+     * Obtener todos los árbitros excepto el especificado. Sin paginar: llena el selector de
+     * reasignación, que debe ofrecer a todos
      */
     public List<Arbitro> findAllExcept(Long arbitroId) {
-        return arbitroRepository.findAll().stream()
-                .filter(arbitro -> !arbitro.getId().equals(arbitroId))
-                .toList();
+        return arbitroRepository.findAll(ArbitroSpecs.distintoDe(arbitroId));
     }
 
     /**
-     * Buscar todos los árbitros activos
+     * Buscar todos los árbitros activos. Sin paginar: llena el selector de la reseña
      */
     public List<Arbitro> findAllActivos() {
-        return arbitroRepository.findAll().stream()
-                .filter(arbitro -> arbitro.getUsuario() != null && arbitro.getUsuario().isActivo())
-                .toList();
+        return arbitroRepository.findAll(ArbitroSpecs.conUsuarioActivo());
     }
     // ========== MÉTODOS DE DISPONIBILIDAD ==========
 
@@ -469,14 +501,12 @@ public class ArbitroService {
                 return "No tienes permiso para confirmar este partido";
             }
 
-            notificacionService.notificarArbitro("Disponibilidad confirmada: El árbitro " + arbitro.getNombre() + " ha confirmado su disponibilidad para el partido " +
-                                           partido.getEquipoLocal().getNombre() + " vs " + partido.getEquipoVisitante().getNombre() +
-                                           " programado para el " + partido.getFecha() + " a las " + partido.getHora() + ".", arbitro);
-                        
-
-            notificacionService.notificarAdmin("Disponibilidad confirmada: El árbitro " + arbitro.getNombre() + " ha confirmado su disponibilidad para el partido " +
-                                           partido.getEquipoLocal().getNombre() + " vs " + partido.getEquipoVisitante().getNombre() +
-                                           " programado para el " + partido.getFecha() + " a las " + partido.getHora() + ".");
+            // El mismo texto va al árbitro y a los admins; se entregan después del commit
+            String mensaje = "Disponibilidad confirmada: El árbitro " + arbitro.getNombre() + " ha confirmado su disponibilidad para el partido " +
+                             partido.getEquipoLocal().getNombre() + " vs " + partido.getEquipoVisitante().getNombre() +
+                             " programado para el " + partido.getFecha() + " a las " + partido.getHora() + ".";
+            notificacionService.notificarArbitro(mensaje, arbitro);
+            notificacionService.notificarAdmin(mensaje);
             // Cambiar estado a PROGRAMADO
             partido.setEstado(Partido.EstadoPartido.PROGRAMADO);
             partidoRepository.save(partido);
@@ -514,14 +544,12 @@ public class ArbitroService {
                 return "No tienes permiso para modificar este partido";
             }
 
-            notificacionService.notificarArbitro("Disponibilidad rechazada: El árbitro " + arbitro.getNombre() + " ha rechazado su disponibilidad para el partido " +
-                                           partido.getEquipoLocal().getNombre() + " vs " + partido.getEquipoVisitante().getNombre() +
-                                           " programado para el " + partido.getFecha() + " a las " + partido.getHora() + ".", arbitro);
-                        
-
-            notificacionService.notificarAdmin("Disponibilidad rechazada: El árbitro " + arbitro.getNombre() + " ha rechazado su disponibilidad para el partido " +
-                                           partido.getEquipoLocal().getNombre() + " vs " + partido.getEquipoVisitante().getNombre() +
-                                           " programado para el " + partido.getFecha() + " a las " + partido.getHora() + ".");
+            // El mismo texto va al árbitro y a los admins; se entregan después del commit
+            String mensaje = "Disponibilidad rechazada: El árbitro " + arbitro.getNombre() + " ha rechazado su disponibilidad para el partido " +
+                             partido.getEquipoLocal().getNombre() + " vs " + partido.getEquipoVisitante().getNombre() +
+                             " programado para el " + partido.getFecha() + " a las " + partido.getHora() + ".";
+            notificacionService.notificarArbitro(mensaje, arbitro);
+            notificacionService.notificarAdmin(mensaje);
 
             // Cambiar estado a ARBITRO_NO_DISPONIBLE
             partido.setEstado(Partido.EstadoPartido.ARBITRO_NO_DISPONIBLE);
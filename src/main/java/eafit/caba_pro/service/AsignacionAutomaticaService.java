@@ -0,0 +1,277 @@
+package eafit.caba_pro.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import eafit.caba_pro.dto.PlanAsignacionDTO;
+import eafit.caba_pro.dto.PlanAsignacionDTO.Propuesta;
+import eafit.caba_pro.model.Escalafon;
+import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asignación automática de árbitros a los partidos sin árbitro de un rango de fechas.
+ *
+ * Cada día se resuelve en paralelo. Dentro del día los partidos se agrupan por franjas en las
+ * que todos se cruzan entre sí y cada franja es una asignación de costo mínimo: el costo de un
+ * árbitro es su carga actual (partidos asignados), así que se prefiere a los menos cargados.
+ * Solo se consideran árbitros con el escalafón requerido y libres según DisponibilidadService.
+ * El plan se guarda en memoria para que el administrador lo revise y lo confirme en una sola
+ * transacción.
+ */
+@Service
+@Slf4j
+public class AsignacionAutomaticaService {
+
+    private static final long COSTO_SIN_ASIGNAR = 1_000_000L;
+    private static final long COSTO_PROHIBIDO = 1_000_000_000_000L;
+    private static final Duration VIGENCIA_PLAN = Duration.ofMinutes(30);
+
+    private final PartidoRepository partidoRepository;
+    private final ArbitroRepository arbitroRepository;
+    private final DisponibilidadService disponibilidadService;
+    private final NotificacionService notificacionService;
+    private final Executor executor;
+
+    private final Map<String, PlanGuardado> planes = new ConcurrentHashMap<>();
+
+    public AsignacionAutomaticaService(PartidoRepository partidoRepository, ArbitroRepository arbitroRepository,
+                                       DisponibilidadService disponibilidadService, NotificacionService notificacionService,
+                                       @Qualifier("asignacionExecutor") Executor executor) {
+        this.partidoRepository = partidoRepository;
+        this.arbitroRepository = arbitroRepository;
+        this.disponibilidadService = disponibilidadService;
+        this.notificacionService = notificacionService;
+        this.executor = executor;
+    }
+
+    private record PlanGuardado(PlanAsignacionDTO plan, Instant creado) {
+    }
+
+    private record Candidato(Long id, String nombre, Escalafon.Nombre escalafon) {
+        boolean puedePitar(Partido partido) {
+            return escalafon != null ? escalafon.cubre(partido.getNivelRequerido()) : partido.getNivelRequerido() == null;
+        }
+    }
+
+    /**
+     * Calcula la asignación de los partidos sin árbitro entre desde y hasta (sin incluir fechas
+     * pasadas) sin modificar nada.
+     */
+    public PlanAsignacionDTO previsualizar(LocalDate desde, LocalDate hasta) {
+        long inicio = System.currentTimeMillis();
+        LocalDate hoy = LocalDate.now();
+        LocalDate desdeEfectivo = desde.isBefore(hoy) ? hoy : desde;
+
+        List<Candidato> candidatos = arbitroRepository.findCandidatosAsignacion().stream()
+            .map(fila -> new Candidato((Long) fila[0], (String) fila[1], (Escalafon.Nombre) fila[2]))
+            .toList();
+        Map<Long, AtomicInteger> cargas = new ConcurrentHashMap<>();
+        candidatos.forEach(c -> cargas.put(c.id(), new AtomicInteger()));
+        for (Object[] fila : partidoRepository.contarPartidosPorArbitro()) {
+            AtomicInteger carga = cargas.get((Long) fila[0]);
+            if (carga != null) {
+                carga.set(((Number) fila[1]).intValue());
+            }
+        }
+
+        Map<LocalDate, List<Partido>> porDia = partidoRepository.findPartidosSinArbitroBetween(desdeEfectivo, hasta).stream()
+            .filter(p -> p.getEstado() != Partido.EstadoPartido.FINALIZADO)
+            .collect(Collectors.groupingBy(Partido::getFecha, TreeMap::new, Collectors.toList()));
+
+        List<CompletableFuture<List<Propuesta>>> dias = porDia.values().stream()
+            .map(partidos -> CompletableFuture.supplyAsync(() -> resolverDia(partidos, candidatos, cargas), executor))
+            .toList();
+        List<Propuesta> resultado = new ArrayList<>();
+        dias.forEach(dia -> resultado.addAll(dia.join()));
+
+        List<Propuesta> propuestas = new ArrayList<>();
+        List<Propuesta> sinAsignar = new ArrayList<>();
+        separarCrucesEntreDias(resultado, propuestas, sinAsignar);
+
+        PlanAsignacionDTO plan = new PlanAsignacionDTO(UUID.randomUUID().toString(), desdeEfectivo, hasta,
+            propuestas, sinAsignar, System.currentTimeMillis() - inicio);
+        Instant ahora = Instant.now();
+        planes.values().removeIf(p -> p.creado().plus(VIGENCIA_PLAN).isBefore(ahora));
+        planes.put(plan.getToken(), new PlanGuardado(plan, ahora));
+        log.info("Plan de asignación {}: {} partidos asignados, {} sin árbitro en {} ms",
+            plan.getToken(), propuestas.size(), sinAsignar.size(), plan.getDuracionMs());
+        return plan;
+    }
+
+    /**
+     * Aplica un plan generado por previsualizar. Si algún partido cambió desde la vista previa
+     * (ya tiene árbitro, se movió o el árbitro dejó de estar libre) no se aplica nada.
+     * Retorna la cantidad de partidos asignados.
+     */
+    @Transactional
+    public int confirmar(String token) {
+        PlanGuardado guardado = planes.remove(token);
+        if (guardado == null || guardado.creado().plus(VIGENCIA_PLAN).isBefore(Instant.now())) {
+            throw new RuntimeException("El plan de asignación no existe o expiró; genere la vista previa de nuevo");
+        }
+        PlanAsignacionDTO plan = guardado.plan();
+        Map<Long, Partido> partidos = partidoRepository.findAllById(
+                plan.getPropuestas().stream().map(Propuesta::partidoId).toList()).stream()
+            .collect(Collectors.toMap(Partido::getId, Function.identity()));
+
+        Map<Long, Integer> asignadosPorArbitro = new LinkedHashMap<>();
+        for (Propuesta propuesta : plan.getPropuestas()) {
+            Partido partido = partidos.get(propuesta.partidoId());
+            if (partido == null || partido.getArbitro() != null
+                    || !partido.getFecha().equals(propuesta.fecha()) || !partido.getHora().equals(propuesta.hora())
+                    || !disponibilidadService.estaLibre(propuesta.arbitroId(), propuesta.fecha(), propuesta.hora(), null)) {
+                throw new RuntimeException("El partido " + propuesta.partidoId()
+                    + " cambió desde la vista previa; genere el plan de nuevo");
+            }
+            partido.setArbitro(arbitroRepository.getReferenceById(propuesta.arbitroId()));
+            asignadosPorArbitro.merge(propuesta.arbitroId(), 1, Integer::sum);
+        }
+
+        asignadosPorArbitro.forEach((arbitroId, cantidad) -> notificacionService.notificarArbitro(
+            "Nuevos partidos asignados: Tiene " + cantidad + " partido(s) pendientes por confirmar entre el "
+                + plan.getDesde() + " y el " + plan.getHasta() + ". Por favor confirme su disponibilidad.",
+            arbitroRepository.getReferenceById(arbitroId)));
+        return plan.getPropuestas().size();
+    }
+
+    private List<Propuesta> resolverDia(List<Partido> partidos, List<Candidato> candidatos, Map<Long, AtomicInteger> cargas) {
+        List<Partido> ordenados = new ArrayList<>(partidos);
+        ordenados.sort(Comparator.comparing(Partido::getHora));
+        long separacion = disponibilidadService.getSeparacionMinutos();
+        Map<Long, List<Long>> nuevas = new HashMap<>(); // inicios asignados hoy por árbitro
+
+        List<Propuesta> resultado = new ArrayList<>();
+        int i = 0;
+        while (i < ordenados.size()) {
+            long inicioFranja = minutos(ordenados.get(i));
+            int j = i;
+            while (j < ordenados.size() && minutos(ordenados.get(j)) - inicioFranja < separacion) {
+                j++;
+            }
+            resultado.addAll(resolverFranja(ordenados.subList(i, j), candidatos, cargas, nuevas, separacion));
+            i = j;
+        }
+        return resultado;
+    }
+
+    // Todos los partidos de la franja se cruzan entre sí: cada árbitro toma a lo sumo uno
+    private List<Propuesta> resolverFranja(List<Partido> franja, List<Candidato> candidatos, Map<Long, AtomicInteger> cargas,
+                                           Map<Long, List<Long>> nuevas, long separacion) {
+        int n = franja.size();
+        List<Candidato> elegibles = new ArrayList<>();
+        List<boolean[]> permitidos = new ArrayList<>();
+        for (Candidato candidato : candidatos) {
+            boolean[] puede = new boolean[n];
+            boolean alguno = false;
+            for (int i = 0; i < n; i++) {
+                Partido partido = franja.get(i);
+                puede[i] = candidato.puedePitar(partido)
+                    && sinCruce(nuevas.get(candidato.id()), minutos(partido), separacion)
+                    && disponibilidadService.estaLibre(candidato.id(), partido.getFecha(), partido.getHora(), null);
+                alguno |= puede[i];
+            }
+            if (alguno) {
+                elegibles.add(candidato);
+                permitidos.add(puede);
+            }
+        }
+
+        // Columnas: árbitros elegibles y luego una columna "sin asignar" por partido
+        int m = elegibles.size();
+        long[][] costo = new long[n][m + n];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < m; k++) {
+                costo[i][k] = permitidos.get(k)[i] ? cargas.get(elegibles.get(k).id()).get() : COSTO_PROHIBIDO;
+            }
+            for (int k = m; k < m + n; k++) {
+                costo[i][k] = COSTO_SIN_ASIGNAR;
+            }
+        }
+        int[] columna = AsignacionMinimoCosto.resolver(costo);
+
+        List<Propuesta> resultado = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Partido partido = franja.get(i);
+            int k = columna[i];
+            if (k < m && permitidos.get(k)[i]) {
+                Candidato arbitro = elegibles.get(k);
+                cargas.get(arbitro.id()).incrementAndGet();
+                nuevas.computeIfAbsent(arbitro.id(), x -> new ArrayList<>()).add(minutos(partido));
+                resultado.add(propuesta(partido, arbitro.id(), arbitro.nombre()));
+            } else {
+                resultado.add(propuesta(partido, null, null));
+            }
+        }
+        return resultado;
+    }
+
+    // Los días se resuelven por separado; un partido nocturno puede cruzarse con uno temprano del día siguiente
+    private void separarCrucesEntreDias(List<Propuesta> resultado, List<Propuesta> propuestas, List<Propuesta> sinAsignar) {
+        long separacion = disponibilidadService.getSeparacionMinutos();
+        Map<Long, Long> ultimoInicio = new HashMap<>();
+        for (Propuesta propuesta : resultado) {
+            if (propuesta.arbitroId() == null) {
+                sinAsignar.add(propuesta);
+                continue;
+            }
+            long inicio = propuesta.fecha().toEpochDay() * 1440 + propuesta.hora().toSecondOfDay() / 60;
+            Long anterior = ultimoInicio.get(propuesta.arbitroId());
+            if (anterior != null && inicio - anterior < separacion) {
+                sinAsignar.add(propuesta(propuesta, null, null));
+            } else {
+                ultimoInicio.put(propuesta.arbitroId(), inicio);
+                propuestas.add(propuesta);
+            }
+        }
+    }
+
+    private static boolean sinCruce(List<Long> inicios, long inicio, long separacion) {
+        if (inicios == null) {
+            return true;
+        }
+        for (long otro : inicios) {
+            if (Math.abs(otro - inicio) < separacion) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long minutos(Partido partido) {
+        return partido.getHora().toSecondOfDay() / 60;
+    }
+
+    private static Propuesta propuesta(Partido partido, Long arbitroId, String arbitro) {
+        return new Propuesta(partido.getId(), partido.getFecha(), partido.getHora(),
+            partido.getEquipoLocal() != null ? partido.getEquipoLocal().getNombre() : null,
+            partido.getEquipoVisitante() != null ? partido.getEquipoVisitante().getNombre() : null,
+            arbitroId, arbitro);
+    }
+
+    private static Propuesta propuesta(Propuesta original, Long arbitroId, String arbitro) {
+        return new Propuesta(original.partidoId(), original.fecha(), original.hora(), original.equipoLocal(),
+            original.equipoVisitante(), arbitroId, arbitro);
+    }
+}
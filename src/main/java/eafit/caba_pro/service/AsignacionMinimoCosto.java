@@ -0,0 +1,79 @@
+package eafit.caba_pro.service;
+
+import java.util.Arrays;
+
+/**
+ * Asignación de costo mínimo (algoritmo húngaro con potenciales, O(n²·m)). Cada fila recibe
+ * una columna distinta y la suma de costos es mínima. Requiere n ≤ m; quien la usa agrega
+ * columnas ficticias para representar "sin asignar".
+ */
+final class AsignacionMinimoCosto {
+
+    private static final long INFINITO = Long.MAX_VALUE / 4;
+
+    private AsignacionMinimoCosto() {
+    }
+
+    // Columna asignada a cada fila
+    static int[] resolver(long[][] costo) {
+        int n = costo.length;
+        int m = n == 0 ? 0 : costo[0].length;
+        if (n > m) {
+            throw new IllegalArgumentException("Se necesitan al menos tantas columnas como filas");
+        }
+        long[] u = new long[n + 1];
+        long[] v = new long[m + 1];
+        int[] filaDeColumna = new int[m + 1];
+        int[] previa = new int[m + 1];
+        long[] minimo = new long[m + 1];
+        boolean[] usada = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            filaDeColumna[0] = i;
+            int j0 = 0;
+            Arrays.fill(minimo, INFINITO);
+            Arrays.fill(usada, false);
+            do {
+                usada[j0] = true;
+                int i0 = filaDeColumna[j0];
+                long delta = INFINITO;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!usada[j]) {
+                        long actual = costo[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (actual < minimo[j]) {
+                            minimo[j] = actual;
+                            previa[j] = j0;
+                        }
+                        if (minimo[j] < delta) {
+                            delta = minimo[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (usada[j]) {
+                        u[filaDeColumna[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minimo[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (filaDeColumna[j0] != 0);
+            do {
+                int j1 = previa[j0];
+                filaDeColumna[j0] = filaDeColumna[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] columnaDeFila = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (filaDeColumna[j] != 0) {
+                columnaDeFila[filaDeColumna[j] - 1] = j - 1;
+            }
+        }
+        return columnaDeFila;
+    }
+}
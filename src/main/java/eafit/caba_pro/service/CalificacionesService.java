@@ -0,0 +1,155 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import eafit.caba_pro.model.CalificacionArbitro;
+import eafit.caba_pro.model.Reseña;
+import eafit.caba_pro.repository.CalificacionArbitroRepository;
+import eafit.caba_pro.repository.ReseñaRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Calificaciones de los árbitros servidas desde la tabla calificacion_arbitro, una fila por
+ * árbitro con reseñas. CalificacionesDiferencia aplica la diferencia de cada reseña confirmada;
+ * la reconstrucción recalcula la tabla con una consulta agregada sobre reseña y cuenta las filas
+ * que no coincidían, así que sirve también para verificar el incremental.
+ */
+@Service
+@Slf4j
+public class CalificacionesService {
+
+    private final CalificacionArbitroRepository calificacionRepository;
+    private final ReseñaRepository reseñaRepository;
+    private final FilasEnCero filasEnCero;
+
+    public CalificacionesService(CalificacionArbitroRepository calificacionRepository, ReseñaRepository reseñaRepository,
+                                 FilasEnCero filasEnCero) {
+        this.calificacionRepository = calificacionRepository;
+        this.reseñaRepository = reseñaRepository;
+        this.filasEnCero = filasEnCero;
+    }
+
+    /**
+     * Calificación del árbitro; uno sin reseñas recibe una fila en cero que no se guarda.
+     */
+    @Transactional(readOnly = true)
+    public CalificacionArbitro obtener(Long arbitroId) {
+        return calificacionRepository.findById(arbitroId).orElseGet(() -> new CalificacionArbitro(arbitroId));
+    }
+
+    /**
+     * Aplica el cambio de una reseña: resta la calificación anterior y suma la nueva.
+     * Lo llama CalificacionesDiferencia después del commit, por eso abre su propia transacción.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void aplicar(Reseña.Calificacion anterior, Reseña.Calificacion actual) {
+        Map<Long, long[]> diferencias = new LinkedHashMap<>();
+        acumular(diferencias, anterior, -1);
+        acumular(diferencias, actual, 1);
+
+        for (Map.Entry<Long, long[]> entrada : diferencias.entrySet()) {
+            Long arbitroId = entrada.getKey();
+            long[] d = entrada.getValue();
+            boolean quita = anterior != null && arbitroId.equals(anterior.arbitroId());
+            if (sumar(arbitroId, d) == 0) {
+                if (quita) {
+                    // Quitar de un árbitro sin fila indica que la tabla se desfasó
+                    log.warn("Árbitro {} sin fila de calificaciones al quitar una reseña; se reconstruye su fila", arbitroId);
+                    reconstruir(arbitroId);
+                    continue;
+                }
+                // Primera reseña del árbitro: se crea la fila (o la creó otra transacción) y se suma en ella
+                filasEnCero.crear(() -> calificacionRepository.crear(arbitroId));
+                sumar(arbitroId, d);
+            }
+            if (quita) {
+                calificacionRepository.borrarSiVacia(arbitroId);
+                calificacionRepository.recalcularUltima(arbitroId);
+            } else if (actual.fecha() != null) {
+                calificacionRepository.adelantarUltima(arbitroId, actual.fecha());
+            }
+        }
+    }
+
+    private int sumar(Long arbitroId, long[] d) {
+        return calificacionRepository.sumar(arbitroId, (int) d[0], d[1],
+            (int) d[2], (int) d[3], (int) d[4], (int) d[5], (int) d[6]);
+    }
+
+    /**
+     * Recalcula toda la tabla desde las reseñas y retorna cuántas filas no coincidían. Se usa al
+     * arrancar, porque los datos iniciales no pasan por el listener, y para reconciliar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public int reconstruir() {
+        int diferencias = guardar(calcular(reseñaRepository.agregarReseñas()), calificacionRepository.findAll());
+        if (diferencias > 0) {
+            log.info("Calificaciones de árbitros reconstruidas con {} filas distintas", diferencias);
+        }
+        return diferencias;
+    }
+
+    /**
+     * Recalcula la fila de un árbitro; retorna 1 si no coincidía con la guardada.
+     */
+    @Transactional
+    public int reconstruir(Long arbitroId) {
+        return guardar(calcular(reseñaRepository.agregarReseñasDe(arbitroId)),
+            calificacionRepository.findById(arbitroId).stream().toList());
+    }
+
+    // Columnas: [arbitroId, total, suma, estrellas1..estrellas5, ultimaReseña]
+    private static List<CalificacionArbitro> calcular(List<Object[]> filas) {
+        return filas.stream()
+            .map(f -> new CalificacionArbitro((Long) f[0], entero(f[1]), ((Number) f[2]).longValue(),
+                entero(f[3]), entero(f[4]), entero(f[5]), entero(f[6]), entero(f[7]), (LocalDateTime) f[8]))
+            .toList();
+    }
+
+    // Reemplaza las filas actuales por las nuevas; retorna cuántas cambiaron
+    private int guardar(List<CalificacionArbitro> nuevas, Collection<CalificacionArbitro> actuales) {
+        Map<Long, CalificacionArbitro> porArbitro = actuales.stream()
+            .collect(Collectors.toMap(CalificacionArbitro::getArbitroId, Function.identity()));
+        int diferencias = 0;
+        for (CalificacionArbitro nueva : nuevas) {
+            CalificacionArbitro actual = porArbitro.remove(nueva.getArbitroId());
+            if (actual != null && actual.mismosValores(nueva)) {
+                continue;
+            }
+            diferencias++;
+            calificacionRepository.save(nueva);
+        }
+        // Árbitros que ya no tienen reseñas
+        List<CalificacionArbitro> sobrantes = List.copyOf(porArbitro.values());
+        calificacionRepository.deleteAll(sobrantes);
+        return diferencias + sobrantes.size();
+    }
+
+    // [total, suma, estrellas1..estrellas5] del árbitro, multiplicado por signo
+    private static void acumular(Map<Long, long[]> diferencias, Reseña.Calificacion calificacion, int signo) {
+        if (calificacion == null) {
+            return;
+        }
+        long[] d = diferencias.computeIfAbsent(calificacion.arbitroId(), k -> new long[7]);
+        d[0] += signo;
+        d[1] += (long) calificacion.puntuacion() * signo;
+        d[1 + calificacion.puntuacion()] += signo;
+    }
+
+    private static int entero(Object valor) {
+        return valor == null ? 0 : ((Number) valor).intValue();
+    }
+}
@@ -1,37 +1,223 @@
 package eafit.caba_pro.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import lombok.RequiredArgsConstructor;
+import eafit.caba_pro.dto.PronosticoClimaDTO;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Pronóstico del clima desde Open-Meteo con caché por (latitud, longitud, fecha).
+ * Un dato con menos de caba.clima.ttl-minutos se sirve tal cual; uno más viejo, pero dentro de
+ * caba.clima.obsoleto-max-horas, se sirve mientras se refresca en segundo plano. Si el proveedor
+ * falla varias veces seguidas el circuito se abre y se responde con el último valor conocido.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class ClimaService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final int FALLOS_PARA_ABRIR = 5;
+    private static final Duration ESPERA_CIRCUITO_ABIERTO = Duration.ofSeconds(60);
+    private static final int MAX_ENTRADAS = 500;
+
+    private final RestTemplate restTemplate;
     private final MessageSource messageSource;
+    private final Executor executor;
+    private final String urlPronostico;
+    private final Duration ttl;
+    private final Duration maxObsoleto;
+    private final int maxEntradas;
+    private final Clock clock;
+
+    // En orden de acceso (el primero es el menos usado); se accede sincronizado sobre el mapa
+    private final LinkedHashMap<ClaveClima, EntradaClima> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<ClaveClima> revalidando = ConcurrentHashMap.newKeySet();
+
+    // Circuito: se abre tras FALLOS_PARA_ABRIR fallos seguidos y deja pasar una llamada de prueba al vencer la espera
+    private final AtomicInteger fallosSeguidos = new AtomicInteger();
+    private final AtomicBoolean pruebaEnCurso = new AtomicBoolean();
+    private volatile Instant abiertoHasta = Instant.MIN;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder aciertosObsoletos = new LongAdder();
+    private final LongAdder fallosCache = new LongAdder();
+    private final LongAdder llamadas = new LongAdder();
+    private final LongAdder fallosProveedor = new LongAdder();
+
+    @Autowired
+    public ClimaService(MessageSource messageSource,
+                        @Qualifier("climaRestTemplate") RestTemplate restTemplate,
+                        @Qualifier("climaExecutor") Executor executor,
+                        @Value("${caba.clima.url:https://api.open-meteo.com/v1/forecast}") String urlPronostico,
+                        @Value("${caba.clima.ttl-minutos:60}") long ttlMinutos,
+                        @Value("${caba.clima.obsoleto-max-horas:24}") long maxObsoletoHoras) {
+        this(messageSource, restTemplate, executor, urlPronostico,
+                Duration.ofMinutes(ttlMinutos), Duration.ofHours(maxObsoletoHoras), MAX_ENTRADAS, Clock.systemDefaultZone());
+    }
+
+    ClimaService(MessageSource messageSource, RestTemplate restTemplate, Executor executor, String urlPronostico,
+                 Duration ttl, Duration maxObsoleto, int maxEntradas, Clock clock) {
+        this.messageSource = messageSource;
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+        this.urlPronostico = urlPronostico;
+        this.ttl = ttl;
+        this.maxObsoleto = maxObsoleto;
+        this.maxEntradas = maxEntradas;
+        this.clock = clock;
+    }
+
+    public PronosticoClimaDTO getWeather(double latitude, double longitude, LocalDate date) {
+        return getWeather(latitude, longitude, date, true);
+    }
+
+    /**
+     * Con aceptarObsoleto en false un dato vencido se vuelve a pedir en la misma llamada en lugar
+     * de servirse mientras se refresca (lo usa el actualizador periódico, que escribe el dato en la base).
+     */
+    public PronosticoClimaDTO getWeather(double latitude, double longitude, LocalDate date, boolean aceptarObsoleto) {
+        ClaveClima clave = new ClaveClima(latitude, longitude, date);
+        EntradaClima entrada = leerCache(clave);
+        if (entrada != null) {
+            Duration edad = Duration.between(entrada.obtenido(), clock.instant());
+            if (edad.compareTo(ttl) <= 0) {
+                aciertos.increment();
+                return entrada.datos();
+            }
+            if (aceptarObsoleto && edad.compareTo(maxObsoleto) <= 0) {
+                aciertosObsoletos.increment();
+                revalidarEnSegundoPlano(clave);
+                return entrada.datos();
+            }
+        }
+        fallosCache.increment();
+        return consultarProveedor(clave, entrada);
+    }
+
+    public MetricasClima getMetricas() {
+        return new MetricasClima(aciertos.sum(), aciertosObsoletos.sum(), fallosCache.sum(), llamadas.sum(),
+                fallosProveedor.sum(), fallosSeguidos.get() >= FALLOS_PARA_ABRIR);
+    }
+
+    private void revalidarEnSegundoPlano(ClaveClima clave) {
+        if (!revalidando.add(clave)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    consultarProveedor(clave, leerCache(clave));
+                } catch (RuntimeException e) {
+                    log.debug("No se pudo refrescar el clima de {}: {}", clave, e.getMessage());
+                } finally {
+                    revalidando.remove(clave);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            revalidando.remove(clave);
+        }
+    }
+
+    private PronosticoClimaDTO consultarProveedor(ClaveClima clave, EntradaClima ultimaConocida) {
+        if (!circuitoPermiteLlamada()) {
+            if (ultimaConocida != null) return ultimaConocida.datos();
+            throw new IllegalStateException("Servicio de clima no disponible");
+        }
+        llamadas.increment();
+        try {
+            PronosticoClimaDTO datos = restTemplate.execute(url(clave), HttpMethod.GET, null,
+                    respuesta -> LectorPronostico.leer(respuesta.getBody()));
+            registrarExito();
+            if (datos != null) {
+                guardar(clave, datos);
+            }
+            return datos;
+        } catch (RuntimeException e) {
+            // Errores HTTP y de red (RestClientException) o una respuesta que no se pudo leer
+            registrarFallo();
+            if (ultimaConocida != null) {
+                log.warn("Falla del API de clima ({}); se usa el último valor conocido para {}", e.getMessage(), clave.fecha());
+                return ultimaConocida.datos();
+            }
+            throw e;
+        } finally {
+            // Si esta era la llamada de prueba, la siguiente puede volver a probar
+            pruebaEnCurso.set(false);
+        }
+    }
 
-    public Map<String, Object> getWeather(double latitude, double longitude, LocalDate date) {
-        String url = UriComponentsBuilder.fromUriString("https://api.open-meteo.com/v1/forecast")
-                .queryParam("latitude", latitude)
-                .queryParam("longitude", longitude)
+    private String url(ClaveClima clave) {
+        String url = UriComponentsBuilder.fromUriString(urlPronostico)
+                .queryParam("latitude", clave.latitud())
+                .queryParam("longitude", clave.longitud())
                 .queryParam("hourly", "temperature_2m,weather_code")
                 .queryParam("timezone", "America/New_York")
-                .queryParam("start_date", date)
-                .queryParam("end_date", date)
+                .queryParam("start_date", clave.fecha())
+                .queryParam("end_date", clave.fecha())
                 .toUriString();
-        log.info(url);
-        return restTemplate.getForObject(url, Map.class);
+        log.debug(url);
+        return url;
+    }
+
+    private EntradaClima leerCache(ClaveClima clave) {
+        synchronized (cache) {
+            return cache.get(clave);
+        }
+    }
+
+    // Sobre maxEntradas salen primero las vencidas y luego las menos usadas
+    private void guardar(ClaveClima clave, PronosticoClimaDTO datos) {
+        Instant ahora = clock.instant();
+        synchronized (cache) {
+            cache.put(clave, new EntradaClima(datos, ahora));
+            if (cache.size() <= maxEntradas) return;
+            cache.values().removeIf(e -> Duration.between(e.obtenido(), ahora).compareTo(maxObsoleto) > 0);
+            Iterator<EntradaClima> menosUsadas = cache.values().iterator();
+            while (cache.size() > maxEntradas && menosUsadas.hasNext()) {
+                menosUsadas.next();
+                menosUsadas.remove();
+            }
+        }
+    }
+
+    private boolean circuitoPermiteLlamada() {
+        if (fallosSeguidos.get() < FALLOS_PARA_ABRIR) return true;
+        if (clock.instant().isBefore(abiertoHasta)) return false;
+        return pruebaEnCurso.compareAndSet(false, true);
+    }
+
+    private void registrarExito() {
+        if (fallosSeguidos.getAndSet(0) >= FALLOS_PARA_ABRIR) {
+            log.info("API de clima disponible de nuevo; circuito cerrado");
+        }
+    }
+
+    private void registrarFallo() {
+        fallosProveedor.increment();
+        if (fallosSeguidos.incrementAndGet() >= FALLOS_PARA_ABRIR) {
+            abiertoHasta = clock.instant().plus(ESPERA_CIRCUITO_ABIERTO);
+            log.warn("API de clima sin respuesta; circuito abierto por {} s", ESPERA_CIRCUITO_ABIERTO.toSeconds());
+        }
     }
 
     public String mapCode(Integer code) {
@@ -63,4 +249,19 @@ public class ClimaService {
         return messageSource.getMessage(key, null, locale);
     }
 
+    private record ClaveClima(double latitud, double longitud, LocalDate fecha) {}
+
+    private record EntradaClima(PronosticoClimaDTO datos, Instant obtenido) {}
+
+    /**
+     * Aciertos frescos y obsoletos de la caché, fallos, llamadas al proveedor (y cuántas fallaron)
+     * y si el circuito está abierto.
+     */
+    public record MetricasClima(long aciertos, long aciertosObsoletos, long fallos, long llamadas, long fallosProveedor,
+                                boolean circuitoAbierto) {
+        public double proporcionAciertos() {
+            long total = aciertos + aciertosObsoletos + fallos;
+            return total > 0 ? (double) (aciertos + aciertosObsoletos) / total : 0;
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package eafit.caba_pro.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import eafit.caba_pro.dto.DashboardDTO;
+import eafit.caba_pro.dto.DashboardDTO.ArbitroDestacado;
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import eafit.caba_pro.repository.EntrenadorRepository;
+import eafit.caba_pro.service.RankingArbitrosService.Criterio;
+
+/**
+ * Estadísticas del dashboard de administración servidas desde una foto en memoria. La foto se
+ * marca como desactualizada cuando se confirma un cambio de Partido, Árbitro o Entrenador
+ * (EstadisticasListener) y se recalcula en la siguiente lectura, pero como mucho una vez por
+ * intervalo mínimo: una ráfaga de escrituras se sirve con hasta ese retraso en lugar de
+ * recalcular en cada petición. Sin cambios no se consulta la base de datos.
+ */
+@Service
+public class DashboardService {
+
+    private final ResumenPartidosService resumenService;
+    private final RankingArbitrosService rankingService;
+    private final EntrenadorRepository entrenadorRepository;
+    private final Duration intervaloMinimo;
+    private final Clock reloj;
+
+    private volatile DashboardDTO foto;
+    private volatile boolean desactualizada = true;
+    private final LongAdder lecturas = new LongAdder();
+    private final LongAdder recalculos = new LongAdder();
+
+    @Autowired
+    public DashboardService(ResumenPartidosService resumenService, RankingArbitrosService rankingService,
+                            EntrenadorRepository entrenadorRepository,
+                            @Value("${caba.dashboard.intervalo-minimo-ms:2000}") long intervaloMinimoMs) {
+        this(resumenService, rankingService, entrenadorRepository, Duration.ofMillis(intervaloMinimoMs), Clock.systemDefaultZone());
+    }
+
+    DashboardService(ResumenPartidosService resumenService, RankingArbitrosService rankingService,
+                     EntrenadorRepository entrenadorRepository, Duration intervaloMinimo, Clock reloj) {
+        this.resumenService = resumenService;
+        this.rankingService = rankingService;
+        this.entrenadorRepository = entrenadorRepository;
+        this.intervaloMinimo = intervaloMinimo;
+        this.reloj = reloj;
+    }
+
+    public record MetricasDashboard(long lecturas, long recalculos) {
+    }
+
+    public DashboardDTO obtener() {
+        lecturas.increment();
+        DashboardDTO actual = foto;
+        if (actual != null && !debeRecalcular(actual)) {
+            return actual;
+        }
+        return recalcular();
+    }
+
+    // Lo llama EstadisticasListener después del commit de un cambio
+    public void marcarDesactualizada() {
+        desactualizada = true;
+    }
+
+    public MetricasDashboard getMetricas() {
+        return new MetricasDashboard(lecturas.sum(), recalculos.sum());
+    }
+
+    private synchronized DashboardDTO recalcular() {
+        DashboardDTO actual = foto;
+        if (actual != null && !debeRecalcular(actual)) {
+            return actual; // otro hilo ya la recalculó
+        }
+        desactualizada = false; // antes de consultar, para no perder cambios que lleguen durante el cálculo
+        Instant ahora = reloj.instant();
+
+        Map<EstadoPartido, Long> porEstado = resumenService.contarPorEstado();
+        long total = porEstado.values().stream().mapToLong(Long::longValue).sum();
+
+        YearMonth mes = YearMonth.now(reloj);
+        List<ArbitroDestacado> top = rankingService.top(Criterio.PARTIDOS, 5, mes, mes).getArbitros().stream()
+            .map(f -> new ArbitroDestacado(f.arbitroId(), f.nombre(), f.speciality(), f.escalafon(), f.partidos()))
+            .toList();
+
+        foto = new DashboardDTO(Collections.unmodifiableMap(porEstado), total, top, entrenadorRepository.countByActivoTrue(), ahora);
+        recalculos.increment();
+        return foto;
+    }
+
+    private boolean debeRecalcular(DashboardDTO actual) {
+        Instant ahora = reloj.instant();
+        if (!YearMonth.from(actual.getGeneradoEn().atZone(reloj.getZone())).equals(YearMonth.now(reloj))) {
+            return true; // el top de árbitros es del mes en curso
+        }
+        return desactualizada && !ahora.isBefore(actual.getGeneradoEn().plus(intervaloMinimo));
+    }
+}
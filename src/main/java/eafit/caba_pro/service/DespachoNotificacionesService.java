@@ -0,0 +1,144 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import eafit.caba_pro.repository.NotificacionJdbcRepository;
+import eafit.caba_pro.repository.NotificacionJdbcRepository.Entregada;
+import eafit.caba_pro.service.NotificacionService.NotificacionRegistrada;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Entrega las notificaciones del outbox (notificacion_pendiente) a la tabla notificacion.
+ * Las filas confirmadas entran a una cola acotada y se vacían en lotes JDBC en el pool
+ * notificacionExecutor, fuera del hilo de la petición. Si la cola está llena o un lote falla,
+ * la fila sigue en el outbox y el reintento periódico la entrega: la entrega es al menos una vez.
+ * Cada lote confirmado se pasa a NotificacionesEnVivoService para los streams SSE abiertos.
+ */
+@Service
+@Slf4j
+public class DespachoNotificacionesService {
+
+    static final int TAMANO_LOTE = 200;
+
+    private final NotificacionJdbcRepository notificacionJdbcRepository;
+    private final NotificacionesEnVivoService enVivo;
+    private final TransactionTemplate transaccion;
+    private final Executor executor;
+    private final long graciaSegundos;
+
+    private final BlockingQueue<Long> cola;
+    // true mientras haya una tarea de vaciado enviada al pool
+    private final AtomicBoolean vaciando = new AtomicBoolean();
+
+    private final Counter entregadas;
+    private final Counter desbordes;
+    private final Counter lotesFallidos;
+
+    public DespachoNotificacionesService(NotificacionJdbcRepository notificacionJdbcRepository,
+                                         NotificacionesEnVivoService enVivo,
+                                         PlatformTransactionManager transactionManager,
+                                         @Qualifier("notificacionExecutor") Executor executor,
+                                         @Value("${caba.notificaciones.cola:10000}") int capacidadCola,
+                                         @Value("${caba.notificaciones.gracia-segundos:10}") long graciaSegundos,
+                                         MeterRegistry registry) {
+        this.notificacionJdbcRepository = notificacionJdbcRepository;
+        this.enVivo = enVivo;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.graciaSegundos = graciaSegundos;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.entregadas = Counter.builder("caba.notificaciones.entregadas")
+            .description("Notificaciones pasadas del outbox a la tabla notificacion").register(registry);
+        this.desbordes = Counter.builder("caba.notificaciones.desbordes")
+            .description("Notificaciones que no cupieron en la cola y quedaron para el reintento").register(registry);
+        this.lotesFallidos = Counter.builder("caba.notificaciones.lotes_fallidos")
+            .description("Lotes de notificaciones que no se pudieron entregar").register(registry);
+        Gauge.builder("caba.notificaciones.cola", cola, BlockingQueue::size)
+            .description("Notificaciones confirmadas esperando su lote").register(registry);
+    }
+
+    /**
+     * Encola la fila del outbox cuando la transacción que la escribió confirma. Sin transacción
+     * (fallbackExecution) la fila ya está guardada y se encola de inmediato.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alConfirmar(NotificacionRegistrada evento) {
+        if (!cola.offer(evento.pendienteId())) {
+            desbordes.increment();
+            return;
+        }
+        programarVaciado();
+    }
+
+    /**
+     * Entrega lo que quedó en el outbox: desbordes de la cola, lotes fallidos y filas que no
+     * alcanzaron a despacharse antes de un reinicio. Solo toma filas con más de
+     * caba.notificaciones.gracia-segundos para no competir con el despacho normal.
+     */
+    @Scheduled(fixedDelayString = "${caba.notificaciones.reintento-ms:30000}")
+    public void reintentarPendientes() {
+        List<Long> ids;
+        do {
+            ids = notificacionJdbcRepository.idsPendientesAntesDe(LocalDateTime.now().minusSeconds(graciaSegundos), TAMANO_LOTE);
+            if (!ids.isEmpty() && !entregar(ids)) return;
+        } while (ids.size() == TAMANO_LOTE);
+    }
+
+    private void programarVaciado() {
+        if (!vaciando.compareAndSet(false, true)) return;
+        try {
+            executor.execute(this::vaciar);
+        } catch (RejectedExecutionException e) {
+            // Las filas siguen en el outbox; las toma el reintento periódico
+            vaciando.set(false);
+        }
+    }
+
+    private void vaciar() {
+        List<Long> lote = new ArrayList<>(TAMANO_LOTE);
+        while (true) {
+            cola.drainTo(lote, TAMANO_LOTE);
+            if (lote.isEmpty()) {
+                vaciando.set(false);
+                // Un evento pudo encolarse entre el drainTo y el set(false)
+                if (cola.isEmpty() || !vaciando.compareAndSet(false, true)) return;
+                continue;
+            }
+            entregar(lote);
+            lote.clear();
+        }
+    }
+
+    private boolean entregar(List<Long> ids) {
+        List<Entregada> nuevas;
+        try {
+            nuevas = transaccion.execute(estado -> notificacionJdbcRepository.entregar(ids));
+        } catch (RuntimeException e) {
+            lotesFallidos.increment();
+            log.warn("No se pudo entregar un lote de {} notificaciones; quedan en el outbox: {}", ids.size(), e.getMessage());
+            return false;
+        }
+        entregadas.increment(nuevas.size());
+        // Ya confirmadas: se pueden mostrar en vivo
+        enVivo.publicar(nuevas);
+        return true;
+    }
+}
@@ -0,0 +1,28 @@
+package eafit.caba_pro.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Deja una acción para cuando confirme la transacción en curso; si la transacción hace rollback
+ * la acción se descarta. Sin transacción activa la acción se ejecuta de inmediato. Las acciones
+ * de una misma transacción corren en el orden en que se registraron.
+ */
+public final class DespuesDelCommit {
+
+    private DespuesDelCommit() {
+    }
+
+    public static void ejecutar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.repository.PartidoRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice en memoria de las asignaciones de cada árbitro. Cada partido ocupa al árbitro desde su
+ * hora de inicio durante la duración del partido más el tiempo de traslado, así que dos partidos
+ * se cruzan aunque no empiecen a la misma hora. Las asignaciones de cada árbitro se guardan
+ * ordenadas por minuto de inicio; como todas ocupan la misma ventana, saber si un intervalo está
+ * libre es una sola búsqueda por rango en el árbol.
+ *
+ * Se carga desde la base de datos en la primera consulta y luego se mantiene con
+ * PartidoDisponibilidadListener, que aplica los cambios de Partido cuando su transacción confirma.
+ * Los partidos rechazados por el árbitro (ARBITRO_NO_DISPONIBLE) no lo ocupan.
+ */
+@Service
+@Slf4j
+public class DisponibilidadService {
+
+    private static final Comparator<Asignacion> POR_INICIO =
+            Comparator.comparingLong(Asignacion::inicio).thenComparingLong(Asignacion::partidoId);
+
+    private final PartidoRepository partidoRepository;
+    private final long duracionMin;
+    private final long trasladoMin;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, TreeSet<Asignacion>> porArbitro = new HashMap<>();
+    private final Map<Long, Asignacion> porPartido = new HashMap<>();
+    private volatile boolean cargado;
+
+    @Autowired
+    public DisponibilidadService(PartidoRepository partidoRepository,
+                                 @Value("${caba.disponibilidad.duracion-partido-min:120}") long duracionMin,
+                                 @Value("${caba.disponibilidad.traslado-min:60}") long trasladoMin) {
+        this.partidoRepository = partidoRepository;
+        this.duracionMin = duracionMin;
+        this.trasladoMin = trasladoMin;
+    }
+
+    // Partido asignado a un árbitro, con el inicio en minutos desde la época
+    record Asignacion(long inicio, long partidoId, long arbitroId) {
+    }
+
+    /**
+     * Indica si el árbitro puede pitar un partido que empieza en fecha/hora sin cruzarse con
+     * otro partido suyo ni con su traslado. partidoExcluido permite validar un partido que ya
+     * existe sin que choque consigo mismo; puede ser null.
+     */
+    public boolean estaLibre(Long arbitroId, LocalDate fecha, LocalTime hora, Long partidoExcluido) {
+        long inicio = minuto(fecha, hora);
+        asegurarCarga();
+        lock.readLock().lock();
+        try {
+            TreeSet<Asignacion> asignaciones = porArbitro.get(arbitroId);
+            if (asignaciones == null) {
+                return true;
+            }
+            for (Asignacion a : cruces(asignaciones, inicio, inicio + duracionMin)) {
+                if (partidoExcluido == null || a.partidoId() != partidoExcluido) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Árbitros con algún partido que se cruza con el intervalo [desde, hasta). Los que no
+     * aparecen están libres en ese intervalo.
+     */
+    public Set<Long> ocupadosEntre(LocalDateTime desde, LocalDateTime hasta) {
+        long inicio = minuto(desde.toLocalDate(), desde.toLocalTime());
+        long fin = minuto(hasta.toLocalDate(), hasta.toLocalTime());
+        asegurarCarga();
+        lock.readLock().lock();
+        try {
+            Set<Long> ocupados = new HashSet<>();
+            for (Map.Entry<Long, TreeSet<Asignacion>> entrada : porArbitro.entrySet()) {
+                if (!cruces(entrada.getValue(), inicio, fin).isEmpty()) {
+                    ocupados.add(entrada.getKey());
+                }
+            }
+            return ocupados;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Árbitros ocupados durante un partido que empieza en fecha/hora.
+     */
+    public Set<Long> ocupadosEn(LocalDate fecha, LocalTime hora) {
+        LocalDateTime inicio = fecha.atTime(hora);
+        return ocupadosEntre(inicio, inicio.plusMinutes(duracionMin));
+    }
+
+    // Dos partidos de un mismo árbitro deben empezar al menos con esta separación
+    public long getSeparacionMinutos() {
+        return duracionMin + trasladoMin;
+    }
+
+    /**
+     * Registra el estado actual de un partido: lo quita de donde estaba y, si sigue con árbitro,
+     * lo vuelve a indexar con su fecha y hora.
+     */
+    public void registrar(Long partidoId, Long arbitroId, LocalDate fecha, LocalTime hora, Partido.EstadoPartido estado) {
+        if (!cargado) {
+            return; // la carga inicial leerá el estado confirmado
+        }
+        lock.writeLock().lock();
+        try {
+            quitarSinBloqueo(partidoId);
+            if (ocupa(arbitroId, fecha, hora, estado)) {
+                agregarSinBloqueo(new Asignacion(minuto(fecha, hora), partidoId, arbitroId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void quitar(Long partidoId) {
+        if (!cargado) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            quitarSinBloqueo(partidoId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vuelve a leer todas las asignaciones desde la base de datos.
+     */
+    public void recargar() {
+        lock.writeLock().lock();
+        try {
+            porArbitro.clear();
+            porPartido.clear();
+            List<Object[]> filas = partidoRepository.findAsignacionesDeArbitros();
+            for (Object[] fila : filas) {
+                Long arbitroId = (Long) fila[1];
+                LocalDate fecha = (LocalDate) fila[2];
+                LocalTime hora = (LocalTime) fila[3];
+                if (ocupa(arbitroId, fecha, hora, (Partido.EstadoPartido) fila[4])) {
+                    agregarSinBloqueo(new Asignacion(minuto(fecha, hora), (Long) fila[0], arbitroId));
+                }
+            }
+            cargado = true;
+            log.info("Índice de disponibilidad cargado: {} asignaciones de {} árbitros", porPartido.size(), porArbitro.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void asegurarCarga() {
+        if (!cargado) {
+            recargar();
+        }
+    }
+
+    // Asignaciones que empiezan en (inicio - duración - traslado, fin + traslado): son las que se cruzan con [inicio, fin)
+    private Set<Asignacion> cruces(TreeSet<Asignacion> asignaciones, long inicio, long fin) {
+        return asignaciones.subSet(
+                new Asignacion(inicio - duracionMin - trasladoMin + 1, Long.MIN_VALUE, 0), true,
+                new Asignacion(fin + trasladoMin, Long.MIN_VALUE, 0), false);
+    }
+
+    private static boolean ocupa(Long arbitroId, LocalDate fecha, LocalTime hora, Partido.EstadoPartido estado) {
+        return arbitroId != null && fecha != null && hora != null && estado != Partido.EstadoPartido.ARBITRO_NO_DISPONIBLE;
+    }
+
+    private void agregarSinBloqueo(Asignacion asignacion) {
+        porArbitro.computeIfAbsent(asignacion.arbitroId(), k -> new TreeSet<>(POR_INICIO)).add(asignacion);
+        porPartido.put(asignacion.partidoId(), asignacion);
+    }
+
+    private void quitarSinBloqueo(Long partidoId) {
+        Asignacion anterior = porPartido.remove(partidoId);
+        if (anterior == null) {
+            return;
+        }
+        TreeSet<Asignacion> asignaciones = porArbitro.get(anterior.arbitroId());
+        asignaciones.remove(anterior);
+        if (asignaciones.isEmpty()) {
+            porArbitro.remove(anterior.arbitroId());
+        }
+    }
+
+    private static long minuto(LocalDate fecha, LocalTime hora) {
+        return fecha.toEpochDay() * 1440 + hora.toSecondOfDay() / 60;
+    }
+}
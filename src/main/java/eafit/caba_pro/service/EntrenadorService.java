@@ -1,11 +1,14 @@
 package eafit.caba_pro.service;
 
+import eafit.caba_pro.dto.EntrenadorResumenDTO;
+import eafit.caba_pro.dto.PaginaDTO;
 import eafit.caba_pro.model.Entrenador;
 import eafit.caba_pro.model.Usuario;
 import eafit.caba_pro.model.Reseña;
 import eafit.caba_pro.repository.EntrenadorRepository;
 import eafit.caba_pro.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import eafit.caba_pro.repository.ReseñaRepository;
@@ -41,6 +44,17 @@ public class EntrenadorService {
         return entrenadorRepository.findByActivoTrue();
     }
 
+    /**
+     * Página de entrenadores activos para la API en orden de id; after es el último id de la página anterior
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<EntrenadorResumenDTO> paginarResumenes(Long after, Integer limite) {
+        int n = PaginaDTO.limitar(limite);
+        List<EntrenadorResumenDTO> filas = entrenadorRepository.findResumenesDespuesDe(after != null ? after : 0L, PageRequest.of(0, n + 1))
+            .stream().map(EntrenadorResumenDTO::desdeFila).toList();
+        return PaginaDTO.de(filas, n, e -> String.valueOf(e.id()));
+    }
+
     public Optional<Entrenador> findById(Long id) {
         return entrenadorRepository.findById(id);
     }
@@ -5,7 +5,10 @@ import java.util.Optional;
 
 import org.springframework.transaction.annotation.Transactional;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import eafit.caba_pro.dto.EquipoResumenDTO;
+import eafit.caba_pro.dto.PaginaDTO;
 import eafit.caba_pro.model.Equipo;
 import eafit.caba_pro.repository.EquipoRepository;
 
@@ -23,6 +26,15 @@ public class EquipoService {
         return equipoRepository.findAll();
     }
 
+    // Página de equipos para la API en orden de id; after es el último id de la página anterior
+    @Transactional(readOnly = true)
+    public PaginaDTO<EquipoResumenDTO> paginarResumenes(Long after, Integer limite){
+        int n = PaginaDTO.limitar(limite);
+        List<EquipoResumenDTO> filas = equipoRepository.findResumenesDespuesDe(after != null ? after : 0L, PageRequest.of(0, n + 1))
+            .stream().map(EquipoResumenDTO::desdeFila).toList();
+        return PaginaDTO.de(filas, n, e -> String.valueOf(e.id()));
+    }
+
     @Transactional(readOnly = true)
     public Optional <Equipo> findById(Long id){
         return equipoRepository.findById(id);
@@ -0,0 +1,119 @@
+package eafit.caba_pro.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import eafit.caba_pro.model.EstadisticaEquipo;
+import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.repository.EstadisticaEquipoRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Estadísticas de equipos (jugados, ganados, empatados, perdidos y goles) servidas desde la
+ * tabla estadistica_equipo. La tabla se reconstruye al arrancar con una sola consulta agregada
+ * por id de equipo y después se mantiene con la diferencia de cada resultado confirmado, así
+ * que leer las estadísticas de un equipo es una búsqueda por clave primaria.
+ */
+@Service
+@Slf4j
+public class EstadisticasEquipoService {
+
+    private final EstadisticaEquipoRepository estadisticaRepository;
+    private final PartidoRepository partidoRepository;
+    private final FilasEnCero filasEnCero;
+
+    public EstadisticasEquipoService(EstadisticaEquipoRepository estadisticaRepository, PartidoRepository partidoRepository,
+                                     FilasEnCero filasEnCero) {
+        this.estadisticaRepository = estadisticaRepository;
+        this.partidoRepository = partidoRepository;
+        this.filasEnCero = filasEnCero;
+    }
+
+    /**
+     * Estadísticas del equipo; un equipo sin partidos finalizados recibe una fila en cero
+     * que no se guarda.
+     */
+    @Transactional(readOnly = true)
+    public EstadisticaEquipo obtener(Long equipoId) {
+        if (equipoId == null) {
+            return new EstadisticaEquipo();
+        }
+        return estadisticaRepository.findById(equipoId).orElseGet(() -> new EstadisticaEquipo(equipoId));
+    }
+
+    /**
+     * Recalcula toda la tabla desde los partidos. Se usa al arrancar, porque los datos
+     * iniciales no pasan por los listeners, y sirve para reconciliar si hiciera falta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconstruir() {
+        estadisticaRepository.deleteAllInBatch();
+        var filas = partidoRepository.agregarEstadisticasPorEquipo().stream()
+            .map(f -> new EstadisticaEquipo((Long) f[0], entero(f[1]), entero(f[2]), entero(f[3]),
+                                            entero(f[4]), entero(f[5]), entero(f[6])))
+            .toList();
+        estadisticaRepository.saveAll(filas);
+        log.info("Tabla de posiciones reconstruida para {} equipos", filas.size());
+    }
+
+    /**
+     * Aplica el cambio de un resultado: resta lo que aportaba el anterior y suma el nuevo.
+     * Lo llama EstadisticasEquipoDiferencia después del commit, por eso abre su propia transacción.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void aplicar(Partido.Resultado anterior, Partido.Resultado actual) {
+        Map<Long, int[]> diferencias = new LinkedHashMap<>();
+        acumular(diferencias, anterior, -1);
+        acumular(diferencias, actual, 1);
+
+        for (Map.Entry<Long, int[]> entrada : diferencias.entrySet()) {
+            int[] d = entrada.getValue();
+            if (sumar(entrada.getKey(), d) > 0) {
+                continue;
+            }
+            if (d[0] < 0) {
+                // Restar de un equipo sin fila indica que la tabla se desfasó
+                log.warn("Equipo {} sin fila de posiciones al revertir un resultado; se reconstruye la tabla", entrada.getKey());
+                reconstruir();
+                return;
+            }
+            // Primer partido del equipo: se crea la fila (o la creó otra transacción) y se suma en ella
+            Long equipoId = entrada.getKey();
+            filasEnCero.crear(() -> estadisticaRepository.crear(equipoId));
+            sumar(equipoId, d);
+        }
+    }
+
+    private int sumar(Long equipoId, int[] d) {
+        return estadisticaRepository.sumar(equipoId, d[0], d[1], d[2], d[3], d[4], d[5]);
+    }
+
+    // [jugados, ganados, empatados, perdidos, golesFavor, golesContra] de cada equipo, multiplicado por signo
+    private static void acumular(Map<Long, int[]> diferencias, Partido.Resultado resultado, int signo) {
+        if (resultado == null) {
+            return;
+        }
+        sumarLado(diferencias, resultado.localId(), resultado.golesLocal(), resultado.golesVisitante(), signo);
+        sumarLado(diferencias, resultado.visitanteId(), resultado.golesVisitante(), resultado.golesLocal(), signo);
+    }
+
+    private static void sumarLado(Map<Long, int[]> diferencias, Long equipoId, int favor, int contra, int signo) {
+        int[] d = diferencias.computeIfAbsent(equipoId, k -> new int[6]);
+        d[0] += signo;
+        d[favor > contra ? 1 : favor == contra ? 2 : 3] += signo;
+        d[4] += favor * signo;
+        d[5] += contra * signo;
+    }
+
+    private static int entero(Object valor) {
+        return valor == null ? 0 : ((Number) valor).intValue();
+    }
+}
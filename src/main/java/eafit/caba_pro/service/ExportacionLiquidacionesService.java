@@ -0,0 +1,122 @@
+package eafit.caba_pro.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.Normalizer;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import eafit.caba_pro.model.Liquidacion;
+import eafit.caba_pro.repository.LiquidacionRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exporta en un ZIP los PDF de todas las liquidaciones de un periodo, escribiendo directamente
+ * sobre el stream de la respuesta. Los PDF se generan en paralelo en el pool de PdfService, pero
+ * solo hay una ventana fija de documentos en vuelo, así que la memoria usada no depende de
+ * cuántas liquidaciones tenga el periodo.
+ */
+@Service
+@Slf4j
+public class ExportacionLiquidacionesService {
+
+    private final LiquidacionRepository liquidacionRepository;
+    private final PdfService pdfService;
+    private final PdfCacheService pdfCacheService;
+    private final TransactionTemplate transactionTemplate;
+    private final int ventana;
+
+    public ExportacionLiquidacionesService(LiquidacionRepository liquidacionRepository, PdfService pdfService,
+                                           PdfCacheService pdfCacheService, PlatformTransactionManager transactionManager,
+                                           @Value("${caba.pdf.zip.ventana:8}") int ventana) {
+        this.liquidacionRepository = liquidacionRepository;
+        this.pdfService = pdfService;
+        this.pdfCacheService = pdfCacheService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.ventana = ventana;
+    }
+
+    /**
+     * Escribe el ZIP del periodo en salida. Los archivos quedan en el orden de los árbitros.
+     * Retorna la cantidad de PDF escritos.
+     */
+    public int exportarZip(YearMonth periodo, OutputStream salida) throws IOException {
+        long inicio = System.nanoTime();
+        List<Long> ids = liquidacionRepository.findIdsByPeriodo(periodo);
+        Iterator<Long> pendientes = ids.iterator();
+        Deque<PdfEnCurso> enVuelo = new ArrayDeque<>();
+
+        int escritos = 0;
+        ZipOutputStream zip = new ZipOutputStream(salida);
+        try {
+            while (pendientes.hasNext() || !enVuelo.isEmpty()) {
+                while (pendientes.hasNext() && enVuelo.size() < ventana) {
+                    enVuelo.add(iniciar(pendientes.next(), periodo));
+                }
+                PdfEnCurso siguiente = enVuelo.poll();
+                byte[] pdf;
+                try {
+                    pdf = siguiente.pdf().join();
+                } catch (CompletionException | CancellationException e) {
+                    log.error("ZIP de liquidaciones {}: falló el PDF de la liquidación {}", periodo,
+                        siguiente.liquidacionId(), e.getCause() != null ? e.getCause() : e);
+                    throw e;
+                }
+                zip.putNextEntry(new ZipEntry(siguiente.nombreArchivo()));
+                zip.write(pdf);
+                zip.closeEntry();
+                escritos++;
+            }
+            // Solo un ZIP completo recibe su directorio central; si algo falla la excepción corta la
+            // respuesta y el cliente no queda con un archivo que parece válido pero le faltan PDF
+            zip.close();
+        } finally {
+            // El cliente cortó la descarga o falló un PDF: se descartan los que seguían en vuelo
+            enVuelo.forEach(pdf -> pdf.pdf().cancel(false));
+        }
+        log.info("ZIP de liquidaciones {}: {} PDF en {} ms", periodo, escritos, (System.nanoTime() - inicio) / 1_000_000);
+        return escritos;
+    }
+
+    // Arma el HTML dentro de una transacción (la plantilla recorre relaciones lazy) y deja la conversión en el pool
+    private PdfEnCurso iniciar(Long liquidacionId, YearMonth periodo) {
+        return transactionTemplate.execute(status -> {
+            Liquidacion liquidacion = liquidacionRepository.findDetalleById(liquidacionId)
+                    .orElseThrow(() -> new EntityNotFoundException("Liquidación no encontrada con ID: " + liquidacionId));
+            String nombre = "liquidacion-" + periodo + "-" + normalizar(liquidacion.getArbitro().getNombre())
+                    + "-" + liquidacionId + ".pdf";
+            String huella = pdfCacheService.huella(liquidacion);
+            CompletableFuture<byte[]> pdf;
+            try {
+                pdf = pdfService.obtenerPdfLiquidacionAsync(liquidacion, huella);
+            } catch (TaskRejectedException e) {
+                // Pool saturado por otras descargas: este PDF se genera en el hilo de la exportación
+                pdf = CompletableFuture.completedFuture(pdfService.generarPdfDesdeLiquidacion(liquidacion));
+            }
+            return new PdfEnCurso(liquidacionId, nombre, pdf);
+        });
+    }
+
+    private static String normalizar(String nombre) {
+        String sinTildes = Normalizer.normalize(nombre, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+    }
+
+    private record PdfEnCurso(Long liquidacionId, String nombreArchivo, CompletableFuture<byte[]> pdf) {}
+}
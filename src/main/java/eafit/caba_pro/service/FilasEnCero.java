@@ -0,0 +1,36 @@
+package eafit.caba_pro.service;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Crea la fila en cero de una tabla agregada que se actualiza sumando en la base (UPDATE ...
+ * SET x = x + :d). Si dos transacciones no encuentran la fila a la vez, ambas intentan crearla
+ * y la segunda choca con la clave única; eso basta, porque lo que necesita es que la fila
+ * exista para repetir su UPDATE. Va en su propia transacción para que el choque no deje
+ * marcada para rollback la que suma.
+ */
+@Component
+public class FilasEnCero {
+
+    private final TransactionTemplate nuevaTransaccion;
+
+    public FilasEnCero(PlatformTransactionManager transactionManager) {
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Ejecuta el INSERT de la fila; si otra transacción ya la había creado no hace nada.
+     */
+    public void crear(Runnable insertar) {
+        try {
+            nuevaTransaccion.executeWithoutResult(estado -> insertar.run());
+        } catch (DataIntegrityViolationException e) {
+            // La fila ya existe: es lo que se necesitaba
+        }
+    }
+}
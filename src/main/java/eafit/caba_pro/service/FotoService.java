@@ -0,0 +1,380 @@
+package eafit.caba_pro.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Almacén en disco de las fotos de árbitros, direccionado por contenido: cada original se guarda
+ * con su SHA-256 como nombre (originales/ab/cd/abcd...), así dos árbitros con la misma imagen
+ * comparten el archivo y un archivo nunca cambia de contenido. Al guardar se generan las
+ * miniaturas JPEG de cada Variante; si la imagen no se puede decodificar se sirve el original.
+ * Las miniaturas más pedidas se guardan en memoria en un LRU limitado por bytes
+ * (caba.fotos.cache.max-kb), así el listado de árbitros no lee el disco en cada avatar.
+ * Las fotos que ningún árbitro usa las borra barrerHuerfanas() pasado un periodo de gracia.
+ */
+@Service
+@Slf4j
+public class FotoService {
+
+    // Una imagen de 5 MB comprimida puede ocupar gigas al decodificarla; por encima no se procesa
+    static final long MAX_PIXELES = 40_000_000L;
+
+    private final Path directorio;
+    private final long maxBytesCache;
+
+    // "hash-variante" -> JPEG, en orden de acceso (el primero es el menos usado)
+    private final LinkedHashMap<String, byte[]> miniaturas = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytesEnCache;
+
+    // guardar() y barrerHuerfanas() no se cruzan sobre el mismo original
+    private final Object almacen = new Object();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    public FotoService(@Value("${caba.fotos.dir:data/fotos}") String directorio,
+                       @Value("${caba.fotos.cache.max-kb:8192}") long maxKbCache) {
+        this.directorio = Paths.get(directorio);
+        this.maxBytesCache = maxKbCache * 1024;
+    }
+
+    /**
+     * Guarda el original (si no existía ya) y sus miniaturas. Retorna el hash con el que se
+     * identifica la foto y el tamaño del original.
+     */
+    public FotoGuardada guardar(byte[] datos) throws IOException {
+        String hash = sha256(datos);
+        BufferedImage imagen = decodificar(datos, hash);
+        escribir(ruta(hash, Variante.ORIGINAL), datos);
+
+        if (imagen != null) {
+            for (Variante variante : Variante.values()) {
+                if (variante == Variante.ORIGINAL) continue;
+                Path destino = ruta(hash, variante);
+                if (Files.exists(destino)) continue;
+                BufferedImage reducida = reducir(imagen, variante.lado);
+                Path temporal = temporal(destino);
+                try {
+                    ImageIO.write(reducida, "jpg", temporal.toFile());
+                    mover(temporal, destino);
+                } finally {
+                    Files.deleteIfExists(temporal);
+                }
+            }
+        }
+        return new FotoGuardada(hash, datos.length);
+    }
+
+    /**
+     * Archivo de la variante pedida. Si la miniatura no existe (imagen no decodificable) se
+     * retorna el original; vacío si el original tampoco está.
+     */
+    public Optional<Archivo> archivo(String hash, Variante variante, String tipoOriginal) {
+        if (variante != Variante.ORIGINAL) {
+            Path miniatura = ruta(hash, variante);
+            if (Files.isRegularFile(miniatura)) {
+                return Optional.of(new Archivo(miniatura, MediaType.IMAGE_JPEG_VALUE, variante));
+            }
+        }
+        Path original = ruta(hash, Variante.ORIGINAL);
+        if (!Files.isRegularFile(original)) return Optional.empty();
+        String tipo = tipoOriginal != null ? tipoOriginal : MediaType.IMAGE_JPEG_VALUE;
+        return Optional.of(new Archivo(original, tipo, Variante.ORIGINAL));
+    }
+
+    /**
+     * Contenido listo para la respuesta. Las miniaturas salen del LRU en memoria (o se leen del
+     * disco y se agregan); el original se entrega como archivo, sin cargarlo en memoria.
+     */
+    public Optional<Contenido> contenido(String hash, Variante variante, String tipoOriginal) {
+        if (variante != Variante.ORIGINAL) {
+            String clave = hash + "-" + variante;
+            byte[] enCache;
+            synchronized (this) {
+                enCache = miniaturas.get(clave);
+            }
+            if (enCache != null) {
+                aciertos.increment();
+                return Optional.of(new Contenido(new ByteArrayResource(enCache), MediaType.IMAGE_JPEG_VALUE));
+            }
+            fallos.increment();
+        }
+        Optional<Archivo> archivo = archivo(hash, variante, tipoOriginal);
+        if (archivo.isEmpty()) return Optional.empty();
+        Archivo a = archivo.get();
+        if (a.variante() == Variante.ORIGINAL) {
+            return Optional.of(new Contenido(new FileSystemResource(a.ruta()), a.tipoContenido()));
+        }
+        try {
+            byte[] jpeg = Files.readAllBytes(a.ruta());
+            recordar(hash + "-" + variante, jpeg);
+            return Optional.of(new Contenido(new ByteArrayResource(jpeg), a.tipoContenido()));
+        } catch (IOException e) {
+            log.warn("No se pudo leer la miniatura {}: {}", a.ruta(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Borra las fotos cuyo hash no está en enUso y cuyo original no se ha guardado desde limite.
+     * La gracia cubre lo que tarda en confirmarse la fila que apunta a una foto recién guardada
+     * (o que nunca se confirma, si hubo rollback): guardar() renueva la fecha del original aunque
+     * ya exista, así una foto que se vuelve a subir no se borra. Retorna cuántas borró.
+     */
+    public int barrerHuerfanas(Set<String> enUso, Instant limite) throws IOException {
+        Path originales = directorio.resolve(Variante.ORIGINAL.carpeta());
+        if (!Files.isDirectory(originales)) return 0;
+        List<String> candidatas;
+        try (Stream<Path> archivos = Files.walk(originales)) {
+            candidatas = archivos.map(archivo -> archivo.getFileName().toString())
+                .filter(nombre -> nombre.matches("[0-9a-f]{64}") && !enUso.contains(nombre))
+                .toList();
+        }
+        int borradas = 0;
+        for (String hash : candidatas) {
+            synchronized (almacen) {
+                Path original = ruta(hash, Variante.ORIGINAL);
+                if (Files.exists(original) && Files.getLastModifiedTime(original).toInstant().isBefore(limite)) {
+                    eliminar(hash);
+                    borradas++;
+                }
+            }
+        }
+        return borradas;
+    }
+
+    /**
+     * Borra el original y las miniaturas. Solo debe llamarse cuando ningún árbitro usa el hash.
+     */
+    public void eliminar(String hash) {
+        synchronized (this) {
+            for (Variante variante : Variante.values()) {
+                byte[] quitada = miniaturas.remove(hash + "-" + variante);
+                if (quitada != null) bytesEnCache -= quitada.length;
+            }
+        }
+        synchronized (almacen) {
+            for (Variante variante : Variante.values()) {
+                try {
+                    Files.deleteIfExists(ruta(hash, variante));
+                } catch (IOException e) {
+                    log.warn("No se pudo borrar la foto {} ({}): {}", hash, variante, e.getMessage());
+                }
+            }
+        }
+    }
+
+    public MetricasCache getMetricas() {
+        synchronized (this) {
+            return new MetricasCache(aciertos.sum(), fallos.sum(), miniaturas.size(), bytesEnCache);
+        }
+    }
+
+    private synchronized void recordar(String clave, byte[] jpeg) {
+        if (jpeg.length > maxBytesCache) return;
+        byte[] anterior = miniaturas.put(clave, jpeg);
+        bytesEnCache += jpeg.length - (anterior != null ? anterior.length : 0);
+        Iterator<Map.Entry<String, byte[]>> it = miniaturas.entrySet().iterator();
+        while (bytesEnCache > maxBytesCache && it.hasNext()) {
+            bytesEnCache -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    Path ruta(String hash, Variante variante) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Hash de foto inválido: " + hash);
+        }
+        String nombre = variante == Variante.ORIGINAL ? hash : hash + ".jpg";
+        return directorio.resolve(variante.carpeta())
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(nombre);
+    }
+
+    // El contenido de un hash no cambia: si el archivo ya existe no se vuelve a escribir, solo se
+    // renueva su fecha para que barrerHuerfanas() le cuente la gracia desde ahora
+    private void escribir(Path destino, byte[] datos) throws IOException {
+        synchronized (almacen) {
+            if (Files.exists(destino)) {
+                Files.setLastModifiedTime(destino, FileTime.from(Instant.now()));
+                return;
+            }
+        }
+        Path temporal = temporal(destino);
+        try {
+            Files.write(temporal, datos);
+            synchronized (almacen) {
+                mover(temporal, destino);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private Path temporal(Path destino) throws IOException {
+        Files.createDirectories(destino.getParent());
+        return Files.createTempFile(destino.getParent(), destino.getFileName().toString(), ".tmp");
+    }
+
+    private void mover(Path temporal, Path destino) throws IOException {
+        try {
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Otro hilo guardó la misma imagen; el contenido es idéntico
+        }
+    }
+
+    // Lee las dimensiones antes de decodificar para no reservar memoria de más
+    private BufferedImage decodificar(byte[] datos, String hash) {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(new ByteArrayInputStream(datos))) {
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(entrada);
+            if (!lectores.hasNext()) {
+                log.info("Foto {} en un formato sin lector; se servirá sin miniaturas", hash);
+                return null;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                long pixeles = (long) lector.getWidth(0) * lector.getHeight(0);
+                if (pixeles > MAX_PIXELES) {
+                    throw new IllegalArgumentException("La imagen tiene demasiados píxeles (" + pixeles + ")");
+                }
+                return lector.read(0);
+            } finally {
+                lector.dispose();
+            }
+        } catch (IOException e) {
+            log.info("No se pudo decodificar la foto {}; se servirá sin miniaturas: {}", hash, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reduce la imagen para que su lado mayor mida como mucho lado, a la mitad en cada paso para
+     * que el bilineal no pierda detalle. El fondo transparente queda blanco (JPEG no tiene alfa).
+     */
+    static BufferedImage reducir(BufferedImage imagen, int lado) {
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        double escala = Math.min(1.0, (double) lado / Math.max(ancho, alto));
+        int anchoFinal = Math.max(1, (int) Math.round(ancho * escala));
+        int altoFinal = Math.max(1, (int) Math.round(alto * escala));
+
+        BufferedImage actual = imagen;
+        do {
+            int siguienteAncho = Math.max(anchoFinal, ancho / 2);
+            int siguienteAlto = Math.max(altoFinal, alto / 2);
+            BufferedImage paso = new BufferedImage(siguienteAncho, siguienteAlto, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = paso.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(actual, 0, 0, siguienteAncho, siguienteAlto, Color.WHITE, null);
+            } finally {
+                g.dispose();
+            }
+            actual = paso;
+            ancho = siguienteAncho;
+            alto = siguienteAlto;
+        } while (ancho > anchoFinal || alto > altoFinal);
+        return actual;
+    }
+
+    static String sha256(byte[] datos) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(datos));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Tamaños en que se sirve la foto. lado es el máximo del lado mayor, en píxeles.
+     */
+    public enum Variante {
+        ORIGINAL(0),
+        // Listado de árbitros (avatar de 40 px, con margen para pantallas de alta densidad)
+        MINIATURA(96),
+        // Perfil del árbitro
+        MEDIANA(320);
+
+        private final int lado;
+
+        Variante(int lado) {
+            this.lado = lado;
+        }
+
+        public int getLado() {
+            return lado;
+        }
+
+        String carpeta() {
+            return this == ORIGINAL ? "originales" : name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Variante a partir del parámetro tam de la URL; sin valor o desconocido es el original.
+         */
+        public static Variante de(String tam) {
+            if (tam == null) return ORIGINAL;
+            for (Variante v : values()) {
+                if (v.name().equalsIgnoreCase(tam)) return v;
+            }
+            return ORIGINAL;
+        }
+    }
+
+    public record FotoGuardada(String hash, long tamano) {}
+
+    /**
+     * Cuerpo de la respuesta de una foto y su Content-Type.
+     */
+    public record Contenido(Resource recurso, String tipoContenido) {}
+
+    /**
+     * Aciertos y fallos del LRU de miniaturas desde el arranque, y lo que tiene ahora en memoria.
+     */
+    public record MetricasCache(long aciertos, long fallos, int miniaturas, long bytes) {}
+
+    /**
+     * Archivo listo para servir: ruta, Content-Type y la variante que realmente se entrega.
+     */
+    public record Archivo(Path ruta, String tipoContenido, Variante variante) {}
+}
@@ -0,0 +1,83 @@
+package eafit.caba_pro.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import eafit.caba_pro.dto.PronosticoClimaDTO;
+
+/**
+ * Lee la respuesta de Open-Meteo con el parser de streaming de Jackson. Solo recorre
+ * hourly.temperature_2m y hourly.weather_code y salta el resto sin construir objetos.
+ */
+final class LectorPronostico {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private LectorPronostico() {
+    }
+
+    static PronosticoClimaDTO leer(InputStream json) throws IOException {
+        double[] temperaturas = new double[0];
+        int[] codigos = new int[0];
+        try (JsonParser parser = JSON.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Respuesta de clima inesperada: se esperaba un objeto JSON");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                parser.nextToken();
+                if (!"hourly".equals(campo) || parser.currentToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String serie = parser.currentName();
+                    parser.nextToken();
+                    if ("temperature_2m".equals(serie) && parser.currentToken() == JsonToken.START_ARRAY) {
+                        temperaturas = leerDoubles(parser);
+                    } else if ("weather_code".equals(serie) && parser.currentToken() == JsonToken.START_ARRAY) {
+                        codigos = leerEnteros(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return new PronosticoClimaDTO(temperaturas, codigos);
+    }
+
+    private static double[] leerDoubles(JsonParser parser) throws IOException {
+        double[] valores = new double[48];
+        int n = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (n == valores.length) valores = Arrays.copyOf(valores, n * 2);
+            valores[n++] = switch (token) {
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+                case VALUE_STRING -> Double.parseDouble(parser.getText());
+                default -> Double.NaN;
+            };
+        }
+        return Arrays.copyOf(valores, n);
+    }
+
+    private static int[] leerEnteros(JsonParser parser) throws IOException {
+        int[] valores = new int[48];
+        int n = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (n == valores.length) valores = Arrays.copyOf(valores, n * 2);
+            valores[n++] = switch (token) {
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getIntValue();
+                case VALUE_STRING -> (int) Double.parseDouble(parser.getText());
+                default -> PronosticoClimaDTO.SIN_CODIGO;
+            };
+        }
+        return Arrays.copyOf(valores, n);
+    }
+}
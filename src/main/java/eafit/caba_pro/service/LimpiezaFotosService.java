@@ -0,0 +1,52 @@
+package eafit.caba_pro.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import eafit.caba_pro.repository.ArbitroRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Borra del almacén las fotos que ningún árbitro usa: las que se reemplazaron o quitaron, las de
+ * árbitros eliminados y las de subidas cuya transacción hizo rollback. Solo toma las que llevan
+ * más de caba.fotos.gracia-min minutos sin guardarse, así no borra una foto cuya fila aún no se
+ * ha confirmado (ver FotoService.barrerHuerfanas).
+ */
+@Service
+@Slf4j
+public class LimpiezaFotosService {
+
+    private final ArbitroRepository arbitroRepository;
+    private final FotoService fotoService;
+    private final Duration gracia;
+
+    public LimpiezaFotosService(ArbitroRepository arbitroRepository, FotoService fotoService,
+                                @Value("${caba.fotos.gracia-min:60}") long graciaMinutos) {
+        this.arbitroRepository = arbitroRepository;
+        this.fotoService = fotoService;
+        this.gracia = Duration.ofMinutes(graciaMinutos);
+    }
+
+    /**
+     * Retorna cuántas fotos se borraron.
+     */
+    @Scheduled(fixedDelayString = "${caba.fotos.barrido-ms:3600000}", initialDelayString = "${caba.fotos.barrido-ms:3600000}")
+    public int barrer() {
+        Instant limite = Instant.now().minus(gracia);
+        try {
+            int borradas = fotoService.barrerHuerfanas(arbitroRepository.findPhotoHashes(), limite);
+            if (borradas > 0) {
+                log.info("Se borraron {} fotos que ningún árbitro usa", borradas);
+            }
+            return borradas;
+        } catch (IOException e) {
+            log.warn("No se pudo recorrer el almacén de fotos: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
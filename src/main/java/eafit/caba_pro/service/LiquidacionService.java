@@ -1,15 +1,18 @@
 package eafit.caba_pro.service;
 
-import eafit.caba_pro.model.Arbitro;
+import eafit.caba_pro.dto.ResumenLiquidacionDTO;
 import eafit.caba_pro.model.Liquidacion;
-import eafit.caba_pro.model.Notificacion;
 import eafit.caba_pro.model.Liquidacion.EstadoLiquidacion;
-import eafit.caba_pro.model.Partido;
-import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.model.Notificacion.TipoDestinatario;
+import eafit.caba_pro.repository.LiquidacionJdbcRepository;
 import eafit.caba_pro.repository.LiquidacionRepository;
-import eafit.caba_pro.repository.NotificacionRepository;
 import eafit.caba_pro.repository.PartidoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
@@ -17,68 +20,142 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@Slf4j
 public class LiquidacionService {
+    // Árbitros por lote de escritura (limita el tamaño del IN del UPDATE de partidos)
+    private static final int TAMANO_LOTE = 500;
+
     private final LiquidacionRepository liquidacionRepository;
-    private final ArbitroRepository arbitroRepository;
     private final PartidoRepository partidoRepository ;
-    private final NotificacionRepository notificacionRepository;
+    private final LiquidacionJdbcRepository liquidacionJdbcRepository;
+    private final PdfCacheService pdfCacheService;
+
+    private final MeterRegistry registry;
+    private final Timer tiempoLote;
+    private final Counter liquidacionesEscritas;
+    private final Counter partidosVinculados;
+    private final Counter notificacionesCreadas;
 
-    public LiquidacionService(NotificacionRepository notificacionRepository,PartidoRepository partidoRepository, ArbitroRepository arbitroRepository,LiquidacionRepository liquidacionRepository){
+    public LiquidacionService(LiquidacionJdbcRepository liquidacionJdbcRepository,PartidoRepository partidoRepository,LiquidacionRepository liquidacionRepository, PdfCacheService pdfCacheService,
+                              MeterRegistry registry){
         this.liquidacionRepository = liquidacionRepository;
-        this.arbitroRepository = arbitroRepository;
+        this.pdfCacheService = pdfCacheService;
         this.partidoRepository = partidoRepository;
-        this.notificacionRepository = notificacionRepository;
+        this.liquidacionJdbcRepository = liquidacionJdbcRepository;
+        this.registry = registry;
+        this.tiempoLote = Timer.builder("caba.liquidacion.lote")
+            .description("Escritura de un lote de liquidaciones").register(registry);
+        this.liquidacionesEscritas = Counter.builder("caba.liquidacion.filas").tag("tipo", "liquidaciones")
+            .description("Filas escritas por la generación de liquidaciones").register(registry);
+        this.partidosVinculados = Counter.builder("caba.liquidacion.filas").tag("tipo", "partidos")
+            .description("Filas escritas por la generación de liquidaciones").register(registry);
+        this.notificacionesCreadas = NotificacionService.creadas(registry, TipoDestinatario.ARBITRO);
     }    
 
     public Optional<Liquidacion> findById(Long id) {
         return liquidacionRepository.findById(id);
     }
 
+    /**
+     * Genera las liquidaciones del periodo para todos los árbitros con partidos sin liquidar.
+     * Los totales salen de una sola consulta agrupada y las escrituras se hacen por lotes
+     * de árbitros: inserción JDBC de liquidaciones y notificaciones y un UPDATE de partidos por lote.
+     * Los árbitros que ya tienen liquidación en el periodo se omiten.
+     */
     @Transactional
-    public void generarLiquidacionesMensuales(YearMonth periodo) {
-        LocalDate inicioMes = periodo.atDay(1);
-        LocalDate finMes = periodo.atEndOfMonth();
-
-        List<Arbitro> arbitros = arbitroRepository.findAll();
-
-        for (Arbitro arbitro : arbitros) {
-            if (liquidacionRepository.existsByArbitroIdAndPeriodo(arbitro.getId(), periodo)) {
-                continue;
-            }
+    public ResumenLiquidacionDTO generarLiquidacionesMensuales(YearMonth periodo) {
+        long inicio = System.nanoTime();
+
+        int liquidaciones = 0;
+        int partidos = 0;
+        for (List<Object[]> lote : dividirEnLotes(resumirPendientes(periodo))) {
+            ResumenLiquidacionDTO parcial = procesarLote(periodo, lote);
+            liquidaciones += parcial.getLiquidacionesGeneradas();
+            partidos += parcial.getPartidosLiquidados();
+        }
 
-            List<Partido> partidosPendientes = partidoRepository
-                    .findByArbitroAndFechaBetweenAndLiquidacionIsNull(arbitro, inicioMes, finMes);
+        long duracion = System.nanoTime() - inicio;
+        registrarCorrida("sincrona", duracion, liquidaciones, partidos);
 
-            if (partidosPendientes.isEmpty()) continue;
+        ResumenLiquidacionDTO resultado = new ResumenLiquidacionDTO(periodo, liquidaciones, partidos,
+                duracion / 1_000_000);
+        log.info("Liquidaciones {}: {} generadas, {} partidos en {} ms ({} filas/s)", periodo,
+                liquidaciones, partidos, resultado.getDuracionMs(), String.format("%.0f", resultado.getFilasPorSegundo()));
+        return resultado;
+    }
 
-            Liquidacion liquidacion = new Liquidacion();
-            liquidacion.setArbitro(arbitro);
-            liquidacion.setPeriodo(periodo);
-            liquidacion.setFechaGeneracion(LocalDate.now());
-            liquidacion.setEstado(EstadoLiquidacion.PENDIENTE);
+    /**
+     * Totales pendientes del periodo por árbitro: [arbitroId, cantidad de partidos, total].
+     */
+    public List<Object[]> resumirPendientes(YearMonth periodo) {
+        return partidoRepository.resumirPartidosSinLiquidar(periodo, periodo.atDay(1), periodo.atEndOfMonth());
+    }
 
-            BigDecimal total = BigDecimal.ZERO;
-            for (Partido partido : partidosPendientes) {
-                total = total.add(partido.getArbitro().getEscalafon().getHonorarioBase());
-            }
+    public List<List<Object[]>> dividirEnLotes(List<Object[]> resumen) {
+        List<List<Object[]>> lotes = new ArrayList<>();
+        for (int desde = 0; desde < resumen.size(); desde += TAMANO_LOTE) {
+            lotes.add(resumen.subList(desde, Math.min(desde + TAMANO_LOTE, resumen.size())));
+        }
+        return lotes;
+    }
 
-            liquidacion.setTotal(total);
-            liquidacionRepository.save(liquidacion);
+    /**
+     * Escribe las liquidaciones de un lote de árbitros en su propia transacción.
+     * Vuelve a descartar a los árbitros ya liquidados en el periodo, por si otro
+     * proceso los liquidó después de calcular el resumen.
+     */
+    @Transactional
+    public ResumenLiquidacionDTO procesarLote(YearMonth periodo, List<Object[]> lote) {
+        long inicio = System.nanoTime();
+        List<Long> ids = lote.stream().map(fila -> (Long) fila[0]).toList();
+        Set<Long> yaLiquidados = new HashSet<>(liquidacionRepository.findArbitroIdsLiquidados(periodo, ids));
+
+        Map<Long, BigDecimal> totales = new LinkedHashMap<>();
+        Map<Long, String> mensajes = new LinkedHashMap<>();
+        for (Object[] fila : lote) {
+            Long arbitroId = (Long) fila[0];
+            if (yaLiquidados.contains(arbitroId)) continue;
+            BigDecimal total = (BigDecimal) fila[2];
+            totales.put(arbitroId, total);
+            mensajes.put(arbitroId, "Se ha generado una nueva liquidación para el periodo " + periodo + ". Total: $" + total);
+        }
+        if (totales.isEmpty()) {
+            return new ResumenLiquidacionDTO(periodo, 0, 0, 0);
+        }
 
-            Notificacion notificacion = new Notificacion(
-                    "Se ha generado una nueva liquidación para el periodo " + periodo + ". Total: $" + total,
-                    Notificacion.TipoDestinatario.ARBITRO, arbitro);
-            notificacionRepository.save(notificacion);
+        int liquidaciones = liquidacionJdbcRepository.insertarLiquidaciones(periodo, LocalDate.now(), totales);
+        notificacionesCreadas.increment(liquidacionJdbcRepository.insertarNotificacionesArbitro(mensajes));
+        int partidos = liquidacionJdbcRepository.vincularPartidos(periodo, periodo.atDay(1), periodo.atEndOfMonth(),
+                new ArrayList<>(totales.keySet()));
+        long duracion = System.nanoTime() - inicio;
+        tiempoLote.record(duracion, TimeUnit.NANOSECONDS);
+        liquidacionesEscritas.increment(liquidaciones);
+        partidosVinculados.increment(partidos);
+        return new ResumenLiquidacionDTO(periodo, liquidaciones, partidos, duracion / 1_000_000);
+    }
 
-            for (Partido partido : partidosPendientes) {
-                partido.setLiquidacion(liquidacion);
-                partidoRepository.save(partido);
-            }
-        }
+    /**
+     * Métricas de una generación completa de un periodo (síncrona o por TrabajoLiquidacionService):
+     * duración en caba.liquidacion.generacion y liquidaciones y partidos escritos en caba.liquidacion.corrida.
+     */
+    void registrarCorrida(String origen, long duracionNanos, int liquidaciones, int partidos) {
+        Timer.builder("caba.liquidacion.generacion").tag("origen", origen)
+            .description("Duración de la generación de liquidaciones de un periodo").register(registry)
+            .record(duracionNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("caba.liquidacion.corrida").tag("origen", origen).tag("tipo", "liquidaciones")
+            .description("Filas escritas por cada generación de liquidaciones").register(registry).record(liquidaciones);
+        DistributionSummary.builder("caba.liquidacion.corrida").tag("origen", origen).tag("tipo", "partidos")
+            .description("Filas escritas por cada generación de liquidaciones").register(registry).record(partidos);
     }
 
     /**
@@ -91,6 +168,8 @@ public class LiquidacionService {
 
         liquidacion.setEstado(EstadoLiquidacion.PAGADA);
         liquidacionRepository.save(liquidacion);
+        // El PDF pendiente ya no es válido; el siguiente download genera el de la liquidación pagada
+        pdfCacheService.invalidar(liquidacionId);
     }
 
     /**
@@ -115,7 +194,7 @@ public class LiquidacionService {
     }
 
     public Liquidacion obtenerPorId(Long id) {
-        return liquidacionRepository.findById(id)
+        return liquidacionRepository.findDetalleById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Liquidación no encontrada con ID: " + id));
     }
 
@@ -0,0 +1,69 @@
+package eafit.caba_pro.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import eafit.caba_pro.repository.FotoLegadaJdbcRepository;
+import eafit.caba_pro.service.FotoService.FotoGuardada;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pasa al almacén de FotoService las fotos que quedaron en arbitro.photo_data (esquema anterior).
+ * Corre al arrancar y se puede repetir: solo toma filas con BLOB, y una fila migrada queda con el
+ * BLOB en NULL. Cada fila se actualiza por separado; si una imagen no se puede guardar se deja
+ * como está y se sigue con las demás. La columna no se borra: eso queda para el DBA.
+ */
+@Service
+@Slf4j
+public class MigracionFotosService {
+
+    static final int TAMANO_LOTE = 50;
+
+    private final FotoLegadaJdbcRepository fotoLegadaJdbcRepository;
+    private final FotoService fotoService;
+
+    public MigracionFotosService(FotoLegadaJdbcRepository fotoLegadaJdbcRepository, FotoService fotoService) {
+        this.fotoLegadaJdbcRepository = fotoLegadaJdbcRepository;
+        this.fotoService = fotoService;
+    }
+
+    /**
+     * Retorna cuántas fotos se migraron.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int migrar() {
+        if (!fotoLegadaJdbcRepository.existeColumna()) return 0;
+        int migradas = 0;
+        Long ultimoId = 0L;
+        List<Long> ids;
+        do {
+            ids = fotoLegadaJdbcRepository.idsConFoto(ultimoId, TAMANO_LOTE);
+            for (Long id : ids) {
+                if (migrar(id)) migradas++;
+                ultimoId = id;
+            }
+        } while (ids.size() == TAMANO_LOTE);
+        if (migradas > 0) {
+            log.info("Se migraron {} fotos de árbitros al almacén de fotos", migradas);
+        }
+        return migradas;
+    }
+
+    private boolean migrar(Long arbitroId) {
+        byte[] datos = fotoLegadaJdbcRepository.leerFoto(arbitroId);
+        if (datos == null || datos.length == 0) return false;
+        try {
+            FotoGuardada foto = fotoService.guardar(datos);
+            fotoLegadaJdbcRepository.marcarMigrada(arbitroId, foto.hash(), foto.tamano(), LocalDateTime.now());
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("No se pudo migrar la foto del árbitro {}; queda en la fila: {}", arbitroId, e.getMessage());
+            return false;
+        }
+    }
+}
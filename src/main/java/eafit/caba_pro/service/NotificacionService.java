@@ -2,36 +2,64 @@ package eafit.caba_pro.service;
 
 import eafit.caba_pro.model.Arbitro;
 import eafit.caba_pro.model.Notificacion;
-import eafit.caba_pro.model.Usuario;
+import eafit.caba_pro.repository.NotificacionJdbcRepository;
 import eafit.caba_pro.repository.NotificacionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+/**
+ * Las notificaciones no se escriben en la tabla notificacion dentro de la acción que las origina:
+ * se guardan en el outbox (una inserción JDBC en la misma transacción) y, después del commit,
+ * DespachoNotificacionesService las entrega por lotes en su propio hilo.
+ */
 @Service
 public class NotificacionService {
 
     private final NotificacionRepository notificacionRepository;
+    private final NotificacionJdbcRepository notificacionJdbcRepository;
+    private final ApplicationEventPublisher eventos;
+    private final Counter creadasAdmin;
+    private final Counter creadasArbitro;
 
-    public NotificacionService(NotificacionRepository notificacionRepository) {
+    public NotificacionService(NotificacionRepository notificacionRepository,
+                               NotificacionJdbcRepository notificacionJdbcRepository,
+                               ApplicationEventPublisher eventos, MeterRegistry registry) {
         this.notificacionRepository = notificacionRepository;
+        this.notificacionJdbcRepository = notificacionJdbcRepository;
+        this.eventos = eventos;
+        this.creadasAdmin = creadas(registry, Notificacion.TipoDestinatario.ADMIN);
+        this.creadasArbitro = creadas(registry, Notificacion.TipoDestinatario.ARBITRO);
+    }
+
+    /**
+     * Contador caba.notificaciones.creadas del tipo de destinatario; las liquidaciones, que insertan
+     * sus notificaciones por JDBC, suman en el mismo contador.
+     */
+    public static Counter creadas(MeterRegistry registry, Notificacion.TipoDestinatario tipo) {
+        return Counter.builder("caba.notificaciones.creadas").tag("tipo", tipo.name())
+            .description("Notificaciones guardadas").register(registry);
     }
 
     public void notificarAdmin(String mensaje) {
-        notificacionRepository.save(new Notificacion(mensaje, Notificacion.TipoDestinatario.ADMIN));
+        registrar(mensaje, Notificacion.TipoDestinatario.ADMIN, null);
+        creadasAdmin.increment();
     }
 
     // Notificar a un árbitro (un usuario específico)
     public void notificarArbitro(String mensaje, Arbitro arbitro) {
-        Notificacion n = new Notificacion(mensaje, Notificacion.TipoDestinatario.ARBITRO, arbitro);
-        notificacionRepository.save(n);
+        registrar(mensaje, Notificacion.TipoDestinatario.ARBITRO, arbitro.getId());
+        creadasArbitro.increment();
     }
 
     // Notificar a todos los admins
     public void notificarAdmins(String mensaje) {
-        Notificacion n = new Notificacion(mensaje, Notificacion.TipoDestinatario.ADMIN);
-        notificacionRepository.save(n);
+        notificarAdmin(mensaje);
     }
 
     // Consultar notificaciones para admins
@@ -43,4 +71,14 @@ public class NotificacionService {
     public List<Notificacion> obtenerNotificacionesArbitro(Long id) {
         return notificacionRepository.findByDestinatarioId(id);
     }
-}
\ No newline at end of file
+
+    private void registrar(String mensaje, Notificacion.TipoDestinatario tipo, Long arbitroId) {
+        Long pendienteId = notificacionJdbcRepository.insertarPendiente(mensaje, tipo, arbitroId, LocalDateTime.now());
+        eventos.publishEvent(new NotificacionRegistrada(pendienteId));
+    }
+
+    /**
+     * Fila del outbox escrita en la transacción actual; se despacha cuando esta confirma.
+     */
+    public record NotificacionRegistrada(Long pendienteId) {}
+}
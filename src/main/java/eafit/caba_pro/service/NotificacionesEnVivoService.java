@@ -0,0 +1,244 @@
+package eafit.caba_pro.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import eafit.caba_pro.dto.NotificacionEventoDTO;
+import eafit.caba_pro.model.Notificacion;
+import eafit.caba_pro.model.Notificacion.TipoDestinatario;
+import eafit.caba_pro.repository.NotificacionJdbcRepository.Entregada;
+import eafit.caba_pro.repository.NotificacionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reparte en vivo, por Server-Sent Events, las notificaciones que DespachoNotificacionesService
+ * acaba de entregar. Cada conexión tiene un buffer acotado; los envíos los hace el pool sseExecutor,
+ * así una conexión inactiva no ocupa ningún hilo (el request queda en modo async del servlet).
+ * Si el buffer de una conexión se llena se cierra: el navegador reconecta con Last-Event-ID
+ * y lo que faltó se reenvía desde la base.
+ */
+@Service
+@Slf4j
+public class NotificacionesEnVivoService {
+
+    private final NotificacionRepository notificacionRepository;
+    private final Executor executor;
+    private final long timeoutMs;
+    private final int capacidadBuffer;
+
+    private final Map<Destino, Set<Conexion>> conexiones = new ConcurrentHashMap<>();
+
+    private final Counter eventosEnviados;
+    private final Counter cerradasPorBuffer;
+
+    @Autowired
+    public NotificacionesEnVivoService(NotificacionRepository notificacionRepository,
+                                       @Qualifier("sseExecutor") Executor executor,
+                                       @Value("${caba.sse.timeout-minutos:30}") long timeoutMinutos,
+                                       @Value("${caba.sse.buffer:100}") int capacidadBuffer,
+                                       MeterRegistry registry) {
+        this.notificacionRepository = notificacionRepository;
+        this.executor = executor;
+        this.timeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutos);
+        this.capacidadBuffer = capacidadBuffer;
+        this.eventosEnviados = Counter.builder("caba.sse.eventos")
+            .description("Notificaciones enviadas por SSE").register(registry);
+        this.cerradasPorBuffer = Counter.builder("caba.sse.cerradas_por_buffer")
+            .description("Conexiones SSE cerradas por llenar su buffer").register(registry);
+        Gauge.builder("caba.sse.conexiones", this, NotificacionesEnVivoService::totalConexiones)
+            .description("Conexiones SSE abiertas").register(registry);
+    }
+
+    /**
+     * Abre el stream de un destino. Con ultimoId (Last-Event-ID o el último id que mostró la página)
+     * primero se reenvían las notificaciones posteriores a ese id; si son más de las que caben en el
+     * buffer se envía el evento "recargar" y se cierra, para que la página se vuelva a cargar completa.
+     */
+    public SseEmitter suscribir(Destino destino, Long ultimoId) {
+        return suscribir(destino, ultimoId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter suscribir(Destino destino, Long ultimoId, SseEmitter emisor) {
+        Conexion conexion = new Conexion(destino, emisor, ultimoId != null ? ultimoId : 0L);
+        emisor.onCompletion(() -> quitar(conexion));
+        emisor.onTimeout(() -> quitar(conexion));
+        emisor.onError(e -> quitar(conexion));
+        // Se registra antes de consultar el reenvío para no perder lo que se entregue entre medio;
+        // el buffer ordena por id y descarta repetidos
+        conexiones.computeIfAbsent(destino, d -> ConcurrentHashMap.newKeySet()).add(conexion);
+        if (ultimoId != null) {
+            List<Notificacion> perdidas = reenvio(destino, ultimoId);
+            if (perdidas.size() > capacidadBuffer) {
+                quitar(conexion);
+                try {
+                    emisor.send(SseEmitter.event().name("recargar").data(""));
+                } catch (IOException e) {
+                    log.debug("No se pudo pedir la recarga a {}: {}", destino, e.getMessage());
+                }
+                emisor.complete();
+                return emisor;
+            }
+            for (Notificacion n : perdidas) {
+                conexion.encolar(NotificacionEventoDTO.de(n));
+            }
+        }
+        conexion.listo = true;
+        programar(conexion);
+        return emisor;
+    }
+
+    /**
+     * Reparte notificaciones recién entregadas a las conexiones de su destino.
+     */
+    public void publicar(List<Entregada> nuevas) {
+        if (conexiones.isEmpty()) return;
+        for (Entregada n : nuevas) {
+            Set<Conexion> destinatarios = conexiones.get(new Destino(n.tipo(), n.arbitroId()));
+            if (destinatarios == null) continue;
+            NotificacionEventoDTO evento = new NotificacionEventoDTO(n.id(), n.mensaje(), n.fecha(), n.tipo());
+            for (Conexion conexion : destinatarios) {
+                if (conexion.encolar(evento)) {
+                    programar(conexion);
+                } else {
+                    cerradasPorBuffer.increment();
+                    quitar(conexion);
+                    conexion.emisor.complete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Comentario SSE periódico: evita que proxies cierren la conexión inactiva y detecta
+     * los clientes que se fueron (el envío falla y la conexión se quita).
+     */
+    @Scheduled(fixedRateString = "${caba.sse.latido-ms:20000}")
+    public void latir() {
+        conexiones.values().forEach(grupo -> grupo.forEach(conexion -> {
+            conexion.latido.set(true);
+            programar(conexion);
+        }));
+    }
+
+    public int totalConexiones() {
+        return conexiones.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private List<Notificacion> reenvio(Destino destino, Long ultimoId) {
+        Limit limite = Limit.of(capacidadBuffer + 1);
+        return destino.tipo() == TipoDestinatario.ADMIN
+                ? notificacionRepository.findByTipoDestinatarioAndIdGreaterThanOrderById(TipoDestinatario.ADMIN, ultimoId, limite)
+                : notificacionRepository.findByDestinatarioIdAndIdGreaterThanOrderById(destino.arbitroId(), ultimoId, limite);
+    }
+
+    private void programar(Conexion conexion) {
+        if (!conexion.listo || !conexion.enviando.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> vaciar(conexion));
+        } catch (RejectedExecutionException e) {
+            // Lo pendiente sale con el siguiente evento o latido
+            conexion.enviando.set(false);
+        }
+    }
+
+    private void vaciar(Conexion conexion) {
+        try {
+            while (true) {
+                NotificacionEventoDTO evento = conexion.siguiente();
+                if (evento != null) {
+                    conexion.emisor.send(SseEmitter.event().id(String.valueOf(evento.id())).name("notificacion")
+                            .data(evento, MediaType.APPLICATION_JSON));
+                    eventosEnviados.increment();
+                } else if (conexion.latido.getAndSet(false)) {
+                    conexion.emisor.send(SseEmitter.event().comment("latido"));
+                } else {
+                    conexion.enviando.set(false);
+                    // Un evento pudo encolarse después de revisar el buffer
+                    if (!conexion.tienePendientes() || !conexion.enviando.compareAndSet(false, true)) return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado o emisor ya completado; el contenedor cierra el request
+            log.debug("Conexión SSE de {} cerrada: {}", conexion.destino, e.getMessage());
+            quitar(conexion);
+            conexion.enviando.set(false);
+        }
+    }
+
+    private void quitar(Conexion conexion) {
+        conexiones.computeIfPresent(conexion.destino, (d, grupo) -> {
+            grupo.remove(conexion);
+            return grupo.isEmpty() ? null : grupo;
+        });
+    }
+
+    /**
+     * A quién va un stream: los admins (todos comparten el destino) o un árbitro.
+     */
+    public record Destino(TipoDestinatario tipo, Long arbitroId) {
+        public static Destino admins() {
+            return new Destino(TipoDestinatario.ADMIN, null);
+        }
+
+        public static Destino arbitro(Long arbitroId) {
+            return new Destino(TipoDestinatario.ARBITRO, arbitroId);
+        }
+    }
+
+    private final class Conexion {
+        private final Destino destino;
+        private final SseEmitter emisor;
+        // Pendientes ordenados por id; un id repetido (reenvío y entrega en vivo) se guarda una vez
+        private final TreeMap<Long, NotificacionEventoDTO> pendientes = new TreeMap<>();
+        private long ultimoEnviado;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private final AtomicBoolean latido = new AtomicBoolean();
+        // Hasta terminar el reenvío lo que llega en vivo solo se acumula
+        private volatile boolean listo;
+
+        Conexion(Destino destino, SseEmitter emisor, long ultimoEnviado) {
+            this.destino = destino;
+            this.emisor = emisor;
+            this.ultimoEnviado = ultimoEnviado;
+        }
+
+        // false si el buffer está lleno
+        synchronized boolean encolar(NotificacionEventoDTO evento) {
+            if (evento.id() <= ultimoEnviado || pendientes.containsKey(evento.id())) return true;
+            if (pendientes.size() >= capacidadBuffer) return false;
+            pendientes.put(evento.id(), evento);
+            return true;
+        }
+
+        synchronized NotificacionEventoDTO siguiente() {
+            Map.Entry<Long, NotificacionEventoDTO> primero = pendientes.pollFirstEntry();
+            if (primero == null) return null;
+            ultimoEnviado = primero.getKey();
+            return primero.getValue();
+        }
+
+        synchronized boolean tienePendientes() {
+            return !pendientes.isEmpty() || latido.get();
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package eafit.caba_pro.service;
 
+import eafit.caba_pro.dto.FiltroPartidosDTO;
+import eafit.caba_pro.dto.PaginaDTO;
+import eafit.caba_pro.dto.PartidoResumenDTO;
 import eafit.caba_pro.model.Partido;
 import eafit.caba_pro.model.Arbitro;
 import eafit.caba_pro.repository.PartidoRepository;
 import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.PartidoSpecs;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
@@ -22,13 +30,19 @@ public class PartidoService {
     private PartidoRepository partidoRepository;    
     private ArbitroRepository arbitroRepository;
     private final NotificacionService notificacionService;
+    private final DisponibilidadService disponibilidadService;
+    private final ResumenPartidosService resumenPartidosService;
 
     public PartidoService(PartidoRepository partidoRepository, 
                          ArbitroRepository arbitroRepository,
-                         NotificacionService notificacionService) {
+                         NotificacionService notificacionService,
+                         DisponibilidadService disponibilidadService,
+                         ResumenPartidosService resumenPartidosService) {
         this.partidoRepository = partidoRepository;
         this.arbitroRepository = arbitroRepository;
         this.notificacionService = notificacionService;
+        this.disponibilidadService = disponibilidadService;
+        this.resumenPartidosService = resumenPartidosService;
     }
     
     // CRUD básico
@@ -39,6 +53,33 @@ public class PartidoService {
     public Optional<Partido> findById(Long id) {
         return partidoRepository.findById(id);
     }
+
+    // Partido para la API, con las relaciones que se serializan ya cargadas
+    public Optional<Partido> findConDetalleById(Long id) {
+        return partidoRepository.findConDetalleById(id);
+    }
+
+    /**
+     * Página de partidos para la API en orden (fecha, hora, id), filtrada en la base de datos.
+     * after es el cursor que retornó la página anterior (PartidoResumenDTO.cursor) o null para la primera.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<PartidoResumenDTO> paginarResumenes(FiltroPartidosDTO filtro, String after, Integer limite) {
+        int n = PaginaDTO.limitar(limite);
+        Specification<Partido> spec = PartidoSpecs.segun(filtro != null ? filtro : FiltroPartidosDTO.vacio());
+        if (after != null && !after.isBlank()) {
+            int t = after.indexOf('T');
+            int g = after.lastIndexOf('_');
+            try {
+                spec = spec.and(PartidoSpecs.despuesDe(LocalDate.parse(after.substring(0, t)),
+                    LocalTime.parse(after.substring(t + 1, g)), Long.valueOf(after.substring(g + 1))));
+            } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + after);
+            }
+        }
+        List<Object[]> filas = partidoRepository.findResumenes(spec, n + 1);
+        return PaginaDTO.de(filas.stream().map(PartidoResumenDTO::desdeFila).toList(), n, PartidoResumenDTO::cursor);
+    }
     
     public Partido save(Partido partido) {
         return partidoRepository.save(partido);
@@ -123,37 +164,23 @@ public class PartidoService {
         return calendarioData;
     }
     
-    // Verificar si un árbitro está disponible
+    // Verificar si un árbitro está disponible (considera la duración del partido y el traslado)
     public boolean isArbitroDisponible(Arbitro arbitro, LocalDate fecha, java.time.LocalTime hora) {
-        return !partidoRepository.isArbitroOcupado(arbitro, fecha, hora);
+        return disponibilidadService.estaLibre(arbitro.getId(), fecha, hora, null);
     }
     
-    // Obtener estadísticas de un árbitro
+    // Obtener estadísticas de un árbitro, desde los resúmenes por mes y por día
     public Map<String, Object> getEstadisticasArbitro(Arbitro arbitro) {
-        // Una sola consulta que obtiene todos los partidos
-        List<Partido> todosPartidos = findPartidosByArbitro(arbitro);
-        LocalDate hoy = LocalDate.now();
-        
-        // Separar en memoria en lugar de hacer más consultas a BD
-        int partidosFuturos = 0;
-        int partidosPasados = 0;
-        
-        for (Partido partido : todosPartidos) {
-            if (partido.getFecha().isAfter(hoy) || 
-                (partido.getFecha().isEqual(hoy) && partido.getHora().isAfter(java.time.LocalTime.now()))) {
-                partidosFuturos++;
-            } else {
-                partidosPasados++;
-            }
-        }
+        ResumenPartidosService.PartidosArbitro partidos =
+            resumenPartidosService.contarPartidosArbitro(arbitro.getId(), java.time.LocalDateTime.now());
         
         Map<String, Object> estadisticas = new HashMap<>();
-        estadisticas.put("totalPartidos", todosPartidos.size());
-        estadisticas.put("partidosFuturos", partidosFuturos);
-        estadisticas.put("partidosPasados", partidosPasados);
+        estadisticas.put("totalPartidos", partidos.total());
+        estadisticas.put("partidosFuturos", partidos.futuros());
+        estadisticas.put("partidosPasados", partidos.pasados());
         
         // Como ahora solo hay un árbitro por partido, todos son como principal
-        estadisticas.put("comoArbitroPrincipal", todosPartidos.size());
+        estadisticas.put("comoArbitroPrincipal", partidos.total());
         estadisticas.put("comoArbitroAuxiliar", 0);
         
         return estadisticas;
@@ -165,8 +192,9 @@ public class PartidoService {
             throw new RuntimeException("No se puede crear un partido en una fecha pasada");
         }
         
+        // Al editar, el partido no debe chocar consigo mismo
         if (partido.getArbitro() != null && 
-            !isArbitroDisponible(partido.getArbitro(), partido.getFecha(), partido.getHora())) {
+            !disponibilidadService.estaLibre(partido.getArbitro().getId(), partido.getFecha(), partido.getHora(), partido.getId())) {
             throw new RuntimeException("El árbitro no está disponible en esa fecha y hora");
         }
     }
@@ -204,7 +232,7 @@ public class PartidoService {
             Arbitro arbitro = arbitroOpt.get();
             
             // Verificar disponibilidad
-            if (!isArbitroDisponible(arbitro, partido.getFecha(), partido.getHora())) {
+            if (!disponibilidadService.estaLibre(arbitro.getId(), partido.getFecha(), partido.getHora(), partido.getId())) {
                 throw new RuntimeException("El árbitro no está disponible en esa fecha y hora");
             }
             
@@ -278,43 +306,12 @@ public class PartidoService {
      * Buscar partidos por árbitro y estado
      */
     public List<Partido> findByArbitroAndEstado(Arbitro arbitro, Partido.EstadoPartido estado) {
-        return partidoRepository.findAll().stream()
-                .filter(partido -> partido.getArbitro() != null && 
-                                 partido.getArbitro().getId().equals(arbitro.getId()) && 
-                                 partido.getEstado() == estado)
-                .toList();
+        return partidoRepository.findAll(PartidoSpecs.conArbitro(arbitro.getId()).and(PartidoSpecs.conEstado(estado)),
+                Sort.by("fecha", "hora", "id"));
     }
 
 // ==================== MÉTODOS PARA ENTRENADORES/COACHES ====================
 
-/**
- * Contar partidos por equipo (como local o visitante)
- */
-public int countPartidosByEquipo(String equipo) {
-    return partidoRepository.countPartidosByEquipo(equipo);
-}
-
-/**
- * Contar partidos ganados por un equipo
- */
-public int countPartidosGanadosByEquipo(String equipo) {
-    return partidoRepository.countPartidosGanadosByEquipo(equipo);
-}
-
-/**
- * Contar partidos perdidos por un equipo
- */
-public int countPartidosPerdidosByEquipo(String equipo) {
-    return partidoRepository.countPartidosPerdidosByEquipo(equipo);
-}
-
-/**
- * Contar partidos empatados por un equipo
- */
-public int countPartidosEmpatadosByEquipo(String equipo) {
-    return partidoRepository.countPartidosEmpatadosByEquipo(equipo);
-}
-
 /**
  * Obtener partidos programados de un equipo
  */
@@ -343,32 +340,6 @@ public List<Partido> findProximos5PartidosByEquipo(String equipo) {
     return partidoRepository.findProximos5PartidosByEquipo(equipo);
 }
 
-/**
- * Obtener estadísticas detalladas de un equipo
- */
-public Map<String, Object> getEstadisticasDetalladasByEquipo(String equipo) {
-    Map<String, Object> estadisticas = new HashMap<>();
-    
-    int totalPartidos = countPartidosByEquipo(equipo);
-    int ganados = countPartidosGanadosByEquipo(equipo);
-    int perdidos = countPartidosPerdidosByEquipo(equipo);
-    int empatados = countPartidosEmpatadosByEquipo(equipo);
-    
-    double porcentajeVictorias = totalPartidos > 0 ? (ganados * 100.0 / totalPartidos) : 0;
-    double porcentajeDerrotas = totalPartidos > 0 ? (perdidos * 100.0 / totalPartidos) : 0;
-    double porcentajeEmpates = totalPartidos > 0 ? (empatados * 100.0 / totalPartidos) : 0;
-    
-    estadisticas.put("totalPartidos", totalPartidos);
-    estadisticas.put("partidosGanados", ganados);
-    estadisticas.put("partidosPerdidos", perdidos);
-    estadisticas.put("partidosEmpatados", empatados);
-    estadisticas.put("porcentajeVictorias", porcentajeVictorias);
-    estadisticas.put("porcentajeDerrotas", porcentajeDerrotas);
-    estadisticas.put("porcentajeEmpates", porcentajeEmpates);
-    
-    return estadisticas;
-}
-
 /**
  * Obtener partidos finalizados de un árbitro específico
  */
@@ -394,13 +365,4 @@ public List<Partido> findPartidosFinalizadosByArbitroYEquipo(Long arbitroId, Str
     Arbitro arbitro = arbitroOpt.get();
     return partidoRepository.findByArbitroAndEstadoAndEquipo(arbitro, Partido.EstadoPartido.FINALIZADO, equipoNombre);
 }
-
-/** Método de comprobación: cuenta en memoria comparando nombres de equipos */
-public int countPartidosByEquipoFallback(String equipoNombre) {
-    if (equipoNombre == null) return 0;
-    return (int) partidoRepository.findAll().stream()
-        .filter(p -> (p.getEquipoLocal()!=null && equipoNombre.equals(p.getEquipoLocal().getNombre()))
-                  || (p.getEquipoVisitante()!=null && equipoNombre.equals(p.getEquipoVisitante().getNombre())))
-        .count();
-}
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package eafit.caba_pro.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import eafit.caba_pro.model.Liquidacion;
+import eafit.caba_pro.model.Partido;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caché en disco de los PDF de liquidaciones. Cada archivo se nombra con el id de la liquidación
+ * y una huella de los datos que usa la plantilla, así un cambio en la liquidación produce otra
+ * huella y nunca se sirve un PDF desactualizado. El tamaño total se limita desalojando los
+ * archivos menos usados (LRU).
+ */
+@Service
+@Slf4j
+public class PdfCacheService {
+    private static final String PLANTILLA = "templates/pdf/liquidacion.html";
+
+    private final Path directorio;
+    private final long maxBytes;
+    private final String huellaPlantilla;
+
+    // nombre de archivo -> tamaño, en orden de acceso (el primero es el menos usado)
+    private final LinkedHashMap<String, Long> indice = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytesEnDisco;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    public PdfCacheService(@Value("${caba.pdf.cache.dir:${java.io.tmpdir}/caba-pdf-cache}") String directorio,
+                           @Value("${caba.pdf.cache.max-mb:200}") long maxMb) {
+        this.directorio = Paths.get(directorio);
+        this.maxBytes = maxMb * 1024 * 1024;
+        this.huellaPlantilla = huellaDePlantilla();
+        cargarIndice();
+    }
+
+    /**
+     * Huella de la liquidación tal como la ve la plantilla pdf/liquidacion. Sirve también como ETag.
+     */
+    public String huella(Liquidacion liquidacion) {
+        StringBuilder datos = new StringBuilder()
+                .append(huellaPlantilla).append('|')
+                .append(liquidacion.getId()).append('|')
+                .append(liquidacion.getArbitro().getNombre()).append('|')
+                .append(liquidacion.getPeriodo()).append('|')
+                .append(texto(liquidacion.getTotal())).append('|')
+                .append(liquidacion.getEstado());
+        List<Partido> partidos = liquidacion.getPartidos();
+        if (partidos != null) {
+            for (Partido p : partidos) {
+                datos.append('|').append(p.getId())
+                     .append(',').append(p.getFecha())
+                     .append(',').append(p.getEquipoLocal().getNombre())
+                     .append(',').append(p.getEquipoVisitante().getNombre())
+                     .append(',').append(texto(p.getArbitro().getEscalafon().getHonorarioBase()));
+            }
+        }
+        return sha256(datos.toString()).substring(0, 32);
+    }
+
+    public Optional<byte[]> obtener(Long liquidacionId, String huella) {
+        String nombre = nombreArchivo(liquidacionId, huella);
+        synchronized (this) {
+            if (indice.get(nombre) == null) {
+                fallos.increment();
+                return Optional.empty();
+            }
+        }
+        try {
+            byte[] pdf = Files.readAllBytes(directorio.resolve(nombre));
+            aciertos.increment();
+            return Optional.of(pdf);
+        } catch (IOException e) {
+            // El archivo desapareció del disco: se olvida y se vuelve a generar
+            synchronized (this) {
+                quitar(nombre);
+            }
+            fallos.increment();
+            return Optional.empty();
+        }
+    }
+
+    public void guardar(Long liquidacionId, String huella, byte[] pdf) {
+        if (pdf.length > maxBytes) return;
+        String nombre = nombreArchivo(liquidacionId, huella);
+        try {
+            Files.createDirectories(directorio);
+            Path temporal = Files.createTempFile(directorio, nombre, ".tmp");
+            Files.write(temporal, pdf);
+            Files.move(temporal, directorio.resolve(nombre), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar en caché el PDF de la liquidación {}: {}", liquidacionId, e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            Long anterior = indice.put(nombre, (long) pdf.length);
+            bytesEnDisco += pdf.length - (anterior != null ? anterior : 0);
+            desalojar();
+        }
+    }
+
+    /**
+     * Elimina todas las versiones en caché del PDF de una liquidación.
+     */
+    public synchronized void invalidar(Long liquidacionId) {
+        String prefijo = "liquidacion-" + liquidacionId + "-";
+        indice.keySet().stream()
+                .filter(nombre -> nombre.startsWith(prefijo))
+                .toList()
+                .forEach(this::quitar);
+    }
+
+    public MetricasCache getMetricas() {
+        synchronized (this) {
+            return new MetricasCache(aciertos.sum(), fallos.sum(), indice.size(), bytesEnDisco);
+        }
+    }
+
+    private void desalojar() {
+        Iterator<Map.Entry<String, Long>> it = indice.entrySet().iterator();
+        while (bytesEnDisco > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> menosUsado = it.next();
+            it.remove();
+            bytesEnDisco -= menosUsado.getValue();
+            borrarArchivo(menosUsado.getKey());
+        }
+    }
+
+    private void quitar(String nombre) {
+        Long tamano = indice.remove(nombre);
+        if (tamano != null) {
+            bytesEnDisco -= tamano;
+        }
+        borrarArchivo(nombre);
+    }
+
+    private void borrarArchivo(String nombre) {
+        try {
+            Files.deleteIfExists(directorio.resolve(nombre));
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {} de la caché de PDF: {}", nombre, e.getMessage());
+        }
+    }
+
+    // Recupera los archivos que quedaron de una ejecución anterior, del más antiguo al más reciente
+    private void cargarIndice() {
+        if (!Files.isDirectory(directorio)) return;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(p -> p.getFileName().toString().endsWith(".pdf"))
+                    .sorted(Comparator.comparingLong(this::ultimaModificacion))
+                    .forEach(p -> {
+                        long tamano = p.toFile().length();
+                        indice.put(p.getFileName().toString(), tamano);
+                        bytesEnDisco += tamano;
+                    });
+            desalojar();
+        } catch (IOException e) {
+            log.warn("No se pudo leer la caché de PDF en {}: {}", directorio, e.getMessage());
+        }
+    }
+
+    private long ultimaModificacion(Path archivo) {
+        return archivo.toFile().lastModified();
+    }
+
+    private static String nombreArchivo(Long liquidacionId, String huella) {
+        return "liquidacion-" + liquidacionId + "-" + huella + ".pdf";
+    }
+
+    private static String texto(BigDecimal valor) {
+        return valor == null ? "" : valor.stripTrailingZeros().toPlainString();
+    }
+
+    // Un cambio en la plantilla cambia todas las huellas y deja sin efecto la caché anterior
+    private static String huellaDePlantilla() {
+        try (InputStream in = new ClassPathResource(PLANTILLA).getInputStream()) {
+            return sha256(new String(in.readAllBytes(), StandardCharsets.UTF_8)).substring(0, 16);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se encontró la plantilla " + PLANTILLA, e);
+        }
+    }
+
+    private static String sha256(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Aciertos y fallos desde el arranque, y archivos y bytes actualmente en disco.
+     */
+    public record MetricasCache(long aciertos, long fallos, int archivos, long bytes) {}
+}
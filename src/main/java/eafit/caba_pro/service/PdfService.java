@@ -2,42 +2,126 @@ package eafit.caba_pro.service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import com.openhtmltopdf.extend.impl.FSDefaultCacheStore;
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
 
 import eafit.caba_pro.model.Liquidacion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Slf4j
 public class PdfService {
-    SpringTemplateEngine templateEngine;
+    private final SpringTemplateEngine templateEngine;
+    private final Executor pdfExecutor;
+    private final PdfCacheService pdfCacheService;
 
-    public PdfService(SpringTemplateEngine templateEngine) {
+    // Métricas de fuentes compartidas entre documentos para no recalcularlas en cada render
+    private final FSDefaultCacheStore cacheFuentes = new FSDefaultCacheStore();
+
+    private final Timer tiempoRender;
+    private final Timer tiempoEnCola;
+    private final DistributionSummary tamano;
+    private final Counter rechazados;
+
+    public PdfService(SpringTemplateEngine templateEngine, @Qualifier("pdfExecutor") Executor pdfExecutor,
+                      PdfCacheService pdfCacheService, MeterRegistry registry) {
         this.templateEngine = templateEngine;
+        this.pdfExecutor = pdfExecutor;
+        this.pdfCacheService = pdfCacheService;
+        this.tiempoRender = Timer.builder("caba.pdf.render")
+            .description("Conversión de HTML a PDF de una liquidación").register(registry);
+        this.tiempoEnCola = Timer.builder("caba.pdf.espera")
+            .description("Tiempo que un PDF espera en la cola del pool antes de renderizarse").register(registry);
+        this.tamano = DistributionSummary.builder("caba.pdf.tamano").baseUnit("bytes")
+            .description("Tamaño de los PDFs generados").register(registry);
+        this.rechazados = Counter.builder("caba.pdf.rechazados")
+            .description("Solicitudes de PDF rechazadas por cola llena").register(registry);
     }
 
     public byte[] generarPdfDesdeLiquidacion(Liquidacion liquidacion) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            // 1. Renderizar HTML con Thymeleaf
-            Context context = new Context();
-            context.setVariable("liquidacion", liquidacion);
-            String html = templateEngine.process("pdf/liquidacion", context);
+        return convertirAPdf(liquidacion.getId(), renderizarHtml(liquidacion), System.nanoTime());
+    }
+
+    /**
+     * Igual que generarPdfDesdeLiquidacion, pero la conversión a PDF corre en el pool de PDFs.
+     * El HTML se arma en el hilo que llama porque la plantilla recorre relaciones lazy de la liquidación.
+     *
+     * @throws TaskRejectedException si la cola del pool está llena
+     */
+    public CompletableFuture<byte[]> generarPdfDesdeLiquidacionAsync(Liquidacion liquidacion) {
+        String html = renderizarHtml(liquidacion);
+        long encolado = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> convertirAPdf(liquidacion.getId(), html, encolado), pdfExecutor);
+        } catch (TaskRejectedException e) {
+            rechazados.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * PDF de la liquidación desde la caché en disco; si no está para esa huella se genera
+     * en el pool y se guarda.
+     *
+     * @throws TaskRejectedException si hay que generarlo y la cola del pool está llena
+     */
+    public CompletableFuture<byte[]> obtenerPdfLiquidacionAsync(Liquidacion liquidacion, String huella) {
+        Optional<byte[]> enCache = pdfCacheService.obtener(liquidacion.getId(), huella);
+        if (enCache.isPresent()) {
+            return CompletableFuture.completedFuture(enCache.get());
+        }
+        return generarPdfDesdeLiquidacionAsync(liquidacion).thenApply(pdf -> {
+            pdfCacheService.guardar(liquidacion.getId(), huella, pdf);
+            return pdf;
+        });
+    }
+
+    private String renderizarHtml(Liquidacion liquidacion) {
+        // La plantilla compilada queda en la caché de Thymeleaf (spring.thymeleaf.cache)
+        Context context = new Context();
+        context.setVariable("liquidacion", liquidacion);
+        return templateEngine.process("pdf/liquidacion", context);
+    }
 
-            // 2. Convertir HTML a PDF
+    private byte[] convertirAPdf(Long liquidacionId, String html, long encolado) {
+        long inicio = System.nanoTime();
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             try (OutputStream os = baos) {
                 PdfRendererBuilder builder = new PdfRendererBuilder();
                 builder.useFastMode();
+                builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, cacheFuentes);
                 builder.withHtmlContent(html, null);
                 builder.toStream(os);
                 builder.run();
             }
-
-            return baos.toByteArray();
+            byte[] pdf = baos.toByteArray();
+            registrar(liquidacionId, inicio - encolado, System.nanoTime() - inicio, pdf.length);
+            return pdf;
         } catch (Exception e) {
             throw new RuntimeException("Error generando PDF", e);
         }
     }
+
+    private void registrar(Long liquidacionId, long esperaNanos, long renderNanos, int bytes) {
+        tiempoEnCola.record(esperaNanos, TimeUnit.NANOSECONDS);
+        tiempoRender.record(renderNanos, TimeUnit.NANOSECONDS);
+        tamano.record(bytes);
+        log.debug("PDF liquidación {}: {} ms en cola, {} ms de render, {} bytes", liquidacionId,
+            esperaNanos / 1_000_000, renderNanos / 1_000_000, bytes);
+    }
 }
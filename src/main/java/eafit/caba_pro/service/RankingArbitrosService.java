@@ -0,0 +1,308 @@
+package eafit.caba_pro.service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import eafit.caba_pro.dto.RankingArbitrosDTO;
+import eafit.caba_pro.model.ActividadArbitro;
+import eafit.caba_pro.model.CalificacionArbitro;
+import eafit.caba_pro.model.Escalafon;
+import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.repository.ActividadArbitroRepository;
+import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.CalificacionArbitroRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ranking de árbitros por partidos, calificación, escalafón o un puntaje compuesto, para
+ * cualquier k y rango de meses. Los partidos salen de actividad_arbitro (una fila por árbitro
+ * y mes, mantenida por ActividadArbitroDiferencia) y las calificaciones de calificacion_arbitro,
+ * así que ningún ranking recorre la tabla partido ni las reseñas.
+ */
+@Service
+@Slf4j
+public class RankingArbitrosService {
+
+    public static final int MAXIMO_K = 100;
+
+    // Reseñas "virtuales" con la media global que se suman a cada árbitro: con pocas reseñas el
+    // promedio ajustado se acerca a la media y una sola reseña de 5 no encabeza el ranking
+    static final int RESEÑAS_PREVIAS = 5;
+
+    // Pesos del puntaje compuesto; cada componente va de 0 a 1
+    static final double PESO_PARTIDOS = 0.5;
+    static final double PESO_CALIFICACION = 0.3;
+    static final double PESO_ESCALAFON = 0.2;
+
+    private static final int NIVEL_MAXIMO = 3;
+
+    private final ActividadArbitroRepository actividadRepository;
+    private final CalificacionArbitroRepository calificacionRepository;
+    private final ArbitroRepository arbitroRepository;
+    private final PartidoRepository partidoRepository;
+    private final FilasEnCero filasEnCero;
+
+    public RankingArbitrosService(ActividadArbitroRepository actividadRepository,
+                                  CalificacionArbitroRepository calificacionRepository,
+                                  ArbitroRepository arbitroRepository, PartidoRepository partidoRepository,
+                                  FilasEnCero filasEnCero) {
+        this.actividadRepository = actividadRepository;
+        this.calificacionRepository = calificacionRepository;
+        this.arbitroRepository = arbitroRepository;
+        this.partidoRepository = partidoRepository;
+        this.filasEnCero = filasEnCero;
+    }
+
+    public enum Criterio {
+        PARTIDOS, CALIFICACION, ESCALAFON, COMPUESTO;
+
+        public static Criterio de(String valor) {
+            if (valor == null || valor.isBlank()) {
+                return PARTIDOS;
+            }
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Criterio de ranking desconocido: " + valor);
+            }
+        }
+    }
+
+    /**
+     * Los k primeros árbitros entre desde y hasta (meses incluidos). Por partidos el top-k lo
+     * resuelve la base; los demás criterios combinan datos de todos los árbitros y se eligen
+     * en memoria con un montículo de tamaño k.
+     */
+    @Transactional(readOnly = true)
+    public RankingArbitrosDTO top(Criterio criterio, int k, YearMonth desde, YearMonth hasta) {
+        if (k < 1 || k > MAXIMO_K) {
+            throw new IllegalArgumentException("k debe estar entre 1 y " + MAXIMO_K);
+        }
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("El periodo inicial no puede ser posterior al final");
+        }
+        List<Candidato> primeros = criterio == Criterio.PARTIDOS
+            ? topPorPartidos(k, desde, hasta)
+            : topEnMemoria(criterio, k, desde, hasta);
+
+        List<RankingArbitrosDTO.Fila> filas = new ArrayList<>(primeros.size());
+        for (Candidato c : primeros) {
+            filas.add(new RankingArbitrosDTO.Fila(filas.size() + 1, c.id(), c.nombre(), c.speciality(), c.escalafon(),
+                c.partidos(), c.finalizados(), c.promedio(), c.reseñas(), c.puntaje(criterio)));
+        }
+        return new RankingArbitrosDTO(criterio.name(), desde, hasta, filas);
+    }
+
+    /**
+     * Aplica el cambio de un partido: resta la asignación anterior y suma la nueva.
+     * Lo llama ActividadArbitroDiferencia después del commit, por eso abre su propia transacción.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void aplicar(Partido.Asignacion anterior, Partido.Asignacion actual) {
+        Map<Clave, int[]> diferencias = new LinkedHashMap<>();
+        acumular(diferencias, anterior, -1);
+        acumular(diferencias, actual, 1);
+
+        for (Map.Entry<Clave, int[]> entrada : diferencias.entrySet()) {
+            Clave clave = entrada.getKey();
+            int[] d = entrada.getValue();
+            if (d[0] == 0 && d[1] == 0) {
+                continue;
+            }
+            if (actividadRepository.sumar(clave.arbitroId(), clave.periodo(), d[0], d[1]) > 0) {
+                if (d[0] < 0) {
+                    actividadRepository.borrarSiVacia(clave.arbitroId(), clave.periodo());
+                }
+                continue;
+            }
+            if (d[0] <= 0 || d[1] < 0) {
+                // Restar de un mes sin fila indica que la tabla se desfasó
+                log.warn("Árbitro {} sin actividad en {} al quitar un partido; se reconstruye el mes", clave.arbitroId(), clave.periodo());
+                reconstruir(clave.arbitroId(), clave.periodo());
+                continue;
+            }
+            // Primer partido del árbitro en el mes: se crea la fila (o la creó otra transacción) y se suma en ella
+            filasEnCero.crear(() -> actividadRepository.crear(clave.arbitroId(), clave.periodo()));
+            actividadRepository.sumar(clave.arbitroId(), clave.periodo(), d[0], d[1]);
+        }
+    }
+
+    /**
+     * Recalcula actividad_arbitro desde los partidos y retorna cuántas filas no coincidían.
+     * Se usa al arrancar, porque los datos iniciales no pasan por el listener, y para reconciliar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public int reconstruir() {
+        Map<Clave, ActividadArbitro> actuales = actividadRepository.findAll().stream()
+            .collect(Collectors.toMap(a -> new Clave(a.getArbitroId(), a.getPeriodo()), Function.identity()));
+        int diferencias = 0;
+        // Columnas: [arbitroId, año, mes, partidos, finalizados]
+        for (Object[] f : partidoRepository.agregarActividadPorArbitro()) {
+            ActividadArbitro nueva = new ActividadArbitro((Long) f[0], YearMonth.of(entero(f[1]), entero(f[2])),
+                entero(f[3]), entero(f[4]));
+            ActividadArbitro actual = actuales.remove(new Clave(nueva.getArbitroId(), nueva.getPeriodo()));
+            if (actual != null && actual.mismosValores(nueva)) {
+                continue;
+            }
+            diferencias++;
+            if (actual != null) {
+                nueva.setId(actual.getId());
+            }
+            actividadRepository.save(nueva);
+        }
+        // Meses que ya no tienen partidos
+        actividadRepository.deleteAll(List.copyOf(actuales.values()));
+        diferencias += actuales.size();
+        if (diferencias > 0) {
+            log.info("Actividad de árbitros reconstruida con {} filas distintas", diferencias);
+        }
+        return diferencias;
+    }
+
+    // Recalcula un mes de un árbitro con una consulta por rango de fechas
+    private void reconstruir(Long arbitroId, YearMonth periodo) {
+        Object[] f = partidoRepository.contarActividad(arbitroId, periodo.atDay(1), periodo.plusMonths(1).atDay(1)).get(0);
+        int partidos = entero(f[0]);
+        ActividadArbitro fila = actividadRepository.findByArbitroIdAndPeriodo(arbitroId, periodo)
+            .orElseGet(() -> new ActividadArbitro(arbitroId, periodo, 0, 0));
+        if (partidos == 0) {
+            if (fila.getId() != null) {
+                actividadRepository.delete(fila);
+            }
+            return;
+        }
+        fila.setPartidos(partidos);
+        fila.setFinalizados(entero(f[1]));
+        actividadRepository.save(fila);
+    }
+
+    private List<Candidato> topPorPartidos(int k, YearMonth desde, YearMonth hasta) {
+        List<Object[]> actividad = actividadRepository.topPartidosEntre(desde, hasta, Limit.of(k));
+        List<Long> ids = actividad.stream().map(f -> (Long) f[0]).toList();
+        Map<Long, Object[]> arbitros = arbitroRepository.findParaRankingByIdIn(ids).stream()
+            .collect(Collectors.toMap(f -> (Long) f[0], Function.identity()));
+        Map<Long, CalificacionArbitro> calificaciones = calificacionRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(CalificacionArbitro::getArbitroId, Function.identity()));
+
+        List<Candidato> candidatos = new ArrayList<>(actividad.size());
+        for (Object[] f : actividad) {
+            Object[] arbitro = arbitros.get((Long) f[0]);
+            if (arbitro != null) {
+                candidatos.add(candidato(arbitro, ((Number) f[1]).longValue(), ((Number) f[2]).longValue(),
+                    calificaciones.get((Long) f[0]), 0, 0));
+            }
+        }
+        return candidatos;
+    }
+
+    private List<Candidato> topEnMemoria(Criterio criterio, int k, YearMonth desde, YearMonth hasta) {
+        // Columnas: [arbitroId, partidos, finalizados]
+        Map<Long, long[]> actividad = actividadRepository.sumarEntre(desde, hasta).stream()
+            .collect(Collectors.toMap(f -> (Long) f[0],
+                f -> new long[] {((Number) f[1]).longValue(), ((Number) f[2]).longValue()}));
+        Map<Long, CalificacionArbitro> calificaciones = calificacionRepository.findAll().stream()
+            .collect(Collectors.toMap(CalificacionArbitro::getArbitroId, Function.identity()));
+
+        long suma = 0;
+        long total = 0;
+        for (CalificacionArbitro c : calificaciones.values()) {
+            suma += c.getSuma();
+            total += c.getTotal();
+        }
+        double mediaGlobal = total == 0 ? 0.0 : (double) suma / total;
+        long maxPartidos = actividad.values().stream().mapToLong(a -> a[0]).max().orElse(0);
+
+        Comparator<Candidato> orden = orden(criterio);
+        // El peor de los k retenidos queda en la cabeza
+        PriorityQueue<Candidato> primeros = new PriorityQueue<>(k + 1, orden.reversed());
+        for (Object[] arbitro : arbitroRepository.findParaRanking()) {
+            long[] a = actividad.getOrDefault((Long) arbitro[0], new long[2]);
+            CalificacionArbitro calificacion = calificaciones.get((Long) arbitro[0]);
+            if (criterio == Criterio.CALIFICACION && calificacion == null) {
+                continue;
+            }
+            primeros.add(candidato(arbitro, a[0], a[1], calificacion, mediaGlobal, maxPartidos));
+            if (primeros.size() > k) {
+                primeros.poll();
+            }
+        }
+        List<Candidato> resultado = new ArrayList<>(primeros);
+        resultado.sort(orden);
+        return resultado;
+    }
+
+    private static Candidato candidato(Object[] arbitro, long partidos, long finalizados, CalificacionArbitro calificacion,
+                                       double mediaGlobal, long maxPartidos) {
+        // Columnas: [id, nombre, speciality, escalafón]
+        Escalafon.Nombre escalafon = (Escalafon.Nombre) arbitro[3];
+        int reseñas = calificacion != null ? calificacion.getTotal() : 0;
+        long suma = calificacion != null ? calificacion.getSuma() : 0;
+        double ajustado = (suma + RESEÑAS_PREVIAS * mediaGlobal) / (reseñas + RESEÑAS_PREVIAS);
+        int nivel = escalafon != null ? escalafon.getNivel() : 0;
+        double compuesto = PESO_PARTIDOS * (maxPartidos == 0 ? 0 : (double) partidos / maxPartidos)
+            + PESO_CALIFICACION * ajustado / 5
+            + PESO_ESCALAFON * nivel / NIVEL_MAXIMO;
+        return new Candidato((Long) arbitro[0], (String) arbitro[1], (String) arbitro[2], escalafon, partidos, finalizados,
+            calificacion != null ? calificacion.getPromedio() : 0.0, reseñas, ajustado, nivel, compuesto);
+    }
+
+    // Mejor primero; a igualdad, el id menor
+    private static Comparator<Candidato> orden(Criterio criterio) {
+        Comparator<Candidato> orden = switch (criterio) {
+            case PARTIDOS -> Comparator.comparingLong(Candidato::partidos).thenComparingLong(Candidato::finalizados);
+            case CALIFICACION -> Comparator.comparingDouble(Candidato::ajustado).thenComparingInt(Candidato::reseñas);
+            case ESCALAFON -> Comparator.comparingInt(Candidato::nivel).thenComparingLong(Candidato::partidos)
+                .thenComparingDouble(Candidato::ajustado);
+            case COMPUESTO -> Comparator.comparingDouble(Candidato::compuesto);
+        };
+        return orden.reversed().thenComparing(Candidato::id);
+    }
+
+    // [partidos, finalizados] de cada árbitro y mes, multiplicado por signo
+    private static void acumular(Map<Clave, int[]> diferencias, Partido.Asignacion asignacion, int signo) {
+        if (asignacion == null) {
+            return;
+        }
+        int[] d = diferencias.computeIfAbsent(new Clave(asignacion.arbitroId(), asignacion.periodo()), c -> new int[2]);
+        d[0] += signo;
+        if (asignacion.finalizado()) {
+            d[1] += signo;
+        }
+    }
+
+    private static int entero(Object valor) {
+        return valor == null ? 0 : ((Number) valor).intValue();
+    }
+
+    private record Clave(Long arbitroId, YearMonth periodo) {
+    }
+
+    private record Candidato(Long id, String nombre, String speciality, Escalafon.Nombre escalafon, long partidos,
+                             long finalizados, double promedio, int reseñas, double ajustado, int nivel, double compuesto) {
+        double puntaje(Criterio criterio) {
+            return switch (criterio) {
+                case PARTIDOS -> partidos;
+                case CALIFICACION -> ajustado;
+                case ESCALAFON -> nivel;
+                case COMPUESTO -> compuesto;
+            };
+        }
+    }
+}
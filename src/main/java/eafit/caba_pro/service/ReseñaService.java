@@ -2,6 +2,7 @@ package eafit.caba_pro.service;
 
 import eafit.caba_pro.model.Reseña;
 import eafit.caba_pro.model.Arbitro;
+import eafit.caba_pro.model.CalificacionArbitro;
 import eafit.caba_pro.model.Partido;
 import eafit.caba_pro.repository.ReseñaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +16,9 @@ public class ReseñaService {
     
     @Autowired
     private ReseñaRepository reseñaRepository;
+
+    @Autowired
+    private CalificacionesService calificacionesService;
     
     // CRUD básico
     public List<Reseña> findAll() {
@@ -42,13 +46,13 @@ public class ReseñaService {
         return reseñaRepository.findByArbitroOrderByFechaCreacionDesc(arbitro);
     }
     
+    // Promedio y conteo salen de la fila de calificacion_arbitro, no de recorrer las reseñas
     public Double getPromedioReseñas(Arbitro arbitro) {
-        Double promedio = reseñaRepository.findAverageRatingByArbitro(arbitro);
-        return promedio != null ? promedio : 0.0;
+        return calificacionesService.obtener(arbitro.getId()).getPromedio();
     }
     
     public long contarReseñas(Arbitro arbitro) {
-        return reseñaRepository.countByArbitro(arbitro);
+        return calificacionesService.obtener(arbitro.getId()).getTotal();
     }
     
     public List<Reseña> getMejoresReseñas(Arbitro arbitro) {
@@ -57,18 +61,9 @@ public class ReseñaService {
     
     // Método para obtener estadísticas de reseñas
     public ReseñaStats getEstadisticasReseñas(Arbitro arbitro) {
-        List<Reseña> todasLasReseñas = findReseñasByArbitro(arbitro);
-        Double promedio = getPromedioReseñas(arbitro);
-        long total = contarReseñas(arbitro);
-        
-        // Contar por puntuación
-        long estrella5 = todasLasReseñas.stream().filter(r -> r.getPuntuacion() == 5).count();
-        long estrella4 = todasLasReseñas.stream().filter(r -> r.getPuntuacion() == 4).count();
-        long estrella3 = todasLasReseñas.stream().filter(r -> r.getPuntuacion() == 3).count();
-        long estrella2 = todasLasReseñas.stream().filter(r -> r.getPuntuacion() == 2).count();
-        long estrella1 = todasLasReseñas.stream().filter(r -> r.getPuntuacion() == 1).count();
-        
-        return new ReseñaStats(promedio, total, estrella5, estrella4, estrella3, estrella2, estrella1);
+        CalificacionArbitro c = calificacionesService.obtener(arbitro.getId());
+        return new ReseñaStats(c.getPromedio(), c.getTotal(), c.getEstrellas5(), c.getEstrellas4(),
+                               c.getEstrellas3(), c.getEstrellas2(), c.getEstrellas1());
     }
     
     // Método para verificar si ya existe una reseña de un entrenador para un partido específico
@@ -0,0 +1,401 @@
+package eafit.caba_pro.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import eafit.caba_pro.model.MesSellado;
+import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import eafit.caba_pro.model.ResumenPartidos;
+import eafit.caba_pro.model.ResumenPartidos.Dimension;
+import eafit.caba_pro.model.ResumenPartidos.Nivel;
+import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.MesSelladoRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+import eafit.caba_pro.repository.ResumenPartidosRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resúmenes de partidos por día y por mes (total, árbitro, equipo y torneo, separados por estado,
+ * con los honorarios causados) en la tabla resumen_partidos. ResumenPartidosDiferencia aplica la
+ * diferencia de cada partido confirmado, así que las estadísticas leen unas pocas filas en lugar
+ * de recorrer la tabla partido. Los honorarios son los del escalafón vigente de cada árbitro:
+ * HonorariosArbitroDiferencia recalcula sus meses cuando cambia de escalafón.
+ * Los meses terminados se sellan: se reconcilian contra los partidos y desde entonces la
+ * reconstrucción ya no los recorre. Un cambio posterior en un partido de un mes sellado se aplica
+ * igual, para que las estadísticas sigan siendo correctas, y queda como corrección del mes
+ * (MesSellado.correcciones y el contador caba.resumenes.cambios con resultado=sellado);
+ * resellar vuelve a reconciliar el mes.
+ */
+@Service
+@Slf4j
+public class ResumenPartidosService {
+
+    private final ResumenPartidosRepository resumenRepository;
+    private final MesSelladoRepository mesSelladoRepository;
+    private final PartidoRepository partidoRepository;
+    private final ArbitroRepository arbitroRepository;
+    private final FilasEnCero filasEnCero;
+    private final int graciaDias;
+
+    private final Counter cambiosAplicados;
+    private final Counter cambiosEnSellados;
+
+    public ResumenPartidosService(ResumenPartidosRepository resumenRepository, MesSelladoRepository mesSelladoRepository,
+                                  PartidoRepository partidoRepository, ArbitroRepository arbitroRepository,
+                                  FilasEnCero filasEnCero, @Value("${caba.resumenes.gracia-dias:7}") int graciaDias,
+                                  MeterRegistry registry) {
+        this.resumenRepository = resumenRepository;
+        this.mesSelladoRepository = mesSelladoRepository;
+        this.partidoRepository = partidoRepository;
+        this.arbitroRepository = arbitroRepository;
+        this.filasEnCero = filasEnCero;
+        this.graciaDias = graciaDias;
+        this.cambiosAplicados = Counter.builder("caba.resumenes.cambios").tag("resultado", "aplicado")
+            .description("Cambios de partidos llevados a los resúmenes").register(registry);
+        this.cambiosEnSellados = Counter.builder("caba.resumenes.cambios").tag("resultado", "sellado")
+            .description("Cambios de partidos llevados a los resúmenes").register(registry);
+    }
+
+    /**
+     * Partidos por estado sumando todos los meses.
+     */
+    @Transactional(readOnly = true)
+    public Map<EstadoPartido, Long> contarPorEstado() {
+        Map<EstadoPartido, Long> porEstado = new EnumMap<>(EstadoPartido.class);
+        for (Object[] fila : resumenRepository.contarPorEstado()) {
+            porEstado.put((EstadoPartido) fila[0], ((Number) fila[1]).longValue());
+        }
+        return porEstado;
+    }
+
+    /**
+     * Partidos del árbitro en total y los que aún no se juegan (los de hoy cuentan según la hora).
+     */
+    @Transactional(readOnly = true)
+    public PartidosArbitro contarPartidosArbitro(Long arbitroId, LocalDateTime ahora) {
+        LocalDate hoy = ahora.toLocalDate();
+        // Columnas: [total, desde mañana]
+        Object[] f = resumenRepository.contarTotalYDesde(Dimension.ARBITRO, arbitroId, hoy.plusDays(1)).get(0);
+        long total = f[0] != null ? ((Number) f[0]).longValue() : 0;
+        long futuros = (f[1] != null ? ((Number) f[1]).longValue() : 0)
+            + partidoRepository.contarDelDiaDespuesDe(arbitroId, hoy, ahora.toLocalTime());
+        return new PartidosArbitro(total, futuros);
+    }
+
+    public record PartidosArbitro(long total, long futuros) {
+        public long pasados() {
+            return total - futuros;
+        }
+    }
+
+    /**
+     * Filas de una dimensión entre dos fechas (incluidas), en orden de fecha y estado.
+     */
+    @Transactional(readOnly = true)
+    public List<ResumenPartidos> consultar(Dimension dimension, Long clave, Nivel nivel, LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        Long id = dimension == Dimension.TOTAL ? Long.valueOf(0) : clave;
+        if (id == null) {
+            throw new IllegalArgumentException("Falta la clave de la dimensión " + dimension);
+        }
+        LocalDate inicio = nivel == Nivel.MES ? desde.withDayOfMonth(1) : desde;
+        return resumenRepository.findByDimensionAndClaveAndNivelAndFechaBetweenOrderByFechaAscEstadoAsc(dimension, id, nivel, inicio, hasta);
+    }
+
+    /**
+     * Aplica el cambio de un partido: resta su huella anterior y suma la nueva en cada fila de
+     * día y de mes que toca. Lo llama ResumenPartidosDiferencia después del commit, por eso abre
+     * su propia transacción.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void aplicar(Partido.Huella anterior, Partido.Huella actual) {
+        Map<Long, BigDecimal> honorarios = honorarios(anterior, actual);
+        Map<Clave, Acumulado> diferencias = new LinkedHashMap<>();
+        acumular(diferencias, anterior, anterior != null ? honorarios.get(anterior.arbitroId()) : null, -1);
+        acumular(diferencias, actual, actual != null ? honorarios.get(actual.arbitroId()) : null, 1);
+
+        YearMonth ultimoSellado = ultimoSellado().orElse(null);
+        Set<YearMonth> reconstruidos = new HashSet<>();
+        Set<YearMonth> corregidos = new HashSet<>();
+        Set<LocalDate> conRestas = new HashSet<>();
+        for (Map.Entry<Clave, Acumulado> entrada : diferencias.entrySet()) {
+            Clave clave = entrada.getKey();
+            Acumulado d = entrada.getValue();
+            YearMonth mes = YearMonth.from(clave.fecha());
+            if (d.vacio() || reconstruidos.contains(mes)) {
+                continue;
+            }
+            if (ultimoSellado != null && !mes.isAfter(ultimoSellado)) {
+                corregidos.add(mes);
+            }
+            if (sumar(clave, d) > 0) {
+                if (d.partidos < 0) {
+                    conRestas.add(clave.fecha());
+                }
+                continue;
+            }
+            if (d.partidos <= 0) {
+                // Restar de una fila que no existe indica que el mes se desfasó
+                log.warn("Resumen {} sin fila al quitar un partido; se reconstruye {}", clave, mes);
+                reconstruir(mes.atDay(1), mes.plusMonths(1).atDay(1));
+                reconstruidos.add(mes);
+                continue;
+            }
+            // Primer partido de la fila: se crea en cero (o la creó otra transacción) y se suma en ella.
+            // Se repite si un borrarVacias concurrente alcanzó a quitarla por estar en cero
+            do {
+                filasEnCero.crear(() -> resumenRepository.crear(clave.dimension(), clave.clave(), clave.nivel(),
+                    clave.fecha(), clave.estado()));
+            } while (sumar(clave, d) == 0);
+        }
+        if (!conRestas.isEmpty()) {
+            resumenRepository.borrarVacias(conRestas);
+        }
+        if (!corregidos.isEmpty()) {
+            mesSelladoRepository.registrarCorreccion(corregidos);
+            cambiosEnSellados.increment();
+            log.info("Cambio de un partido aplicado como corrección de los meses sellados {}", corregidos);
+        } else {
+            cambiosAplicados.increment();
+        }
+    }
+
+    /**
+     * Recalcula los meses con partidos del árbitro, sellados incluidos, para llevar sus honorarios
+     * a la tarifa de su escalafón actual. Retorna cuántas filas cambiaron. Lo llama
+     * HonorariosArbitroDiferencia después del commit, por eso abre su propia transacción.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int recalcularArbitro(Long arbitroId) {
+        int diferencias = 0;
+        for (Object[] f : partidoRepository.findMesesDeArbitro(arbitroId)) {
+            YearMonth mes = YearMonth.of(((Number) f[0]).intValue(), ((Number) f[1]).intValue());
+            diferencias += reconstruir(mes.atDay(1), mes.plusMonths(1).atDay(1));
+        }
+        log.info("Honorarios del árbitro {} recalculados en los resúmenes: {} filas distintas", arbitroId, diferencias);
+        return diferencias;
+    }
+
+    /**
+     * Al arrancar reconstruye los meses abiertos (los datos iniciales no pasan por el listener)
+     * y sella los que ya cumplieron la gracia.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void alArrancar() {
+        reconstruirAbiertos();
+        sellar(LocalDate.now());
+    }
+
+    /**
+     * Recalcula los meses abiertos desde los partidos y retorna cuántas filas no coincidían.
+     * Los meses sellados no se tocan; para esos está resellar.
+     */
+    @Transactional
+    public int reconstruirAbiertos() {
+        Optional<YearMonth> sellado = ultimoSellado();
+        int diferencias = sellado.isPresent()
+            ? reconstruir(sellado.get().plusMonths(1).atDay(1), null)
+            : reconstruir(null, null);
+        if (diferencias > 0) {
+            log.info("Resúmenes de partidos reconstruidos con {} filas distintas", diferencias);
+        }
+        return diferencias;
+    }
+
+    /**
+     * Sella, en orden, los meses terminados hace más de caba.resumenes.gracia-dias días.
+     * Antes de sellar un mes lo reconcilia contra los partidos. Retorna cuántos meses selló.
+     */
+    @Scheduled(cron = "${caba.resumenes.sellado-cron:0 15 0 * * *}")
+    @Transactional
+    public int sellar() {
+        return sellar(LocalDate.now());
+    }
+
+    int sellar(LocalDate hoy) {
+        // Se sellan los meses anteriores a este
+        YearMonth limite = YearMonth.from(hoy.minusDays(graciaDias));
+        YearMonth mes = ultimoSellado().map(m -> m.plusMonths(1)).orElse(null);
+        if (mes == null) {
+            LocalDate primera = partidoRepository.findPrimeraFecha();
+            if (primera == null) {
+                return 0;
+            }
+            mes = YearMonth.from(primera);
+        }
+        int sellados = 0;
+        for (; mes.isBefore(limite); mes = mes.plusMonths(1)) {
+            LocalDate inicio = mes.atDay(1);
+            int diferencias = reconstruir(inicio, mes.plusMonths(1).atDay(1));
+            if (diferencias > 0) {
+                log.warn("El mes {} tenía {} filas de resumen desfasadas al sellarlo", mes, diferencias);
+            }
+            mesSelladoRepository.save(new MesSellado(mes, LocalDateTime.now(), partidosDelMes(mes)));
+            sellados++;
+        }
+        if (sellados > 0) {
+            log.info("{} meses de resúmenes sellados; el último es {}", sellados, mes.minusMonths(1));
+        }
+        return sellados;
+    }
+
+    /**
+     * Vuelve a reconciliar un mes sellado contra los partidos (p. ej. después de correcciones) y
+     * retorna cuántas filas no coincidían. El sello queda con la fecha y los partidos de ahora.
+     */
+    @Transactional
+    public int resellar(YearMonth periodo) {
+        MesSellado sello = mesSelladoRepository.findByPeriodo(periodo)
+            .orElseThrow(() -> new EntityNotFoundException("El mes " + periodo + " no está sellado"));
+        int diferencias = reconstruir(periodo.atDay(1), periodo.plusMonths(1).atDay(1));
+        log.info("Mes {} resellado con {} filas distintas y {} correcciones previas", periodo, diferencias,
+            sello.getCorrecciones());
+        sello.setSelladoEn(LocalDateTime.now());
+        sello.setPartidos(partidosDelMes(periodo));
+        sello.setCorrecciones(0);
+        return diferencias;
+    }
+
+    private int partidosDelMes(YearMonth mes) {
+        LocalDate inicio = mes.atDay(1);
+        return resumenRepository.findByDimensionAndClaveAndNivelAndFechaBetweenOrderByFechaAscEstadoAsc(
+                Dimension.TOTAL, 0L, Nivel.MES, inicio, inicio).stream()
+            .mapToInt(ResumenPartidos::getPartidos).sum();
+    }
+
+    // Recalcula las filas con fecha en [desde, hasta); null = sin límite. Retorna cuántas cambiaron
+    private int reconstruir(LocalDate desde, LocalDate hasta) {
+        LocalDate inicio = desde != null ? desde : LocalDate.of(1, 1, 1);
+        List<Object[]> huellas = hasta != null
+            ? partidoRepository.findHuellasEntre(inicio, hasta)
+            : partidoRepository.findHuellasDesde(inicio);
+        Map<Clave, Acumulado> esperadas = new HashMap<>();
+        // Columnas: [fecha, estado, arbitroId, localId, visitanteId, torneoId, honorarioBase]
+        for (Object[] f : huellas) {
+            Partido.Huella huella = new Partido.Huella((LocalDate) f[0], (EstadoPartido) f[1], (Long) f[2],
+                (Long) f[3], (Long) f[4], (Long) f[5]);
+            acumular(esperadas, huella, (BigDecimal) f[6], 1);
+        }
+
+        List<ResumenPartidos> actuales = hasta != null
+            ? resumenRepository.findByFechaGreaterThanEqualAndFechaLessThan(inicio, hasta)
+            : resumenRepository.findByFechaGreaterThanEqual(inicio);
+        int diferencias = 0;
+        for (ResumenPartidos fila : actuales) {
+            Acumulado esperada = esperadas.remove(new Clave(fila.getDimension(), fila.getClave(), fila.getNivel(),
+                fila.getFecha(), fila.getEstado()));
+            if (esperada == null || esperada.partidos == 0) {
+                resumenRepository.delete(fila);
+                diferencias++;
+            } else if (fila.getPartidos() != esperada.partidos || fila.getHonorarios().compareTo(esperada.honorarios) != 0) {
+                fila.setPartidos(esperada.partidos);
+                fila.setHonorarios(esperada.honorarios);
+                diferencias++;
+            }
+        }
+        for (Map.Entry<Clave, Acumulado> entrada : esperadas.entrySet()) {
+            Clave c = entrada.getKey();
+            resumenRepository.save(new ResumenPartidos(c.dimension(), c.clave(), c.nivel(), c.fecha(), c.estado(),
+                entrada.getValue().partidos, entrada.getValue().honorarios));
+            diferencias++;
+        }
+        return diferencias;
+    }
+
+    // Suma la diferencia en su fila y retorna cuántas filas tocó (0 si la fila no existe)
+    private int sumar(Clave clave, Acumulado d) {
+        return resumenRepository.sumar(clave.dimension(), clave.clave(), clave.nivel(), clave.fecha(), clave.estado(),
+            d.partidos, d.honorarios);
+    }
+
+    private Optional<YearMonth> ultimoSellado() {
+        return mesSelladoRepository.findFirstByOrderByPeriodoDesc().map(MesSellado::getPeriodo);
+    }
+
+    // Honorario vigente del escalafón de los árbitros de las dos huellas; es el mismo con el que se
+    // sumaron, porque un cambio de escalafón recalcula los meses del árbitro
+    private Map<Long, BigDecimal> honorarios(Partido.Huella anterior, Partido.Huella actual) {
+        Set<Long> ids = Stream.of(anterior, actual)
+            .filter(h -> h != null && h.arbitroId() != null)
+            .map(Partido.Huella::arbitroId)
+            .collect(Collectors.toSet());
+        Map<Long, BigDecimal> honorarios = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Object[] f : arbitroRepository.findHonorarios(ids)) {
+                honorarios.put((Long) f[0], (BigDecimal) f[1]);
+            }
+        }
+        return honorarios;
+    }
+
+    // Suma la huella, multiplicada por signo, a sus filas de día y de mes en cada dimensión
+    private static void acumular(Map<Clave, Acumulado> acumulados, Partido.Huella huella, BigDecimal honorario, int signo) {
+        if (huella == null) {
+            return;
+        }
+        BigDecimal monto = huella.arbitroId() != null && honorario != null
+            ? honorario.multiply(BigDecimal.valueOf(signo))
+            : BigDecimal.ZERO;
+        for (Nivel nivel : Nivel.values()) {
+            LocalDate fecha = nivel == Nivel.DIA ? huella.fecha() : huella.fecha().withDayOfMonth(1);
+            sumar(acumulados, new Clave(Dimension.TOTAL, 0L, nivel, fecha, huella.estado()), signo, monto);
+            if (huella.arbitroId() != null) {
+                sumar(acumulados, new Clave(Dimension.ARBITRO, huella.arbitroId(), nivel, fecha, huella.estado()), signo, monto);
+            }
+            if (huella.localId() != null) {
+                sumar(acumulados, new Clave(Dimension.EQUIPO, huella.localId(), nivel, fecha, huella.estado()), signo, monto);
+            }
+            if (huella.visitanteId() != null && !huella.visitanteId().equals(huella.localId())) {
+                sumar(acumulados, new Clave(Dimension.EQUIPO, huella.visitanteId(), nivel, fecha, huella.estado()), signo, monto);
+            }
+            if (huella.torneoId() != null) {
+                sumar(acumulados, new Clave(Dimension.TORNEO, huella.torneoId(), nivel, fecha, huella.estado()), signo, monto);
+            }
+        }
+    }
+
+    private static void sumar(Map<Clave, Acumulado> acumulados, Clave clave, int partidos, BigDecimal honorarios) {
+        Acumulado a = acumulados.computeIfAbsent(clave, c -> new Acumulado());
+        a.partidos += partidos;
+        a.honorarios = a.honorarios.add(honorarios);
+    }
+
+    private record Clave(Dimension dimension, Long clave, Nivel nivel, LocalDate fecha, EstadoPartido estado) {
+    }
+
+    private static final class Acumulado {
+        private int partidos;
+        private BigDecimal honorarios = BigDecimal.ZERO;
+
+        boolean vacio() {
+            return partidos == 0 && honorarios.signum() == 0;
+        }
+    }
+}
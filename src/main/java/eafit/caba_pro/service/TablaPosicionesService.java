@@ -0,0 +1,191 @@
+package eafit.caba_pro.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import eafit.caba_pro.dto.TablaPosicionesDTO;
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import eafit.caba_pro.model.PosicionTorneo;
+import eafit.caba_pro.model.Torneo;
+import eafit.caba_pro.repository.PartidoRepository;
+import eafit.caba_pro.repository.PosicionTorneoRepository;
+import eafit.caba_pro.repository.TorneoRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tablas de posiciones de los torneos guardadas en posicion_torneo. Leer una tabla recorre solo
+ * sus equipos. Cuando cambia un partido, TablaPosicionesDiferencia pide recalcular las filas de
+ * sus dos equipos a partir de sus partidos en ese torneo. La reconstrucción completa usa el
+ * mismo cálculo sobre todos los partidos del torneo, así que sirve para verificar el incremental.
+ */
+@Service
+@Slf4j
+public class TablaPosicionesService {
+
+    private final PosicionTorneoRepository posicionRepository;
+    private final PartidoRepository partidoRepository;
+    private final TorneoRepository torneoRepository;
+    private final int puntosVictoria;
+    private final int puntosEmpate;
+    private final int puntosDerrota;
+
+    public TablaPosicionesService(PosicionTorneoRepository posicionRepository, PartidoRepository partidoRepository,
+                                  TorneoRepository torneoRepository,
+                                  @Value("${caba.torneo.puntos-victoria:3}") int puntosVictoria,
+                                  @Value("${caba.torneo.puntos-empate:1}") int puntosEmpate,
+                                  @Value("${caba.torneo.puntos-derrota:0}") int puntosDerrota) {
+        this.posicionRepository = posicionRepository;
+        this.partidoRepository = partidoRepository;
+        this.torneoRepository = torneoRepository;
+        this.puntosVictoria = puntosVictoria;
+        this.puntosEmpate = puntosEmpate;
+        this.puntosDerrota = puntosDerrota;
+    }
+
+    @Transactional(readOnly = true)
+    public TablaPosicionesDTO obtener(Long torneoId) {
+        validarTorneo(torneoId);
+        List<TablaPosicionesDTO.Fila> filas = new ArrayList<>();
+        for (Object[] fila : posicionRepository.findTablaConNombres(torneoId)) {
+            PosicionTorneo p = (PosicionTorneo) fila[0];
+            filas.add(new TablaPosicionesDTO.Fila(filas.size() + 1, p.getEquipoId(), (String) fila[1], p.getJugados(),
+                p.getGanados(), p.getEmpatados(), p.getPerdidos(), p.getPuntosFavor(), p.getPuntosContra(),
+                p.getDiferencia(), p.getPuntos(), p.getRacha(), p.getMejorRacha()));
+        }
+        return new TablaPosicionesDTO(torneoId, filas);
+    }
+
+    /**
+     * Recalcula las filas de los equipos indicados. Lo llama TablaPosicionesDiferencia después
+     * del commit, por eso abre su propia transacción. Bloquea el torneo antes de leer: dos
+     * recálculos a la vez insertarían la misma fila (torneo_id, equipo_id) o el más lento
+     * dejaría la tabla con los partidos que leyó antes del otro commit.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recalcular(Long torneoId, Set<Long> equipos) {
+        if (torneoRepository.bloquear(torneoId).isEmpty()) {
+            // Torneo eliminado: sus filas se borraron con él
+            return;
+        }
+        List<PosicionTorneo> nuevas = calcular(torneoId, equipos,
+            partidoRepository.findResultadosDeTorneoPorEquipos(torneoId, equipos));
+        guardar(nuevas, posicionRepository.findByTorneoIdAndEquipoIdIn(torneoId, equipos));
+    }
+
+    /**
+     * Recalcula la tabla completa desde los partidos del torneo y retorna cuántas filas no
+     * coincidían con lo que había guardado.
+     */
+    @Transactional
+    public int reconstruir(Long torneoId) {
+        if (torneoRepository.bloquear(torneoId).isEmpty()) {
+            throw new EntityNotFoundException("Torneo no encontrado");
+        }
+        List<PosicionTorneo> nuevas = calcular(torneoId, null, partidoRepository.findResultadosDeTorneo(torneoId));
+        int diferencias = guardar(nuevas, posicionRepository.findByTorneoId(torneoId));
+        if (diferencias > 0) {
+            log.warn("Tabla de posiciones del torneo {} reconstruida con {} filas distintas", torneoId, diferencias);
+        }
+        return diferencias;
+    }
+
+    // Los datos iniciales no pasan por los listeners
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconstruirTodas() {
+        for (Torneo torneo : torneoRepository.findAll()) {
+            reconstruir(torneo.getId());
+        }
+    }
+
+    /**
+     * Filas de los equipos del torneo a partir de sus partidos en orden cronológico. Un equipo
+     * con partidos aún sin jugar aparece en cero; equipos == null calcula todos.
+     * Cada partido: [localId, visitanteId, estado, golesLocal, golesVisitante]
+     */
+    List<PosicionTorneo> calcular(Long torneoId, Set<Long> equipos, List<Object[]> partidos) {
+        Map<Long, PosicionTorneo> filas = new LinkedHashMap<>();
+        for (Object[] p : partidos) {
+            Integer golesLocal = (Integer) p[3];
+            Integer golesVisitante = (Integer) p[4];
+            boolean jugado = p[2] == EstadoPartido.FINALIZADO && golesLocal != null && golesVisitante != null;
+            anotar(filas, torneoId, equipos, (Long) p[0], jugado, golesLocal, golesVisitante);
+            anotar(filas, torneoId, equipos, (Long) p[1], jugado, golesVisitante, golesLocal);
+        }
+        return new ArrayList<>(filas.values());
+    }
+
+    private void anotar(Map<Long, PosicionTorneo> filas, Long torneoId, Set<Long> equipos, Long equipoId,
+                        boolean jugado, Integer favor, Integer contra) {
+        if (equipos != null && !equipos.contains(equipoId)) {
+            return;
+        }
+        PosicionTorneo fila = filas.computeIfAbsent(equipoId, id -> {
+            PosicionTorneo nueva = new PosicionTorneo();
+            nueva.setTorneoId(torneoId);
+            nueva.setEquipoId(id);
+            return nueva;
+        });
+        if (!jugado) {
+            return;
+        }
+        fila.setJugados(fila.getJugados() + 1);
+        fila.setPuntosFavor(fila.getPuntosFavor() + favor);
+        fila.setPuntosContra(fila.getPuntosContra() + contra);
+        if (favor > contra) {
+            fila.setGanados(fila.getGanados() + 1);
+            fila.setPuntos(fila.getPuntos() + puntosVictoria);
+            fila.setRacha(fila.getRacha() > 0 ? fila.getRacha() + 1 : 1);
+            fila.setMejorRacha(Math.max(fila.getMejorRacha(), fila.getRacha()));
+        } else if (favor.equals(contra)) {
+            fila.setEmpatados(fila.getEmpatados() + 1);
+            fila.setPuntos(fila.getPuntos() + puntosEmpate);
+            fila.setRacha(0);
+        } else {
+            fila.setPerdidos(fila.getPerdidos() + 1);
+            fila.setPuntos(fila.getPuntos() + puntosDerrota);
+            fila.setRacha(fila.getRacha() < 0 ? fila.getRacha() - 1 : -1);
+        }
+    }
+
+    // Reemplaza las filas actuales por las nuevas reutilizando sus ids; retorna cuántas cambiaron
+    private int guardar(List<PosicionTorneo> nuevas, Collection<PosicionTorneo> actuales) {
+        Map<Long, PosicionTorneo> porEquipo = actuales.stream()
+            .collect(Collectors.toMap(PosicionTorneo::getEquipoId, Function.identity()));
+        int diferencias = 0;
+        for (PosicionTorneo nueva : nuevas) {
+            PosicionTorneo actual = porEquipo.remove(nueva.getEquipoId());
+            if (actual != null && actual.mismosValores(nueva)) {
+                continue;
+            }
+            diferencias++;
+            if (actual != null) {
+                nueva.setId(actual.getId());
+            }
+            posicionRepository.save(nueva);
+        }
+        // Equipos que ya no tienen partidos en el torneo
+        posicionRepository.deleteAll(porEquipo.values());
+        return diferencias + porEquipo.size();
+    }
+
+    private void validarTorneo(Long torneoId) {
+        if (!torneoRepository.existsById(torneoId)) {
+            throw new EntityNotFoundException("Torneo no encontrado");
+        }
+    }
+}
@@ -2,12 +2,18 @@ package eafit.caba_pro.service;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import eafit.caba_pro.dto.PaginaDTO;
+import eafit.caba_pro.dto.TorneoResumenDTO;
 import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.model.ResumenPartidos.Dimension;
 import eafit.caba_pro.model.Torneo;
 import eafit.caba_pro.repository.PartidoRepository;
+import eafit.caba_pro.repository.PosicionTorneoRepository;
+import eafit.caba_pro.repository.ResumenPartidosRepository;
 import eafit.caba_pro.repository.TorneoRepository;
 import jakarta.persistence.EntityNotFoundException;
 
@@ -17,11 +23,16 @@ public class TorneoService {
 
     private final TorneoRepository torneoRepo;
     private final PartidoRepository partidoRepo;
+    private final PosicionTorneoRepository posicionRepo;
+    private final ResumenPartidosRepository resumenRepo;
 
 
-    public TorneoService(TorneoRepository torneoRepo, PartidoRepository partidoRepo) {
+    public TorneoService(TorneoRepository torneoRepo, PartidoRepository partidoRepo, PosicionTorneoRepository posicionRepo,
+                         ResumenPartidosRepository resumenRepo) {
         this.torneoRepo = torneoRepo;
         this.partidoRepo = partidoRepo;
+        this.posicionRepo = posicionRepo;
+        this.resumenRepo = resumenRepo;
     }
 
     // ------------------- CRUD -------------------
@@ -30,6 +41,15 @@ public class TorneoService {
         return torneoRepo.findAll();
     }
 
+    // Página de torneos para la API en orden de id; after es el último id de la página anterior
+    @Transactional(readOnly = true)
+    public PaginaDTO<TorneoResumenDTO> paginarResumenes(Long after, Integer limite) {
+        int n = PaginaDTO.limitar(limite);
+        List<TorneoResumenDTO> filas = torneoRepo.findResumenesDespuesDe(after != null ? after : 0L, PageRequest.of(0, n + 1))
+            .stream().map(TorneoResumenDTO::desdeFila).toList();
+        return PaginaDTO.de(filas, n, t -> String.valueOf(t.id()));
+    }
+
     @Transactional(readOnly = true)
     public Optional<Torneo> findById(Long id) {
         return torneoRepo.findById(id);
@@ -61,8 +81,11 @@ public class TorneoService {
                 .orElseThrow(() -> new EntityNotFoundException("Torneo no encontrado"));
 
     
-        // Desasignar partidos
+        // Desasignar partidos (la actualización masiva no pasa por los listeners, así que la tabla
+        // y los resúmenes del torneo, también los de meses sellados, se borran aquí)
         partidoRepo.unassignByTorneoId(id);
+        posicionRepo.deleteByTorneoId(id);
+        resumenRepo.borrarClave(Dimension.TORNEO, id);
         torneoRepo.delete(t);
     }
 
@@ -0,0 +1,146 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import eafit.caba_pro.dto.ResumenLiquidacionDTO;
+import eafit.caba_pro.model.TrabajoLiquidacion;
+import eafit.caba_pro.model.TrabajoLiquidacion.EstadoTrabajo;
+import eafit.caba_pro.repository.TrabajoLiquidacionRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generación de liquidaciones en segundo plano. Divide a los árbitros pendientes en lotes,
+ * procesa cada lote en el pool de liquidaciones con su propia transacción y registra el avance
+ * en trabajo_liquidacion. Un lote fallido no deshace los demás; volver a lanzar el periodo
+ * solo procesa a los árbitros que siguen sin liquidación.
+ */
+@Service
+@Slf4j
+public class TrabajoLiquidacionService {
+
+    private final TrabajoLiquidacionRepository trabajoRepository;
+    private final LiquidacionService liquidacionService;
+    private final TaskExecutor executor;
+
+    // Trabajos con lotes en ejecución en esta instancia
+    private final Set<Long> enEjecucion = ConcurrentHashMap.newKeySet();
+
+    public TrabajoLiquidacionService(TrabajoLiquidacionRepository trabajoRepository, LiquidacionService liquidacionService,
+                                     @Qualifier("liquidacionExecutor") TaskExecutor executor) {
+        this.trabajoRepository = trabajoRepository;
+        this.liquidacionService = liquidacionService;
+        this.executor = executor;
+    }
+
+    /**
+     * Inicia la generación del periodo y retorna el trabajo sin esperar a que termine.
+     * Si ya hay un trabajo en curso para el periodo se retorna ese mismo.
+     */
+    public synchronized TrabajoLiquidacion iniciar(YearMonth periodo) {
+        Optional<TrabajoLiquidacion> enCurso = trabajoRepository.findFirstByPeriodoAndEstado(periodo, EstadoTrabajo.EN_CURSO);
+        if (enCurso.isPresent()) {
+            TrabajoLiquidacion trabajo = enCurso.get();
+            if (!enEjecucion.contains(trabajo.getId())) {
+                ejecutar(trabajo);
+            }
+            return trabajo;
+        }
+        TrabajoLiquidacion trabajo = trabajoRepository.save(new TrabajoLiquidacion(periodo));
+        ejecutar(trabajo);
+        return trabajo;
+    }
+
+    public Optional<TrabajoLiquidacion> findById(Long id) {
+        return trabajoRepository.findById(id);
+    }
+
+    /**
+     * Retoma los trabajos que quedaron EN_CURSO cuando la aplicación se detuvo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reanudarPendientes() {
+        for (TrabajoLiquidacion trabajo : trabajoRepository.findByEstado(EstadoTrabajo.EN_CURSO)) {
+            log.info("Reanudando trabajo de liquidación {} del periodo {}", trabajo.getId(), trabajo.getPeriodo());
+            ejecutar(trabajo);
+        }
+    }
+
+    private void ejecutar(TrabajoLiquidacion trabajo) {
+        Long id = trabajo.getId();
+        YearMonth periodo = trabajo.getPeriodo();
+
+        // Los árbitros ya liquidados quedan fuera del resumen, así que al reanudar solo se ven los lotes restantes.
+        // El total se calcula en la base para no pisar los contadores de lotes que sigan terminando
+        List<List<Object[]>> lotes = liquidacionService.dividirEnLotes(liquidacionService.resumirPendientes(periodo));
+        trabajoRepository.prepararEjecucion(id, lotes.size());
+        trabajo.setTotalLotes(trabajo.getLotesCompletados() + lotes.size());
+        trabajo.setLotesFallidos(0);
+        trabajo.setUltimoError(null);
+        enEjecucion.add(id);
+
+        long inicio = System.nanoTime();
+        AtomicInteger liquidaciones = new AtomicInteger();
+        AtomicInteger partidos = new AtomicInteger();
+        List<CompletableFuture<Void>> tareas = new ArrayList<>(lotes.size());
+        for (int i = 0; i < lotes.size(); i++) {
+            List<Object[]> lote = lotes.get(i);
+            try {
+                tareas.add(CompletableFuture.runAsync(() -> {
+                    ResumenLiquidacionDTO resumen = procesarLote(id, periodo, lote);
+                    if (resumen != null) {
+                        liquidaciones.addAndGet(resumen.getLiquidacionesGeneradas());
+                        partidos.addAndGet(resumen.getPartidosLiquidados());
+                    }
+                }, executor));
+            } catch (RejectedExecutionException e) {
+                // Pool lleno: los lotes restantes cuentan como fallidos y el trabajo termina FALLIDO;
+                // volver a lanzar el periodo procesa a los árbitros que quedaron sin liquidación
+                int restantes = lotes.size() - i;
+                log.warn("Pool de liquidaciones lleno; {} lotes del trabajo {} quedan sin procesar", restantes, id);
+                trabajoRepository.registrarLotesRechazados(id, restantes,
+                        "Pool de liquidaciones lleno: " + restantes + " lotes sin procesar");
+                break;
+            }
+        }
+
+        CompletableFuture.allOf(tareas.toArray(CompletableFuture[]::new)).whenComplete((r, ex) -> {
+            try {
+                liquidacionService.registrarCorrida("trabajo", System.nanoTime() - inicio, liquidaciones.get(), partidos.get());
+                trabajoRepository.finalizar(id, LocalDateTime.now());
+                log.info("Trabajo de liquidación {} ({}) terminado", id, periodo);
+            } finally {
+                enEjecucion.remove(id);
+            }
+        });
+    }
+
+    // Retorna null si el lote falló
+    private ResumenLiquidacionDTO procesarLote(Long trabajoId, YearMonth periodo, List<Object[]> lote) {
+        try {
+            ResumenLiquidacionDTO resumen = liquidacionService.procesarLote(periodo, lote);
+            trabajoRepository.registrarLoteCompletado(trabajoId, resumen.getLiquidacionesGeneradas(),
+                    resumen.getPartidosLiquidados());
+            return resumen;
+        } catch (RuntimeException e) {
+            log.error("Error en lote de liquidación del trabajo {}: {}", trabajoId, e.getMessage(), e);
+            String mensaje = String.valueOf(e.getMessage());
+            trabajoRepository.registrarLoteFallido(trabajoId, mensaje.length() > 1000 ? mensaje.substring(0, 1000) : mensaje);
+            return null;
+        }
+    }
+}
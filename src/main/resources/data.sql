@@ -28,11 +28,11 @@ INSERT INTO escalafon (nombre, honorario_base)
 VALUES ('LOCAL', 120000);
 
 -- Árbitros
-INSERT INTO arbitro (nombre, contraseña, username, cedula, phone, speciality, photo_data, photo_content_type, photo_filename, usuario_id, escalafon_id) 
-VALUES ('Paula Lop', '{noop}arbitro1234', 'paula.lp', '34567', '3222469936', 'Campo', NULL, NULL, NULL, 5, 1);
+INSERT INTO arbitro (nombre, contraseña, username, cedula, phone, speciality, photo_content_type, photo_filename, usuario_id, escalafon_id) 
+VALUES ('Paula Lop', '{noop}arbitro1234', 'paula.lp', '34567', '3222469936', 'Campo', NULL, NULL, 5, 1);
 
-INSERT INTO arbitro (nombre, contraseña, username, cedula, phone, speciality, photo_data, photo_content_type, photo_filename, usuario_id, escalafon_id) 
-VALUES ('Sebastian Medina', '{noop}arbitro123', 'sebastian.medina', '1058198772', '3222469936', 'Campo', NULL, NULL, NULL, 4, 1);
+INSERT INTO arbitro (nombre, contraseña, username, cedula, phone, speciality, photo_content_type, photo_filename, usuario_id, escalafon_id) 
+VALUES ('Sebastian Medina', '{noop}arbitro123', 'sebastian.medina', '1058198772', '3222469936', 'Campo', NULL, NULL, 4, 1);
 
 -- Equipos
 INSERT INTO equipo(nombre, estado, ciudad, fundacion, logo)
@@ -0,0 +1,41 @@
+// Agrega a la lista las notificaciones que llegan por Server-Sent Events.
+// EventSource reconecta solo y manda Last-Event-ID; el servidor reenvía lo que faltó.
+document.addEventListener('DOMContentLoaded', () => {
+    const lista = document.getElementById('lista-notificaciones');
+    const plantilla = document.getElementById('plantilla-notificacion');
+    if (!lista || !plantilla || !window.EventSource) return;
+
+    const url = new URL(lista.dataset.stream, window.location.origin);
+    if (lista.dataset.ultimo && lista.dataset.ultimo !== '0') {
+        url.searchParams.set('ultimo', lista.dataset.ultimo);
+    }
+    const tipos = { ARBITRO: lista.dataset.tipoArbitro, ADMIN: lista.dataset.tipoAdmin };
+    const fuente = new EventSource(url);
+
+    fuente.addEventListener('notificacion', (evento) => {
+        const notificacion = JSON.parse(evento.data);
+        const item = plantilla.content.firstElementChild.cloneNode(true);
+        item.querySelector('[data-campo=mensaje]').textContent = notificacion.mensaje;
+        item.querySelector('[data-campo=tipo]').textContent = tipos[notificacion.tipoDestinatario] || '';
+        item.querySelector('[data-campo=fecha]').textContent = formatearFecha(notificacion.fecha);
+        item.querySelector('[data-campo=icono]').classList.add(
+            notificacion.tipoDestinatario === 'ARBITRO' ? 'text-indigo-500' : 'text-green-500');
+
+        const vacia = document.getElementById('sin-notificaciones');
+        if (vacia) vacia.remove();
+        lista.appendChild(item);
+    });
+
+    // Se perdieron más notificaciones de las que el servidor reenvía: se recarga la página completa
+    fuente.addEventListener('recargar', () => {
+        fuente.close();
+        window.location.reload();
+    });
+
+    // Mismo formato que la vista: dd/MM/yyyy HH:mm
+    function formatearFecha(iso) {
+        const [fecha, hora] = iso.split('T');
+        const [anio, mes, dia] = fecha.split('-');
+        return `${dia}/${mes}/${anio} ${hora.substring(0, 5)}`;
+    }
+});
@@ -0,0 +1,23 @@
+package eafit.caba_pro;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Medición de rendimiento: no corre con la suite normal. Se ejecutan todas con el perfil
+ * benchmark (mvn test -Pbenchmark) o una sola con mvn test -Dtest=Clase -Dbenchmark=true.
+ * Cada medición escribe su resultado en el log de su clase de prueba.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Test
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public @interface Benchmark {
+}
@@ -0,0 +1,124 @@
+package eafit.caba_pro.agendar;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.context.MessageSource;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.repository.PartidoJdbcRepository;
+import eafit.caba_pro.repository.PartidoJdbcRepository.ClimaPartido;
+import eafit.caba_pro.repository.PartidoRepository;
+import eafit.caba_pro.service.ClimaService;
+
+/**
+ * Actualización de clima contra un stub local del API de Open-Meteo.
+ */
+class WeatherUpdaterTest {
+
+    private final PartidoRepository partidoRepository = Mockito.mock(PartidoRepository.class);
+    private final PartidoJdbcRepository partidoJdbcRepository = Mockito.mock(PartidoJdbcRepository.class);
+    private final MessageSource messageSource = Mockito.mock(MessageSource.class);
+
+    private HttpServer stub;
+    private final List<String> fechasConsultadas = Collections.synchronizedList(new ArrayList<>());
+    private ExecutorService executor;
+
+    @BeforeEach
+    void iniciarStub() throws IOException {
+        LocalDate fallida = LocalDate.now().plusDays(2);
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/v1/forecast", exchange -> {
+            String fecha = exchange.getRequestURI().getQuery().replaceAll(".*start_date=([0-9-]+).*", "$1");
+            fechasConsultadas.add(fecha);
+            boolean falla = fecha.equals(fallida.toString());
+            // La temperatura de cada hora es igual a la hora, con código 0 (despejado) todo el día
+            StringBuilder temperaturas = new StringBuilder();
+            StringBuilder codigos = new StringBuilder();
+            for (int h = 0; h < 24; h++) {
+                temperaturas.append(h == 0 ? "" : ",").append(h).append(".6");
+                codigos.append(h == 0 ? "" : ",").append(0);
+            }
+            byte[] cuerpo = ("{\"hourly\":{\"temperature_2m\":[" + temperaturas + "],\"weather_code\":[" + codigos + "]}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(falla ? 500 : 200, falla ? -1 : cuerpo.length);
+            if (!falla) {
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(cuerpo);
+                }
+            }
+            exchange.close();
+        });
+        stub.start();
+        executor = Executors.newFixedThreadPool(4);
+        when(messageSource.getMessage(anyString(), any(), any(Locale.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterEach
+    void detenerStub() {
+        stub.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void actualizarClima_unaConsultaPorFecha_yEscrituraEnLote() {
+        LocalDate hoy = LocalDate.now();
+        LocalDate manana = hoy.plusDays(1);
+        LocalDate fallida = hoy.plusDays(2);
+        when(partidoRepository.findParaActualizarClima(eq(hoy), eq(hoy.plusDays(15)), eq(Partido.EstadoPartido.FINALIZADO)))
+                .thenReturn(List.of(
+                        new Object[] {1L, hoy, LocalTime.of(10, 0)},
+                        new Object[] {2L, hoy, LocalTime.of(15, 30)},
+                        new Object[] {3L, manana, LocalTime.of(8, 0)},
+                        new Object[] {4L, manana, LocalTime.of(20, 0)},
+                        new Object[] {5L, fallida, LocalTime.of(9, 0)}));
+
+        ClimaService climaService = new ClimaService(messageSource, new RestTemplate(), Runnable::run,
+                "http://127.0.0.1:" + stub.getAddress().getPort() + "/v1/forecast", 60, 24);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WeatherUpdater updater = new WeatherUpdater(partidoRepository, partidoJdbcRepository, climaService, executor, 16, 50,
+                registry);
+
+        updater.actualizarClimaDePartidos();
+
+        assertEquals(3, fechasConsultadas.size(), "Debe hacer una sola llamada por fecha");
+        ArgumentCaptor<List<ClimaPartido>> cambios = ArgumentCaptor.forClass(List.class);
+        verify(partidoJdbcRepository).actualizarClima(cambios.capture());
+        assertEquals(List.of(
+                new ClimaPartido(1L, "weather.clear", 10),
+                new ClimaPartido(2L, "weather.clear", 15),
+                new ClimaPartido(3L, "weather.clear", 8),
+                new ClimaPartido(4L, "weather.clear", 20)), cambios.getValue());
+
+        assertEquals(1, registry.get("caba.clima.actualizacion").tag("resultado", "ok").timer().count());
+        assertEquals(1, registry.get("caba.clima.actualizacion.fechas_fallidas").counter().count());
+        assertEquals(1, climaService.getMetricas().fallosProveedor());
+    }
+}
@@ -0,0 +1,111 @@
+package eafit.caba_pro.controller;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import eafit.caba_pro.agendar.WeatherUpdater;
+import eafit.caba_pro.metricas.ConsumoSql;
+
+/**
+ * Cota de consultas SQL por página principal, leída del ConsumoSql que deja ConsumoSqlInterceptor
+ * en la petición. Antes de medir se agregan árbitros, partidos y liquidaciones para que un N+1
+ * se note en el conteo.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:consultas_por_pagina;DB_CLOSE_DELAY=-1",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConsultasPorPaginaTest {
+
+    private static final int ARBITROS = 12;
+    private static final int PARTIDOS = 60;
+
+    @MockitoBean
+    private WeatherUpdater weatherUpdater;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeAll
+    void poblar() {
+        String periodo = YearMonth.now().toString();
+        for (int i = 0; i < ARBITROS; i++) {
+            jdbc.update("INSERT INTO arbitro (nombre, contraseña, username, cedula, phone, speciality, escalafon_id) " +
+                        "VALUES (?, 'x', ?, ?, '300', 'Campo', ?)", "Carga " + i, "carga" + i, "900" + i, 1 + i % 3);
+        }
+        Long primero = jdbc.queryForObject("SELECT MIN(id) FROM arbitro WHERE username LIKE 'carga%'", Long.class);
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < PARTIDOS; i++) {
+            Long arbitro = i % 5 == 0 ? 2L : primero + i % ARBITROS;
+            jdbc.update("INSERT INTO partido (fecha, hora, equipo_local, equipo_visitante, estado, arbitro_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", hoy.plusDays(i % 20 - 10), String.format("%02d:00", 8 + i % 12),
+                        1 + i % 3, 1 + (i + 1) % 3, i % 2 == 0 ? "PROGRAMADO" : "FINALIZADO", arbitro);
+        }
+        for (int i = 0; i < ARBITROS; i++) {
+            jdbc.update("INSERT INTO liquidacion (periodo, fecha_generacion, estado, arbitro_id, total) " +
+                        "VALUES (?, ?, 'PENDIENTE', ?, 100)", periodo, hoy, primero + i);
+        }
+        jdbc.update("UPDATE partido p SET liquidacion_id = (SELECT MIN(l.id) FROM liquidacion l WHERE l.arbitro_id = p.arbitro_id)");
+    }
+
+    private ConsumoSql consumo(String url) throws Exception {
+        return (ConsumoSql) mvc.perform(get(url)).andExpect(status().isOk()).andReturn()
+            .getRequest().getAttribute(ConsumoSql.ATRIBUTO);
+    }
+
+    private void cota(String url, long maximo) throws Exception {
+        ConsumoSql consumo = consumo(url);
+        assertTrue(consumo.getSentencias() <= maximo, url + ": " + consumo + " (máximo " + maximo + " sentencias)");
+    }
+
+    @Test
+    @WithMockUser(username = "user1", roles = "ADMIN")
+    void paginasDeAdministrador() throws Exception {
+        cota("/admin/partidos", 2);
+        cota("/admin/arbitros", 2);
+        cota("/admin/liquidaciones", 2);
+        cota("/admin", 4);
+    }
+
+    @Test
+    @WithMockUser(username = "sebastian.medina", roles = "ARBITRO")
+    void paginasDeArbitro() throws Exception {
+        cota("/arbitro", 5);
+        cota("/arbitro/partidos", 5);
+        cota("/arbitro/calendario", 5);
+        cota("/arbitro/disponibilidad", 5);
+    }
+
+    @Test
+    @WithMockUser(username = "sara", roles = "ENTRENADOR")
+    void paginasDeEntrenador() throws Exception {
+        cota("/coach", 4);
+        cota("/coach/partidos", 4);
+    }
+
+    @Test
+    void api() throws Exception {
+        cota("/api/partidos", 1);
+        cota("/api/partidos/1", 3);
+    }
+}
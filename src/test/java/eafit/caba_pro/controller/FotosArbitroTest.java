@@ -0,0 +1,199 @@
+package eafit.caba_pro.controller;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import eafit.caba_pro.Benchmark;
+import eafit.caba_pro.agendar.WeatherUpdater;
+import eafit.caba_pro.metricas.ConsumoSql;
+import eafit.caba_pro.service.FotoService;
+import eafit.caba_pro.service.FotoService.FotoGuardada;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Validadores, 304 y rangos de las fotos de árbitros. Las fotos se guardan en target/ para no
+ * tocar el almacén real.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:fotos_arbitro;DB_CLOSE_DELAY=-1",
+    "caba.fotos.dir=target/fotos-prueba",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+class FotosArbitroTest {
+
+    private static final int ARBITROS = 30;
+
+    @MockitoBean
+    private WeatherUpdater weatherUpdater;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private FotoService fotoService;
+
+    private final List<Long> ids = new ArrayList<>();
+    private long tamanoOriginal;
+
+    @BeforeAll
+    void poblar() throws IOException {
+        Random random = new Random(11);
+        for (int i = 0; i < ARBITROS; i++) {
+            FotoGuardada foto = fotoService.guardar(imagen(random));
+            tamanoOriginal = foto.tamano();
+            jdbc.update("INSERT INTO arbitro (nombre, contraseña, username, cedula, phone, speciality, escalafon_id, " +
+                        "photo_hash, photo_size, photo_actualizada, photo_content_type) " +
+                        "VALUES (?, 'x', ?, ?, '300', 'Campo', 1, ?, ?, CURRENT_TIMESTAMP, 'image/png')",
+                        "Foto " + i, "foto" + i, "800" + i, foto.hash(), foto.tamano());
+            ids.add(jdbc.queryForObject("SELECT id FROM arbitro WHERE username = ?", Long.class, "foto" + i));
+        }
+    }
+
+    // Ruido, para que las miniaturas tengan un tamaño parecido al de una foto real
+    private static byte[] imagen(Random random) throws IOException {
+        BufferedImage imagen = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 400; y++) {
+            for (int x = 0; x < 400; x++) {
+                imagen.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "png", salida);
+        return salida.toByteArray();
+    }
+
+    private String url(Long id, String tam) {
+        return "/admin/arbitros/" + id + "/photo" + (tam != null ? "?tam=" + tam : "");
+    }
+
+    @Test
+    @WithMockUser(username = "user1", roles = "ADMIN")
+    void foto_conValidadorVigente_respondeSinCargarElArbitro() throws Exception {
+        MockHttpServletResponse primera = mvc.perform(get(url(ids.get(0), "miniatura"))).andReturn().getResponse();
+        assertEquals(200, primera.getStatus());
+        assertEquals("image/jpeg", primera.getContentType());
+        String etag = primera.getHeader(HttpHeaders.ETAG);
+        String modificada = primera.getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(etag);
+        assertNotNull(modificada);
+
+        MvcResult porEtag = mvc.perform(get(url(ids.get(0), "miniatura")).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+        assertEquals(304, porEtag.getResponse().getStatus());
+        assertEquals(0, porEtag.getResponse().getContentAsByteArray().length);
+        ConsumoSql consumo = (ConsumoSql) porEtag.getRequest().getAttribute(ConsumoSql.ATRIBUTO);
+        assertEquals(1, consumo.getSentencias(), consumo.toString());
+        assertEquals(0, consumo.getEntidadesCargadas(), consumo.toString());
+
+        MvcResult porFecha = mvc.perform(get(url(ids.get(0), "miniatura")).header(HttpHeaders.IF_MODIFIED_SINCE, modificada)).andReturn();
+        assertEquals(304, porFecha.getResponse().getStatus());
+
+        // Otra variante de la misma foto tiene otro ETag
+        MockHttpServletResponse otraVariante = mvc.perform(get(url(ids.get(0), "mediana")).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andReturn().getResponse();
+        assertEquals(200, otraVariante.getStatus());
+    }
+
+    @Test
+    @WithMockUser(username = "user1", roles = "ADMIN")
+    void foto_atiendeRangos() throws Exception {
+        MockHttpServletResponse parcial = mvc.perform(get(url(ids.get(1), null)).header(HttpHeaders.RANGE, "bytes=0-99"))
+            .andReturn().getResponse();
+
+        assertEquals(206, parcial.getStatus());
+        assertEquals(100, parcial.getContentAsByteArray().length);
+        assertEquals("bytes 0-99/" + tamanoOriginal, parcial.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("image/png", parcial.getContentType());
+    }
+
+    @Test
+    @WithMockUser(username = "user1", roles = "ADMIN")
+    void foto_inexistente_es404() throws Exception {
+        assertEquals(404, mvc.perform(get(url(-1L, "miniatura"))).andReturn().getResponse().getStatus());
+    }
+
+    /**
+     * Vistas por segundo del listado de árbitros (la página y la miniatura de cada árbitro), con el
+     * navegador sin caché y con el navegador revalidando por ETag.
+     */
+    @Benchmark
+    void benchmark_listadoDeArbitros() throws Exception {
+        List<String> etags = new ArrayList<>();
+        for (Long id : ids) {
+            etags.add(mvc.perform(admin(get(url(id, "miniatura")))).andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        }
+        int hilos = Runtime.getRuntime().availableProcessors();
+        vistas(hilos, 20, null); // calentamiento
+        for (boolean revalidando : new boolean[] {false, true}) {
+            int vistas = 200;
+            long t0 = System.nanoTime();
+            vistas(hilos, vistas, revalidando ? etags : null);
+            double segundos = (System.nanoTime() - t0) / 1e9;
+            log.info("Listado de árbitros ({} miniaturas, {} hilos, {}): {} vistas/s, {} peticiones/s",
+                ARBITROS, hilos, revalidando ? "revalidando con If-None-Match" : "sin caché del navegador",
+                Math.round(vistas / segundos), Math.round(vistas * (ARBITROS + 1) / segundos));
+        }
+    }
+
+    private void vistas(int hilos, int vistas, List<String> etags) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int v = 0; v < vistas; v++) {
+                tareas.add(executor.submit(() -> {
+                    assertEquals(200, mvc.perform(admin(get("/admin/arbitros"))).andReturn().getResponse().getStatus());
+                    for (int i = 0; i < ids.size(); i++) {
+                        MockHttpServletRequestBuilder peticion = admin(get(url(ids.get(i), "miniatura")));
+                        if (etags != null) peticion.header(HttpHeaders.IF_NONE_MATCH, etags.get(i));
+                        int estado = mvc.perform(peticion).andReturn().getResponse().getStatus();
+                        assertEquals(etags != null ? 304 : 200, estado);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static MockHttpServletRequestBuilder admin(MockHttpServletRequestBuilder peticion) {
+        return peticion.with(user("user1").roles("ADMIN"));
+    }
+}
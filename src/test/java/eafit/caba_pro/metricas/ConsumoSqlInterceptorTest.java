@@ -0,0 +1,52 @@
+package eafit.caba_pro.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConsumoSqlInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ConsumoSqlInterceptor interceptor = new ConsumoSqlInterceptor(registry, 3);
+
+    public String pagina() {
+        return "pagina";
+    }
+
+    private HandlerMethod handler() throws NoSuchMethodException {
+        return new HandlerMethod(this, getClass().getMethod("pagina"));
+    }
+
+    private ConsumoSql atender(int sentencias) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/pagina");
+        HandlerMethod handler = handler();
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+        ConsumoSql abierto = ConsumoSql.actual();
+        for (int i = 0; i < sentencias; i++) {
+            abierto.sentenciaPreparada();
+        }
+        abierto.entidadCargada();
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), handler, null);
+        assertSame(abierto, request.getAttribute(ConsumoSql.ATRIBUTO));
+        return abierto;
+    }
+
+    @Test
+    void publicaElConsumoPorHandlerYCuentaLasPeticionesSobreElUmbral() throws Exception {
+        atender(2);
+        atender(5);
+
+        String handler = "ConsumoSqlInterceptorTest#pagina";
+        assertEquals(2, registry.get("caba.peticion.sql.sentencias").tag("handler", handler).summary().count());
+        assertEquals(7.0, registry.get("caba.peticion.sql.sentencias").tag("handler", handler).summary().totalAmount());
+        assertEquals(2.0, registry.get("caba.peticion.sql.entidades").tag("handler", handler).summary().totalAmount());
+        assertEquals(1.0, registry.get("caba.peticion.sql.n_mas_uno").tag("handler", handler).counter().count());
+        assertNull(ConsumoSql.actual());
+    }
+}
@@ -31,7 +31,8 @@ class ArbitroServiceTest {
     private final NotificacionService notificacionService = Mockito.mock(NotificacionService.class);
 
     private ArbitroService service() {
-        return new ArbitroService(notificacionService, arbitroRepository, partidoRepository, usuarioRepository, usuarioService);
+        return new ArbitroService(notificacionService, arbitroRepository, partidoRepository, usuarioRepository, usuarioService,
+                Mockito.mock(DisponibilidadService.class), Mockito.mock(FotoService.class));
     }
 
     @Test
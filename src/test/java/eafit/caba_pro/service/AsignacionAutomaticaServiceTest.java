@@ -0,0 +1,176 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import eafit.caba_pro.Benchmark;
+import eafit.caba_pro.dto.PlanAsignacionDTO;
+import eafit.caba_pro.dto.PlanAsignacionDTO.Propuesta;
+import eafit.caba_pro.model.Arbitro;
+import eafit.caba_pro.model.Equipo;
+import eafit.caba_pro.model.Escalafon.Nombre;
+import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+class AsignacionAutomaticaServiceTest {
+
+    private static final LocalDate DIA = LocalDate.now().plusDays(10);
+
+    private final PartidoRepository partidoRepository = Mockito.mock(PartidoRepository.class);
+    private final ArbitroRepository arbitroRepository = Mockito.mock(ArbitroRepository.class);
+    private final NotificacionService notificacionService = Mockito.mock(NotificacionService.class);
+
+    private AsignacionAutomaticaService service(Executor executor) {
+        DisponibilidadService disponibilidad = new DisponibilidadService(partidoRepository, 120, 60);
+        return new AsignacionAutomaticaService(partidoRepository, arbitroRepository, disponibilidad, notificacionService, executor);
+    }
+
+    private static Partido partido(long id, LocalDate fecha, LocalTime hora, Nombre nivel) {
+        Partido p = new Partido();
+        p.setId(id);
+        p.setFecha(fecha);
+        p.setHora(hora);
+        p.setNivelRequerido(nivel);
+        p.setEstado(Partido.EstadoPartido.PENDIENTE_CONFIRMACION);
+        p.setEquipoLocal(new Equipo());
+        p.setEquipoVisitante(new Equipo());
+        return p;
+    }
+
+    private List<Partido> escenario() {
+        // Árbitros: 1 LOCAL con 5 partidos, 2 NACIONAL, 3 INTERNACIONAL con 4 partidos (uno a las 10:00), 4 sin escalafón
+        when(arbitroRepository.findCandidatosAsignacion()).thenReturn(List.of(
+            new Object[] {1L, "Local", Nombre.LOCAL},
+            new Object[] {2L, "Nacional", Nombre.NACIONAL},
+            new Object[] {3L, "Internacional", Nombre.INTERNACIONAL},
+            new Object[] {4L, "Sin escalafón", null}));
+        when(partidoRepository.contarPartidosPorArbitro()).thenReturn(List.of(new Object[] {1L, 5L}, new Object[] {3L, 4L}));
+        when(partidoRepository.findAsignacionesDeArbitros()).thenReturn(
+            List.<Object[]>of(new Object[] {99L, 3L, DIA, LocalTime.of(10, 0), Partido.EstadoPartido.PROGRAMADO}));
+        List<Partido> partidos = List.of(
+            partido(10L, DIA, LocalTime.of(10, 0), Nombre.INTERNACIONAL),
+            partido(11L, DIA, LocalTime.of(10, 30), Nombre.NACIONAL),
+            partido(12L, DIA, LocalTime.of(11, 0), null),
+            partido(13L, DIA, LocalTime.of(16, 0), Nombre.NACIONAL));
+        when(partidoRepository.findPartidosSinArbitroBetween(any(), any())).thenReturn(partidos);
+        return partidos;
+    }
+
+    @Test
+    void previsualizar_respetaEscalafonDisponibilidadYCarga() {
+        escenario();
+
+        PlanAsignacionDTO plan = service(Runnable::run).previsualizar(DIA, DIA);
+
+        Map<Long, Long> asignados = plan.getPropuestas().stream()
+            .collect(Collectors.toMap(Propuesta::partidoId, Propuesta::arbitroId));
+        assertEquals(Map.of(11L, 2L, 12L, 4L, 13L, 2L), asignados);
+        assertEquals(List.of(10L), plan.getSinAsignar().stream().map(Propuesta::partidoId).toList(),
+            "El único árbitro internacional ya pita a esa hora");
+        assertNull(plan.getSinAsignar().get(0).arbitroId());
+    }
+
+    @Test
+    void confirmar_asignaYNotificaUnaVezPorArbitro_yElPlanSeUsaUnaSolaVez() {
+        List<Partido> partidos = escenario();
+        when(partidoRepository.findAllById(any())).thenReturn(partidos);
+        when(arbitroRepository.getReferenceById(anyLong())).thenAnswer(inv -> {
+            Arbitro a = new Arbitro();
+            a.setId(inv.getArgument(0));
+            return a;
+        });
+        AsignacionAutomaticaService service = service(Runnable::run);
+        PlanAsignacionDTO plan = service.previsualizar(DIA, DIA);
+
+        assertEquals(3, service.confirmar(plan.getToken()));
+
+        assertEquals(2L, partidos.get(1).getArbitro().getId());
+        assertEquals(4L, partidos.get(2).getArbitro().getId());
+        assertNull(partidos.get(0).getArbitro());
+        verify(notificacionService, times(2)).notificarArbitro(anyString(), any(Arbitro.class));
+        assertThrows(RuntimeException.class, () -> service.confirmar(plan.getToken()));
+    }
+
+    @Test
+    void confirmar_rechazaElPlanSiUnPartidoYaTieneArbitro() {
+        List<Partido> partidos = escenario();
+        when(partidoRepository.findAllById(any())).thenReturn(partidos);
+        AsignacionAutomaticaService service = service(Runnable::run);
+        PlanAsignacionDTO plan = service.previsualizar(DIA, DIA);
+        partidos.get(2).setArbitro(new Arbitro());
+
+        assertThrows(RuntimeException.class, () -> service.confirmar(plan.getToken()));
+    }
+
+    private static long minuto(Propuesta p) {
+        return p.fecha().toEpochDay() * 1440 + p.hora().toSecondOfDay() / 60;
+    }
+
+    /**
+     * Una semana con 500 partidos y 150 árbitros.
+     */
+    @Benchmark
+    void benchmark_semanaDe500Partidos() {
+        Random random = new Random(7);
+        Nombre[] niveles = {Nombre.LOCAL, Nombre.NACIONAL, Nombre.INTERNACIONAL, null};
+        List<Object[]> arbitros = new ArrayList<>();
+        for (long id = 1; id <= 150; id++) {
+            arbitros.add(new Object[] {id, "Árbitro " + id, niveles[random.nextInt(3)]});
+        }
+        List<Partido> partidos = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            LocalTime hora = LocalTime.of(8 + random.nextInt(14), random.nextBoolean() ? 0 : 30);
+            partidos.add(partido(id, DIA.plusDays(random.nextInt(7)), hora, niveles[random.nextInt(4)]));
+        }
+        when(arbitroRepository.findCandidatosAsignacion()).thenReturn(arbitros);
+        when(partidoRepository.contarPartidosPorArbitro()).thenReturn(List.of());
+        when(partidoRepository.findAsignacionesDeArbitros()).thenReturn(List.of());
+        when(partidoRepository.findPartidosSinArbitroBetween(any(), any())).thenReturn(partidos);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            AsignacionAutomaticaService service = service(executor);
+            service.previsualizar(DIA, DIA.plusDays(6)); // calentamiento
+            PlanAsignacionDTO plan = service.previsualizar(DIA, DIA.plusDays(6));
+
+            Map<Long, List<Propuesta>> porArbitro = new HashMap<>();
+            plan.getPropuestas().forEach(p -> porArbitro.computeIfAbsent(p.arbitroId(), k -> new ArrayList<>()).add(p));
+            for (List<Propuesta> propias : porArbitro.values()) {
+                for (int i = 1; i < propias.size(); i++) {
+                    assertTrue(minuto(propias.get(i)) - minuto(propias.get(i - 1)) >= 180,
+                        "Un árbitro quedó con dos partidos cruzados");
+                }
+            }
+            int max = porArbitro.values().stream().mapToInt(List::size).max().orElse(0);
+            log.info("Asignación de 500 partidos / 150 árbitros: {} asignados, {} sin árbitro, máx {} por árbitro, {} ms",
+                plan.getPropuestas().size(), plan.getSinAsignar().size(), max, plan.getDuracionMs());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
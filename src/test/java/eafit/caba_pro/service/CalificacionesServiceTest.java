@@ -0,0 +1,122 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import eafit.caba_pro.model.CalificacionArbitro;
+import eafit.caba_pro.model.Reseña.Calificacion;
+import eafit.caba_pro.repository.CalificacionArbitroRepository;
+import eafit.caba_pro.repository.ReseñaRepository;
+
+class CalificacionesServiceTest {
+
+    private static final LocalDateTime AYER = LocalDateTime.of(2025, 9, 1, 10, 0);
+    private static final LocalDateTime HOY = LocalDateTime.of(2025, 9, 2, 10, 0);
+
+    private final CalificacionArbitroRepository calificacionRepository = Mockito.mock(CalificacionArbitroRepository.class);
+    private final ReseñaRepository reseñaRepository = Mockito.mock(ReseñaRepository.class);
+    private final CalificacionesService service = new CalificacionesService(calificacionRepository, reseñaRepository,
+        new FilasEnCero(Mockito.mock(PlatformTransactionManager.class)));
+
+    @Test
+    void aplicar_primeraReseñaCreaLaFilaYSumaEnElla() {
+        when(calificacionRepository.sumar(eq(3L), anyInt(), anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt()))
+            .thenReturn(0, 1);
+
+        service.aplicar(null, new Calificacion(3L, 4, HOY));
+
+        InOrder orden = Mockito.inOrder(calificacionRepository);
+        orden.verify(calificacionRepository).sumar(3L, 1, 4, 0, 0, 0, 1, 0);
+        orden.verify(calificacionRepository).crear(3L);
+        orden.verify(calificacionRepository).sumar(3L, 1, 4, 0, 0, 0, 1, 0);
+        orden.verify(calificacionRepository).adelantarUltima(3L, HOY);
+        verify(calificacionRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void aplicar_filaCreadaALaVezPorOtraTransaccionSumaEnLaSuya() {
+        when(calificacionRepository.sumar(eq(3L), anyInt(), anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt()))
+            .thenReturn(0, 1);
+        when(calificacionRepository.crear(3L)).thenThrow(new DataIntegrityViolationException("PK calificacion_arbitro"));
+
+        service.aplicar(null, new Calificacion(3L, 4, HOY));
+
+        verify(calificacionRepository, times(2)).sumar(3L, 1, 4, 0, 0, 0, 1, 0);
+        verify(calificacionRepository).adelantarUltima(3L, HOY);
+    }
+
+    @Test
+    void aplicar_nuevaReseñaSumaYAdelantaLaUltima() {
+        when(calificacionRepository.sumar(eq(3L), anyInt(), anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(1);
+
+        service.aplicar(null, new Calificacion(3L, 5, HOY));
+
+        verify(calificacionRepository).sumar(3L, 1, 5, 0, 0, 0, 0, 1);
+        verify(calificacionRepository).adelantarUltima(3L, HOY);
+        verify(calificacionRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void aplicar_cambiarLaPuntuacionMueveElHistograma() {
+        when(calificacionRepository.sumar(eq(3L), anyInt(), anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(1);
+
+        service.aplicar(new Calificacion(3L, 2, AYER), new Calificacion(3L, 5, AYER));
+
+        verify(calificacionRepository).sumar(3L, 0, 3, 0, -1, 0, 0, 1);
+        verify(calificacionRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void aplicar_eliminarRestaYRecalculaLaUltima() {
+        when(calificacionRepository.sumar(eq(3L), anyInt(), anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(1);
+
+        service.aplicar(new Calificacion(3L, 1, HOY), null);
+
+        verify(calificacionRepository).sumar(3L, -1, -1, -1, 0, 0, 0, 0);
+        verify(calificacionRepository).borrarSiVacia(3L);
+        verify(calificacionRepository).recalcularUltima(3L);
+    }
+
+    @Test
+    void aplicar_eliminarSinFilaReconstruyeElArbitro() {
+        when(reseñaRepository.agregarReseñasDe(3L)).thenReturn(
+            List.<Object[]>of(new Object[] {3L, 1L, 4L, 0L, 0L, 0L, 1L, 0L, AYER}));
+        when(calificacionRepository.findById(3L)).thenReturn(Optional.empty());
+
+        service.aplicar(new Calificacion(3L, 2, HOY), null);
+
+        verify(calificacionRepository).save(new CalificacionArbitro(3L, 1, 4, 0, 0, 0, 1, 0, AYER));
+    }
+
+    @Test
+    void reconstruir_guardaSoloLasFilasDistintasYBorraLasSobrantes() {
+        when(reseñaRepository.agregarReseñas()).thenReturn(List.of(
+            new Object[] {1L, 2L, 9L, 0L, 0L, 0L, 1L, 1L, HOY},
+            new Object[] {2L, 1L, 3L, 0L, 0L, 1L, 0L, 0L, AYER}));
+        CalificacionArbitro igual = new CalificacionArbitro(1L, 2, 9, 0, 0, 0, 1, 1, HOY);
+        CalificacionArbitro desfasada = new CalificacionArbitro(2L, 2, 6, 0, 0, 2, 0, 0, AYER);
+        CalificacionArbitro sobrante = new CalificacionArbitro(7L, 1, 5, 0, 0, 0, 0, 1, AYER);
+        when(calificacionRepository.findAll()).thenReturn(List.of(igual, desfasada, sobrante));
+
+        assertEquals(2, service.reconstruir());
+
+        verify(calificacionRepository).save(new CalificacionArbitro(2L, 1, 3, 0, 0, 1, 0, 0, AYER));
+        verify(calificacionRepository, never()).save(igual);
+        verify(calificacionRepository).deleteAll(List.of(sobrante));
+    }
+}
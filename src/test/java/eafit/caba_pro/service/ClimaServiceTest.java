@@ -0,0 +1,188 @@
+package eafit.caba_pro.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.MessageSource;
+import org.springframework.web.client.RestClientException;
+
+import com.sun.net.httpserver.HttpServer;
+
+import eafit.caba_pro.config.WebClientConfig;
+
+/**
+ * Caché, revalidación y circuito de ClimaService contra un servidor falso local.
+ */
+class ClimaServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 10, 1);
+
+    private HttpServer servidor;
+    private final AtomicInteger llamadas = new AtomicInteger();
+    private final AtomicInteger temperatura = new AtomicInteger(20);
+    private final AtomicBoolean caido = new AtomicBoolean();
+    private final AtomicBoolean malformado = new AtomicBoolean();
+    private final RelojMovible reloj = new RelojMovible();
+    private ClimaService service;
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/v1/forecast", exchange -> {
+            llamadas.incrementAndGet();
+            if (caido.get()) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            String valor = malformado.get() ? "\"n/a\"" : String.valueOf(temperatura.get());
+            byte[] cuerpo = ("{\"hourly\":{\"temperature_2m\":[" + valor + "]}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(cuerpo);
+            }
+        });
+        servidor.start();
+        service = new ClimaService(Mockito.mock(MessageSource.class),
+                new WebClientConfig().climaRestTemplate(500, 1000), Runnable::run,
+                "http://127.0.0.1:" + servidor.getAddress().getPort() + "/v1/forecast",
+                Duration.ofMinutes(60), Duration.ofHours(24), 3, reloj);
+    }
+
+    @AfterEach
+    void detener() {
+        servidor.stop(0);
+    }
+
+    private double temperaturaEnCache() {
+        return service.getWeather(6.2, -75.5, FECHA).temperatura(0);
+    }
+
+    @Test
+    void getWeather_sirveDesdeCacheDentroDelTtl() {
+        temperaturaEnCache();
+        reloj.avanzar(Duration.ofMinutes(30));
+        temperaturaEnCache();
+
+        assertEquals(1, llamadas.get());
+        assertEquals(1, service.getMetricas().aciertos());
+        assertEquals(0.5, service.getMetricas().proporcionAciertos());
+    }
+
+    @Test
+    void getWeather_datoVencido_seSirveYSeRevalida() {
+        temperaturaEnCache();
+        temperatura.set(25);
+        reloj.avanzar(Duration.ofHours(2));
+
+        assertEquals(20.0, temperaturaEnCache(), "Dentro de la ventana de obsolescencia responde con el dato anterior");
+        assertEquals(2, llamadas.get(), "y lo refresca en segundo plano");
+        assertEquals(25.0, temperaturaEnCache());
+        assertEquals(1, service.getMetricas().aciertosObsoletos());
+    }
+
+    @Test
+    void getWeather_proveedorCaido_usaUltimoValorYAbreElCircuito() {
+        temperaturaEnCache();
+        caido.set(true);
+        reloj.avanzar(Duration.ofDays(2));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(20.0, temperaturaEnCache());
+        }
+        assertTrue(service.getMetricas().circuitoAbierto());
+        int llamadasAlAbrir = llamadas.get();
+
+        assertEquals(20.0, temperaturaEnCache());
+        assertEquals(llamadasAlAbrir, llamadas.get(), "Con el circuito abierto no se llama al proveedor");
+        assertThrows(IllegalStateException.class, () -> service.getWeather(6.2, -75.5, FECHA.plusDays(1)));
+
+        caido.set(false);
+        reloj.avanzar(Duration.ofMinutes(2));
+        temperaturaEnCache();
+        assertEquals(false, service.getMetricas().circuitoAbierto());
+    }
+
+    @Test
+    void getWeather_respuestaIlegibleEnLaPrueba_noDejaElCircuitoTrabado() {
+        caido.set(true);
+        for (int i = 0; i < 5; i++) {
+            LocalDate fecha = FECHA.plusDays(i);
+            assertThrows(RestClientException.class, () -> service.getWeather(6.2, -75.5, fecha));
+        }
+        assertTrue(service.getMetricas().circuitoAbierto());
+
+        caido.set(false);
+        malformado.set(true);
+        reloj.avanzar(Duration.ofMinutes(2));
+        assertThrows(NumberFormatException.class, () -> service.getWeather(6.2, -75.5, FECHA));
+        assertTrue(service.getMetricas().circuitoAbierto(), "La respuesta ilegible cuenta como fallo");
+
+        malformado.set(false);
+        reloj.avanzar(Duration.ofMinutes(2));
+        assertEquals(20.0, temperaturaEnCache(), "Vencida la espera se vuelve a probar");
+        assertEquals(false, service.getMetricas().circuitoAbierto());
+    }
+
+    @Test
+    void getWeather_sobreElMaximo_descartaLaMenosUsada() {
+        for (int i = 0; i < 3; i++) {
+            service.getWeather(6.2, -75.5, FECHA.plusDays(i));
+        }
+        temperaturaEnCache(); // FECHA pasa a ser la más reciente
+        service.getWeather(6.2, -75.5, FECHA.plusDays(3));
+        assertEquals(4, llamadas.get());
+
+        temperaturaEnCache();
+        service.getWeather(6.2, -75.5, FECHA.plusDays(2));
+        assertEquals(4, llamadas.get(), "Siguen en caché las usadas hace poco");
+        service.getWeather(6.2, -75.5, FECHA.plusDays(1));
+        assertEquals(5, llamadas.get(), "La menos usada salió de la caché");
+    }
+
+    @Test
+    void getWeather_sinValorPrevio_propagaElError() {
+        caido.set(true);
+        assertThrows(RestClientException.class, () -> service.getWeather(6.2, -75.5, FECHA));
+    }
+
+    private static class RelojMovible extends Clock {
+        private Instant ahora = Instant.parse("2025-10-01T12:00:00Z");
+
+        void avanzar(Duration duracion) {
+            ahora = ahora.plus(duracion);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package eafit.caba_pro.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import eafit.caba_pro.dto.DashboardDTO;
+import eafit.caba_pro.dto.RankingArbitrosDTO;
+import eafit.caba_pro.model.Escalafon;
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import eafit.caba_pro.repository.EntrenadorRepository;
+
+class DashboardServiceTest {
+
+    private final ResumenPartidosService resumenService = Mockito.mock(ResumenPartidosService.class);
+    private final RankingArbitrosService rankingService = Mockito.mock(RankingArbitrosService.class);
+    private final EntrenadorRepository entrenadorRepository = Mockito.mock(EntrenadorRepository.class);
+    private final RelojMovible reloj = new RelojMovible();
+
+    private DashboardService service() {
+        Map<EstadoPartido, Long> porEstado = new EnumMap<>(EstadoPartido.class);
+        porEstado.put(EstadoPartido.PROGRAMADO, 3L);
+        porEstado.put(EstadoPartido.FINALIZADO, 1L);
+        when(resumenService.contarPorEstado()).thenReturn(porEstado);
+        when(rankingService.top(any(), anyInt(), any(), any())).thenReturn(new RankingArbitrosDTO("PARTIDOS", null, null,
+            List.of(new RankingArbitrosDTO.Fila(1, 7L, "Ana", "Baloncesto", Escalafon.Nombre.NACIONAL, 4, 0, 0.0, 0, 4))));
+        when(entrenadorRepository.countByActivoTrue()).thenReturn(2L);
+        return new DashboardService(resumenService, rankingService, entrenadorRepository, Duration.ofSeconds(2), reloj);
+    }
+
+    @Test
+    void obtener_calculaUnaVezYLuegoSirveLaFoto() {
+        DashboardService service = service();
+
+        DashboardDTO foto = service.obtener();
+        assertSame(foto, service.obtener());
+        reloj.avanzar(Duration.ofHours(1));
+        assertSame(foto, service.obtener(), "Sin cambios la foto no vence");
+
+        assertEquals(4, foto.getTotalPartidos());
+        assertEquals(75.0, foto.getPorcentajeProgramados());
+        assertEquals(0, foto.getPendientesConfirmacion());
+        assertEquals("Ana", foto.getTopArbitros().get(0).nombre());
+        verify(resumenService, times(1)).contarPorEstado();
+        assertEquals(1, service.getMetricas().recalculos());
+    }
+
+    @Test
+    void marcarDesactualizada_recalculaRespetandoElIntervaloMinimo() {
+        DashboardService service = service();
+        DashboardDTO primera = service.obtener();
+
+        service.marcarDesactualizada();
+        reloj.avanzar(Duration.ofSeconds(1));
+        assertSame(primera, service.obtener(), "Dentro del intervalo mínimo se sirve la foto anterior");
+
+        reloj.avanzar(Duration.ofSeconds(1));
+        DashboardDTO segunda = service.obtener();
+        assertNotSame(primera, segunda);
+        assertSame(segunda, service.obtener());
+        verify(resumenService, times(2)).contarPorEstado();
+    }
+
+    private static class RelojMovible extends Clock {
+        private Instant ahora = Instant.parse("2025-10-10T12:00:00Z");
+
+        void avanzar(Duration duracion) {
+            ahora = ahora.plus(duracion);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import eafit.caba_pro.model.Notificacion.TipoDestinatario;
+import eafit.caba_pro.repository.NotificacionJdbcRepository;
+import eafit.caba_pro.service.NotificacionService.NotificacionRegistrada;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Entrega del outbox de notificaciones contra H2, sin la transacción de prueba
+ * (el despacho abre las suyas).
+ */
+@DataJpaTest(showSql = false)
+@Import(NotificacionJdbcRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DespachoNotificacionesServiceTest {
+
+    @Autowired private NotificacionJdbcRepository notificacionJdbcRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    private final NotificacionesEnVivoService enVivo = Mockito.mock(NotificacionesEnVivoService.class);
+
+    @BeforeEach
+    void limpiar() {
+        jdbcTemplate.update("DELETE FROM notificacion_pendiente");
+        jdbcTemplate.update("DELETE FROM notificacion");
+    }
+
+    @Test
+    void alConfirmar_entregaElLoteYVaciaElOutbox() {
+        DespachoNotificacionesService despacho = new DespachoNotificacionesService(notificacionJdbcRepository, enVivo,
+                transactionManager, Runnable::run, 100, 10, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            Long id = notificacionJdbcRepository.insertarPendiente("Mensaje " + i, TipoDestinatario.ADMIN, null, LocalDateTime.now());
+            despacho.alConfirmar(new NotificacionRegistrada(id));
+        }
+
+        assertEquals(3, contar("notificacion"));
+        assertEquals(0, contar("notificacion_pendiente"));
+    }
+
+    @Test
+    void reintentarPendientes_entregaLoQueNoCupoEnLaColaSinDuplicar() {
+        List<Runnable> tareas = new ArrayList<>();
+        DespachoNotificacionesService despacho = new DespachoNotificacionesService(notificacionJdbcRepository, enVivo,
+                transactionManager, tareas::add, 1, 0, new SimpleMeterRegistry());
+
+        LocalDateTime antes = LocalDateTime.now().minusMinutes(1);
+        Long primera = notificacionJdbcRepository.insertarPendiente("Primera", TipoDestinatario.ADMIN, null, antes);
+        Long segunda = notificacionJdbcRepository.insertarPendiente("Segunda", TipoDestinatario.ADMIN, null, antes);
+        despacho.alConfirmar(new NotificacionRegistrada(primera));
+        despacho.alConfirmar(new NotificacionRegistrada(segunda));
+        assertEquals(0, contar("notificacion"));
+
+        despacho.reintentarPendientes();
+        tareas.forEach(Runnable::run);
+
+        assertEquals(2, contar("notificacion"));
+        assertEquals(0, contar("notificacion_pendiente"));
+    }
+
+    private int contar(String tabla) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabla, Integer.class);
+    }
+}
@@ -0,0 +1,103 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.when;
+
+import eafit.caba_pro.Benchmark;
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import eafit.caba_pro.repository.PartidoRepository;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+class DisponibilidadServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 11, 8);
+
+    private final PartidoRepository partidoRepository = Mockito.mock(PartidoRepository.class);
+
+    // Partidos de 120 minutos con 60 minutos de traslado
+    private DisponibilidadService service(List<Object[]> asignaciones) {
+        when(partidoRepository.findAsignacionesDeArbitros()).thenReturn(asignaciones);
+        return new DisponibilidadService(partidoRepository, 120, 60);
+    }
+
+    private static Object[] asignacion(long partidoId, long arbitroId, LocalTime hora) {
+        return new Object[] {partidoId, arbitroId, DIA, hora, EstadoPartido.PROGRAMADO};
+    }
+
+    @Test
+    void estaLibre_detectaPartidosQueSeCruzanAunqueNoEmpiecenALaMismaHora() {
+        DisponibilidadService service = service(List.<Object[]>of(asignacion(1L, 7L, LocalTime.of(10, 0))));
+
+        assertFalse(service.estaLibre(7L, DIA, LocalTime.of(10, 0), null));
+        assertFalse(service.estaLibre(7L, DIA, LocalTime.of(11, 30), null), "Empieza durante el partido");
+        assertFalse(service.estaLibre(7L, DIA, LocalTime.of(12, 30), null), "No alcanza a trasladarse");
+        assertFalse(service.estaLibre(7L, DIA, LocalTime.of(7, 30), null), "Terminaría sin tiempo de traslado");
+        assertTrue(service.estaLibre(7L, DIA, LocalTime.of(13, 0), null));
+        assertTrue(service.estaLibre(7L, DIA, LocalTime.of(7, 0), null));
+        assertTrue(service.estaLibre(8L, DIA, LocalTime.of(10, 0), null));
+        assertTrue(service.estaLibre(7L, DIA, LocalTime.of(10, 30), 1L), "Un partido no choca consigo mismo");
+    }
+
+    @Test
+    void registrar_mueveYQuitaAsignaciones() {
+        DisponibilidadService service = service(List.<Object[]>of(asignacion(1L, 7L, LocalTime.of(10, 0))));
+        LocalDateTime desde = DIA.atTime(10, 0);
+
+        assertEquals(Set.of(7L), service.ocupadosEntre(desde, desde.plusHours(2)));
+
+        service.registrar(1L, 8L, DIA, LocalTime.of(18, 0), EstadoPartido.PROGRAMADO);
+        assertTrue(service.ocupadosEntre(desde, desde.plusHours(2)).isEmpty());
+        assertEquals(Set.of(8L), service.ocupadosEn(DIA, LocalTime.of(17, 0)));
+
+        service.registrar(1L, 8L, DIA, LocalTime.of(18, 0), EstadoPartido.ARBITRO_NO_DISPONIBLE);
+        assertTrue(service.estaLibre(8L, DIA, LocalTime.of(18, 0), null), "El árbitro rechazó el partido");
+
+        service.registrar(2L, 9L, DIA, LocalTime.of(9, 0), EstadoPartido.PENDIENTE_CONFIRMACION);
+        service.quitar(2L);
+        assertTrue(service.estaLibre(9L, DIA, LocalTime.of(9, 0), null));
+    }
+
+    /**
+     * 500 árbitros con 200 partidos cada uno.
+     */
+    @Benchmark
+    void benchmark_ocupadosEntre() {
+        List<Object[]> asignaciones = new ArrayList<>();
+        long partidoId = 0;
+        for (long arbitro = 1; arbitro <= 500; arbitro++) {
+            for (int i = 0; i < 200; i++) {
+                LocalDate fecha = DIA.plusDays((arbitro + i * 3) % 365);
+                asignaciones.add(new Object[] {++partidoId, arbitro, fecha, LocalTime.of(8 + (int) (arbitro % 12), 0), EstadoPartido.PROGRAMADO});
+            }
+        }
+        DisponibilidadService service = service(asignaciones);
+        service.recargar();
+
+        int consultas = 20_000;
+        long ocupados = 0;
+        for (int ronda = 0; ronda < 2; ronda++) { // la primera ronda es de calentamiento
+            long t0 = System.nanoTime();
+            for (int i = 0; i < consultas; i++) {
+                LocalDateTime desde = DIA.plusDays(i % 365).atTime(8 + i % 12, 0);
+                ocupados += service.ocupadosEntre(desde, desde.plusHours(2)).size();
+            }
+            if (ronda == 1) {
+                log.info("ocupadosEntre con 500 árbitros / 100000 partidos: {} µs por consulta",
+                        (System.nanoTime() - t0) / consultas / 1000);
+            }
+        }
+        assertTrue(ocupados > 0);
+    }
+}
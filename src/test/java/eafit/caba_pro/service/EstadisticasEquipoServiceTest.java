@@ -0,0 +1,81 @@
+package eafit.caba_pro.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import org.mockito.InOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import eafit.caba_pro.model.EstadisticaEquipo;
+import eafit.caba_pro.model.Partido.Resultado;
+import eafit.caba_pro.repository.EstadisticaEquipoRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+
+class EstadisticasEquipoServiceTest {
+
+    private final EstadisticaEquipoRepository estadisticaRepository = Mockito.mock(EstadisticaEquipoRepository.class);
+    private final PartidoRepository partidoRepository = Mockito.mock(PartidoRepository.class);
+    private final EstadisticasEquipoService service = new EstadisticasEquipoService(estadisticaRepository, partidoRepository,
+        new FilasEnCero(Mockito.mock(PlatformTransactionManager.class)));
+
+    @Test
+    void aplicar_partidoFinalizadoSumaALosDosEquipos() {
+        when(estadisticaRepository.sumar(eq(1L), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(1);
+
+        service.aplicar(null, new Resultado(1L, 2L, 3, 1));
+
+        verify(estadisticaRepository).sumar(1L, 1, 1, 0, 0, 3, 1);
+        // El visitante no tenía fila: se crea en cero y se suma en ella lo que aporta este partido
+        InOrder orden = Mockito.inOrder(estadisticaRepository);
+        orden.verify(estadisticaRepository).sumar(2L, 1, 0, 0, 1, 1, 3);
+        orden.verify(estadisticaRepository).crear(2L);
+        orden.verify(estadisticaRepository).sumar(2L, 1, 0, 0, 1, 1, 3);
+        verify(estadisticaRepository, never()).crear(1L);
+        verify(estadisticaRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void aplicar_filaCreadaALaVezPorOtraTransaccionSumaEnLaSuya() {
+        // Entre el primer sumar y el INSERT otro partido del equipo creó la fila
+        when(estadisticaRepository.sumar(eq(2L), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(0, 1);
+        when(estadisticaRepository.sumar(eq(1L), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(1);
+        when(estadisticaRepository.crear(2L)).thenThrow(new DataIntegrityViolationException("PK estadistica_equipo"));
+
+        service.aplicar(null, new Resultado(1L, 2L, 3, 1));
+
+        verify(estadisticaRepository, times(2)).sumar(2L, 1, 0, 0, 1, 1, 3);
+        verify(estadisticaRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void aplicar_corregirElMarcadorSoloAplicaLaDiferencia() {
+        when(estadisticaRepository.sumar(anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(1);
+
+        // 2-2 corregido a 2-3
+        service.aplicar(new Resultado(1L, 2L, 2, 2), new Resultado(1L, 2L, 2, 3));
+
+        verify(estadisticaRepository).sumar(1L, 0, 0, -1, 1, 0, 1);
+        verify(estadisticaRepository).sumar(2L, 0, 1, -1, 0, 1, 0);
+        verify(estadisticaRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void reconstruir_cargaLaTablaDesdeLaConsultaAgregada() {
+        when(partidoRepository.agregarEstadisticasPorEquipo()).thenReturn(
+            List.<Object[]>of(new Object[] {5L, 4L, 2L, 1L, 1L, 7L, 4L}));
+
+        service.reconstruir();
+
+        verify(estadisticaRepository).deleteAllInBatch();
+        verify(estadisticaRepository).saveAll(List.of(new EstadisticaEquipo(5L, 4, 2, 1, 1, 7, 4)));
+    }
+}
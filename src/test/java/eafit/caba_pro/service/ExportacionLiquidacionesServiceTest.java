@@ -0,0 +1,126 @@
+package eafit.caba_pro.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import eafit.caba_pro.model.Arbitro;
+import eafit.caba_pro.model.Liquidacion;
+import eafit.caba_pro.repository.LiquidacionRepository;
+
+class ExportacionLiquidacionesServiceTest {
+
+    private static final YearMonth PERIODO = YearMonth.of(2025, 9);
+
+    private final LiquidacionRepository liquidacionRepository = Mockito.mock(LiquidacionRepository.class);
+    private final PdfService pdfService = Mockito.mock(PdfService.class);
+    private final PdfCacheService pdfCacheService = Mockito.mock(PdfCacheService.class);
+    private final ExportacionLiquidacionesService service = new ExportacionLiquidacionesService(liquidacionRepository,
+        pdfService, pdfCacheService, Mockito.mock(PlatformTransactionManager.class), 2);
+
+    private Liquidacion liquidacion(Long id, String arbitro) {
+        Arbitro a = new Arbitro();
+        a.setNombre(arbitro);
+        Liquidacion l = new Liquidacion();
+        l.setId(id);
+        l.setArbitro(a);
+        when(liquidacionRepository.findDetalleById(id)).thenReturn(Optional.of(l));
+        return l;
+    }
+
+    private static List<ZipEntry> leer(byte[] zip, List<byte[]> contenidos) throws IOException {
+        List<ZipEntry> entradas = new ArrayList<>();
+        try (ZipInputStream entrada = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            for (ZipEntry e = entrada.getNextEntry(); e != null; e = entrada.getNextEntry()) {
+                entradas.add(e);
+                contenidos.add(entrada.readAllBytes());
+            }
+        }
+        return entradas;
+    }
+
+    @Test
+    void exportarZip_escribeUnPdfPorLiquidacionEnOrden() throws IOException {
+        when(liquidacionRepository.findIdsByPeriodo(PERIODO)).thenReturn(List.of(1L, 2L, 3L));
+        when(pdfCacheService.huella(any())).thenReturn("h");
+        for (long id = 1; id <= 3; id++) {
+            Liquidacion l = liquidacion(id, id == 1 ? "Ana María Peña" : "Árbitro " + id);
+            // Los PDF terminan en cualquier orden; el ZIP sigue el de los ids
+            when(pdfService.obtenerPdfLiquidacionAsync(l, "h"))
+                .thenReturn(CompletableFuture.supplyAsync(() -> new byte[] {(byte) l.getId().intValue()}));
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        int escritos = service.exportarZip(PERIODO, salida);
+
+        List<byte[]> contenidos = new ArrayList<>();
+        List<ZipEntry> entradas = leer(salida.toByteArray(), contenidos);
+        assertEquals(3, escritos);
+        assertEquals("liquidacion-2025-09-Ana_Maria_Pena-1.pdf", entradas.get(0).getName());
+        assertEquals("liquidacion-2025-09-Arbitro_3-3.pdf", entradas.get(2).getName());
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(new byte[] {(byte) (i + 1)}, contenidos.get(i));
+        }
+    }
+
+    @Test
+    void exportarZip_unPdfFallidoCancelaLosEnVueloYNoCierraElZip() {
+        when(liquidacionRepository.findIdsByPeriodo(PERIODO)).thenReturn(List.of(1L, 2L, 3L));
+        when(pdfCacheService.huella(any())).thenReturn("h");
+        CompletableFuture<byte[]> tercero = new CompletableFuture<>();
+        when(pdfService.obtenerPdfLiquidacionAsync(liquidacion(1L, "Uno"), "h"))
+            .thenReturn(CompletableFuture.completedFuture(new byte[] {1}));
+        when(pdfService.obtenerPdfLiquidacionAsync(liquidacion(2L, "Dos"), "h"))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("plantilla rota")));
+        when(pdfService.obtenerPdfLiquidacionAsync(liquidacion(3L, "Tres"), "h")).thenReturn(tercero);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        assertThrows(CompletionException.class, () -> service.exportarZip(PERIODO, salida));
+
+        assertTrue(tercero.isCancelled());
+        // Sin la firma de fin del directorio central (PK 05 06) el ZIP incompleto no se abre como válido
+        byte[] zip = salida.toByteArray();
+        for (int i = 0; i + 3 < zip.length; i++) {
+            assertFalse(zip[i] == 'P' && zip[i + 1] == 'K' && zip[i + 2] == 5 && zip[i + 3] == 6);
+        }
+    }
+
+    @Test
+    void exportarZip_poolLlenoGeneraEnElHiloDeLaExportacion() throws IOException {
+        when(liquidacionRepository.findIdsByPeriodo(PERIODO)).thenReturn(List.of(4L));
+        Liquidacion l = liquidacion(4L, "Luis");
+        when(pdfService.obtenerPdfLiquidacionAsync(any(), anyString())).thenThrow(new TaskRejectedException("cola llena"));
+        when(pdfCacheService.huella(any())).thenReturn("h");
+        when(pdfService.generarPdfDesdeLiquidacion(l)).thenReturn(new byte[] {9});
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        service.exportarZip(PERIODO, salida);
+
+        List<byte[]> contenidos = new ArrayList<>();
+        leer(salida.toByteArray(), contenidos);
+        assertArrayEquals(new byte[] {9}, contenidos.get(0));
+        verify(pdfService).generarPdfDesdeLiquidacion(l);
+    }
+}
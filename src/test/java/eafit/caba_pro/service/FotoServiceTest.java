@@ -0,0 +1,169 @@
+package eafit.caba_pro.service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eafit.caba_pro.service.FotoService.Archivo;
+import eafit.caba_pro.service.FotoService.Contenido;
+import eafit.caba_pro.service.FotoService.FotoGuardada;
+import eafit.caba_pro.service.FotoService.Variante;
+
+class FotoServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    static byte[] png(int ancho, int alto) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB), "png", salida);
+        return salida.toByteArray();
+    }
+
+    @Test
+    void guardar_usaElHashComoRutaYGeneraLasMiniaturas() throws IOException {
+        FotoService fotos = new FotoService(directorio.toString(), 1024);
+        byte[] datos = png(1200, 800);
+
+        FotoGuardada foto = fotos.guardar(datos);
+
+        Path original = directorio.resolve("originales").resolve(foto.hash().substring(0, 2))
+                .resolve(foto.hash().substring(2, 4)).resolve(foto.hash());
+        assertArrayEquals(datos, Files.readAllBytes(original));
+        assertEquals(datos.length, foto.tamano());
+
+        Archivo miniatura = fotos.archivo(foto.hash(), Variante.MINIATURA, "image/png").orElseThrow();
+        assertEquals("image/jpeg", miniatura.tipoContenido());
+        BufferedImage leida = ImageIO.read(miniatura.ruta().toFile());
+        assertEquals(96, leida.getWidth());
+        assertEquals(64, leida.getHeight());
+    }
+
+    @Test
+    void guardar_mismaImagenDosVeces_compartenArchivo() throws IOException {
+        FotoService fotos = new FotoService(directorio.toString(), 1024);
+        byte[] datos = png(50, 50);
+
+        FotoGuardada primera = fotos.guardar(datos);
+        FotoGuardada segunda = fotos.guardar(datos.clone());
+
+        assertEquals(primera.hash(), segunda.hash());
+        try (var archivos = Files.list(fotos.ruta(primera.hash(), Variante.ORIGINAL).getParent())) {
+            assertEquals(1, archivos.count());
+        }
+    }
+
+    @Test
+    void contenido_guardaLasMiniaturasEnElLru_yDesalojaLaMenosUsada() throws IOException {
+        FotoService fotos = new FotoService(directorio.toString(), 1);
+        FotoGuardada a = fotos.guardar(png(300, 300));
+        FotoGuardada b = fotos.guardar(png(301, 300));
+        long tamanoA = Files.size(fotos.ruta(a.hash(), Variante.MINIATURA));
+        long tamanoB = Files.size(fotos.ruta(b.hash(), Variante.MINIATURA));
+        assertTrue(tamanoA + tamanoB > 1024, "Las dos miniaturas no deben caber juntas en 1 KB");
+
+        fotos.contenido(a.hash(), Variante.MINIATURA, "image/png").orElseThrow();
+        Contenido segunda = fotos.contenido(a.hash(), Variante.MINIATURA, "image/png").orElseThrow();
+        assertEquals("image/jpeg", segunda.tipoContenido());
+        assertEquals(tamanoA, segunda.recurso().contentLength());
+        assertEquals(1, fotos.getMetricas().aciertos());
+
+        fotos.contenido(b.hash(), Variante.MINIATURA, "image/png").orElseThrow();
+        assertEquals(1, fotos.getMetricas().miniaturas());
+        assertEquals(tamanoB, fotos.getMetricas().bytes());
+
+        // El original no pasa por el LRU: se entrega como archivo
+        Contenido original = fotos.contenido(a.hash(), Variante.ORIGINAL, "image/png").orElseThrow();
+        assertEquals("image/png", original.tipoContenido());
+        assertTrue(original.recurso().isFile());
+    }
+
+    @Test
+    void archivo_sinMiniatura_sirveElOriginal_yEliminarBorraTodo() throws IOException {
+        FotoService fotos = new FotoService(directorio.toString(), 1024);
+        // Formato sin lector en ImageIO: se guarda solo el original
+        FotoGuardada foto = fotos.guardar("no es una imagen".getBytes());
+
+        Archivo archivo = fotos.archivo(foto.hash(), Variante.MEDIANA, "image/webp").orElseThrow();
+        assertEquals(Variante.ORIGINAL, archivo.variante());
+        assertEquals("image/webp", archivo.tipoContenido());
+
+        fotos.eliminar(foto.hash());
+        assertFalse(fotos.archivo(foto.hash(), Variante.ORIGINAL, null).isPresent());
+        assertTrue(Files.notExists(fotos.ruta(foto.hash(), Variante.ORIGINAL)));
+    }
+
+    private static void envejecer(Path archivo) throws IOException {
+        Files.setLastModifiedTime(archivo, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+    }
+
+    @Test
+    void barrerHuerfanas_borraSoloLasSinUsoFueraDeLaGracia() throws IOException {
+        FotoService fotos = new FotoService(directorio.toString(), 1024);
+        FotoGuardada enUso = fotos.guardar(png(40, 40));
+        FotoGuardada huerfana = fotos.guardar(png(41, 40));
+        FotoGuardada reciente = fotos.guardar(png(42, 40));
+        envejecer(fotos.ruta(enUso.hash(), Variante.ORIGINAL));
+        envejecer(fotos.ruta(huerfana.hash(), Variante.ORIGINAL));
+        Instant limite = Instant.now().minus(Duration.ofHours(1));
+
+        int borradas = fotos.barrerHuerfanas(Set.of(enUso.hash()), limite);
+
+        assertEquals(1, borradas);
+        assertTrue(Files.notExists(fotos.ruta(huerfana.hash(), Variante.ORIGINAL)));
+        assertTrue(Files.notExists(fotos.ruta(huerfana.hash(), Variante.MINIATURA)));
+        assertTrue(Files.exists(fotos.ruta(enUso.hash(), Variante.ORIGINAL)));
+        // Recién guardada: su fila puede no haberse confirmado aún
+        assertTrue(Files.exists(fotos.ruta(reciente.hash(), Variante.ORIGINAL)));
+    }
+
+    @Test
+    void guardar_mientrasSeBarre_laFotoSubidaQueda() throws Exception {
+        FotoService fotos = new FotoService(directorio.toString(), 1024);
+        byte[] datos = png(60, 60);
+        Path original = fotos.ruta(fotos.guardar(datos).hash(), Variante.ORIGINAL);
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 50; i++) {
+                // Huérfana vieja que alguien vuelve a subir justo cuando pasa el barrido
+                envejecer(original);
+                Instant limite = Instant.now().minus(Duration.ofHours(1));
+                CountDownLatch salida = new CountDownLatch(1);
+                Future<FotoGuardada> subida = hilos.submit(() -> {
+                    salida.await();
+                    return fotos.guardar(datos);
+                });
+                Future<Integer> barrido = hilos.submit(() -> {
+                    salida.await();
+                    return fotos.barrerHuerfanas(Set.of(), limite);
+                });
+                salida.countDown();
+                subida.get();
+                barrido.get();
+
+                assertTrue(Files.exists(original), "La subida " + i + " quedó apuntando a un archivo borrado");
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+}
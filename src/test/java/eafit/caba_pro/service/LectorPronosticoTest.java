@@ -0,0 +1,115 @@
+package eafit.caba_pro.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import eafit.caba_pro.Benchmark;
+import eafit.caba_pro.dto.PronosticoClimaDTO;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+class LectorPronosticoTest {
+
+    private static PronosticoClimaDTO leer(String json) throws IOException {
+        return LectorPronostico.leer(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Respuesta con la forma de Open-Meteo: metadatos, unidades y las series horarias de N días
+    private static String respuesta(int dias) {
+        StringBuilder horas = new StringBuilder();
+        StringBuilder temperaturas = new StringBuilder();
+        StringBuilder codigos = new StringBuilder();
+        for (int h = 0; h < dias * 24; h++) {
+            String sep = h == 0 ? "" : ",";
+            horas.append(sep).append("\"2025-10-01T").append(String.format("%02d", h % 24)).append(":00\"");
+            temperaturas.append(sep).append(18 + (h % 24) * 0.5);
+            codigos.append(sep).append(h % 4 == 0 ? 61 : 2);
+        }
+        return "{\"latitude\":6.25,\"longitude\":-75.5625,\"generationtime_ms\":0.05,\"utc_offset_seconds\":-14400," +
+               "\"timezone\":\"America/New_York\",\"elevation\":1495.0," +
+               "\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\",\"weather_code\":\"wmo code\"}," +
+               "\"hourly\":{\"time\":[" + horas + "],\"temperature_2m\":[" + temperaturas + "],\"weather_code\":[" + codigos + "]}}";
+    }
+
+    @Test
+    void leer_extraeSeriesHorariasEIgnoraElResto() throws IOException {
+        PronosticoClimaDTO pronostico = leer(respuesta(1));
+
+        assertEquals(24, pronostico.getHoras());
+        assertEquals(23.0, pronostico.temperatura(10));
+        assertEquals(61, pronostico.codigo(8));
+        assertEquals(2, pronostico.codigo(9));
+        assertTrue(Double.isNaN(pronostico.temperatura(24)));
+        assertEquals(PronosticoClimaDTO.SIN_CODIGO, pronostico.codigo(-1));
+    }
+
+    @Test
+    void leer_valoresNulosQuedanSinDato() throws IOException {
+        PronosticoClimaDTO pronostico = leer("{\"hourly\":{\"temperature_2m\":[null,\"21.4\"],\"weather_code\":[3,null]}}");
+
+        assertTrue(Double.isNaN(pronostico.temperatura(0)));
+        assertEquals(21.4, pronostico.temperatura(1));
+        assertEquals(3, pronostico.codigo(0));
+        assertEquals(PronosticoClimaDTO.SIN_CODIGO, pronostico.codigo(1));
+    }
+
+    /**
+     * Compara la lectura por streaming con la anterior (Map + instanceof + valores en caja) sobre
+     * respuestas de 16 días.
+     */
+    @Benchmark
+    void benchmark_streamingVsMap() throws IOException {
+        byte[] json = respuesta(16).getBytes(StandardCharsets.UTF_8);
+        ObjectMapper mapper = new ObjectMapper();
+        int iteraciones = 20_000;
+        long control = 0;
+
+        for (int ronda = 0; ronda < 2; ronda++) { // la primera ronda es de calentamiento
+            long t0 = System.nanoTime();
+            for (int i = 0; i < iteraciones; i++) {
+                control += lecturaConMap(mapper, json);
+            }
+            long nsMap = (System.nanoTime() - t0) / iteraciones;
+
+            t0 = System.nanoTime();
+            for (int i = 0; i < iteraciones; i++) {
+                PronosticoClimaDTO p = LectorPronostico.leer(new ByteArrayInputStream(json));
+                for (int h = 0; h < p.getHoras(); h++) {
+                    control += (int) p.temperatura(h) + p.codigo(h);
+                }
+            }
+            long nsStreaming = (System.nanoTime() - t0) / iteraciones;
+
+            if (ronda == 1) {
+                log.info("Pronóstico 16 días: Map {} µs/op | streaming {} µs/op ({}x)",
+                        nsMap / 1000, nsStreaming / 1000, String.format("%.1f", (double) nsMap / nsStreaming));
+            }
+        }
+        assertTrue(control != 0);
+    }
+
+    // Camino anterior: Map genérico y conversión de cada valor en caja
+    private static long lecturaConMap(ObjectMapper mapper, byte[] json) throws IOException {
+        Map<String, Object> datos = mapper.readValue(json, Map.class);
+        Map<String, Object> hourly = (Map<String, Object>) datos.get("hourly");
+        List<?> temperaturas = (List<?>) hourly.get("temperature_2m");
+        List<?> codigos = (List<?>) hourly.get("weather_code");
+        long suma = 0;
+        for (int h = 0; h < temperaturas.size(); h++) {
+            Object t = temperaturas.get(h);
+            Object c = codigos.get(h);
+            suma += t instanceof Number n ? n.intValue() : Integer.parseInt(t.toString());
+            suma += c instanceof Number n ? n.intValue() : Integer.parseInt(c.toString());
+        }
+        return suma;
+    }
+}
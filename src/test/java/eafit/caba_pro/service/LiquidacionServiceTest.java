@@ -0,0 +1,197 @@
+package eafit.caba_pro.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import eafit.caba_pro.Benchmark;
+import eafit.caba_pro.dto.ResumenLiquidacionDTO;
+import eafit.caba_pro.model.Arbitro;
+import eafit.caba_pro.model.Equipo;
+import eafit.caba_pro.model.Escalafon;
+import eafit.caba_pro.model.Liquidacion;
+import eafit.caba_pro.model.Notificacion;
+import eafit.caba_pro.model.Partido;
+import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.EquipoRepository;
+import eafit.caba_pro.repository.EscalafonRepository;
+import eafit.caba_pro.repository.LiquidacionJdbcRepository;
+import eafit.caba_pro.repository.LiquidacionRepository;
+import eafit.caba_pro.repository.NotificacionRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+@DataJpaTest(showSql = false, properties = {
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@Import({LiquidacionService.class, LiquidacionJdbcRepository.class, PdfCacheService.class, SimpleMeterRegistry.class})
+@Slf4j
+class LiquidacionServiceTest {
+
+    private static final BigDecimal HONORARIO = new BigDecimal("150000.00");
+
+    @Autowired private LiquidacionService liquidacionService;
+    @Autowired private LiquidacionRepository liquidacionRepository;
+    @Autowired private PartidoRepository partidoRepository;
+    @Autowired private ArbitroRepository arbitroRepository;
+    @Autowired private EscalafonRepository escalafonRepository;
+    @Autowired private EquipoRepository equipoRepository;
+    @Autowired private NotificacionRepository notificacionRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManager entityManager;
+    @Autowired private SimpleMeterRegistry registry;
+
+    @Test
+    void generarLiquidaciones_sumaHonorariosYEsIdempotente() {
+        YearMonth periodo = YearMonth.of(2031, 3);
+        List<Long> arbitros = crearArbitros(3);
+        crearPartidos(periodo, arbitros, 12);
+
+        ResumenLiquidacionDTO resumen = liquidacionService.generarLiquidacionesMensuales(periodo);
+
+        assertEquals(3, resumen.getLiquidacionesGeneradas());
+        assertEquals(12, resumen.getPartidosLiquidados());
+        List<Liquidacion> liquidaciones = liquidacionRepository.findByPeriodo(periodo);
+        assertEquals(3, liquidaciones.size());
+        for (Liquidacion l : liquidaciones) {
+            assertEquals(0, HONORARIO.multiply(BigDecimal.valueOf(4)).compareTo(l.getTotal()));
+        }
+        assertEquals(0, contarPartidosSinLiquidar(periodo));
+        assertEquals(12, registry.get("caba.liquidacion.filas").tag("tipo", "partidos").counter().count());
+        assertEquals(3, registry.get("caba.notificaciones.creadas").tag("tipo", "ARBITRO").counter().count());
+
+        ResumenLiquidacionDTO repetido = liquidacionService.generarLiquidacionesMensuales(periodo);
+        assertEquals(0, repetido.getLiquidacionesGeneradas());
+        assertEquals(3, liquidacionRepository.findByPeriodo(periodo).size());
+    }
+
+    /**
+     * Compara el motor por lotes con el bucle anterior (una consulta y un save por árbitro y partido)
+     * sobre 10.000 partidos.
+     */
+    @Benchmark
+    void benchmark_motorPorLotesVsBucleOriginal() {
+        YearMonth periodoBucle = YearMonth.of(2032, 1);
+        YearMonth periodoLotes = YearMonth.of(2032, 2);
+        List<Long> arbitros = crearArbitros(200);
+        crearPartidos(periodoBucle, arbitros, 10_000);
+        crearPartidos(periodoLotes, arbitros, 10_000);
+        entityManager.clear();
+
+        long t0 = System.nanoTime();
+        generarConBucleOriginal(periodoBucle);
+        entityManager.flush();
+        long msBucle = (System.nanoTime() - t0) / 1_000_000;
+
+        entityManager.clear();
+        ResumenLiquidacionDTO resumen = liquidacionService.generarLiquidacionesMensuales(periodoLotes);
+
+        log.info("Bucle original: {} ms | Motor por lotes: {} ms ({} filas/s)",
+                msBucle, resumen.getDuracionMs(), Math.round(resumen.getFilasPorSegundo()));
+
+        assertEquals(10_000, resumen.getPartidosLiquidados());
+        assertEquals(sumarTotales(periodoBucle), sumarTotales(periodoLotes));
+        assertEquals(0, contarPartidosSinLiquidar(periodoBucle));
+        assertEquals(0, contarPartidosSinLiquidar(periodoLotes));
+    }
+
+    // Implementación previa de generarLiquidacionesMensuales, conservada como línea base
+    private void generarConBucleOriginal(YearMonth periodo) {
+        LocalDate inicioMes = periodo.atDay(1);
+        LocalDate finMes = periodo.atEndOfMonth();
+        for (Arbitro arbitro : arbitroRepository.findAll()) {
+            if (liquidacionRepository.existsByArbitroIdAndPeriodo(arbitro.getId(), periodo)) continue;
+            List<Partido> pendientes = partidoRepository
+                    .findByArbitroAndFechaBetweenAndLiquidacionIsNull(arbitro, inicioMes, finMes);
+            if (pendientes.isEmpty()) continue;
+
+            Liquidacion liquidacion = new Liquidacion();
+            liquidacion.setArbitro(arbitro);
+            liquidacion.setPeriodo(periodo);
+            liquidacion.setFechaGeneracion(LocalDate.now());
+            BigDecimal total = BigDecimal.ZERO;
+            for (Partido partido : pendientes) {
+                total = total.add(partido.getArbitro().getEscalafon().getHonorarioBase());
+            }
+            liquidacion.setTotal(total);
+            liquidacionRepository.save(liquidacion);
+            notificacionRepository.save(new Notificacion("Liquidación " + periodo + ". Total: $" + total,
+                    Notificacion.TipoDestinatario.ARBITRO, arbitro));
+            for (Partido partido : pendientes) {
+                partido.setLiquidacion(liquidacion);
+                partidoRepository.save(partido);
+            }
+        }
+    }
+
+    private List<Long> crearArbitros(int cantidad) {
+        Escalafon escalafon = new Escalafon();
+        escalafon.setNombre(Escalafon.Nombre.NACIONAL);
+        escalafon.setHonorarioBase(HONORARIO);
+        escalafon = escalafonRepository.save(escalafon);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Arbitro a = new Arbitro();
+            a.setNombre("Árbitro " + i);
+            a.setContraseña("{noop}x");
+            a.setUsername("bench." + escalafon.getId() + "." + i);
+            a.setCedula("B" + escalafon.getId() + "-" + i);
+            a.setPhone("300" + i);
+            a.setSpeciality("Campo");
+            a.setEscalafon(escalafon);
+            ids.add(arbitroRepository.save(a).getId());
+        }
+        entityManager.flush();
+        return ids;
+    }
+
+    private void crearPartidos(YearMonth periodo, List<Long> arbitros, int cantidad) {
+        Equipo local = crearEquipo("Local " + periodo);
+        Equipo visitante = crearEquipo("Visitante " + periodo);
+        List<Object[]> filas = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            LocalDate fecha = periodo.atDay(1 + i % periodo.lengthOfMonth());
+            filas.add(new Object[] {Date.valueOf(fecha), LocalTime.of(10 + i % 10, 0), local.getId(),
+                    visitante.getId(), "FINALIZADO", arbitros.get(i % arbitros.size())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO partido (fecha, hora, equipo_local, equipo_visitante, estado, arbitro_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", filas);
+    }
+
+    private Equipo crearEquipo(String nombre) {
+        Equipo e = new Equipo();
+        e.setNombre(nombre);
+        e.setCiudad("Medellín");
+        e.setFundacion(2000);
+        e.setLogo("https://placehold.co/64x64");
+        e.setEstado(true);
+        Equipo guardado = equipoRepository.save(e);
+        entityManager.flush();
+        return guardado;
+    }
+
+    private long contarPartidosSinLiquidar(YearMonth periodo) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM partido WHERE fecha BETWEEN ? AND ? AND liquidacion_id IS NULL",
+                Long.class, Date.valueOf(periodo.atDay(1)), Date.valueOf(periodo.atEndOfMonth()));
+    }
+
+    private BigDecimal sumarTotales(YearMonth periodo) {
+        return jdbcTemplate.queryForObject("SELECT SUM(total) FROM liquidacion WHERE periodo = ?",
+                BigDecimal.class, periodo.toString());
+    }
+}
@@ -0,0 +1,59 @@
+package eafit.caba_pro.service;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import eafit.caba_pro.repository.FotoLegadaJdbcRepository;
+import eafit.caba_pro.service.FotoService.Variante;
+
+/**
+ * Migración de fotos desde la columna photo_data del esquema anterior, que se agrega a mano
+ * porque la entidad ya no la define.
+ */
+@DataJpaTest(showSql = false)
+@Import(FotoLegadaJdbcRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MigracionFotosServiceTest {
+
+    @Autowired private FotoLegadaJdbcRepository fotoLegadaJdbcRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void migrar_pasaLosBlobsAlAlmacen_yNoRepite() throws Exception {
+        FotoService fotos = new FotoService(directorio.toString(), 1024);
+        MigracionFotosService migracion = new MigracionFotosService(fotoLegadaJdbcRepository, fotos);
+        assertEquals(0, migracion.migrar());
+
+        jdbcTemplate.execute("ALTER TABLE arbitro ADD COLUMN photo_data BLOB");
+        try {
+            byte[] datos = FotoServiceTest.png(400, 400);
+            Long id = jdbcTemplate.queryForObject("SELECT MIN(id) FROM arbitro", Long.class);
+            jdbcTemplate.update("UPDATE arbitro SET photo_data = ?, photo_content_type = 'image/png' WHERE id = ?", datos, id);
+
+            assertEquals(1, migracion.migrar());
+
+            String hash = jdbcTemplate.queryForObject("SELECT photo_hash FROM arbitro WHERE id = ?", String.class, id);
+            assertEquals(FotoService.sha256(datos), hash);
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM arbitro WHERE photo_data IS NOT NULL", Integer.class));
+            assertTrue(fotos.archivo(hash, Variante.MINIATURA, "image/png").isPresent());
+            assertEquals(0, migracion.migrar());
+        } finally {
+            jdbcTemplate.execute("UPDATE arbitro SET photo_hash = NULL, photo_size = NULL, photo_actualizada = NULL");
+            jdbcTemplate.execute("ALTER TABLE arbitro DROP COLUMN photo_data");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.when;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import eafit.caba_pro.dto.NotificacionEventoDTO;
+import eafit.caba_pro.model.Notificacion;
+import eafit.caba_pro.model.Notificacion.TipoDestinatario;
+import eafit.caba_pro.repository.NotificacionJdbcRepository.Entregada;
+import eafit.caba_pro.repository.NotificacionRepository;
+import eafit.caba_pro.service.NotificacionesEnVivoService.Destino;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificacionesEnVivoServiceTest {
+
+    private final NotificacionRepository notificacionRepository = Mockito.mock(NotificacionRepository.class);
+
+    private NotificacionesEnVivoService service(Executor executor, int buffer) {
+        return new NotificacionesEnVivoService(notificacionRepository, executor, 30, buffer, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void publicar_llegaSoloAlDestinoDeCadaNotificacion() {
+        NotificacionesEnVivoService service = service(Runnable::run, 10);
+        EmisorDePrueba arbitro = new EmisorDePrueba();
+        EmisorDePrueba admin = new EmisorDePrueba();
+        service.suscribir(Destino.arbitro(1L), null, arbitro);
+        service.suscribir(Destino.admins(), null, admin);
+
+        service.publicar(List.of(entregada(10L, 1L), entregada(11L, null), entregada(12L, 2L)));
+
+        assertEquals(List.of(10L), arbitro.ids());
+        assertEquals(List.of(11L), admin.ids());
+    }
+
+    @Test
+    void suscribir_conUltimoId_reenviaLoQueFaltoEnOrdenYSinRepetir() {
+        when(notificacionRepository.findByDestinatarioIdAndIdGreaterThanOrderById(eq(1L), eq(4L), any()))
+                .thenReturn(List.of(notificacion(5L), notificacion(6L)));
+        NotificacionesEnVivoService service = service(Runnable::run, 10);
+        EmisorDePrueba emisor = new EmisorDePrueba();
+
+        service.suscribir(Destino.arbitro(1L), 4L, emisor);
+        service.publicar(List.of(entregada(6L, 1L), entregada(7L, 1L)));
+
+        assertEquals(List.of(5L, 6L, 7L), emisor.ids());
+    }
+
+    @Test
+    void publicar_cierraLaConexionCuandoSuBufferSeLlena() {
+        List<Runnable> tareas = new ArrayList<>();
+        NotificacionesEnVivoService service = service(tareas::add, 2);
+        service.suscribir(Destino.arbitro(1L), null, new EmisorDePrueba());
+
+        service.publicar(List.of(entregada(1L, 1L), entregada(2L, 1L)));
+        assertEquals(1, service.totalConexiones());
+        service.publicar(List.of(entregada(3L, 1L)));
+
+        assertEquals(0, service.totalConexiones());
+    }
+
+    @Test
+    void suscribir_pideRecargarSiFaltanMasDeLasQueCabenEnElBuffer() {
+        when(notificacionRepository.findByTipoDestinatarioAndIdGreaterThanOrderById(eq(TipoDestinatario.ADMIN), eq(0L), any()))
+                .thenReturn(List.of(notificacion(1L), notificacion(2L), notificacion(3L)));
+        NotificacionesEnVivoService service = service(Runnable::run, 2);
+        EmisorDePrueba emisor = new EmisorDePrueba();
+
+        service.suscribir(Destino.admins(), 0L, emisor);
+
+        assertTrue(emisor.enviados.get(0).contains("event:recargar"));
+        assertEquals(0, service.totalConexiones());
+    }
+
+    @Test
+    void latir_enviaUnComentario() {
+        NotificacionesEnVivoService service = service(Runnable::run, 10);
+        EmisorDePrueba emisor = new EmisorDePrueba();
+        service.suscribir(Destino.admins(), null, emisor);
+
+        service.latir();
+
+        assertEquals(List.of(":latido\n\n"), emisor.enviados);
+    }
+
+    private static Entregada entregada(Long id, Long arbitroId) {
+        return new Entregada(id, "Mensaje " + id, LocalDateTime.now(), arbitroId,
+                arbitroId == null ? TipoDestinatario.ADMIN : TipoDestinatario.ARBITRO);
+    }
+
+    private static Notificacion notificacion(Long id) {
+        Notificacion n = new Notificacion("Mensaje " + id, TipoDestinatario.ARBITRO);
+        n.setId(id);
+        return n;
+    }
+
+    // Guarda el texto de cada evento en lugar de escribirlo en una respuesta HTTP
+    private static class EmisorDePrueba extends SseEmitter {
+        private final List<String> enviados = new ArrayList<>();
+        private final List<Long> ids = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder evento) {
+            StringBuilder texto = new StringBuilder();
+            evento.build().forEach(parte -> {
+                if (parte.getData() instanceof NotificacionEventoDTO n) {
+                    ids.add(n.id());
+                }
+                texto.append(parte.getData());
+            });
+            enviados.add(texto.toString());
+        }
+
+        List<Long> ids() {
+            return ids;
+        }
+    }
+}
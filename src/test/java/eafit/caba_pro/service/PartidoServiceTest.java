@@ -0,0 +1,58 @@
+package eafit.caba_pro.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.when;
+
+import eafit.caba_pro.dto.FiltroPartidosDTO;
+import eafit.caba_pro.dto.PaginaDTO;
+import eafit.caba_pro.dto.PartidoResumenDTO;
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+
+class PartidoServiceTest {
+
+    private final PartidoRepository partidoRepository = Mockito.mock(PartidoRepository.class);
+    private final PartidoService service = new PartidoService(partidoRepository, Mockito.mock(ArbitroRepository.class),
+        Mockito.mock(NotificacionService.class), Mockito.mock(DisponibilidadService.class),
+        Mockito.mock(ResumenPartidosService.class));
+
+    private static List<Object[]> filas(long desde, int cantidad) {
+        List<Object[]> filas = new ArrayList<>();
+        for (long id = desde; id < desde + cantidad; id++) {
+            filas.add(new Object[] {id, LocalDate.of(2025, 10, 5), LocalTime.of(15, 0), EstadoPartido.PROGRAMADO,
+                1L, "Lakers", 2L, "Chicago Bulls", null, null, null, null, null});
+        }
+        return filas;
+    }
+
+    @Test
+    void paginarResumenes_elCursorDeUnaPaginaPideLaSiguiente() {
+        when(partidoRepository.findResumenes(any(), eq(3))).thenReturn(filas(1, 3), filas(3, 1));
+
+        PaginaDTO<PartidoResumenDTO> primera = service.paginarResumenes(FiltroPartidosDTO.vacio(), null, 2);
+        assertEquals(List.of(1L, 2L), primera.getItems().stream().map(PartidoResumenDTO::id).toList());
+        assertEquals("2025-10-05T15:00_2", primera.getSiguiente());
+
+        PaginaDTO<PartidoResumenDTO> segunda = service.paginarResumenes(FiltroPartidosDTO.vacio(), primera.getSiguiente(), 2);
+        assertEquals(List.of(3L), segunda.getItems().stream().map(PartidoResumenDTO::id).toList());
+        assertNull(segunda.getSiguiente());
+    }
+
+    @Test
+    void paginarResumenes_rechazaUnCursorMalFormado() {
+        assertThrows(IllegalArgumentException.class, () -> service.paginarResumenes(null, "ayer", 10));
+        assertEquals(PaginaDTO.LIMITE_MAXIMO, PaginaDTO.limitar(100_000));
+    }
+}
@@ -0,0 +1,82 @@
+package eafit.caba_pro.service;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eafit.caba_pro.model.Arbitro;
+import eafit.caba_pro.model.Liquidacion;
+
+class PdfCacheServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private PdfCacheService cache(long maxMb) {
+        return new PdfCacheService(directorio.toString(), maxMb);
+    }
+
+    private Liquidacion liquidacion(Long id) {
+        Arbitro arbitro = new Arbitro();
+        arbitro.setNombre("Paula");
+        Liquidacion l = new Liquidacion();
+        l.setId(id);
+        l.setArbitro(arbitro);
+        l.setPeriodo(YearMonth.of(2025, 9));
+        l.setTotal(new BigDecimal("500000"));
+        l.setPartidos(List.of());
+        return l;
+    }
+
+    @Test
+    void huella_cambiaAlPagarLaLiquidacion() {
+        PdfCacheService cache = cache(1);
+        Liquidacion l = liquidacion(1L);
+        String pendiente = cache.huella(l);
+
+        l.setEstado(Liquidacion.EstadoLiquidacion.PAGADA);
+
+        assertNotEquals(pendiente, cache.huella(l));
+    }
+
+    @Test
+    void obtener_cuentaAciertosYFallos_eInvalidarBorraTodasLasVersiones() {
+        PdfCacheService cache = cache(1);
+        cache.guardar(1L, "a", new byte[] {1, 2, 3});
+        cache.guardar(1L, "b", new byte[] {4});
+
+        assertTrue(cache.obtener(1L, "a").isPresent());
+        assertTrue(cache.obtener(2L, "a").isEmpty());
+
+        cache.invalidar(1L);
+
+        assertTrue(cache.obtener(1L, "b").isEmpty());
+        PdfCacheService.MetricasCache metricas = cache.getMetricas();
+        assertEquals(1, metricas.aciertos());
+        assertEquals(2, metricas.fallos());
+        assertEquals(0, metricas.archivos());
+    }
+
+    @Test
+    void guardar_desalojaElMenosUsadoAlSuperarElLimite() {
+        PdfCacheService cache = cache(1);
+        byte[] pdf = new byte[400 * 1024];
+        cache.guardar(1L, "x", pdf);
+        cache.guardar(2L, "x", pdf);
+        cache.obtener(1L, "x"); // la 1 pasa a ser la más reciente
+
+        cache.guardar(3L, "x", pdf);
+
+        assertTrue(cache.obtener(1L, "x").isPresent());
+        assertTrue(cache.obtener(2L, "x").isEmpty());
+        assertTrue(cache.obtener(3L, "x").isPresent());
+        assertEquals(2, cache.getMetricas().archivos());
+    }
+}
@@ -0,0 +1,97 @@
+package eafit.caba_pro.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.core.task.TaskRejectedException;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import eafit.caba_pro.model.Liquidacion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PdfServiceTest {
+
+    private static final String HTML = "<html><body><p>Liquidación</p></body></html>";
+
+    private final SpringTemplateEngine templateEngine = Mockito.mock(SpringTemplateEngine.class);
+    private final PdfCacheService pdfCacheService = Mockito.mock(PdfCacheService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private PdfService service(Executor executor) {
+        when(templateEngine.process(eq("pdf/liquidacion"), any(IContext.class))).thenReturn(HTML);
+        return new PdfService(templateEngine, executor, pdfCacheService, registry);
+    }
+
+    private static Liquidacion liquidacion() {
+        Liquidacion l = new Liquidacion();
+        l.setId(5L);
+        return l;
+    }
+
+    @Test
+    void generarAsync_convierteEnElPoolYRegistraElRender() throws Exception {
+        Executor pool = Mockito.spy(new DirectoEnOtroHilo());
+        PdfService service = service(pool);
+
+        byte[] pdf = service.generarPdfDesdeLiquidacionAsync(liquidacion()).get();
+
+        assertTrue(new String(pdf, 0, 5, StandardCharsets.ISO_8859_1).startsWith("%PDF"));
+        verify(pool).execute(any());
+        assertEquals(1, registry.get("caba.pdf.render").timer().count());
+    }
+
+    @Test
+    void generarAsync_colaLlenaPropagaElRechazoYLoCuenta() {
+        PdfService service = service(tarea -> {
+            throw new TaskRejectedException("cola llena");
+        });
+
+        assertThrows(TaskRejectedException.class, () -> service.generarPdfDesdeLiquidacionAsync(liquidacion()));
+        assertEquals(1, registry.get("caba.pdf.rechazados").counter().count());
+        assertEquals(0, registry.get("caba.pdf.render").timer().count());
+    }
+
+    @Test
+    void obtenerAsync_enCacheNoUsaElPool() throws Exception {
+        byte[] guardado = {1, 2, 3};
+        when(pdfCacheService.obtener(5L, "h")).thenReturn(Optional.of(guardado));
+        PdfService service = service(tarea -> {
+            throw new AssertionError("No debía renderizar");
+        });
+
+        assertArrayEquals(guardado, service.obtenerPdfLiquidacionAsync(liquidacion(), "h").get());
+        verify(templateEngine, never()).process(anyString(), any(IContext.class));
+    }
+
+    @Test
+    void obtenerAsync_sinCacheGuardaLoGenerado() throws Exception {
+        when(pdfCacheService.obtener(5L, "h")).thenReturn(Optional.empty());
+        PdfService service = service(new DirectoEnOtroHilo());
+
+        byte[] pdf = service.obtenerPdfLiquidacionAsync(liquidacion(), "h").get();
+
+        verify(pdfCacheService).guardar(5L, "h", pdf);
+    }
+
+    // Un hilo por tarea, para que la conversión no corra en el hilo de la prueba
+    static class DirectoEnOtroHilo implements Executor {
+        @Override
+        public void execute(Runnable tarea) {
+            new Thread(tarea, "pdf-prueba").start();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package eafit.caba_pro.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import eafit.caba_pro.dto.RankingArbitrosDTO;
+import eafit.caba_pro.model.CalificacionArbitro;
+import eafit.caba_pro.model.Escalafon;
+import eafit.caba_pro.model.Partido.Asignacion;
+import eafit.caba_pro.repository.ActividadArbitroRepository;
+import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.CalificacionArbitroRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+import eafit.caba_pro.service.RankingArbitrosService.Criterio;
+
+class RankingArbitrosServiceTest {
+
+    private static final YearMonth SEPTIEMBRE = YearMonth.of(2025, 9);
+    private static final YearMonth OCTUBRE = YearMonth.of(2025, 10);
+
+    private final ActividadArbitroRepository actividadRepository = Mockito.mock(ActividadArbitroRepository.class);
+    private final CalificacionArbitroRepository calificacionRepository = Mockito.mock(CalificacionArbitroRepository.class);
+    private final ArbitroRepository arbitroRepository = Mockito.mock(ArbitroRepository.class);
+    private final PartidoRepository partidoRepository = Mockito.mock(PartidoRepository.class);
+    private final RankingArbitrosService service =
+        new RankingArbitrosService(actividadRepository, calificacionRepository, arbitroRepository, partidoRepository,
+            new FilasEnCero(Mockito.mock(PlatformTransactionManager.class)));
+
+    @Test
+    void aplicar_reasignarRestaAlAnteriorYSumaAlNuevo() {
+        when(actividadRepository.sumar(eq(1L), any(), anyInt(), anyInt())).thenReturn(1);
+
+        service.aplicar(new Asignacion(1L, SEPTIEMBRE, false), new Asignacion(2L, SEPTIEMBRE, false));
+
+        verify(actividadRepository).sumar(1L, SEPTIEMBRE, -1, 0);
+        verify(actividadRepository).borrarSiVacia(1L, SEPTIEMBRE);
+        // El nuevo árbitro no tenía fila en el mes: se crea en cero y se vuelve a sumar
+        verify(actividadRepository).crear(2L, SEPTIEMBRE);
+        verify(actividadRepository, times(2)).sumar(2L, SEPTIEMBRE, 1, 0);
+        verify(actividadRepository, never()).save(any());
+    }
+
+    @Test
+    void aplicar_filaCreadaALaVezPorOtraTransaccionSumaEnLaSuya() {
+        when(actividadRepository.sumar(eq(2L), any(), anyInt(), anyInt())).thenReturn(0, 1);
+        when(actividadRepository.crear(2L, SEPTIEMBRE)).thenThrow(new DataIntegrityViolationException("uk actividad_arbitro"));
+
+        service.aplicar(null, new Asignacion(2L, SEPTIEMBRE, false));
+
+        verify(actividadRepository, times(2)).sumar(2L, SEPTIEMBRE, 1, 0);
+        verify(actividadRepository, never()).save(any());
+    }
+
+    @Test
+    void aplicar_finalizarSoloCuentaElFinalizado() {
+        when(actividadRepository.sumar(eq(1L), any(), anyInt(), anyInt())).thenReturn(1);
+
+        service.aplicar(new Asignacion(1L, SEPTIEMBRE, false), new Asignacion(1L, SEPTIEMBRE, true));
+
+        verify(actividadRepository).sumar(1L, SEPTIEMBRE, 0, 1);
+        verify(actividadRepository, never()).borrarSiVacia(any(), any());
+        verify(actividadRepository, never()).save(any());
+    }
+
+    @Test
+    void aplicar_moverDeMesCambiaDeFila() {
+        when(actividadRepository.sumar(eq(1L), any(), anyInt(), anyInt())).thenReturn(1);
+
+        service.aplicar(new Asignacion(1L, SEPTIEMBRE, false), new Asignacion(1L, OCTUBRE, false));
+
+        verify(actividadRepository).sumar(1L, SEPTIEMBRE, -1, 0);
+        verify(actividadRepository).sumar(1L, OCTUBRE, 1, 0);
+    }
+
+    @Test
+    void top_porCalificacionAjustaLasPocasReseñasHaciaLaMedia() {
+        arbitros();
+        // Una sola reseña de 5 contra veinte reseñas de 4.5
+        when(calificacionRepository.findAll()).thenReturn(List.of(
+            new CalificacionArbitro(1L, 1, 5, 0, 0, 0, 0, 1, null),
+            new CalificacionArbitro(2L, 20, 90, 0, 0, 0, 10, 10, null),
+            new CalificacionArbitro(3L, 10, 30, 0, 0, 10, 0, 0, null)));
+
+        RankingArbitrosDTO ranking = service.top(Criterio.CALIFICACION, 2, SEPTIEMBRE, SEPTIEMBRE);
+
+        assertEquals(List.of(2L, 1L), ranking.getArbitros().stream().map(RankingArbitrosDTO.Fila::arbitroId).toList());
+        assertEquals(1, ranking.getArbitros().get(0).posicion());
+        assertEquals(4.5, ranking.getArbitros().get(0).promedio());
+    }
+
+    @Test
+    void top_compuestoCombinaPartidosCalificacionYEscalafon() {
+        arbitros();
+        when(actividadRepository.sumarEntre(SEPTIEMBRE, OCTUBRE)).thenReturn(List.of(
+            new Object[] {1L, 10L, 8L}, new Object[] {3L, 9L, 9L}));
+        when(calificacionRepository.findAll()).thenReturn(List.of());
+
+        RankingArbitrosDTO ranking = service.top(Criterio.COMPUESTO, 3, SEPTIEMBRE, OCTUBRE);
+
+        // 3 es INTERNACIONAL con casi tantos partidos como 1 (LOCAL); 2 no pitó en el periodo
+        assertEquals(List.of(3L, 1L, 2L), ranking.getArbitros().stream().map(RankingArbitrosDTO.Fila::arbitroId).toList());
+        assertEquals(0.5 * 0.9 + 0.2, ranking.getArbitros().get(0).puntaje(), 1e-9);
+    }
+
+    @Test
+    void top_rechazaKFueraDeRangoYPeriodoInvertido() {
+        assertThrows(IllegalArgumentException.class, () -> service.top(Criterio.PARTIDOS, 0, SEPTIEMBRE, SEPTIEMBRE));
+        assertThrows(IllegalArgumentException.class, () -> service.top(Criterio.PARTIDOS, 5, OCTUBRE, SEPTIEMBRE));
+        assertThrows(IllegalArgumentException.class, () -> Criterio.de("goles"));
+    }
+
+    private void arbitros() {
+        when(arbitroRepository.findParaRanking()).thenReturn(List.of(
+            new Object[] {1L, "Ana", "Baloncesto", Escalafon.Nombre.LOCAL},
+            new Object[] {2L, "Beto", "Baloncesto", Escalafon.Nombre.NACIONAL},
+            new Object[] {3L, "Caro", "Baloncesto", Escalafon.Nombre.INTERNACIONAL}));
+    }
+}
@@ -0,0 +1,183 @@
+package eafit.caba_pro.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import eafit.caba_pro.model.MesSellado;
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import eafit.caba_pro.model.Partido.Huella;
+import eafit.caba_pro.model.ResumenPartidos;
+import eafit.caba_pro.model.ResumenPartidos.Dimension;
+import eafit.caba_pro.model.ResumenPartidos.Nivel;
+import eafit.caba_pro.repository.ArbitroRepository;
+import eafit.caba_pro.repository.MesSelladoRepository;
+import eafit.caba_pro.repository.PartidoRepository;
+import eafit.caba_pro.repository.ResumenPartidosRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+
+class ResumenPartidosServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 9, 10);
+    private static final LocalDate MES = LocalDate.of(2025, 9, 1);
+    private static final BigDecimal HONORARIO = new BigDecimal("100.00");
+
+    private final ResumenPartidosRepository resumenRepository = Mockito.mock(ResumenPartidosRepository.class);
+    private final MesSelladoRepository mesSelladoRepository = Mockito.mock(MesSelladoRepository.class);
+    private final PartidoRepository partidoRepository = Mockito.mock(PartidoRepository.class);
+    private final ArbitroRepository arbitroRepository = Mockito.mock(ArbitroRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ResumenPartidosService service = new ResumenPartidosService(resumenRepository, mesSelladoRepository,
+        partidoRepository, arbitroRepository, new FilasEnCero(Mockito.mock(PlatformTransactionManager.class)), 7, registry);
+
+    private static Huella huella(EstadoPartido estado) {
+        return new Huella(DIA, estado, 3L, 10L, 11L, 20L);
+    }
+
+    @Test
+    void aplicar_partidoNuevoSumaEnCadaNivelYDimension() {
+        when(arbitroRepository.findHonorarios(any())).thenReturn(List.<Object[]>of(new Object[] {3L, HONORARIO}));
+        when(resumenRepository.sumar(any(), any(), any(), any(), any(), anyInt(), any())).thenReturn(1);
+
+        service.aplicar(null, huella(EstadoPartido.PROGRAMADO));
+
+        for (Nivel nivel : Nivel.values()) {
+            LocalDate fecha = nivel == Nivel.DIA ? DIA : MES;
+            verify(resumenRepository).sumar(Dimension.TOTAL, 0L, nivel, fecha, EstadoPartido.PROGRAMADO, 1, HONORARIO);
+            verify(resumenRepository).sumar(Dimension.ARBITRO, 3L, nivel, fecha, EstadoPartido.PROGRAMADO, 1, HONORARIO);
+            verify(resumenRepository).sumar(Dimension.EQUIPO, 10L, nivel, fecha, EstadoPartido.PROGRAMADO, 1, HONORARIO);
+            verify(resumenRepository).sumar(Dimension.EQUIPO, 11L, nivel, fecha, EstadoPartido.PROGRAMADO, 1, HONORARIO);
+            verify(resumenRepository).sumar(Dimension.TORNEO, 20L, nivel, fecha, EstadoPartido.PROGRAMADO, 1, HONORARIO);
+        }
+        verify(resumenRepository, never()).save(any());
+        verify(resumenRepository, never()).borrarVacias(any());
+    }
+
+    @Test
+    void aplicar_cambioDeEstadoRestaDelAnteriorYBorraLasVacias() {
+        when(arbitroRepository.findHonorarios(any())).thenReturn(List.<Object[]>of(new Object[] {3L, HONORARIO}));
+        when(resumenRepository.sumar(any(), any(), any(), any(), any(), anyInt(), any())).thenReturn(1);
+
+        service.aplicar(huella(EstadoPartido.PROGRAMADO), huella(EstadoPartido.FINALIZADO));
+
+        verify(resumenRepository).sumar(Dimension.TOTAL, 0L, Nivel.MES, MES, EstadoPartido.PROGRAMADO, -1, HONORARIO.negate());
+        verify(resumenRepository).sumar(Dimension.TOTAL, 0L, Nivel.MES, MES, EstadoPartido.FINALIZADO, 1, HONORARIO);
+        verify(resumenRepository).borrarVacias(any());
+    }
+
+    @Test
+    void aplicar_filaNuevaSeCreaEnCeroYSeSuma() {
+        when(arbitroRepository.findHonorarios(any())).thenReturn(List.<Object[]>of());
+        // Sin fila previa el primer sumar no toca nada; el de después de crearla sí
+        when(resumenRepository.sumar(any(), any(), any(), any(), any(), anyInt(), any())).thenReturn(0, 1);
+
+        service.aplicar(null, huella(EstadoPartido.PROGRAMADO));
+
+        verify(resumenRepository).crear(Dimension.TOTAL, 0L, Nivel.DIA, DIA, EstadoPartido.PROGRAMADO);
+        verify(resumenRepository, times(2)).sumar(Dimension.TOTAL, 0L, Nivel.DIA, DIA, EstadoPartido.PROGRAMADO, 1, BigDecimal.ZERO);
+        verify(resumenRepository, never()).save(any());
+    }
+
+    @Test
+    void aplicar_filaCreadaPorOtraTransaccionSeSumaIgual() {
+        when(arbitroRepository.findHonorarios(any())).thenReturn(List.<Object[]>of());
+        when(resumenRepository.sumar(any(), any(), any(), any(), any(), anyInt(), any())).thenReturn(0, 1);
+        when(resumenRepository.crear(any(), any(), any(), any(), any()))
+            .thenThrow(new DataIntegrityViolationException("clave única"));
+
+        service.aplicar(null, huella(EstadoPartido.PROGRAMADO));
+
+        verify(resumenRepository, times(2)).sumar(Dimension.TOTAL, 0L, Nivel.DIA, DIA, EstadoPartido.PROGRAMADO, 1, BigDecimal.ZERO);
+        assertEquals(1.0, registry.get("caba.resumenes.cambios").tag("resultado", "aplicado").counter().count());
+    }
+
+    @Test
+    void aplicar_mesSelladoSeCorrige() {
+        when(mesSelladoRepository.findFirstByOrderByPeriodoDesc())
+            .thenReturn(Optional.of(new MesSellado(YearMonth.of(2025, 9), LocalDateTime.now(), 4)));
+        when(resumenRepository.sumar(any(), any(), any(), any(), any(), anyInt(), any())).thenReturn(1);
+
+        service.aplicar(huella(EstadoPartido.PROGRAMADO), huella(EstadoPartido.FINALIZADO));
+
+        verify(resumenRepository).sumar(Dimension.TOTAL, 0L, Nivel.MES, MES, EstadoPartido.PROGRAMADO, -1, BigDecimal.ZERO);
+        verify(resumenRepository).sumar(Dimension.TOTAL, 0L, Nivel.MES, MES, EstadoPartido.FINALIZADO, 1, BigDecimal.ZERO);
+        verify(mesSelladoRepository).registrarCorreccion(Set.of(YearMonth.of(2025, 9)));
+        assertEquals(1.0, registry.get("caba.resumenes.cambios").tag("resultado", "sellado").counter().count());
+    }
+
+    @Test
+    void resellar_reconciliaElMesYReiniciaLasCorrecciones() {
+        MesSellado sello = new MesSellado(null, YearMonth.of(2025, 9), LocalDateTime.of(2025, 10, 8, 0, 15), 4, 3);
+        when(mesSelladoRepository.findByPeriodo(YearMonth.of(2025, 9))).thenReturn(Optional.of(sello));
+        when(partidoRepository.findHuellasEntre(MES, LocalDate.of(2025, 10, 1))).thenReturn(List.<Object[]>of(
+            new Object[] {DIA, EstadoPartido.FINALIZADO, 3L, 10L, 11L, 20L, HONORARIO}));
+        when(resumenRepository.findByDimensionAndClaveAndNivelAndFechaBetweenOrderByFechaAscEstadoAsc(
+                Dimension.TOTAL, 0L, Nivel.MES, MES, MES))
+            .thenReturn(List.of(new ResumenPartidos(Dimension.TOTAL, 0L, Nivel.MES, MES, EstadoPartido.FINALIZADO, 1, HONORARIO)));
+
+        int diferencias = service.resellar(YearMonth.of(2025, 9));
+
+        // Sin filas guardadas, las 10 del partido son distintas
+        assertEquals(10, diferencias);
+        assertEquals(1, sello.getPartidos());
+        assertEquals(0, sello.getCorrecciones());
+    }
+
+    @Test
+    void resellar_mesSinSelloFalla() {
+        when(mesSelladoRepository.findByPeriodo(any())).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> service.resellar(YearMonth.of(2026, 1)));
+    }
+
+    @Test
+    void recalcularArbitro_reconstruyeLosMesesDeSusPartidosConLaTarifaActual() {
+        when(partidoRepository.findMesesDeArbitro(3L)).thenReturn(List.<Object[]>of(new Object[] {2025, 9}));
+        when(partidoRepository.findHuellasEntre(MES, LocalDate.of(2025, 10, 1))).thenReturn(List.<Object[]>of(
+            new Object[] {DIA, EstadoPartido.FINALIZADO, 3L, null, null, null, new BigDecimal("150.00")}));
+        ResumenPartidos fila = new ResumenPartidos(Dimension.ARBITRO, 3L, Nivel.MES, MES, EstadoPartido.FINALIZADO, 1, HONORARIO);
+        when(resumenRepository.findByFechaGreaterThanEqualAndFechaLessThan(MES, LocalDate.of(2025, 10, 1)))
+            .thenReturn(List.of(fila));
+
+        service.recalcularArbitro(3L);
+
+        assertEquals(0, new BigDecimal("150.00").compareTo(fila.getHonorarios()));
+        assertEquals(1, fila.getPartidos());
+    }
+
+    @Test
+    void sellar_sellaEnOrdenLosMesesFueraDeLaGracia() {
+        when(mesSelladoRepository.findFirstByOrderByPeriodoDesc()).thenReturn(Optional.empty());
+        when(partidoRepository.findPrimeraFecha()).thenReturn(LocalDate.of(2025, 7, 15));
+
+        // El 5 de octubre, con 7 días de gracia, septiembre sigue abierto
+        int sellados = service.sellar(LocalDate.of(2025, 10, 5));
+
+        assertEquals(2, sellados);
+        ArgumentCaptor<MesSellado> captor = ArgumentCaptor.forClass(MesSellado.class);
+        verify(mesSelladoRepository, times(2)).save(captor.capture());
+        assertEquals(YearMonth.of(2025, 7), captor.getAllValues().get(0).getPeriodo());
+        assertEquals(YearMonth.of(2025, 8), captor.getAllValues().get(1).getPeriodo());
+        verify(partidoRepository).findHuellasEntre(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 8, 1));
+        verify(partidoRepository).findHuellasEntre(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 9, 1));
+    }
+}
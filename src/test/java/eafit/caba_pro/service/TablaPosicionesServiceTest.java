@@ -0,0 +1,102 @@
+package eafit.caba_pro.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import eafit.caba_pro.model.Partido.EstadoPartido;
+import eafit.caba_pro.model.PosicionTorneo;
+import eafit.caba_pro.model.Torneo;
+import eafit.caba_pro.repository.PartidoRepository;
+import eafit.caba_pro.repository.PosicionTorneoRepository;
+import eafit.caba_pro.repository.TorneoRepository;
+
+class TablaPosicionesServiceTest {
+
+    private final PosicionTorneoRepository posicionRepository = Mockito.mock(PosicionTorneoRepository.class);
+    private final PartidoRepository partidoRepository = Mockito.mock(PartidoRepository.class);
+    private final TorneoRepository torneoRepository = Mockito.mock(TorneoRepository.class);
+    private final TablaPosicionesService service = new TablaPosicionesService(
+        posicionRepository, partidoRepository, torneoRepository, 3, 1, 0);
+
+    private static Object[] partido(long local, long visitante, EstadoPartido estado, Integer gl, Integer gv) {
+        return new Object[] {local, visitante, estado, gl, gv};
+    }
+
+    // En orden cronológico: 1 gana dos, empata y vuelve a ganar; 2 pierde dos seguidos; 3 aún no juega
+    private final List<Object[]> partidos = List.of(
+        partido(1, 2, EstadoPartido.FINALIZADO, 80, 70),
+        partido(2, 1, EstadoPartido.FINALIZADO, 60, 75),
+        partido(1, 2, EstadoPartido.FINALIZADO, 50, 50),
+        partido(2, 1, EstadoPartido.FINALIZADO, 70, 71),
+        partido(1, 3, EstadoPartido.PROGRAMADO, null, null),
+        partido(2, 3, EstadoPartido.FINALIZADO, null, null));
+
+    @Test
+    void calcular_puntosDiferenciaYRachas() {
+        Map<Long, PosicionTorneo> tabla = service.calcular(9L, null, partidos).stream()
+            .collect(Collectors.toMap(PosicionTorneo::getEquipoId, Function.identity()));
+
+        PosicionTorneo uno = tabla.get(1L);
+        assertEquals(4, uno.getJugados());
+        assertEquals(10, uno.getPuntos());
+        assertEquals(276 - 250, uno.getDiferencia());
+        assertEquals(1, uno.getRacha());
+        assertEquals(2, uno.getMejorRacha());
+
+        PosicionTorneo dos = tabla.get(2L);
+        assertEquals(1, dos.getPuntos());
+        assertEquals(-1, dos.getRacha());
+        assertEquals(0, dos.getMejorRacha());
+
+        PosicionTorneo tres = tabla.get(3L);
+        assertEquals(0, tres.getJugados(), "Un finalizado sin marcador no cuenta");
+        assertEquals(9L, tres.getTorneoId());
+    }
+
+    @Test
+    void calcular_soloLosEquiposPedidosCoincideConLaTablaCompleta() {
+        Map<Long, PosicionTorneo> completa = service.calcular(9L, null, partidos).stream()
+            .collect(Collectors.toMap(PosicionTorneo::getEquipoId, Function.identity()));
+
+        List<PosicionTorneo> parcial = service.calcular(9L, Set.of(2L), partidos);
+
+        assertEquals(1, parcial.size());
+        assertTrue(parcial.get(0).mismosValores(completa.get(2L)));
+    }
+
+    @Test
+    void recalcular_bloqueaElTorneoAntesDeLeerSusPartidos() {
+        when(torneoRepository.bloquear(9L)).thenReturn(Optional.of(new Torneo()));
+        when(partidoRepository.findResultadosDeTorneoPorEquipos(9L, Set.of(1L, 2L))).thenReturn(partidos);
+
+        service.recalcular(9L, Set.of(1L, 2L));
+
+        InOrder orden = Mockito.inOrder(torneoRepository, partidoRepository, posicionRepository);
+        orden.verify(torneoRepository).bloquear(9L);
+        orden.verify(partidoRepository).findResultadosDeTorneoPorEquipos(9L, Set.of(1L, 2L));
+        orden.verify(posicionRepository, times(2)).save(any());
+    }
+
+    @Test
+    void recalcular_torneoEliminadoNoEscribeFilas() {
+        when(torneoRepository.bloquear(9L)).thenReturn(Optional.empty());
+
+        service.recalcular(9L, Set.of(1L, 2L));
+
+        verifyNoInteractions(partidoRepository, posicionRepository);
+    }
+}
@@ -0,0 +1,115 @@
+package eafit.caba_pro.service;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import eafit.caba_pro.dto.ResumenLiquidacionDTO;
+import eafit.caba_pro.model.TrabajoLiquidacion;
+import eafit.caba_pro.model.TrabajoLiquidacion.EstadoTrabajo;
+import eafit.caba_pro.repository.TrabajoLiquidacionRepository;
+
+class TrabajoLiquidacionServiceTest {
+
+    private static final YearMonth PERIODO = YearMonth.of(2025, 9);
+
+    private final TrabajoLiquidacionRepository trabajoRepository = Mockito.mock(TrabajoLiquidacionRepository.class);
+    private final LiquidacionService liquidacionService = Mockito.mock(LiquidacionService.class);
+
+    private TrabajoLiquidacionService service() {
+        return service(new SyncTaskExecutor());
+    }
+
+    private TrabajoLiquidacionService service(TaskExecutor executor) {
+        return new TrabajoLiquidacionService(trabajoRepository, liquidacionService, executor);
+    }
+
+    private List<List<Object[]>> dosLotes() {
+        List<Object[]> lote1 = List.<Object[]>of(new Object[] {1L, 2L, null});
+        List<Object[]> lote2 = List.<Object[]>of(new Object[] {2L, 3L, null});
+        return List.of(lote1, lote2);
+    }
+
+    @Test
+    void iniciar_unLoteFallidoNoDetieneLosDemas() {
+        List<List<Object[]>> lotes = dosLotes();
+        when(trabajoRepository.findFirstByPeriodoAndEstado(PERIODO, EstadoTrabajo.EN_CURSO)).thenReturn(Optional.empty());
+        when(trabajoRepository.save(any(TrabajoLiquidacion.class))).thenAnswer(inv -> {
+            TrabajoLiquidacion t = inv.getArgument(0);
+            t.setId(7L);
+            return t;
+        });
+        when(liquidacionService.dividirEnLotes(any())).thenReturn(lotes);
+        when(liquidacionService.procesarLote(PERIODO, lotes.get(0))).thenThrow(new IllegalStateException("fallo de prueba"));
+        when(liquidacionService.procesarLote(PERIODO, lotes.get(1))).thenReturn(new ResumenLiquidacionDTO(PERIODO, 1, 3, 5));
+
+        TrabajoLiquidacion trabajo = service().iniciar(PERIODO);
+
+        assertEquals(2, trabajo.getTotalLotes());
+        verify(trabajoRepository).registrarLoteFallido(7L, "fallo de prueba");
+        verify(trabajoRepository).registrarLoteCompletado(7L, 1, 3);
+        verify(trabajoRepository).finalizar(eq(7L), any());
+    }
+
+    @Test
+    void iniciar_reanudaElTrabajoEnCursoDelPeriodo() {
+        TrabajoLiquidacion existente = new TrabajoLiquidacion(PERIODO);
+        existente.setId(3L);
+        existente.setTotalLotes(5);
+        existente.setLotesCompletados(4);
+        when(trabajoRepository.findFirstByPeriodoAndEstado(PERIODO, EstadoTrabajo.EN_CURSO)).thenReturn(Optional.of(existente));
+        when(liquidacionService.dividirEnLotes(any())).thenReturn(List.of(dosLotes().get(0)));
+        when(liquidacionService.procesarLote(any(), any())).thenReturn(new ResumenLiquidacionDTO(PERIODO, 1, 2, 1));
+
+        TrabajoLiquidacion trabajo = service().iniciar(PERIODO);
+
+        assertEquals(3L, trabajo.getId());
+        assertEquals(5, trabajo.getTotalLotes());
+        verify(trabajoRepository).prepararEjecucion(3L, 1);
+        verify(trabajoRepository, never()).save(any());
+        verify(trabajoRepository).registrarLoteCompletado(3L, 1, 2);
+        verify(trabajoRepository, never()).registrarLoteFallido(any(), anyString());
+    }
+
+    @Test
+    void iniciar_poolLlenoMarcaLosLotesRestantesYFinaliza() {
+        TrabajoLiquidacion existente = new TrabajoLiquidacion(PERIODO);
+        existente.setId(4L);
+        when(trabajoRepository.findFirstByPeriodoAndEstado(PERIODO, EstadoTrabajo.EN_CURSO)).thenReturn(Optional.of(existente));
+        when(liquidacionService.dividirEnLotes(any())).thenReturn(dosLotes());
+        when(liquidacionService.procesarLote(any(), any())).thenReturn(new ResumenLiquidacionDTO(PERIODO, 1, 2, 1));
+        // Acepta el primer lote y rechaza el segundo
+        AtomicInteger enviados = new AtomicInteger();
+        TaskExecutor saturado = tarea -> {
+            if (enviados.incrementAndGet() > 1) throw new TaskRejectedException("cola llena");
+            tarea.run();
+        };
+        TrabajoLiquidacionService service = service(saturado);
+
+        service.iniciar(PERIODO);
+
+        verify(trabajoRepository).registrarLoteCompletado(4L, 1, 2);
+        verify(trabajoRepository).registrarLotesRechazados(eq(4L), eq(1), anyString());
+        verify(trabajoRepository).finalizar(eq(4L), any());
+
+        // Ya no figura en ejecución: se puede volver a lanzar
+        enviados.set(0);
+        service.iniciar(PERIODO);
+        verify(trabajoRepository, times(2)).finalizar(eq(4L), any());
+    }
+}